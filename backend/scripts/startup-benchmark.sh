@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Mesure du démarrage à froid du backend : temps jusqu'à la première réponse HTTP et RSS.
+#
+# Préparation (PostgreSQL démarré, cf. docker-compose.yml) :
+#   ./mvnw -DskipTests package                 -> mode jvm
+#   ./mvnw -Paot -DskipTests package           -> mode aot
+#   ./mvnw -Pcds -DskipTests package           -> mode cds   (-Paot,cds pour aot-cds)
+#   ./mvnw -Pnative -DskipTests native:compile -> mode native
+#
+# Usage : scripts/startup-benchmark.sh [runs] [modes...]
+#   ex. scripts/startup-benchmark.sh 5 jvm aot cds aot-cds native
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+shift || true
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(jvm aot cds aot-cds native)
+fi
+
+PORT="${PORT:-8080}"
+URL="http://localhost:${PORT}/api/images/test-flask"
+JAR="target/backend-0.0.1-SNAPSHOT.jar"
+CDS_DIR="target/application"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+command_for() {
+    case "$1" in
+        jvm)     echo "$JAVA -jar $JAR" ;;
+        aot)     echo "$JAVA -Dspring.aot.enabled=true -jar $JAR" ;;
+        cds)     echo "$JAVA -XX:SharedArchiveFile=$CDS_DIR/application.jsa -jar $CDS_DIR/$(basename "$JAR")" ;;
+        aot-cds) echo "$JAVA -Dspring.aot.enabled=true -XX:SharedArchiveFile=$CDS_DIR/application.jsa -jar $CDS_DIR/$(basename "$JAR")" ;;
+        native)  echo "target/backend" ;;
+        *)       echo "" ;;
+    esac
+}
+
+available() {
+    case "$1" in
+        jvm|aot)     [ -f "$JAR" ] ;;
+        cds|aot-cds) [ -f "$CDS_DIR/application.jsa" ] ;;
+        native)      [ -x "target/backend" ] ;;
+        *)           return 1 ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+printf "%-8s %4s %12s %10s\n" "mode" "run" "first-req(ms)" "rss(MB)"
+
+for mode in "${MODES[@]}"; do
+    if ! available "$mode"; then
+        echo "$mode : artefact absent, ignoré" >&2
+        continue
+    fi
+    total_ms=0
+    total_rss=0
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        # Toute réponse HTTP (même une erreur Flask) prouve que la pile web répond
+        $(command_for "$mode") --server.port="$PORT" > "target/startup-$mode.log" 2>&1 &
+        pid=$!
+        until curl -s -o /dev/null "$URL"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$mode : le processus s'est arrêté, voir target/startup-$mode.log" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        elapsed=$(( $(now_ms) - start ))
+        rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+
+        printf "%-8s %4d %12d %10d\n" "$mode" "$run" "$elapsed" $(( rss_kb / 1024 ))
+        total_ms=$(( total_ms + elapsed ))
+        total_rss=$(( total_rss + rss_kb ))
+    done
+    printf "%-8s %4s %12d %10d\n" "$mode" "moy" $(( total_ms / RUNS )) $(( total_rss / RUNS / 1024 ))
+done
@@ -0,0 +1,26 @@
+package com.steganoAI.backend.application.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    private List<Long> ids;
+    private LocalDateTime uploadedBefore;
+    private String status;
+    private String username;
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasCriteria() {
+        return uploadedBefore != null || status != null || username != null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.steganoAI.backend.application.dto;
+
+import com.steganoAI.backend.domain.model.ImageCluster;
+import com.steganoAI.backend.domain.model.ImageClusterMemberView;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageClusterDetail {
+    private ImageCluster cluster;
+    private List<ImageClusterMemberView> members;
+}
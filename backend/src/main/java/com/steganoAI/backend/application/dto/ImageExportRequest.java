@@ -0,0 +1,26 @@
+package com.steganoAI.backend.application.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageExportRequest {
+    private String format = "csv";
+    // Colonnes exportées, dans l'ordre ; toutes si vide
+    private List<String> columns;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime uploadedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime uploadedTo;
+    private String status;
+    private String username;
+    private Double minAiConfidence;
+    private Boolean hasSteganography;
+}
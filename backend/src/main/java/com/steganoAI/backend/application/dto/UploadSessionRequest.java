@@ -0,0 +1,16 @@
+package com.steganoAI.backend.application.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+    private String filename;
+    // Taille totale du fichier en octets
+    private Long size;
+    // Taille des blocs souhaitée par le client ; valeur du serveur si absente
+    private Integer chunkSize;
+}
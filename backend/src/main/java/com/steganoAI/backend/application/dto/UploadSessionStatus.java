@@ -0,0 +1,24 @@
+package com.steganoAI.backend.application.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Bloc i : octets [i * chunkSize, min((i + 1) * chunkSize, size)) ; receivedChunks indique quoi renvoyer après coupure
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionStatus {
+    private String id;
+    private String filename;
+    private Long size;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private String status;
+    private List<Integer> receivedChunks;
+    private Long imageId;
+    private LocalDateTime expiresAt;
+}
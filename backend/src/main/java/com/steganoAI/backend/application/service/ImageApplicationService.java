@@ -1,19 +1,65 @@
 package com.steganoAI.backend.application.service;
 
+import com.steganoAI.backend.application.dto.BulkDeleteRequest;
+import com.steganoAI.backend.application.dto.ImageClusterDetail;
+import com.steganoAI.backend.application.dto.ImageExportRequest;
 import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageCluster;
+import com.steganoAI.backend.domain.model.ImageCollectionVersion;
+import com.steganoAI.backend.domain.model.ImageMetadata;
+import com.steganoAI.backend.domain.model.ImageSummary;
+import com.steganoAI.backend.domain.model.ImageVersion;
+import com.steganoAI.backend.domain.model.SignedImageFingerprint;
+import com.steganoAI.backend.domain.model.TileFingerprint;
 import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.domain.service.ImageClusterDomainService;
 import com.steganoAI.backend.domain.service.ImageDomainService;
 import com.steganoAI.backend.domain.service.UserDomainService;
+import com.steganoAI.backend.domain.service.VerificationHistoryDomainService;
+import com.steganoAI.backend.infrastructure.config.IntegrityTilesProperties;
+import com.steganoAI.backend.infrastructure.config.ReadYourWritesTracker;
+import com.steganoAI.backend.infrastructure.service.AnalysisPriority;
+import com.steganoAI.backend.infrastructure.service.AnalysisRejectedException;
+import com.steganoAI.backend.infrastructure.service.AnalysisScheduler;
+import com.steganoAI.backend.infrastructure.service.DirectBufferPool;
 import com.steganoAI.backend.infrastructure.service.FlaskIntegrationService;
+import com.steganoAI.backend.infrastructure.service.GalleryCache;
+import com.steganoAI.backend.infrastructure.service.ImageClusteringJob;
+import com.steganoAI.backend.infrastructure.service.ImageExportService;
+import com.steganoAI.backend.infrastructure.service.ImageHeader;
+import com.steganoAI.backend.infrastructure.service.ImageMetadataExtractor;
+import com.steganoAI.backend.infrastructure.service.ImagePurgeService;
+import com.steganoAI.backend.infrastructure.service.ImageValidationService;
+import com.steganoAI.backend.infrastructure.service.PathMultipartFile;
+import com.steganoAI.backend.infrastructure.service.SignedImage;
+import com.steganoAI.backend.infrastructure.service.TileFingerprinter;
+import com.steganoAI.backend.infrastructure.service.VerificationLogWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.web.PagedModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @Slf4j
@@ -21,18 +67,69 @@ public class ImageApplicationService {
     private final ImageDomainService imageDomainService;
     private final UserDomainService userDomainService;
     private final FlaskIntegrationService flaskService;
+    private final ImagePurgeService imagePurgeService;
+    private final ImageValidationService imageValidationService;
+    private final ImageMetadataExtractor imageMetadataExtractor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final AnalysisScheduler analysisScheduler;
+    private final ImageExportService imageExportService;
+    private final ImageClusterDomainService imageClusterDomainService;
+    private final ImageClusteringJob imageClusteringJob;
+    private final DirectBufferPool bufferPool;
+    private final GalleryCache galleryCache;
+    private final TileFingerprinter tileFingerprinter;
+    private final IntegrityTilesProperties tilesProperties;
+    private final VerificationLogWriter verificationLog;
+    private final VerificationHistoryDomainService verificationHistoryDomainService;
     private final ObjectMapper objectMapper;
 
     public ImageApplicationService(ImageDomainService imageDomainService,
                                  UserDomainService userDomainService,
-                                 FlaskIntegrationService flaskService) {
+                                 FlaskIntegrationService flaskService,
+                                 ImagePurgeService imagePurgeService,
+                                 ImageValidationService imageValidationService,
+                                 ImageMetadataExtractor imageMetadataExtractor,
+                                 ReadYourWritesTracker readYourWrites,
+                                 AnalysisScheduler analysisScheduler,
+                                 ImageExportService imageExportService,
+                                 ImageClusterDomainService imageClusterDomainService,
+                                 ImageClusteringJob imageClusteringJob,
+                                 DirectBufferPool bufferPool,
+                                 GalleryCache galleryCache,
+                                 TileFingerprinter tileFingerprinter,
+                                 IntegrityTilesProperties tilesProperties,
+                                 VerificationLogWriter verificationLog,
+                                 VerificationHistoryDomainService verificationHistoryDomainService) {
         this.imageDomainService = imageDomainService;
         this.userDomainService = userDomainService;
         this.flaskService = flaskService;
+        this.imagePurgeService = imagePurgeService;
+        this.imageValidationService = imageValidationService;
+        this.imageMetadataExtractor = imageMetadataExtractor;
+        this.readYourWrites = readYourWrites;
+        this.analysisScheduler = analysisScheduler;
+        this.imageExportService = imageExportService;
+        this.imageClusterDomainService = imageClusterDomainService;
+        this.imageClusteringJob = imageClusteringJob;
+        this.bufferPool = bufferPool;
+        this.galleryCache = galleryCache;
+        this.tileFingerprinter = tileFingerprinter;
+        this.tilesProperties = tilesProperties;
+        this.verificationLog = verificationLog;
+        this.verificationHistoryDomainService = verificationHistoryDomainService;
         this.objectMapper = new ObjectMapper();
     }
 
-    public Image uploadAndAnalyzeImage(MultipartFile file, String username) {
+    // Refuse en amont les fichiers qui ne sont pas des images exploitables (lève ImageRejectedException)
+    public ImageHeader validateUpload(MultipartFile file) {
+        return imageValidationService.validate(file);
+    }
+
+    // Les appels Flask durent plusieurs secondes : aucune transaction (ni connexion JDBC) ne doit les englober,
+    // chaque accès base passe par une transaction courte du service de domaine
+    // priority : BACKGROUND pour les uploads en masse, qui passent après les demandes unitaires
+    @Transactional(propagation = Propagation.NEVER)
+    public Image uploadAndAnalyzeImage(MultipartFile file, String username, AnalysisPriority priority) {
         try {
             // Récupérer l'utilisateur
             User user = userDomainService.findByUsername(username)
@@ -44,38 +141,114 @@ public class ImageApplicationService {
             image.setUser(user);
             image.setUploadTimestamp(LocalDateTime.now());
             image.setAnalysisStatus("PENDING");
+            String digest = digestOf(file);
+            image.setMd5Hash(digest);
+            // Lue dans les en-têtes (quelques µs) : disponible dès la ligne PENDING, avant la réponse de Flask
+            image.setMetadata(imageMetadataExtractor.extract(file));
 
             Image savedImage = imageDomainService.save(image);
+            // Les listes de l'utilisateur doivent refléter son upload même si la réplique est en retard
+            recordWrite(username);
 
-            // Lancer l'analyse via Flask en arrière-plan
-            try {
-                Map<String, Object> analysisResult = flaskService.uploadAndAnalyzeImage(file);
+            if (priority == AnalysisPriority.BACKGROUND) {
+                return submitInBackground(file, savedImage, username);
+            }
 
-                // Mettre à jour l'image avec les résultats
-                updateImageWithAnalysisResults(savedImage, analysisResult);
-                savedImage.setAnalysisStatus("COMPLETED");
+            CompletableFuture<Map<String, Object>> analysis;
+            try {
+                analysis = analysisScheduler.submit(priority, username,
+                        () -> flaskService.uploadAndAnalyzeImage(file, digest));
+            } catch (AnalysisRejectedException e) {
+                // File de l'utilisateur pleine : l'upload est refusé, pas d'image PENDING orpheline
+                imagePurgeService.purgeByIds(List.of(savedImage.getId()));
+                recordWrite(username);
+                throw e;
+            }
 
+            // Attendre l'analyse Flask (exécutée par l'ordonnanceur)
+            Map<String, Object> analysisResult = null;
+            Throwable error = null;
+            try {
+                analysisResult = AnalysisScheduler.await(analysis);
             } catch (Exception e) {
-                log.error("Erreur lors de l'analyse Flask: {}", e.getMessage());
-                savedImage.setAnalysisStatus("FAILED");
-                savedImage.setAnalysisResults("Erreur: " + e.getMessage());
+                error = e;
             }
+            return completeAnalysis(savedImage, analysisResult, error, username);
 
-            return imageDomainService.save(savedImage);
-
+        } catch (AnalysisRejectedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erreur lors de l'upload d'image: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de l'upload d'image", e);
         }
     }
 
+    // Upload en masse : l'échéance de la classe BACKGROUND (jusqu'à 30 min) ne doit pas bloquer un thread
+    // de requête. Le fichier est copié (la part multipart disparaît avec la requête), l'image est rendue
+    // PENDING tout de suite et l'analyse la complète quand l'ordonnanceur l'exécute
+    private Image submitInBackground(MultipartFile file, Image savedImage, String username) throws IOException {
+        Path staged;
+        try {
+            staged = flaskService.stageFile(file);
+        } catch (IOException | RuntimeException e) {
+            imagePurgeService.purgeByIds(List.of(savedImage.getId()));
+            recordWrite(username);
+            throw e;
+        }
+        PathMultipartFile copy = new PathMultipartFile(staged, file.getOriginalFilename());
+        CompletableFuture<Map<String, Object>> analysis;
+        try {
+            analysis = analysisScheduler.submit(AnalysisPriority.BACKGROUND, username,
+                    () -> flaskService.uploadAndAnalyzeImage(copy, savedImage.getMd5Hash()));
+        } catch (AnalysisRejectedException e) {
+            flaskService.deleteStagedFile(staged);
+            imagePurgeService.purgeByIds(List.of(savedImage.getId()));
+            recordWrite(username);
+            throw e;
+        }
+        analysis.whenComplete((result, error) -> {
+            try {
+                // Image supprimée entre-temps : ne pas la recréer
+                if (imageDomainService.existsById(savedImage.getId())) {
+                    completeAnalysis(savedImage, result, error, username);
+                }
+            } catch (RuntimeException e) {
+                log.error("Enregistrement de l'analyse de l'image {} impossible: {}", savedImage.getId(), e.getMessage());
+            } finally {
+                flaskService.deleteStagedFile(staged);
+            }
+        });
+        return savedImage;
+    }
+
+    private Image completeAnalysis(Image savedImage, Map<String, Object> analysisResult, Throwable error,
+                                   String username) {
+        if (error == null) {
+            // Mettre à jour l'image avec les résultats
+            updateImageWithAnalysisResults(savedImage, analysisResult);
+            savedImage.setAnalysisStatus("COMPLETED");
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            log.error("Erreur lors de l'analyse Flask: {}", cause.getMessage());
+            savedImage.setAnalysisStatus("FAILED");
+            savedImage.setAnalysisResults("Erreur: " + cause.getMessage());
+        }
+
+        Image analyzedImage = imageDomainService.save(savedImage);
+        recordWrite(username);
+        return analyzedImage;
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
     public Image addSteganographyToImage(MultipartFile file, String signature, String username) {
         try {
             User user = userDomainService.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
             // Appeler Flask pour ajouter la stéganographie
-            Map<String, Object> result = flaskService.addSteganography(file, signature);
+            SignedImage signed = analysisScheduler.execute(AnalysisPriority.UPLOAD, username,
+                    () -> flaskService.addSteganography(file, signature));
 
             // Créer l'entrée en base
             Image image = new Image();
@@ -84,36 +257,150 @@ public class ImageApplicationService {
             image.setUploadTimestamp(LocalDateTime.now());
             image.setHasSteganography(true);
             image.setAnalysisStatus("COMPLETED");
+            image.setMetadata(imageMetadataExtractor.extract(file));
+            // Empreintes de l'image signée renvoyée par Flask, pas de l'original : seul le fichier signé
+            // vérifié à l'identique prouve la présence de la signature
+            if (signed.content() != null) {
+                image.setMd5Hash(digestOf(new ByteArrayInputStream(signed.content()), file.getOriginalFilename()));
+                TileFingerprint fingerprint = fingerprintOf(new ByteArrayInputStream(signed.content()),
+                        file.getOriginalFilename());
+                if (fingerprint != null) {
+                    image.setTileFingerprints(fingerprint.encode());
+                    image.setFingerprintHash(fingerprint.imageHash());
+                }
+            }
 
-            updateImageWithAnalysisResults(image, result);
+            updateImageWithAnalysisResults(image, signed.response());
 
-            return imageDomainService.save(image);
+            Image savedImage = imageDomainService.save(image);
+            recordWrite(username);
+            return savedImage;
 
+        } catch (AnalysisRejectedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erreur lors de l'ajout de stéganographie: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de l'ajout de stéganographie", e);
         }
     }
 
-    public Map<String, Object> verifyImageIntegrity(MultipartFile file) {
+    @Transactional(propagation = Propagation.NEVER)
+    public Map<String, Object> verifyImageIntegrity(MultipartFile file, String username) {
         try {
-            return flaskService.verifyIntegrity(file);
+            long start = System.nanoTime();
+            String digest = digestOf(file);
+            Map<String, Object> tiles = verifyAgainstSignedImages(file, digest, username);
+            Map<String, Object> result = tiles;
+            if (tiles == null || !tiles.containsKey("signatures_match")) {
+                // L'utilisateur attend la réponse : passe devant les uploads en file
+                result = new LinkedHashMap<>(analysisScheduler.execute(AnalysisPriority.INTERACTIVE, username,
+                        () -> flaskService.verifyIntegrity(file, digest)));
+                // Image connue : le verdict sur la signature reste celui de Flask, les tuiles localisent les retouches
+                if (tiles != null) {
+                    result.putAll(tiles);
+                }
+            }
+            recordVerification(username, file.getOriginalFilename(), digest, result, start);
+            return result;
+        } catch (AnalysisRejectedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erreur lors de la vérification d'intégrité: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la vérification d'intégrité", e);
         }
     }
 
-    public List<Image> getUserImages(String username) {
+    // Vérification relayée en flux (pile réactive) : verdict de Flask journalisé comme sur la pile servlet
+    public void recordStreamedVerification(String username, String filename, String digest,
+                                           Map<String, Object> result, long startNanos) {
+        recordVerification(username, filename, digest, result, startNanos);
+    }
+
+    // Upload relayé en flux (pile réactive) : ligne PENDING avant le transfert, complétée à la réponse de Flask
+    public Image startStreamedUpload(String filename, String username) {
         User user = userDomainService.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-        return imageDomainService.getImagesByUser(user);
+
+        Image image = new Image();
+        image.setFilename(filename);
+        image.setUser(user);
+        image.setUploadTimestamp(LocalDateTime.now());
+        image.setAnalysisStatus("PENDING");
+
+        Image savedImage = imageDomainService.save(image);
+        recordWrite(username);
+        return savedImage;
+    }
+
+    public Image finishStreamedUpload(Image image, String digest, ImageMetadata metadata,
+                                      Map<String, Object> analysisResult, Throwable error) {
+        image.setMd5Hash(digest);
+        image.setMetadata(metadata);
+        if (error == null) {
+            updateImageWithAnalysisResults(image, analysisResult);
+            image.setAnalysisStatus("COMPLETED");
+        } else {
+            log.error("Erreur lors de l'analyse Flask: {}", error.getMessage());
+            image.setAnalysisStatus("FAILED");
+            image.setAnalysisResults("Erreur: " + error.getMessage());
+        }
+
+        Image analyzedImage = imageDomainService.save(image);
+        recordWrite(image.getUser().getUsername());
+        return analyzedImage;
+    }
+
+    // Fichier refusé en cours de transfert : la ligne PENDING n'a pas lieu d'être (aucun fichier côté Flask)
+    public void discardStreamedUpload(Image image) {
+        imageDomainService.deleteImage(image.getId());
+        recordWrite(image.getUser().getUsername());
+    }
+
+    // Une seule requête : images et propriétaire par jointure, sans charger l'utilisateur au préalable
+    public List<Image> getUserImages(String username) {
+        return imageDomainService.getImagesByUsername(username);
+    }
+
+    // Période [from, to[ ; une borne absente laisse la période ouverte de ce côté
+    public List<Image> getUserImages(String username, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return getUserImages(username);
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusYears(100);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Période invalide: from doit précéder to");
+        }
+        return imageDomainService.getImagesByUsername(username, start, end);
+    }
+
+    // Toutes les images de l'utilisateur en JSON déjà sérialisé, gardées comme les pages de galerie
+    public GalleryCache.CachedPage getUserImagesJson(String username) {
+        return galleryCache.getAll(username, () -> imageDomainService.getImagesByUsername(username));
+    }
+
+    // Page de galerie en JSON déjà sérialisé, servie depuis GalleryCache tant que l'utilisateur n'écrit pas
+    public GalleryCache.CachedPage getUserGalleryPage(String username, int page, int size) {
+        return galleryCache.get(username, page, size,
+                () -> new PagedModel<>(imageDomainService.getImageSummariesByUsername(username, page, size)));
+    }
+
+    public ImageCollectionVersion getUserImagesVersion(String username) {
+        return imageDomainService.getImagesVersionByUsername(username);
     }
 
     public List<Image> getAllImages() {
         return imageDomainService.getAllImages();
     }
 
+    public ImageCollectionVersion getAllImagesVersion() {
+        return imageDomainService.getAllImagesVersion();
+    }
+
+    public Optional<ImageVersion> getImageVersion(Long id) {
+        return imageDomainService.getImageVersion(id);
+    }
+
     public Optional<Image> getImageById(Long id) {
         return imageDomainService.getImageById(id);
     }
@@ -138,13 +425,228 @@ public class ImageApplicationService {
             throw new RuntimeException("Accès refusé");
         }
 
-        imageDomainService.deleteImage(id);
+        // Supprime la ligne et le fichier associé
+        imagePurgeService.purgeByIds(List.of(id));
+        readYourWrites.recordWrite(username);
+        // Suppression par un admin : c'est la galerie du propriétaire qui change
+        galleryCache.invalidate(image.getUser().getUsername());
+    }
+
+    // Images de plusieurs utilisateurs : toutes les galeries en cache sont écartées
+    public int bulkDeleteImages(BulkDeleteRequest request) {
+        int deleted;
+        if (request.hasIds()) {
+            deleted = imagePurgeService.purgeByIds(request.getIds());
+        } else if (!request.hasCriteria()) {
+            throw new IllegalArgumentException("Aucun critère de suppression fourni");
+        } else {
+            deleted = imagePurgeService.purge(request.getUploadedBefore(), request.getStatus(), request.getUsername());
+        }
+        if (deleted > 0) {
+            galleryCache.clear();
+        }
+        return deleted;
+    }
+
+    // Valide colonnes, format et filtres (lève IllegalArgumentException) avant le début de l'écriture
+    public ImageExportService.ExportQuery prepareExport(ImageExportRequest request) {
+        return imageExportService.prepare(request);
+    }
+
+    public long exportImages(ImageExportService.ExportQuery query, OutputStream out) {
+        return imageExportService.export(query, out);
+    }
+
+    // Faux si un regroupement est déjà en cours
+    public boolean startClustering() {
+        return imageClusteringJob.start();
+    }
+
+    public ImageClusteringJob.Status getClusteringStatus() {
+        return imageClusteringJob.getStatus();
+    }
+
+    public PagedModel<ImageCluster> getClusters(int page, int size) {
+        return new PagedModel<>(imageClusterDomainService.getClusters(page, size));
+    }
+
+    public Optional<ImageClusterDetail> getClusterDetail(Long id) {
+        return imageClusterDomainService.getCluster(id)
+                .map(cluster -> new ImageClusterDetail(cluster, imageClusterDomainService.getClusterMembers(id)));
+    }
+
+    public PagedModel<VerificationRecord> getVerificationHistory(String username, int page, int size) {
+        return new PagedModel<>(verificationHistoryDomainService.getByUsername(username, page, size));
+    }
+
+    public PagedModel<VerificationRecord> getImageVerificationHistory(Long imageId, int page, int size) {
+        return new PagedModel<>(verificationHistoryDomainService.getBySignedImage(imageId, page, size));
     }
 
     public Map<String, Object> testFlaskConnection() {
         return flaskService.testFlaskConnection();
     }
 
+    public List<Map<String, Object>> getFlaskEndpoints() {
+        return flaskService.getEndpointStatuses();
+    }
+
+    public String getFlaskUrl() {
+        return flaskService.getPrimaryUrl();
+    }
+
+    // Écriture sur les images d'un utilisateur : lectures sur la base principale et galerie en cache écartée
+    private void recordWrite(String username) {
+        readYourWrites.recordWrite(username);
+        galleryCache.invalidate(username);
+    }
+
+    // Déposé dans le journal écrit en différé : aucune écriture en base sur le chemin de la réponse
+    private void recordVerification(String username, String filename, String digest, Map<String, Object> result,
+                                    long startNanos) {
+        VerificationRecord record = new VerificationRecord();
+        record.setUsername(username);
+        record.setFilename(filename);
+        record.setMd5Hash(digest);
+        record.setMode("tiles".equals(result.get("verification_mode")) ? "tiles" : "flask");
+        if (result.get("signed_image_id") instanceof Number id) {
+            record.setSignedImageId(id.longValue());
+        }
+        if (result.get("tampered") instanceof Boolean tampered) {
+            record.setTampered(tampered);
+        }
+        if (result.get("signatures_match") instanceof Boolean match) {
+            record.setSignaturesMatch(match);
+        }
+        if (result.get("modified_tiles") instanceof Number tiles) {
+            record.setModifiedTiles(tiles.intValue());
+        }
+        record.setDurationMs((System.nanoTime() - startNanos) / 1_000_000);
+        record.setVerifiedAt(LocalDateTime.now());
+        verificationLog.append(record);
+    }
+
+    // Image signée connue de l'utilisateur : comparaison des tuiles en Java. Seul le fichier signé lui-même
+    // (même MD5) reçoit un verdict sans Flask ; sinon les tuiles disent seulement quelle image et quelles
+    // régions diffèrent, la signature est confirmée par Flask (l'original non signé a les mêmes tuiles).
+    // Null si aucune image signée ne correspond ou si l'image est illisible
+    private Map<String, Object> verifyAgainstSignedImages(MultipartFile file, String digest, String username) {
+        if (!tilesProperties.isEnabled()) {
+            return null;
+        }
+        List<SignedImageFingerprint> candidates = imageDomainService.getSignedFingerprintsByUsername(username);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        // Fichier identique à celui signé : aucune tuile à décoder ni comparer
+        for (SignedImageFingerprint candidate : candidates) {
+            if (digest != null && digest.equals(candidate.md5Hash())) {
+                Optional<TileFingerprint> signed = imageDomainService.getTileFingerprint(candidate.id());
+                if (signed.isPresent()) {
+                    TileFingerprint grid = signed.get();
+                    Map<String, Object> result = tileVerification(candidate.id(), grid,
+                            grid.compare(grid, tilesProperties.getTileThreshold()));
+                    result.put("tampered", false);
+                    result.put("signatures_match", true);
+                    return result;
+                }
+            }
+        }
+
+        TileFingerprint current = fingerprintOf(file);
+        if (current == null) {
+            return null;
+        }
+        SignedImageFingerprint closest = candidates.stream()
+                .min(Comparator.comparingInt(c -> Long.bitCount(c.fingerprintHash() ^ current.imageHash())))
+                .orElseThrow();
+        if (Long.bitCount(closest.fingerprintHash() ^ current.imageHash()) > tilesProperties.getMatchThreshold()) {
+            return null;
+        }
+        return imageDomainService.getTileFingerprint(closest.id())
+                .filter(signed -> signed.isComparableTo(current))
+                .map(signed -> tileVerification(closest.id(), current,
+                        signed.compare(current, tilesProperties.getTileThreshold())))
+                .orElse(null);
+    }
+
+    // Carte de chaleur : part de bits différents par tuile (0 à 1) ; régions en pixels de l'image vérifiée
+    private Map<String, Object> tileVerification(Long signedImageId, TileFingerprint verified,
+                                                 TileFingerprint.Comparison comparison) {
+        int rows = verified.rows();
+        int cols = verified.cols();
+        List<List<Double>> heatmap = new ArrayList<>(rows);
+        List<Map<String, Object>> regions = new ArrayList<>();
+        boolean identical = true;
+        for (int row = 0; row < rows; row++) {
+            List<Double> heat = new ArrayList<>(cols);
+            for (int col = 0; col < cols; col++) {
+                int distance = comparison.distances()[row * cols + col];
+                heat.add(distance / 64.0);
+                identical &= distance == 0;
+                if (distance > tilesProperties.getTileThreshold()) {
+                    int x = (int) ((long) col * verified.width() / cols);
+                    int y = (int) ((long) row * verified.height() / rows);
+                    regions.add(Map.of("x", x, "y", y,
+                            "width", (int) ((long) (col + 1) * verified.width() / cols) - x,
+                            "height", (int) ((long) (row + 1) * verified.height() / rows) - y));
+                }
+            }
+            heatmap.add(heat);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("verification_mode", "tiles");
+        result.put("signed_image_id", signedImageId);
+        result.put("identical", identical);
+        result.put("modified_tiles", comparison.modifiedTiles());
+        result.put("grid", Map.of("rows", rows, "cols", cols));
+        result.put("heatmap", heatmap);
+        result.put("modified_regions", regions);
+        return result;
+    }
+
+    private TileFingerprint fingerprintOf(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return fingerprintOf(in, file.getOriginalFilename());
+        } catch (IOException e) {
+            log.warn("Empreintes par tuile impossibles pour {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    private TileFingerprint fingerprintOf(InputStream in, String filename) {
+        if (!tilesProperties.isEnabled()) {
+            return null;
+        }
+        try {
+            return tileFingerprinter.fingerprint(in);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Empreintes par tuile impossibles pour {}: {}", filename, e.getMessage());
+            return null;
+        }
+    }
+
+    private String digestOf(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return digestOf(in, file.getOriginalFilename());
+        } catch (IOException e) {
+            log.warn("Impossible de calculer l'empreinte de {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String digestOf(InputStream in, String filename) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            bufferPool.update(md5, in);
+            return HexFormat.of().formatHex(md5.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("Impossible de calculer l'empreinte de {}: {}", filename, e.getMessage());
+            return null;
+        }
+    }
+
     private void updateImageWithAnalysisResults(Image image, Map<String, Object> analysisResult) {
         try {
             // Extraire les informations importantes du résultat Flask
@@ -0,0 +1,209 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageMetadata;
+import com.steganoAI.backend.infrastructure.config.ReactiveProxyProperties;
+import com.steganoAI.backend.infrastructure.service.AnalysisRejectedException;
+import com.steganoAI.backend.infrastructure.service.ImageMetadataExtractor;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException;
+import com.steganoAI.backend.infrastructure.service.ImageValidationService;
+import com.steganoAI.backend.infrastructure.service.ReactiveFlaskClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Upload et vérification sur la pile réactive : le fichier est relayé vers Flask morceau par morceau
+// (contrôle de l'en-tête, taille et empreinte MD5 au passage), la base est appelée via un pool de threads dédié.
+// Contrairement à ImageApplicationService : pas de contrôle de fin de fichier (seul l'en-tête est lu),
+// pas d'AnalysisScheduler (max-in-flight borne les transferts) ni d'Idempotency-Key, pas de comparaison par tuiles
+// à la vérification.
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveImageApplicationService {
+    private final ImageApplicationService imageApplicationService;
+    private final ImageValidationService imageValidationService;
+    private final ImageMetadataExtractor imageMetadataExtractor;
+    private final ReactiveFlaskClient flaskClient;
+    private final ReactiveProxyProperties properties;
+    private final Scheduler jpaScheduler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ReactiveImageApplicationService(ImageApplicationService imageApplicationService,
+                                           ImageValidationService imageValidationService,
+                                           ImageMetadataExtractor imageMetadataExtractor,
+                                           ReactiveFlaskClient flaskClient,
+                                           ReactiveProxyProperties properties,
+                                           Scheduler jpaScheduler,
+                                           MeterRegistry meterRegistry) {
+        this.imageApplicationService = imageApplicationService;
+        this.imageValidationService = imageValidationService;
+        this.imageMetadataExtractor = imageMetadataExtractor;
+        this.flaskClient = flaskClient;
+        this.properties = properties;
+        this.jpaScheduler = jpaScheduler;
+        Gauge.builder("reactive.proxy.in.flight", inFlight, AtomicInteger::get)
+                .description("Uploads et vérifications en cours de transfert vers Flask")
+                .register(meterRegistry);
+    }
+
+    public Mono<Image> uploadAndAnalyzeImage(String filename, MediaType contentType, Flux<DataBuffer> content,
+                                             String username) {
+        return withPermit(Mono.defer(() -> {
+            StreamedFile file = new StreamedFile(filename);
+            return blocking(() -> imageApplicationService.startStreamedUpload(filename, username))
+                    .flatMap(image -> flaskClient.uploadAndAnalyzeImage(filename, contentType, file.inspect(content))
+                            .flatMap(result -> blocking(() ->
+                                    imageApplicationService.finishStreamedUpload(image, file.digest(), file.metadata, result, null)))
+                            .onErrorResume(e -> file.rejection == null, e -> blocking(() ->
+                                    imageApplicationService.finishStreamedUpload(image, file.digest(), file.metadata, null, e)))
+                            .onErrorResume(e -> file.rejection != null, e -> blocking(() -> {
+                                imageApplicationService.discardStreamedUpload(image);
+                                return image;
+                            }).then(Mono.error(file.rejection))));
+        }));
+    }
+
+    // Pas de comparaison par tuiles (le fichier n'est pas gardé) : toujours journalisée en mode flask
+    public Mono<Map<String, Object>> verifyImageIntegrity(String filename, MediaType contentType, Flux<DataBuffer> content,
+                                                          String username) {
+        return withPermit(Mono.defer(() -> {
+            long start = System.nanoTime();
+            StreamedFile file = new StreamedFile(filename);
+            return flaskClient.verifyIntegrity(filename, contentType, file.inspect(content))
+                    .onErrorMap(e -> file.rejection != null, e -> file.rejection)
+                    // Dépôt dans la file du journal, sans accès à la base
+                    .doOnNext(result -> imageApplicationService.recordStreamedVerification(username, filename,
+                            file.digest(), result, start));
+        }));
+    }
+
+    // Au-delà de maxInFlight transferts simultanés, refus immédiat plutôt qu'une file sans fin
+    private <T> Mono<T> withPermit(Mono<T> work) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > properties.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                return Mono.error(new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL,
+                        "Trop de transferts en cours, réessayez plus tard"));
+            }
+            return work.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(jpaScheduler);
+    }
+
+    // État d'un fichier en transit : en-tête accumulé jusqu'à HEADER_SIZE octets puis validé,
+    // empreinte calculée sur chaque morceau avant qu'il ne parte vers Flask
+    private final class StreamedFile {
+        private final String filename;
+        private final MessageDigest md5;
+        private final byte[] header = new byte[ImageValidationService.HEADER_SIZE];
+        private int headerLength;
+        private long received;
+        private boolean validated;
+        private ImageMetadata metadata;
+        private volatile ImageRejectedException rejection;
+
+        private StreamedFile(String filename) {
+            this.filename = filename;
+            try {
+                this.md5 = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Flux<DataBuffer> inspect(Flux<DataBuffer> content) {
+            return content
+                    // Demande bornée au client : au plus `prefetch` morceaux en attente d'envoi vers Flask
+                    .limitRate(Math.max(1, properties.getPrefetch()))
+                    .handle(this::checkSize)
+                    .bufferUntil(this::captureHeader)
+                    .concatMap(buffers -> {
+                        if (!validated) {
+                            try {
+                                validate();
+                            } catch (ImageRejectedException e) {
+                                buffers.forEach(DataBufferUtils::release);
+                                return Flux.error(e);
+                            }
+                        }
+                        buffers.forEach(this::digest);
+                        return Flux.fromIterable(buffers);
+                    })
+                    .concatWith(Mono.defer(() -> {
+                        if (!validated) {
+                            // Flux vide
+                            validate();
+                        }
+                        return Mono.empty();
+                    }));
+        }
+
+        // Le flux de PartEvent n'a pas de limite de taille : le transfert est interrompu au-delà de max-file-size
+        private void checkSize(DataBuffer buffer, SynchronousSink<DataBuffer> sink) {
+            received += buffer.readableByteCount();
+            if (received > properties.getMaxFileSize().toBytes()) {
+                DataBufferUtils.release(buffer);
+                rejection = new ImageRejectedException(ImageRejectedException.Reason.TOO_LARGE,
+                        "Fichier trop volumineux (max " + properties.getMaxFileSize() + ")");
+                sink.error(rejection);
+                return;
+            }
+            sink.next(buffer);
+        }
+
+        // Vrai dès que l'en-tête est complet : chaque morceau suivant est transmis sans attendre
+        private boolean captureHeader(DataBuffer buffer) {
+            int length = Math.min(buffer.readableByteCount(), header.length - headerLength);
+            if (length > 0) {
+                buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(header), headerLength, length);
+                headerLength += length;
+            }
+            return headerLength == header.length;
+        }
+
+        private void validate() {
+            validated = true;
+            try {
+                imageValidationService.validateHeader(filename, header, headerLength);
+                // Seuls les HEADER_SIZE premiers octets sont gardés : un EXIF plus loin n'est pas lu
+                metadata = imageMetadataExtractor.extract(header, headerLength, -1);
+            } catch (ImageRejectedException e) {
+                rejection = e;
+                throw e;
+            }
+        }
+
+        private void digest(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    md5.update(chunks.next());
+                }
+            }
+        }
+
+        private String digest() {
+            return HexFormat.of().formatHex(md5.digest());
+        }
+    }
+}
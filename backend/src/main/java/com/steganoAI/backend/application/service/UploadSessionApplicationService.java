@@ -0,0 +1,252 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.application.dto.UploadSessionRequest;
+import com.steganoAI.backend.application.dto.UploadSessionStatus;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.UploadSession;
+import com.steganoAI.backend.domain.model.UploadUsage;
+import com.steganoAI.backend.domain.service.UploadSessionDomainService;
+import com.steganoAI.backend.infrastructure.config.ChunkedUploadProperties;
+import com.steganoAI.backend.infrastructure.service.AnalysisPriority;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException;
+import com.steganoAI.backend.infrastructure.service.ImageValidationService;
+import com.steganoAI.backend.infrastructure.service.PathMultipartFile;
+import com.steganoAI.backend.infrastructure.service.UploadChunkStorage;
+import com.steganoAI.backend.infrastructure.service.UploadSessionException;
+import com.steganoAI.backend.infrastructure.service.UploadSessionException.Reason;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Uploads reprenables : session créée avec la taille totale, blocs envoyés dans n'importe quel ordre
+// (éventuellement en parallèle), puis finalisation qui passe le fichier assemblé au flux d'analyse habituel
+@Service
+@Slf4j
+public class UploadSessionApplicationService {
+    private final UploadSessionDomainService uploadSessionDomainService;
+    private final ImageApplicationService imageApplicationService;
+    private final ImageValidationService imageValidationService;
+    private final UploadChunkStorage storage;
+    private final ChunkedUploadProperties properties;
+
+    public UploadSessionApplicationService(UploadSessionDomainService uploadSessionDomainService,
+                                           ImageApplicationService imageApplicationService,
+                                           ImageValidationService imageValidationService,
+                                           UploadChunkStorage storage,
+                                           ChunkedUploadProperties properties) {
+        this.uploadSessionDomainService = uploadSessionDomainService;
+        this.imageApplicationService = imageApplicationService;
+        this.imageValidationService = imageValidationService;
+        this.storage = storage;
+        this.properties = properties;
+    }
+
+    public UploadSessionStatus createUpload(UploadSessionRequest request, String username) {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new UploadSessionException(Reason.INVALID_REQUEST, "Nom de fichier manquant");
+        }
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new UploadSessionException(Reason.INVALID_REQUEST, "Taille de fichier invalide");
+        }
+        if (request.getSize() > properties.getMaxFileSize().toBytes()) {
+            throw new UploadSessionException(Reason.TOO_LARGE,
+                    "Fichier trop volumineux (max " + properties.getMaxFileSize().toMegabytes() + " Mo)");
+        }
+        long chunkSize = request.getChunkSize() != null
+                ? request.getChunkSize()
+                : properties.getDefaultChunkSize().toBytes();
+        if (chunkSize < properties.getMinChunkSize().toBytes() || chunkSize > properties.getMaxChunkSize().toBytes()) {
+            throw new UploadSessionException(Reason.INVALID_REQUEST, "Taille de bloc invalide: " + chunkSize
+                    + " (entre " + properties.getMinChunkSize().toBytes()
+                    + " et " + properties.getMaxChunkSize().toBytes() + " octets)");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        checkQuota(username, request.getSize(), now);
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setUsername(username);
+        session.setFilename(request.getFilename());
+        session.setTotalSize(request.getSize());
+        session.setChunkSize((int) chunkSize);
+        session.setChunkCount((int) ((request.getSize() + chunkSize - 1) / chunkSize));
+        session.setStatus(UploadSessionDomainService.UPLOADING);
+        session.setCreatedAt(now);
+        session.setUpdatedAt(now);
+        session.setExpiresAt(now.plus(properties.getSessionTtl()));
+
+        try {
+            storage.allocate(session.getId(), session.getTotalSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de réserver le fichier de l'upload", e);
+        }
+        try {
+            return toStatus(uploadSessionDomainService.create(session), List.of());
+        } catch (RuntimeException e) {
+            storage.delete(session.getId());
+            throw e;
+        }
+    }
+
+    public UploadSessionStatus getUpload(String id, String username) {
+        UploadSession session = find(id, username);
+        return toStatus(session, uploadSessionDomainService.getReceivedChunks(id));
+    }
+
+    // Bloc écrit à sa position, synchronisé, puis enregistré : un bloc déclaré reçu est sur disque.
+    // Le premier bloc porte l'en-tête de l'image : un fichier qui n'en est pas une est refusé dès ce bloc.
+    @Transactional(propagation = Propagation.NEVER)
+    public void writeChunk(String id, String username, int index, InputStream body) {
+        UploadSession session = find(id, username);
+        if (!UploadSessionDomainService.UPLOADING.equals(session.getStatus())) {
+            throw new UploadSessionException(Reason.CONFLICT, "Upload déjà finalisé");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new UploadSessionException(Reason.NOT_FOUND, "Upload expiré");
+        }
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new UploadSessionException(Reason.INVALID_CHUNK,
+                    "Bloc " + index + " hors limites (0 à " + (session.getChunkCount() - 1) + ")");
+        }
+        long offset = (long) index * session.getChunkSize();
+        long length = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        try {
+            storage.write(id, offset, length, body);
+        } catch (IOException e) {
+            throw chunkFailure(session, "Écriture du bloc " + index + " impossible", e);
+        }
+        if (index == 0) {
+            validateHeader(session, (int) Math.min(length, ImageValidationService.HEADER_SIZE));
+        }
+        uploadSessionDomainService.recordChunk(id, index, (int) length);
+        // Abandon ou expiration pendant le transfert : le bloc est allé dans un fichier supprimé
+        if (!uploadSessionDomainService.exists(id)) {
+            uploadSessionDomainService.delete(id);
+            throw new UploadSessionException(Reason.NOT_FOUND, "Upload abandonné ou expiré");
+        }
+    }
+
+    // Idempotent : une session déjà finalisée renvoie l'image créée la première fois
+    @Transactional(propagation = Propagation.NEVER)
+    public Image completeUpload(String id, String username, AnalysisPriority priority) {
+        UploadSession session = find(id, username);
+        if (UploadSessionDomainService.COMPLETED.equals(session.getStatus())) {
+            return imageApplicationService.getImageById(session.getImageId())
+                    .orElseThrow(() -> new UploadSessionException(Reason.NOT_FOUND, "Image de l'upload supprimée"));
+        }
+        List<Integer> missing = missingChunks(session);
+        if (!missing.isEmpty()) {
+            throw new UploadSessionException(Reason.INCOMPLETE, missing.size() + " bloc(s) manquant(s): "
+                    + missing.subList(0, Math.min(missing.size(), 20)));
+        }
+        if (!uploadSessionDomainService.transition(id, UploadSessionDomainService.UPLOADING,
+                UploadSessionDomainService.COMPLETING)) {
+            throw new UploadSessionException(Reason.CONFLICT, "Finalisation déjà en cours");
+        }
+
+        PathMultipartFile file = new PathMultipartFile(storage.path(id), session.getFilename());
+        Image image;
+        try {
+            imageApplicationService.validateUpload(file);
+            image = imageApplicationService.uploadAndAnalyzeImage(file, username, priority);
+        } catch (ImageRejectedException e) {
+            discard(id);
+            throw e;
+        } catch (RuntimeException e) {
+            // File d'analyse pleine, erreur base... : les blocs sont gardés, /complete peut être relancé
+            uploadSessionDomainService.transition(id, UploadSessionDomainService.COMPLETING,
+                    UploadSessionDomainService.UPLOADING);
+            throw e;
+        }
+
+        uploadSessionDomainService.markCompleted(session, image.getId());
+        storage.delete(id);
+        return image;
+    }
+
+    public void abortUpload(String id, String username) {
+        find(id, username);
+        discard(id);
+    }
+
+    private void validateHeader(UploadSession session, int length) {
+        byte[] header = new byte[length];
+        try {
+            int read = storage.read(session.getId(), 0, header);
+            imageValidationService.validateHeader(session.getFilename(), header, read);
+        } catch (IOException e) {
+            throw chunkFailure(session, "Lecture de l'en-tête impossible", e);
+        } catch (ImageRejectedException e) {
+            discard(session.getId());
+            throw e;
+        }
+    }
+
+    // Limite souple : deux créations simultanées du même utilisateur peuvent la dépasser d'une session
+    private void checkQuota(String username, long size, LocalDateTime now) {
+        int maxSessions = properties.getMaxOpenSessionsPerUser();
+        long maxBytes = properties.getMaxReservedPerUser().toBytes();
+        if (maxSessions <= 0 && maxBytes <= 0) {
+            return;
+        }
+        UploadUsage usage = uploadSessionDomainService.getOpenUsage(username, now);
+        if (maxSessions > 0 && usage.sessions() >= maxSessions) {
+            throw new UploadSessionException(Reason.QUOTA_EXCEEDED,
+                    "Trop d'uploads en cours (max " + maxSessions + "), terminer ou abandonner un upload");
+        }
+        if (maxBytes > 0 && usage.reservedBytes() + size > maxBytes) {
+            throw new UploadSessionException(Reason.QUOTA_EXCEEDED,
+                    "Espace réservé par les uploads en cours dépassé (max " + properties.getMaxReservedPerUser().toMegabytes() + " Mo)");
+        }
+    }
+
+    // Fichier supprimé entre la lecture de la session et l'accès disque : upload abandonné ou expiré (404)
+    private RuntimeException chunkFailure(UploadSession session, String message, IOException e) {
+        if (e instanceof NoSuchFileException && !uploadSessionDomainService.exists(session.getId())) {
+            return new UploadSessionException(Reason.NOT_FOUND, "Upload abandonné ou expiré");
+        }
+        return new UncheckedIOException(message, e);
+    }
+
+    private List<Integer> missingChunks(UploadSession session) {
+        if (uploadSessionDomainService.countReceivedChunks(session.getId()) == session.getChunkCount()) {
+            return List.of();
+        }
+        Set<Integer> received = new HashSet<>(uploadSessionDomainService.getReceivedChunks(session.getId()));
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            if (!received.contains(i)) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    private void discard(String id) {
+        uploadSessionDomainService.delete(id);
+        storage.delete(id);
+    }
+
+    private UploadSession find(String id, String username) {
+        return uploadSessionDomainService.find(id, username)
+                .orElseThrow(() -> new UploadSessionException(Reason.NOT_FOUND, "Upload introuvable"));
+    }
+
+    private static UploadSessionStatus toStatus(UploadSession session, List<Integer> receivedChunks) {
+        return new UploadSessionStatus(session.getId(), session.getFilename(), session.getTotalSize(),
+                session.getChunkSize(), session.getChunkCount(), session.getStatus(), receivedChunks,
+                session.getImageId(), session.getExpiresAt());
+    }
+}
@@ -2,6 +2,7 @@ package com.steganoAI.backend.application.service;
 
 import com.steganoAI.backend.domain.model.User;
 import com.steganoAI.backend.domain.service.UserDomainService;
+import com.steganoAI.backend.infrastructure.config.ReadYourWritesTracker;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -11,10 +12,13 @@ import java.util.Optional;
 public class UserApplicationService {
     private final UserDomainService userDomainService;
     private final PasswordEncoder passwordEncoder;
+    private final ReadYourWritesTracker readYourWrites;
 
-    public UserApplicationService(UserDomainService userDomainService, PasswordEncoder passwordEncoder) {
+    public UserApplicationService(UserDomainService userDomainService, PasswordEncoder passwordEncoder,
+                                  ReadYourWritesTracker readYourWrites) {
         this.userDomainService = userDomainService;
         this.passwordEncoder = passwordEncoder;
+        this.readYourWrites = readYourWrites;
     }
 
     public List<User> getAllUsers() {
@@ -27,7 +31,11 @@ public class UserApplicationService {
 
     public User createUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userDomainService.save(user);
+        User created = userDomainService.save(user);
+        // Connexion et premier upload juste après la création : le compte est lu sur la primaire,
+        // la réplique peut ne pas l'avoir encore
+        readYourWrites.recordWrite(created.getUsername());
+        return created;
     }
 
     public void deleteUser(Long id) {
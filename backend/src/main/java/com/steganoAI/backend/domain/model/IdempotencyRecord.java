@@ -0,0 +1,59 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Requête rejouable (en-tête Idempotency-Key) : marqueur IN_PROGRESS pendant l'exécution, puis réponse stockée.
+// La contrainte d'unicité désigne un seul exécutant entre instances ; la ligne est purgée après expires_at
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_key",
+                columnNames = {"username", "endpoint", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false, length = 32)
+    private String endpoint;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // Empreinte du fichier et des paramètres : une clé réutilisée pour une autre requête est refusée
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    private String status; // IN_PROGRESS, COMPLETED
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    // En-tête Location de la réponse (202 d'un upload en masse), rejoué avec elle
+    @Column(name = "response_location", length = 2048)
+    private String responseLocation;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // IN_PROGRESS : exécutant présumé arrêté au-delà ; COMPLETED : fin de la fenêtre de rejeu
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
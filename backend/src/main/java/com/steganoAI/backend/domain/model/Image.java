@@ -1,13 +1,20 @@
 package com.steganoAI.backend.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.PartitionKey;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = @Index(name = "idx_images_user_upload", columnList = "user_id, upload_timestamp"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "images")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +28,15 @@ public class Image {
     private String perceptualHash;
     private String md5Hash;
 
+    // Grille d'empreintes par tuile d'une image signée (TileFingerprint.encode), lue seulement à la vérification
+    @JsonIgnore
+    @Column(name = "tile_fingerprints", columnDefinition = "TEXT")
+    private String tileFingerprints;
+
+    // dHash de l'image entière : retrouve l'image signée sans lire les grilles
+    @Column(name = "fingerprint_hash")
+    private Long fingerprintHash;
+
     @Column(name = "ai_confidence")
     private Double aiConfidence;
 
@@ -30,7 +46,14 @@ public class Image {
     @Column(columnDefinition = "TEXT")
     private String metadataJson;
 
-    @Column(name = "upload_timestamp")
+    // Format, dimensions, EXIF/XMP/ICC lus en Java à la réception (voir ImageMetadataExtractor)
+    @Embedded
+    private ImageMetadata metadata;
+
+    // Clé de partitionnement (PostgreSQL, un mois par partition) : ajoutée par Hibernate aux UPDATE/DELETE
+    // de l'entité pour ne viser qu'une partition, jamais modifiée
+    @PartitionKey
+    @Column(name = "upload_timestamp", nullable = false, updatable = false)
     private LocalDateTime uploadTimestamp;
 
     @ManyToOne
@@ -42,4 +65,19 @@ public class Image {
 
     @Column(columnDefinition = "TEXT")
     private String analysisResults;
+
+    // Version de ligne : sert au verrouillage optimiste et aux ETags HTTP
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    void defaultUploadTimestamp() {
+        if (uploadTimestamp == null) {
+            uploadTimestamp = LocalDateTime.now();
+        }
+    }
 }
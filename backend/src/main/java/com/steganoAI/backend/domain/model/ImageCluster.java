@@ -0,0 +1,32 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+// Groupe d'images quasi identiques, recalculé entièrement à chaque passage du job de regroupement.
+// Pas de clé étrangère vers images : une image supprimée disparaît simplement des membres affichés.
+@Entity
+@Table(name = "image_clusters", indexes = @Index(name = "idx_image_clusters_member_count", columnList = "member_count"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageCluster {
+    @Id
+    private Long id;
+
+    @Column(name = "member_count")
+    private Integer memberCount;
+
+    // Image la plus ancienne du groupe : les distances des membres sont calculées par rapport à elle
+    @Column(name = "representative_image_id")
+    private Long representativeImageId;
+
+    @Column(name = "max_distance")
+    private Integer maxDistance;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Une image appartient à au plus un groupe
+@Entity
+@Table(name = "image_cluster_members", indexes = @Index(name = "idx_image_cluster_members_cluster", columnList = "cluster_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageClusterMember {
+    @Id
+    @Column(name = "image_id")
+    private Long imageId;
+
+    @Column(name = "cluster_id")
+    private Long clusterId;
+
+    // Distance de Hamming au représentant du groupe
+    private Integer distance;
+}
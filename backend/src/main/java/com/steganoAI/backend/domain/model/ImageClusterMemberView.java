@@ -0,0 +1,8 @@
+package com.steganoAI.backend.domain.model;
+
+import java.time.LocalDateTime;
+
+// Membre d'un groupe avec les colonnes utiles à l'affichage, sans les colonnes TEXT de l'image
+public record ImageClusterMemberView(Long imageId, Integer distance, String filename, String perceptualHash,
+                                     String ownerUsername, LocalDateTime uploadTimestamp) {
+}
@@ -0,0 +1,17 @@
+package com.steganoAI.backend.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Empreinte d'une liste d'images : change dès qu'une image est ajoutée, modifiée ou supprimée
+public record ImageCollectionVersion(Long count, Long maxId, Long versionSum, LocalDateTime lastUpdated) {
+
+    public String etag() {
+        return "W/\"imgs-" + count + "-" + (maxId != null ? maxId : 0) + "-" + (versionSum != null ? versionSum : 0)
+                + "-" + lastModifiedMillis() + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastUpdated != null ? lastUpdated.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
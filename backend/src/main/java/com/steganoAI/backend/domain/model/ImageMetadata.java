@@ -0,0 +1,86 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+// Métadonnées lues dans les en-têtes du fichier (conteneur, EXIF, XMP, ICC) à la réception, sans décoder les pixels.
+// Champs absents du fichier (ou hors des premiers Ko lus) laissés à null.
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageMetadata {
+    @Column(name = "meta_format", length = 8)
+    private String format;
+
+    @Column(name = "meta_width")
+    private Integer width;
+
+    @Column(name = "meta_height")
+    private Integer height;
+
+    // Bits par composante
+    @Column(name = "meta_bit_depth")
+    private Integer bitDepth;
+
+    // Modes à la PIL : 1, L, LA, P, RGB, RGBA, CMYK
+    @Column(name = "meta_color_mode", length = 8)
+    private String colorMode;
+
+    @Column(name = "meta_has_alpha")
+    private Boolean hasAlpha;
+
+    @Column(name = "meta_animated")
+    private Boolean animated;
+
+    @Column(name = "meta_progressive")
+    private Boolean progressive;
+
+    @Column(name = "meta_dpi_x")
+    private Double dpiX;
+
+    @Column(name = "meta_dpi_y")
+    private Double dpiY;
+
+    @Column(name = "meta_file_size")
+    private Long fileSize;
+
+    // EXIF
+    @Column(name = "meta_has_exif")
+    private Boolean hasExif;
+
+    @Column(name = "meta_orientation")
+    private Integer orientation;
+
+    @Column(name = "meta_camera_make", length = 64)
+    private String cameraMake;
+
+    @Column(name = "meta_camera_model", length = 64)
+    private String cameraModel;
+
+    @Column(name = "meta_software", length = 128)
+    private String software;
+
+    @Column(name = "meta_captured_at")
+    private LocalDateTime capturedAt;
+
+    @Column(name = "meta_gps_latitude")
+    private Double gpsLatitude;
+
+    @Column(name = "meta_gps_longitude")
+    private Double gpsLongitude;
+
+    @Column(name = "meta_has_xmp")
+    private Boolean hasXmp;
+
+    // Profil ICC : espace colorimétrique de l'en-tête (RGB, GRAY, CMYK...) et description
+    @Column(name = "meta_icc_color_space", length = 8)
+    private String iccColorSpace;
+
+    @Column(name = "meta_icc_profile", length = 128)
+    private String iccProfile;
+}
@@ -0,0 +1,9 @@
+package com.steganoAI.backend.domain.model;
+
+import java.time.LocalDateTime;
+
+// Ligne de la galerie : colonnes affichées par la vignette, sans les résultats d'analyse ni l'utilisateur
+public record ImageSummary(Long id, String filename, LocalDateTime uploadTimestamp, String analysisStatus,
+                           Boolean hasSteganography, Double aiConfidence, String format, Integer width,
+                           Integer height) {
+}
@@ -0,0 +1,21 @@
+package com.steganoAI.backend.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Projection légère pour les requêtes conditionnelles : pas de colonnes TEXT chargées
+public record ImageVersion(Long id, Long version, LocalDateTime updatedAt, String ownerUsername) {
+
+    public String etag() {
+        return "W/\"img-" + id + "-v" + (version != null ? version : 0) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    public static ImageVersion of(Image image) {
+        return new ImageVersion(image.getId(), image.getVersion(), image.getUpdatedAt(),
+                image.getUser() != null ? image.getUser().getUsername() : null);
+    }
+}
@@ -0,0 +1,5 @@
+package com.steganoAI.backend.domain.model;
+
+// Image signée candidate d'une vérification : la grille complète n'est lue que pour la plus proche
+public record SignedImageFingerprint(Long id, String md5Hash, Long fingerprintHash) {
+}
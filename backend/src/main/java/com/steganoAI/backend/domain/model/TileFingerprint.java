@@ -0,0 +1,72 @@
+package com.steganoAI.backend.domain.model;
+
+import java.util.HexFormat;
+
+// Empreintes perceptuelles d'une image découpée en rows x cols tuiles : un dHash 64 bits par tuile
+// (9 x 8 moyennes de luminance) et un dHash de l'image entière, qui sert à retrouver l'image signée.
+// Insensibles à la signature stéganographique (bits de poids faible), sensibles à une retouche locale.
+public record TileFingerprint(int width, int height, int rows, int cols, long imageHash, long[] tiles) {
+    // distances : bits différents par tuile (0 à 64), ligne par ligne
+    public record Comparison(int[] distances, int modifiedTiles) {
+    }
+
+    // "largeurxhauteur;lignesxcolonnes;" puis 16 chiffres hexadécimaux pour l'image et pour chaque tuile
+    public String encode() {
+        HexFormat hex = HexFormat.of();
+        StringBuilder encoded = new StringBuilder(32 + 16 * (tiles.length + 1))
+                .append(width).append('x').append(height).append(';')
+                .append(rows).append('x').append(cols).append(';')
+                .append(hex.toHexDigits(imageHash));
+        for (long tile : tiles) {
+            encoded.append(hex.toHexDigits(tile));
+        }
+        return encoded.toString();
+    }
+
+    public static TileFingerprint parse(String encoded) {
+        String[] parts = encoded.split(";");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Empreinte de tuiles invalide");
+        }
+        int[] size = pair(parts[0]);
+        int[] grid = pair(parts[1]);
+        String hashes = parts[2];
+        if (hashes.length() != 16 * (grid[0] * grid[1] + 1)) {
+            throw new IllegalArgumentException("Empreinte de tuiles invalide: " + grid[0] + "x" + grid[1]);
+        }
+        long[] tiles = new long[grid[0] * grid[1]];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = HexFormat.fromHexDigitsToLong(hashes, 16 * (i + 1), 16 * (i + 2));
+        }
+        return new TileFingerprint(size[0], size[1], grid[0], grid[1],
+                HexFormat.fromHexDigitsToLong(hashes, 0, 16), tiles);
+    }
+
+    // Même grille et même rapport largeur/hauteur (à 1 % près) : les tuiles couvrent les mêmes zones
+    public boolean isComparableTo(TileFingerprint other) {
+        return rows == other.rows && cols == other.cols
+                && Math.abs((double) width / height - (double) other.width / other.height)
+                   <= 0.01 * width / height;
+    }
+
+    // Une tuile est modifiée au-delà de threshold bits différents
+    public Comparison compare(TileFingerprint other, int threshold) {
+        int[] distances = new int[tiles.length];
+        int modified = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            distances[i] = Long.bitCount(tiles[i] ^ other.tiles[i]);
+            if (distances[i] > threshold) {
+                modified++;
+            }
+        }
+        return new Comparison(distances, modified);
+    }
+
+    private static int[] pair(String value) {
+        int separator = value.indexOf('x');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Empreinte de tuiles invalide: " + value);
+        }
+        return new int[]{Integer.parseInt(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1))};
+    }
+}
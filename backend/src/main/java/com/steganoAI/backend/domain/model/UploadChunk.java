@@ -0,0 +1,38 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Bloc écrit et synchronisé sur disque : une ligne par bloc, les envois parallèles ne se disputent pas la session
+@Entity
+@Table(name = "upload_chunks")
+@IdClass(UploadChunk.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadChunk {
+    @Id
+    @Column(name = "upload_id", length = 36)
+    private String uploadId;
+
+    @Id
+    @Column(name = "chunk_index")
+    private Integer chunkIndex;
+
+    private Integer size;
+
+    @Column(name = "received_at")
+    private LocalDateTime receivedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String uploadId;
+        private Integer chunkIndex;
+    }
+}
@@ -0,0 +1,46 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+// Upload découpé en blocs : l'état survit à un redémarrage, les blocs reçus sont dans upload_chunks
+@Entity
+@Table(name = "upload_sessions", indexes = @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private String username;
+    private String filename;
+
+    @Column(name = "total_size")
+    private Long totalSize;
+
+    @Column(name = "chunk_size")
+    private Integer chunkSize;
+
+    @Column(name = "chunk_count")
+    private Integer chunkCount;
+
+    private String status; // UPLOADING, COMPLETING, COMPLETED
+
+    // Image créée à la finalisation : un second appel à /complete la renvoie sans relancer l'analyse
+    @Column(name = "image_id")
+    private Long imageId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,5 @@
+package com.steganoAI.backend.domain.model;
+
+// Uploads reprenables ouverts d'un utilisateur (non finalisés, non expirés) et octets réservés sur disque
+public record UploadUsage(Long sessions, Long reservedBytes) {
+}
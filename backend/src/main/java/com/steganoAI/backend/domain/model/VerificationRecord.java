@@ -0,0 +1,52 @@
+package com.steganoAI.backend.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Journal des vérifications d'intégrité, en ajout seul : écrit par lots (VerificationLogWriter), jamais modifié.
+// Pas de clé étrangère vers images : l'historique survit à la suppression ou à l'archivage de l'image.
+@Entity
+@Table(name = "verification_log", indexes = {
+        @Index(name = "idx_verification_log_user", columnList = "username, verified_at"),
+        @Index(name = "idx_verification_log_image", columnList = "signed_image_id, verified_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String username;
+
+    // Image signée reconnue (vérification par tuiles), nulle si la vérification est passée par Flask
+    @Column(name = "signed_image_id")
+    private Long signedImageId;
+
+    private String filename;
+
+    @Column(name = "md5_hash")
+    private String md5Hash;
+
+    // tiles ou flask
+    private String mode;
+
+    private Boolean tampered;
+
+    @Column(name = "signatures_match")
+    private Boolean signaturesMatch;
+
+    @Column(name = "modified_tiles")
+    private Integer modifiedTiles;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "verified_at", nullable = false)
+    private LocalDateTime verifiedAt;
+}
@@ -0,0 +1,17 @@
+package com.steganoAI.backend.domain.repository;
+
+import com.steganoAI.backend.domain.model.ImageClusterMember;
+import com.steganoAI.backend.domain.model.ImageClusterMemberView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface ImageClusterMemberRepository extends JpaRepository<ImageClusterMember, Long> {
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.ImageClusterMemberView("
+            + "m.imageId, m.distance, i.filename, i.perceptualHash, u.username, i.uploadTimestamp) "
+            + "FROM ImageClusterMember m JOIN Image i ON i.id = m.imageId LEFT JOIN i.user u "
+            + "WHERE m.clusterId = :clusterId ORDER BY m.distance, m.imageId")
+    List<ImageClusterMemberView> findViewsByClusterId(@Param("clusterId") Long clusterId);
+}
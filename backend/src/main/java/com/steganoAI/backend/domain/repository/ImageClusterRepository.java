@@ -0,0 +1,7 @@
+package com.steganoAI.backend.domain.repository;
+
+import com.steganoAI.backend.domain.model.ImageCluster;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImageClusterRepository extends JpaRepository<ImageCluster, Long> {
+}
@@ -1,21 +1,117 @@
 package com.steganoAI.backend.domain.repository;
 
 import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageCollectionVersion;
+import com.steganoAI.backend.domain.model.ImageSummary;
+import com.steganoAI.backend.domain.model.ImageVersion;
+import com.steganoAI.backend.domain.model.SignedImageFingerprint;
 import com.steganoAI.backend.domain.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
+    // Région des résultats de requêtes, invalidée par Hibernate à chaque écriture sur la table images
+    String QUERY_CACHE_REGION = "image-queries";
+
+    // Listes : le propriétaire est chargé par jointure dans la même requête (pas un SELECT par utilisateur)
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Image> findAll();
+
     List<Image> findByUser(User user);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
     List<Image> findByUserOrderByUploadTimestampDesc(User user);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
+    List<Image> findByUserUsernameOrderByUploadTimestampDesc(String username);
+
+    // Bornes sur upload_timestamp : PostgreSQL ne lit que les partitions mensuelles concernées
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT i FROM Image i WHERE i.user.username = :username "
+            + "AND i.uploadTimestamp >= :from AND i.uploadTimestamp < :to ORDER BY i.uploadTimestamp DESC")
+    List<Image> findByUsernameUploadedBetween(@Param("username") String username,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.SignedImageFingerprint(i.id, i.md5Hash, i.fingerprintHash) "
+            + "FROM Image i WHERE i.user.username = :username AND i.fingerprintHash IS NOT NULL")
+    List<SignedImageFingerprint> findSignedFingerprintsByUsername(@Param("username") String username);
+
+    @Query("SELECT i.tileFingerprints FROM Image i WHERE i.id = :id")
+    Optional<String> findTileFingerprintsById(@Param("id") Long id);
+
+    // Galerie paginée : projection sur les colonnes de la vignette, id en second tri pour un ordre stable
+    @Query(value = "SELECT new com.steganoAI.backend.domain.model.ImageSummary(i.id, i.filename, i.uploadTimestamp, "
+            + "i.analysisStatus, i.hasSteganography, i.aiConfidence, i.metadata.format, i.metadata.width, i.metadata.height) "
+            + "FROM Image i WHERE i.user.username = :username ORDER BY i.uploadTimestamp DESC, i.id DESC",
+            countQuery = "SELECT COUNT(i) FROM Image i WHERE i.user.username = :username")
+    Page<ImageSummary> findSummariesByUsername(@Param("username") String username, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
     List<Image> findByHasSteganographyTrue();
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
     List<Image> findByAnalysisStatus(String status);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT i FROM Image i WHERE i.aiConfidence > :threshold")
     List<Image> findByAiConfidenceGreaterThan(@Param("threshold") Double threshold);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT i FROM Image i WHERE i.user.id = :userId AND i.analysisStatus = :status")
     List<Image> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.ImageVersion(i.id, i.version, i.updatedAt, u.username) "
+            + "FROM Image i JOIN i.user u WHERE i.id = :id")
+    Optional<ImageVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.ImageCollectionVersion(COUNT(i), MAX(i.id), SUM(i.version), MAX(i.updatedAt)) "
+            + "FROM Image i WHERE i.user.username = :username")
+    ImageCollectionVersion findCollectionVersionByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.ImageCollectionVersion(COUNT(i), MAX(i.id), SUM(i.version), MAX(i.updatedAt)) "
+            + "FROM Image i")
+    ImageCollectionVersion findCollectionVersion();
+
+    // Suppression directe, sans le SELECT préalable de deleteById
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Image i WHERE i.id = :id")
+    int deleteDirectlyById(@Param("id") Long id);
 }
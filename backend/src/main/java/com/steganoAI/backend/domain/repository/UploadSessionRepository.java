@@ -0,0 +1,32 @@
+package com.steganoAI.backend.domain.repository;
+
+import com.steganoAI.backend.domain.model.UploadSession;
+import com.steganoAI.backend.domain.model.UploadUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    Optional<UploadSession> findByIdAndUsername(String id, String username);
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime now);
+
+    @Query("SELECT new com.steganoAI.backend.domain.model.UploadUsage(COUNT(s), COALESCE(SUM(s.totalSize), 0)) "
+            + "FROM UploadSession s WHERE s.username = :username AND s.status <> :completed AND s.expiresAt > :now")
+    UploadUsage findOpenUsage(@Param("username") String username, @Param("completed") String completed,
+                              @Param("now") LocalDateTime now);
+
+    // Transition conditionnelle : un seul appel à /complete passe de UPLOADING à COMPLETING
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = :to, s.updatedAt = :now WHERE s.id = :id AND s.status = :from")
+    int updateStatus(@Param("id") String id, @Param("from") String from, @Param("to") String to,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = :to, s.updatedAt = :now WHERE s.status = :from")
+    int updateAllStatus(@Param("from") String from, @Param("to") String to, @Param("now") LocalDateTime now);
+}
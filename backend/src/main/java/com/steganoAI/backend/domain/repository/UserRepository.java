@@ -1,10 +1,17 @@
 package com.steganoAI.backend.domain.repository;
 
 import com.steganoAI.backend.domain.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Appelée à chaque requête authentifiée (filtre JWT) : résultat mis en cache
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "user-queries")
+    })
     Optional<User> findByUsername(String username);
 }
 
@@ -0,0 +1,13 @@
+package com.steganoAI.backend.domain.repository;
+
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// Lecture seule : les entrées sont écrites par lots JDBC (VerificationLogWriter)
+public interface VerificationRecordRepository extends JpaRepository<VerificationRecord, Long> {
+    Page<VerificationRecord> findByUsername(String username, Pageable pageable);
+
+    Page<VerificationRecord> findBySignedImageId(Long signedImageId, Pageable pageable);
+}
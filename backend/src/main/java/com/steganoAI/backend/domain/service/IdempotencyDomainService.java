@@ -0,0 +1,63 @@
+package com.steganoAI.backend.domain.service;
+
+import com.steganoAI.backend.domain.model.IdempotencyRecord;
+import com.steganoAI.backend.domain.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+public class IdempotencyDomainService {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    public IdempotencyDomainService(IdempotencyRecordRepository idempotencyRecordRepository) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+    }
+
+    // Vide si la clé est déjà prise. Pas de transaction englobante : l'insertion en échec n'annule que la sienne
+    public Optional<IdempotencyRecord> tryStart(String username, String endpoint, String key, String requestHash,
+                                                LocalDateTime expiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord(null, username, endpoint, key, requestHash, IN_PROGRESS,
+                null, null, null, null, LocalDateTime.now(), expiresAt);
+        try {
+            return Optional.of(idempotencyRecordRepository.saveAndFlush(record));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Lue juste après l'insertion refusée : sur le primaire, une réplique en retard ne verrait pas la ligne
+    @Transactional
+    public Optional<IdempotencyRecord> find(String username, String endpoint, String key) {
+        return idempotencyRecordRepository.findByUsernameAndEndpointAndIdempotencyKey(username, endpoint, key);
+    }
+
+    @Transactional
+    public void complete(Long id, int responseStatus, String contentType, String location, String body,
+                         LocalDateTime expiresAt) {
+        idempotencyRecordRepository.complete(id, COMPLETED, responseStatus, contentType, location, body, expiresAt);
+    }
+
+    // Réponse non rejouable (erreur serveur, file pleine) : la clé est libérée pour la prochaine tentative
+    @Transactional
+    public void release(Long id) {
+        idempotencyRecordRepository.deleteById(id);
+    }
+
+    // Marqueur d'un exécutant arrêté ou réponse hors fenêtre : la clé peut être reprise
+    @Transactional
+    public boolean releaseIfExpired(Long id, LocalDateTime now) {
+        return idempotencyRecordRepository.deleteIfExpired(id, now) == 1;
+    }
+
+    @Transactional
+    public int purgeExpired(LocalDateTime now) {
+        return idempotencyRecordRepository.deleteExpired(now);
+    }
+}
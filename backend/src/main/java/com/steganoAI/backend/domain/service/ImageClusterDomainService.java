@@ -0,0 +1,42 @@
+package com.steganoAI.backend.domain.service;
+
+import com.steganoAI.backend.domain.model.ImageCluster;
+import com.steganoAI.backend.domain.model.ImageClusterMemberView;
+import com.steganoAI.backend.domain.repository.ImageClusterMemberRepository;
+import com.steganoAI.backend.domain.repository.ImageClusterRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ImageClusterDomainService {
+    private final ImageClusterRepository imageClusterRepository;
+    private final ImageClusterMemberRepository imageClusterMemberRepository;
+
+    public ImageClusterDomainService(ImageClusterRepository imageClusterRepository,
+                                     ImageClusterMemberRepository imageClusterMemberRepository) {
+        this.imageClusterRepository = imageClusterRepository;
+        this.imageClusterMemberRepository = imageClusterMemberRepository;
+    }
+
+    // Les plus gros groupes d'abord
+    @Transactional(readOnly = true)
+    public Page<ImageCluster> getClusters(int page, int size) {
+        return imageClusterRepository.findAll(PageRequest.of(page, size,
+                Sort.by(Sort.Order.desc("memberCount"), Sort.Order.asc("id"))));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ImageCluster> getCluster(Long id) {
+        return imageClusterRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ImageClusterMemberView> getClusterMembers(Long clusterId) {
+        return imageClusterMemberRepository.findViewsByClusterId(clusterId);
+    }
+}
@@ -1,9 +1,18 @@
 package com.steganoAI.backend.domain.service;
 
 import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageCollectionVersion;
+import com.steganoAI.backend.domain.model.ImageSummary;
+import com.steganoAI.backend.domain.model.ImageVersion;
+import com.steganoAI.backend.domain.model.SignedImageFingerprint;
+import com.steganoAI.backend.domain.model.TileFingerprint;
 import com.steganoAI.backend.domain.model.User;
 import com.steganoAI.backend.domain.repository.ImageRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,42 +24,92 @@ public class ImageDomainService {
         this.imageRepository = imageRepository;
     }
 
+    @Transactional(readOnly = true)
     public List<Image> getAllImages() {
         return imageRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Image> getImageById(Long id) {
         return imageRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<ImageVersion> getImageVersion(Long id) {
+        return imageRepository.findVersionById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public ImageCollectionVersion getImagesVersionByUsername(String username) {
+        return imageRepository.findCollectionVersionByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public ImageCollectionVersion getAllImagesVersion() {
+        return imageRepository.findCollectionVersion();
+    }
+
+    @Transactional(readOnly = true)
     public List<Image> getImagesByUser(User user) {
         return imageRepository.findByUserOrderByUploadTimestampDesc(user);
     }
 
+    @Transactional(readOnly = true)
+    public List<Image> getImagesByUsername(String username) {
+        return imageRepository.findByUserUsernameOrderByUploadTimestampDesc(username);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Image> getImagesByUsername(String username, LocalDateTime from, LocalDateTime to) {
+        return imageRepository.findByUsernameUploadedBetween(username, from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SignedImageFingerprint> getSignedFingerprintsByUsername(String username) {
+        return imageRepository.findSignedFingerprintsByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TileFingerprint> getTileFingerprint(Long id) {
+        return imageRepository.findTileFingerprintsById(id).map(TileFingerprint::parse);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ImageSummary> getImageSummariesByUsername(String username, int page, int size) {
+        return imageRepository.findSummariesByUsername(username, PageRequest.of(page, size));
+    }
+
+    @Transactional(readOnly = true)
     public List<Image> getImagesByUserId(Long userId, String status) {
         return imageRepository.findByUserIdAndStatus(userId, status);
     }
 
+    @Transactional(readOnly = true)
     public List<Image> getImagesWithSteganography() {
         return imageRepository.findByHasSteganographyTrue();
     }
 
+    @Transactional(readOnly = true)
     public List<Image> getImagesByStatus(String status) {
         return imageRepository.findByAnalysisStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<Image> getHighAiConfidenceImages(Double threshold) {
         return imageRepository.findByAiConfidenceGreaterThan(threshold);
     }
 
+    @Transactional
     public Image save(Image image) {
         return imageRepository.save(image);
     }
 
+    @Transactional
     public void deleteImage(Long id) {
-        imageRepository.deleteById(id);
+        imageRepository.deleteDirectlyById(id);
     }
 
+    @Transactional(readOnly = true)
     public boolean existsById(Long id) {
         return imageRepository.existsById(id);
     }
@@ -0,0 +1,195 @@
+package com.steganoAI.backend.domain.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+// Regroupement de hashes perceptuels 64 bits proches (distance de Hamming <= maxDistance).
+// Chaque hash est découpé en `bands` bandes : deux hashes qui partagent une bande identique sont candidats
+// (tri des valeurs de bande, comparaison à l'intérieur de chaque groupe égal), vérifiés en parallèle,
+// puis réunis dans un union-find. Avec bands > maxDistance, une paire assez proche a forcément une bande
+// identique : aucun voisin n'est manqué.
+public final class NearDuplicateClustering {
+    private static final int RUNS_PER_TASK = 256;
+
+    public interface Progress {
+        void update(int band, int bands, long bucketsDone, long buckets);
+    }
+
+    public record Result(int[] roots, long comparedPairs, long matchedPairs, long skippedBuckets) {
+    }
+
+    private final int maxDistance;
+    private final int bands;
+    private final int maxBucketSize;
+
+    public NearDuplicateClustering(int maxDistance, int bands, int maxBucketSize) {
+        if (bands < 2 || bands > 32) {
+            throw new IllegalArgumentException("Nombre de bandes invalide: " + bands + " (2 à 32)");
+        }
+        this.maxDistance = maxDistance;
+        this.bands = bands;
+        this.maxBucketSize = maxBucketSize;
+    }
+
+    // roots[i] : représentant du groupe du hash i (les hashes isolés sont leur propre représentant)
+    public Result cluster(long[] hashes, ForkJoinPool pool, Progress progress) {
+        UnionFind unionFind = new UnionFind(hashes.length);
+        LongAdder compared = new LongAdder();
+        LongAdder matched = new LongAdder();
+        long skipped = 0;
+
+        long[] keys = new long[hashes.length];
+        for (int band = 0; band < bands; band++) {
+            int from = band * 64 / bands;
+            int width = (band + 1) * 64 / bands - from;
+            long mask = (1L << width) - 1;
+            for (int i = 0; i < hashes.length; i++) {
+                // Valeur de bande dans les 32 bits de poids fort, indice dans les 32 bits de poids faible
+                keys[i] = (((hashes[i] >>> from) & mask) << 32) | i;
+            }
+            pool.submit(() -> Arrays.parallelSort(keys)).join();
+
+            // Groupes de valeurs de bande égales : [runStarts[r], runEnds[r])
+            int[] runStarts = new int[16];
+            int[] runEnds = new int[16];
+            int runs = 0;
+            for (int start = 0; start < keys.length; ) {
+                int end = start + 1;
+                while (end < keys.length && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                    end++;
+                }
+                if (end - start > maxBucketSize) {
+                    // Seau dégénéré (image unie, hash nul...) : comparaison quadratique évitée
+                    skipped++;
+                } else if (end - start > 1) {
+                    if (runs == runStarts.length) {
+                        runStarts = Arrays.copyOf(runStarts, runs * 2);
+                        runEnds = Arrays.copyOf(runEnds, runs * 2);
+                    }
+                    runStarts[runs] = start;
+                    runEnds[runs] = end;
+                    runs++;
+                }
+                start = end;
+            }
+
+            AtomicLong bucketsDone = new AtomicLong();
+            int currentBand = band;
+            int totalRuns = runs;
+            progress.update(band, bands, 0, totalRuns);
+            pool.invoke(new CompareRuns(hashes, keys, runStarts, runEnds, 0, runs, unionFind, compared, matched,
+                    done -> progress.update(currentBand, bands, bucketsDone.addAndGet(done), totalRuns)));
+            progress.update(band, bands, totalRuns, totalRuns);
+        }
+
+        int[] roots = new int[hashes.length];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = unionFind.find(i);
+        }
+        return new Result(roots, compared.sum(), matched.sum(), skipped);
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private final class CompareRuns extends RecursiveAction {
+        private final long[] hashes;
+        private final long[] keys;
+        private final int[] runStarts;
+        private final int[] runEnds;
+        private final int from;
+        private final int to;
+        private final UnionFind unionFind;
+        private final LongAdder compared;
+        private final LongAdder matched;
+        private final IntConsumer onLeafDone;
+
+        private CompareRuns(long[] hashes, long[] keys, int[] runStarts, int[] runEnds, int from, int to,
+                            UnionFind unionFind, LongAdder compared, LongAdder matched, IntConsumer onLeafDone) {
+            this.hashes = hashes;
+            this.keys = keys;
+            this.runStarts = runStarts;
+            this.runEnds = runEnds;
+            this.from = from;
+            this.to = to;
+            this.unionFind = unionFind;
+            this.compared = compared;
+            this.matched = matched;
+            this.onLeafDone = onLeafDone;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > RUNS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompareRuns(hashes, keys, runStarts, runEnds, from, middle, unionFind, compared, matched, onLeafDone),
+                        new CompareRuns(hashes, keys, runStarts, runEnds, middle, to, unionFind, compared, matched, onLeafDone));
+                return;
+            }
+            long localCompared = 0;
+            long localMatched = 0;
+            for (int r = from; r < to; r++) {
+                for (int i = runStarts[r]; i < runEnds[r]; i++) {
+                    int a = (int) keys[i];
+                    for (int j = i + 1; j < runEnds[r]; j++) {
+                        int b = (int) keys[j];
+                        localCompared++;
+                        if (distance(hashes[a], hashes[b]) <= maxDistance) {
+                            localMatched++;
+                            unionFind.union(a, b);
+                        }
+                    }
+                }
+            }
+            compared.add(localCompared);
+            matched.add(localMatched);
+            onLeafDone.accept(to - from);
+        }
+    }
+
+    // Union-find sans verrou : le représentant est toujours le plus petit indice, liaisons par CAS
+    private static final class UnionFind {
+        private final AtomicIntegerArray parent;
+
+        private UnionFind(int size) {
+            parent = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                parent.set(i, i);
+            }
+        }
+
+        private int find(int x) {
+            while (true) {
+                int p = parent.get(x);
+                if (p == x) {
+                    return x;
+                }
+                int grandParent = parent.get(p);
+                // Compression par moitié : un échec du CAS signifie qu'un autre thread a déjà raccourci
+                parent.compareAndSet(x, p, grandParent);
+                x = grandParent;
+            }
+        }
+
+        private void union(int a, int b) {
+            while (true) {
+                int rootA = find(a);
+                int rootB = find(b);
+                if (rootA == rootB) {
+                    return;
+                }
+                int low = Math.min(rootA, rootB);
+                int high = Math.max(rootA, rootB);
+                if (parent.compareAndSet(high, high, low)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.steganoAI.backend.domain.service;
+
+import com.steganoAI.backend.domain.model.UploadChunk;
+import com.steganoAI.backend.domain.model.UploadSession;
+import com.steganoAI.backend.domain.model.UploadUsage;
+import com.steganoAI.backend.domain.repository.UploadChunkRepository;
+import com.steganoAI.backend.domain.repository.UploadSessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class UploadSessionDomainService {
+    public static final String UPLOADING = "UPLOADING";
+    public static final String COMPLETING = "COMPLETING";
+    public static final String COMPLETED = "COMPLETED";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadChunkRepository uploadChunkRepository;
+
+    public UploadSessionDomainService(UploadSessionRepository uploadSessionRepository,
+                                      UploadChunkRepository uploadChunkRepository) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadChunkRepository = uploadChunkRepository;
+    }
+
+    @Transactional
+    public UploadSession create(UploadSession session) {
+        return uploadSessionRepository.save(session);
+    }
+
+    // Les sessions d'un autre utilisateur sont invisibles (404 plutôt que 403)
+    @Transactional(readOnly = true)
+    public Optional<UploadSession> find(String id, String username) {
+        return uploadSessionRepository.findByIdAndUsername(id, username);
+    }
+
+    // Sur le primaire : relue juste après un abandon ou une expiration possibles
+    @Transactional
+    public boolean exists(String id) {
+        return uploadSessionRepository.existsById(id);
+    }
+
+    // Sur le primaire : la session créée juste avant doit être comptée
+    @Transactional
+    public UploadUsage getOpenUsage(String username, LocalDateTime now) {
+        return uploadSessionRepository.findOpenUsage(username, COMPLETED, now);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Integer> getReceivedChunks(String id) {
+        return uploadChunkRepository.findIndexesByUploadId(id);
+    }
+
+    @Transactional(readOnly = true)
+    public long countReceivedChunks(String id) {
+        return uploadChunkRepository.countByUploadId(id);
+    }
+
+    // Bloc renvoyé (reprise après coupure) : la ligne existante est simplement mise à jour
+    @Transactional
+    public void recordChunk(String id, int index, int size) {
+        uploadChunkRepository.save(new UploadChunk(id, index, size, LocalDateTime.now()));
+    }
+
+    @Transactional
+    public boolean transition(String id, String from, String to) {
+        return uploadSessionRepository.updateStatus(id, from, to, LocalDateTime.now()) == 1;
+    }
+
+    // Les blocs ne servent plus : seule la session (et l'id de l'image) est gardée jusqu'à expiration
+    @Transactional
+    public void markCompleted(UploadSession session, Long imageId) {
+        session.setStatus(COMPLETED);
+        session.setImageId(imageId);
+        session.setUpdatedAt(LocalDateTime.now());
+        uploadSessionRepository.save(session);
+        uploadChunkRepository.deleteByUploadId(session.getId());
+    }
+
+    @Transactional
+    public void delete(String id) {
+        uploadChunkRepository.deleteByUploadId(id);
+        uploadSessionRepository.deleteById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UploadSession> findExpired(LocalDateTime now) {
+        return uploadSessionRepository.findByExpiresAtBefore(now);
+    }
+
+    // Finalisations interrompues par un arrêt : le client peut relancer /complete
+    @Transactional
+    public int resetInterruptedCompletions() {
+        return uploadSessionRepository.updateAllStatus(COMPLETING, UPLOADING, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,31 @@
+package com.steganoAI.backend.domain.service;
+
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.domain.repository.VerificationRecordRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class VerificationHistoryDomainService {
+    // Plus récentes d'abord (index username / signed_image_id + verified_at)
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Order.desc("verifiedAt"), Sort.Order.desc("id"));
+
+    private final VerificationRecordRepository verificationRecordRepository;
+
+    public VerificationHistoryDomainService(VerificationRecordRepository verificationRecordRepository) {
+        this.verificationRecordRepository = verificationRecordRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<VerificationRecord> getByUsername(String username, int page, int size) {
+        return verificationRecordRepository.findByUsername(username, PageRequest.of(page, size, LATEST_FIRST));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<VerificationRecord> getBySignedImage(Long imageId, int page, int size) {
+        return verificationRecordRepository.findBySignedImageId(imageId, PageRequest.of(page, size, LATEST_FIRST));
+    }
+}
@@ -0,0 +1,24 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.analysis.scheduler")
+public class AnalysisSchedulerProperties {
+    private boolean enabled = true;
+    // Analyses envoyées simultanément à Flask, toutes classes confondues
+    private int workers = 8;
+    // Analyses en attente par utilisateur et par classe, au-delà la demande est refusée
+    private int perUserQueueCapacity = 50;
+    // Part relative de chaque utilisateur dans une classe (1 par défaut)
+    private Map<String, Double> userWeights = new HashMap<>();
+    // Au-delà de ces délais d'attente, une analyse pas encore démarrée est abandonnée
+    private Duration interactiveDeadline = Duration.ofSeconds(30);
+    private Duration uploadDeadline = Duration.ofMinutes(2);
+    private Duration backgroundDeadline = Duration.ofMinutes(30);
+}
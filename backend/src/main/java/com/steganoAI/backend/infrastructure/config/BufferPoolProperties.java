@@ -0,0 +1,19 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.buffers")
+public class BufferPoolProperties {
+    // Classes de taille des tampons directs : le plus petit tampon couvrant la taille du fichier est utilisé
+    private List<DataSize> sizeClasses = List.of(
+            DataSize.ofKilobytes(64), DataSize.ofKilobytes(256), DataSize.ofMegabytes(1));
+    // Tampons conservés par classe une fois rendus ; au-delà ils sont laissés au GC
+    private int maxRetainedPerClass = 16;
+    // Trace d'acquisition gardée pour chaque tampon emprunté (tests) : coûteux, désactivé en production
+    private boolean leakDetection = false;
+}
@@ -0,0 +1,23 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.upload.chunked")
+public class ChunkedUploadProperties {
+    // Fichiers en cours de réception, préalloués à leur taille finale
+    private String dir = "uploads/chunked";
+    private DataSize defaultChunkSize = DataSize.ofMegabytes(8);
+    private DataSize minChunkSize = DataSize.ofKilobytes(256);
+    private DataSize maxChunkSize = DataSize.ofMegabytes(64);
+    private DataSize maxFileSize = DataSize.ofGigabytes(2);
+    // Délai laissé au client pour terminer (ou reprendre) un upload
+    private Duration sessionTtl = Duration.ofHours(24);
+    // Par utilisateur : uploads ouverts et octets préalloués pour eux (0 = illimité)
+    private int maxOpenSessionsPerUser = 20;
+    private DataSize maxReservedPerUser = DataSize.ofGigabytes(10);
+}
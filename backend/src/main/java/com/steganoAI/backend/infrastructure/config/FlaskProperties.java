@@ -0,0 +1,91 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "flask.api")
+public class FlaskProperties {
+    // Instance unique historique, utilisée si aucune autre source n'est configurée
+    private String baseUrl = "http://localhost:5000";
+    private List<String> baseUrls = new ArrayList<>();
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofMinutes(2);
+    private Balancer balancer = Balancer.POWER_OF_TWO;
+    // Nouvelle tentative sur une autre instance uniquement si la connexion a échoué
+    private int maxAttempts = 2;
+    // Écart de charge toléré avant d'abandonner l'instance préférée d'une empreinte
+    private int stickyLoadSlack = 8;
+    private Discovery discovery = new Discovery();
+    private HealthCheck healthCheck = new HealthCheck();
+    private Outlier outlier = new Outlier();
+    private Preprocessing preprocessing = new Preprocessing();
+    private Batching batching = new Batching();
+
+    public enum Balancer {
+        POWER_OF_TWO,
+        LEAST_OUTSTANDING
+    }
+
+    public enum Format {
+        PNG,
+        JPEG
+    }
+
+    @Data
+    public static class Discovery {
+        // Fichier contenant une URL par ligne (les lignes commençant par # sont ignorées)
+        private String file;
+        // Nom DNS résolu en autant d'instances que d'adresses
+        private String dnsName;
+        private int dnsPort = 5000;
+        private String dnsScheme = "http";
+        private Duration refreshInterval = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class HealthCheck {
+        private boolean enabled = true;
+        private String path = "/api/v2/test";
+        private Duration interval = Duration.ofSeconds(10);
+        private Duration timeout = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Outlier {
+        private int consecutiveFailures = 3;
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+        // Une instance est lente si sa latence moyenne dépasse slowFactor x la médiane
+        private double slowFactor = 3.0;
+        private Duration minSlowLatency = Duration.ofSeconds(2);
+        private int maxEjectionPercent = 50;
+    }
+
+    @Data
+    public static class Preprocessing {
+        // Le détecteur IA reçoit une version réduite ; la stéganographie garde toujours l'original
+        private boolean enabled = false;
+        // Plus grand côté envoyé au détecteur (le modèle redimensionne de toute façon)
+        private int targetSize = 512;
+        private Format format = Format.PNG;
+        private float jpegQuality = 0.92f;
+    }
+
+    @Data
+    public static class Batching {
+        // Regroupe les détections IA concurrentes en un seul appel /api/v2/detect_ai_batch
+        private boolean enabled = false;
+        private int maxBatchSize = 16;
+        // Attente maximale d'un premier élément avant envoi d'un lot incomplet
+        private Duration maxLinger = Duration.ofMillis(20);
+        // Lots envoyés simultanément ; au-delà, les demandes s'accumulent et les lots suivants grossissent
+        private int maxInFlightBatches = 4;
+        // Demandes en attente d'un lot ; au-delà, la détection IA part en appel individuel
+        private int maxQueuedRequests = 256;
+    }
+}
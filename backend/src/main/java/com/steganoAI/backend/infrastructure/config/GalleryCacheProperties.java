@@ -0,0 +1,19 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.gallery.cache")
+public class GalleryCacheProperties {
+    private boolean enabled = true;
+    // Total des pages JSON gardées en mémoire ; au-delà, les utilisateurs les moins récemment servis sont évincés
+    private DataSize maxBytes = DataSize.ofMegabytes(64);
+    // Une page plus grosse est servie sans être gardée
+    private DataSize maxEntryBytes = DataSize.ofMegabytes(1);
+    // Borne la durée de vie d'une page écrite par une autre instance (l'invalidation est locale)
+    private Duration ttl = Duration.ofMinutes(5);
+}
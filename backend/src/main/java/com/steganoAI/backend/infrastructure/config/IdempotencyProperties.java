@@ -0,0 +1,24 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    // Fenêtre de rejeu d'une réponse stockée
+    private Duration ttl = Duration.ofHours(24);
+    // Durée de vie du marqueur IN_PROGRESS : au-delà, l'exécutant est présumé arrêté et la clé reprise
+    private Duration inProgressTimeout = Duration.ofMinutes(5);
+    // Attente maximale d'un doublon concurrent avant 409
+    private Duration waitTimeout = Duration.ofSeconds(60);
+    // Relecture de la base quand l'exécutant est une autre instance
+    private Duration pollInterval = Duration.ofMillis(200);
+    // Réponses gardées en mémoire ; au-delà, les plus anciennes ne sont plus rejouées que depuis la base
+    private int maxEntries = 10_000;
+    // Corps plus gros : réponse non stockée, la clé est libérée
+    private int maxBodyBytes = 256 * 1024;
+}
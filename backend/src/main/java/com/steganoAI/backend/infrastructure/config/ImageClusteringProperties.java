@@ -0,0 +1,21 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.clustering")
+public class ImageClusteringProperties {
+    // Distance de Hamming maximale entre deux hashes perceptuels d'un même groupe
+    private int maxDistance = 6;
+    // Bandes LSH : avec bands > max-distance aucune paire proche n'est manquée ; plus de bandes = seaux plus gros
+    private int bands = 7;
+    // Seaux plus grands ignorés (hash nul, images unies) : comparaison quadratique évitée
+    private int maxBucketSize = 20_000;
+    // Threads de vérification (0 = nombre de processeurs)
+    private int parallelism = 0;
+    private int fetchSize = 10_000;
+    private int insertBatchSize = 1_000;
+    // Expression cron du recalcul automatique ("-" = lancement manuel uniquement)
+    private String cron = "-";
+}
@@ -0,0 +1,20 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.partitioning")
+public class ImagePartitioningProperties {
+    // PostgreSQL 14+ uniquement : table images partitionnée par mois sur upload_timestamp
+    private boolean enabled = false;
+    // Partitions créées à l'avance, au-delà du mois courant
+    private int premakeMonths = 3;
+    // Mois gardés en ligne ; les partitions plus anciennes sont détachées, archivées puis supprimées (0 : jamais)
+    private int retainMonths = 12;
+    // Une archive CSV compressée par partition (<nom de partition>.csv.gz)
+    private String archiveDir = "archive/images";
+    private int fetchSize = 1000;
+    // Fichiers image des lignes archivées supprimés avec la partition (false : conservés, l'archive y renvoie toujours)
+    private boolean deleteArchivedFiles = true;
+}
@@ -0,0 +1,19 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.integrity.tiles")
+public class IntegrityTilesProperties {
+    // Empreintes calculées à la signature et comparées en Java à la vérification ; sinon tout passe par Flask
+    private boolean enabled = true;
+    private int rows = 8;
+    private int cols = 8;
+    // Bits différents (sur 64) au-delà desquels une tuile est signalée modifiée
+    private int tileThreshold = 10;
+    // Distance maximale entre dHash d'image entière pour reconnaître une image signée (retouches comprises)
+    private int matchThreshold = 16;
+    // Plus grand côté lu au décodage (sous-échantillonnage), suffisant pour des moyennes de 9 x 8 par tuile
+    private int maxDecodeSize = 1024;
+}
@@ -0,0 +1,73 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.application.dto.AuthResponse;
+import com.steganoAI.backend.application.dto.BulkDeleteRequest;
+import com.steganoAI.backend.application.dto.ImageClusterDetail;
+import com.steganoAI.backend.application.dto.LoginRequest;
+import com.steganoAI.backend.application.dto.UploadSessionStatus;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageClusterMemberView;
+import com.steganoAI.backend.domain.model.ImageCollectionVersion;
+import com.steganoAI.backend.domain.model.ImageSummary;
+import com.steganoAI.backend.domain.model.ImageVersion;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+// Indices de réflexion pour l'image native GraalVM (profil Maven "native").
+// L'AOT évalue les profils et les conditions à la construction : l'image sert le profil "reactive" ou la pile
+// servlet selon spring.profiles.active au moment de process-aot, et le routage vers le réplica
+// (app.datasource.replica.url), le cache L2 et le monitoring SQL restent tels qu'ils étaient configurés alors.
+// Changer ces propriétés au lancement n'a aucun effet : reconstruire l'image.
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.BackendRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class BackendRuntimeHints implements RuntimeHintsRegistrar {
+        // jjwt-impl est chargé par nom via io.jsonwebtoken.lang.Classes (dépendance runtime uniquement)
+        private static final String[] JJWT_CLASSES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+                "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Entités et DTO Lombok renvoyés derrière ResponseEntity<?> : invisibles pour l'analyse AOT
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    Image.class, User.class, ImageVersion.class, ImageCollectionVersion.class,
+                    AuthResponse.class, LoginRequest.class, BulkDeleteRequest.class,
+                    UploadSessionStatus.class, ImageClusterDetail.class, ImageClusterMemberView.class,
+                    VerificationRecord.class, ImageSummary.class);
+            hints.reflection().registerTypeIfPresent(classLoader,
+                    "com.steganoAI.backend.presentation.controller.AuthController$ErrorResponse",
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerTypeIfPresent(classLoader,
+                    "com.steganoAI.backend.presentation.controller.AuthController$MessageResponse",
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerTypeIfPresent(classLoader,
+                    "com.steganoAI.backend.presentation.controller.AuthController$UserResponse",
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            for (String className : JJWT_CLASSES) {
+                hints.reflection().registerType(TypeReference.of(className),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.infrastructure.service.QueryStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Requêtes SQL, lignes lues et temps passé en base pour chaque requête HTTP.
+// Le bilan est publié (métrique + attribut de requête pour les tests) et signalé au-delà du seuil.
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.sql.monitoring", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    public static final String STATISTICS_ATTRIBUTE = QueryCountFilter.class.getName() + ".statistics";
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final SqlMonitoringProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStatistics.begin();
+        HttpServletResponse countedResponse = properties.isQueryCountHeader()
+                ? new QueryCountHeaderResponse(response)
+                : response;
+        try {
+            filterChain.doFilter(request, countedResponse);
+        } finally {
+            QueryStatistics.Snapshot statistics = QueryStatistics.end();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+            if (countedResponse instanceof QueryCountHeaderResponse headerResponse) {
+                headerResponse.addQueryCount(statistics);
+            }
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStatistics.Snapshot statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("Requêtes SQL exécutées par requête HTTP")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.queries());
+        if (statistics.queries() > properties.getRequestQueryWarnThreshold()) {
+            log.warn("{} {} : {} requêtes SQL ({} lignes, {} ms), N+1 probable",
+                    request.getMethod(), uri, statistics.queries(), statistics.rows(), statistics.timeMillis());
+        }
+    }
+
+    // Ajoute l'en-tête juste avant l'envoi des en-têtes : compte les requêtes exécutées jusque-là
+    private static final class QueryCountHeaderResponse extends HttpServletResponseWrapper {
+        private boolean headerWritten;
+
+        private QueryCountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void addQueryCount(QueryStatistics.Snapshot statistics) {
+            if (!headerWritten && !isCommitted()) {
+                headerWritten = true;
+                setHeader(QUERY_COUNT_HEADER, Integer.toString(statistics.queries()));
+            }
+        }
+
+        private void beforeCommit() {
+            addQueryCount(QueryStatistics.current());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
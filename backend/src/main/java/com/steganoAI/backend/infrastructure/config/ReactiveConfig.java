@@ -0,0 +1,31 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+// Pile réactive (profil "reactive") : upload et vérification relayés en flux vers Flask
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    // JPA reste bloquant : ses appels sont déportés sur un pool borné, jamais sur les threads Netty
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler(ReactiveProxyProperties properties) {
+        return Schedulers.newBoundedElastic(properties.getJpaThreads(), properties.getJpaQueueCapacity(), "jpa-bridge");
+    }
+
+    @Bean
+    public WebClient flaskWebClient(WebClient.Builder builder, FlaskProperties flaskProperties) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) flaskProperties.getConnectTimeout().toMillis())
+                .responseTimeout(flaskProperties.getReadTimeout());
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
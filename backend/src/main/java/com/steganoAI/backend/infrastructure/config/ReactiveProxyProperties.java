@@ -0,0 +1,19 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProxyProperties {
+    // Uploads / vérifications relayés simultanément vers Flask, au-delà : 429
+    private int maxInFlight = 1024;
+    // Morceaux du fichier demandés d'avance au client : borne la mémoire tampon par upload
+    private int prefetch = 4;
+    // Taille maximale d'un fichier reçu en flux (même limite que le multipart servlet), au-delà : 413
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+    // Threads du pont vers JPA (bloquant) : pas plus que de connexions dans le pool
+    private int jpaThreads = 10;
+    private int jpaQueueCapacity = 10_000;
+}
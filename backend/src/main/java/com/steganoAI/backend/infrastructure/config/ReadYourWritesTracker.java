@@ -0,0 +1,45 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mémorise les utilisateurs ayant écrit récemment pour que leurs lectures suivantes restent sur la primaire
+@Component
+public class ReadYourWritesTracker {
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final ReplicaProperties properties;
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    public void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        stickyUntil.put(username, now + properties.getReadYourWritesWindow().toNanos());
+        if (stickyUntil.size() > CLEANUP_THRESHOLD) {
+            stickyUntil.values().removeIf(deadline -> deadline - now <= 0);
+        }
+    }
+
+    public boolean isSticky(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long deadline = stickyUntil.get(username);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        stickyUntil.remove(username, deadline);
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Mesure périodiquement le retard de la réplique ; une réplique en retard ou injoignable est écartée des lectures
+@Slf4j
+public class ReplicaLagMonitor {
+    // Secondes depuis la dernière transaction rejouée, 0 si la réplique a tout rejoué (ou n'est pas en recovery)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+    private volatile boolean usable = false;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.lag-check-interval:PT2S}")
+    public void checkLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            update(lag != null ? lag : 0);
+        } catch (Exception e) {
+            lagSeconds = Double.NaN;
+            if (usable) {
+                log.warn("Réplique injoignable, lectures redirigées vers la primaire: {}", e.getMessage());
+            }
+            usable = false;
+        }
+    }
+
+    void update(double lag) {
+        lagSeconds = lag;
+        double max = maxLag.toMillis() / 1000.0;
+        // Hystérésis : on ne revient sur la réplique qu'une fois le retard redescendu sous la moitié du seuil
+        boolean next = usable ? lag <= max : lag <= max / 2;
+        if (next != usable) {
+            if (next) {
+                log.info("Réplique disponible (retard {}s), lectures réparties sur la réplique", lag);
+            } else {
+                log.warn("Retard de réplication {}s > {}s, lectures redirigées vers la primaire", lag, max);
+            }
+        }
+        usable = next;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
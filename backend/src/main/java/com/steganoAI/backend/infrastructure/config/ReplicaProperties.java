@@ -0,0 +1,20 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+    // Sans URL, toutes les requêtes restent sur la base primaire
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // Au-delà de ce retard de réplication, les lectures repassent sur la primaire
+    private Duration maxLag = Duration.ofSeconds(10);
+    // Fenêtre pendant laquelle un utilisateur lit sur la primaire après sa propre écriture
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,37 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.retention")
+public class RetentionProperties {
+    private boolean enabled = false;
+    private int batchSize = 500;
+    // Budget d'E/S : lignes supprimées et fichiers effacés par seconde (0 = illimité)
+    private int maxRowsPerSecond = 2000;
+    private int maxFileDeletesPerSecond = 200;
+    // Racine utilisée pour résoudre les chemins d'image relatifs
+    private String imageRoot = "";
+    // Fichiers à effacer mis en attente sur disque quand la file du thread de suppression est pleine
+    private String pendingDeletionsFile = "purge/pending-deletions.txt";
+    // Lots de fichiers en file pour le thread de suppression avant débordement sur disque
+    private int fileDeletionQueueCapacity = 1000;
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private Duration maxAge;
+        private String status;
+        private String username;
+
+        public boolean hasCriteria() {
+            return maxAge != null || status != null || username != null;
+        }
+    }
+}
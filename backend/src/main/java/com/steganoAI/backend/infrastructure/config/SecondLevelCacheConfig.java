@@ -0,0 +1,30 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+// Gestionnaire JCache propre à chaque contexte Spring (régions toujours lues dans application.conf) :
+// Hibernate ferme son gestionnaire avec la SessionFactory, celui par défaut de la JVM serait fermé pour
+// tous les contextes (tests) au premier arrêt, et ses entrées partagées entre bases différentes.
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.provider}") String provider) {
+        return properties -> {
+            CachingProvider cachingProvider = Caching.getCachingProvider(provider);
+            properties.put("hibernate.javax.cache.cache_manager", cachingProvider.getCacheManager(
+                    URI.create("urn:stegano:l2:" + UUID.randomUUID()), cachingProvider.getDefaultClassLoader()));
+        };
+    }
+}
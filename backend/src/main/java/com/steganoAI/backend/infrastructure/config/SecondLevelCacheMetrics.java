@@ -0,0 +1,55 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+
+// Évictions par région du cache de second niveau, lues sur les MXBeans JCache de Caffeine.
+// Les succès/échecs par région sont publiés par hibernate-micrometer (hibernate.second.level.cache.requests).
+@Component
+@Slf4j
+public class SecondLevelCacheMetrics implements MeterBinder {
+    static final List<String> REGIONS = List.of(
+            "images", "users", "image-queries", "user-queries",
+            "default-update-timestamps-region", "default-query-results-region");
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : REGIONS) {
+            FunctionCounter.builder("hibernate.second.level.cache.evictions", this, metrics -> metrics.read(region, "CacheEvictions"))
+                    .tag("region", region)
+                    .description("Entrées évincées de la région (taille ou expiration)")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.second.level.cache.removals", this, metrics -> metrics.read(region, "CacheRemovals"))
+                    .tag("region", region)
+                    .description("Entrées invalidées explicitement dans la région")
+                    .register(registry);
+        }
+    }
+
+    private double read(String region, String attribute) {
+        try {
+            // La région peut être créée après l'enregistrement des métriques : résolution à chaque lecture
+            Set<ObjectName> names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            double total = 0;
+            for (ObjectName name : names) {
+                total += ((Number) mBeanServer.getAttribute(name, attribute)).doubleValue();
+            }
+            return total;
+        } catch (Exception e) {
+            log.debug("Statistiques JCache indisponibles pour {}: {}", region, e.getMessage());
+            return 0;
+        }
+    }
+}
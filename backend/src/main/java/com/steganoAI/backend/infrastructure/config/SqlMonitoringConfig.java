@@ -0,0 +1,58 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.infrastructure.service.SqlMonitoringListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Enveloppe le DataSource principal ("dataSource" : pool Hikari ou routage primaire/réplique)
+// dans le proxy JDBC. Le bean garde son type : seul getConnection() passe par le proxy.
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql.monitoring", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public SqlMonitoringListener sqlMonitoringListener(SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        return new SqlMonitoringListener(properties, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlMonitoringDataSourcePostProcessor(ObjectProvider<SqlMonitoringListener> listener,
+                                                                         ObjectProvider<SqlMonitoringProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(listener.getObject());
+                if (properties.getObject().isCountRows()) {
+                    builder.proxyResultSet().methodListener(listener.getObject());
+                }
+                DataSource monitored = builder.build();
+
+                ProxyFactory factory = new ProxyFactory(dataSource);
+                factory.setProxyTargetClass(true);
+                factory.addAdvice((MethodInterceptor) invocation -> {
+                    if (!"getConnection".equals(invocation.getMethod().getName())) {
+                        return invocation.proceed();
+                    }
+                    Object[] args = invocation.getArguments();
+                    return args.length == 0
+                            ? monitored.getConnection()
+                            : monitored.getConnection((String) args[0], (String) args[1]);
+                });
+                return factory.getProxy(dataSource.getClass().getClassLoader());
+            }
+        };
+    }
+}
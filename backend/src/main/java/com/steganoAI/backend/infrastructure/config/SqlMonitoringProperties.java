@@ -0,0 +1,22 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.sql.monitoring")
+public class SqlMonitoringProperties {
+    private boolean enabled = true;
+    // Au-delà, la requête est journalisée avec ses paramètres (hors du thread appelant)
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+    // Requêtes lentes en attente d'écriture dans le journal ; au-delà elles sont comptées puis ignorées
+    private int slowQueryLogQueueCapacity = 1000;
+    // Comptage des lignes lues : proxy sur chaque ResultSet
+    private boolean countRows = true;
+    // Avertissement quand une requête HTTP dépasse ce nombre de requêtes SQL (N+1 probable)
+    private int requestQueryWarnThreshold = 30;
+    // En-tête X-Query-Count sur les réponses (débogage)
+    private boolean queryCountHeader = false;
+}
@@ -0,0 +1,19 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.infrastructure.service.ImageFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.upload.validation")
+public class UploadValidationProperties {
+    private boolean enabled = true;
+    private Set<ImageFormat> allowedFormats = EnumSet.of(
+            ImageFormat.PNG, ImageFormat.JPEG, ImageFormat.GIF, ImageFormat.BMP, ImageFormat.WEBP);
+    // Protection contre les bombes de décompression : largeur x hauteur maximale
+    private long maxPixels = 50_000_000L;
+    private boolean checkExtension = true;
+}
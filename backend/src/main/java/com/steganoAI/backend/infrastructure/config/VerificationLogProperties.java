@@ -0,0 +1,33 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.verification-log")
+public class VerificationLogProperties {
+    public enum Overflow {
+        // File pleine : la nouvelle entrée est perdue, la vérification n'attend jamais
+        DROP_NEWEST,
+        // File pleine : l'entrée la plus ancienne est perdue au profit de la nouvelle
+        DROP_OLDEST,
+        // File pleine : la vérification attend une place jusqu'à offer-timeout, puis l'entrée est perdue
+        BLOCK
+    }
+
+    private boolean enabled = true;
+    // Entrées en attente d'écriture (arrondi à la puissance de deux supérieure)
+    private int capacity = 8192;
+    // Lignes par lot JDBC : un lot complet est écrit sans attendre flush-interval
+    private int batchSize = 500;
+    // Attente maximale d'une entrée avant écriture
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private Overflow overflow = Overflow.DROP_NEWEST;
+    private Duration offerTimeout = Duration.ofMillis(50);
+    // Tentatives d'écriture d'un lot avant abandon (base indisponible)
+    private int maxAttempts = 3;
+    // Temps laissé à l'arrêt pour écrire les entrées restantes
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
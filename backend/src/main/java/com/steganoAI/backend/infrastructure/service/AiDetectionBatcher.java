@@ -0,0 +1,220 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Micro-lots de détection IA : les demandes sont regroupées jusqu'à N images ou T ms,
+// envoyées en un appel puis les résultats sont redistribués aux CompletableFuture en attente.
+// N et T s'adaptent à la charge : sans trafic concurrent, une demande part immédiatement.
+// La file est bornée (max-queued-requests) : au-delà, la demande échoue aussitôt avec
+// RejectedExecutionException et l'appelant passe par l'appel individuel.
+@Slf4j
+public class AiDetectionBatcher {
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final FlaskProperties.Batching settings;
+    private final Function<List<Resource>, List<Map<String, Object>>> sender;
+    private final BlockingQueue<Pending> queue;
+    private final Semaphore inFlight;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private final DistributionSummary fillRatio;
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    // Intervalle moyen entre deux demandes et durée moyenne d'un appel de lot (ns)
+    private long lastArrivalNanos;
+    private volatile double arrivalIntervalNanos = Double.NaN;
+    private volatile double batchLatencyNanos = Double.NaN;
+
+    public AiDetectionBatcher(FlaskProperties.Batching settings,
+                              Function<List<Resource>, List<Map<String, Object>>> sender,
+                              MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.sender = sender;
+        this.inFlight = new Semaphore(Math.max(1, settings.getMaxInFlightBatches()));
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, settings.getMaxQueuedRequests()));
+        this.fillRatio = DistributionSummary.builder("flask.ai.batch.fill")
+                .description("Taille du lot rapportée à la taille maximale")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("flask.ai.batch.size")
+                .description("Images par appel de détection IA")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("flask.ai.batch.queue.wait")
+                .description("Latence ajoutée par la mise en lot (attente avant envoi)")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("flask.ai.batch.rejected")
+                .description("Demandes refusées, file du regroupement pleine")
+                .register(meterRegistry);
+        Gauge.builder("flask.ai.batch.linger", this, batcher -> batcher.lingerNanos() / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .description("Attente courante avant envoi d'un lot incomplet")
+                .register(meterRegistry);
+        Gauge.builder("flask.ai.batch.target", this, AiDetectionBatcher::targetBatchSize)
+                .description("Taille de lot visée selon la charge")
+                .register(meterRegistry);
+        this.dispatcher = Thread.ofPlatform().name("ai-detection-batcher").daemon().start(this::dispatchLoop);
+    }
+
+    public CompletableFuture<Map<String, Object>> submit(Resource image) {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Regroupement IA arrêté"));
+            return result;
+        }
+        recordArrival();
+        if (!queue.offer(new Pending(image, System.nanoTime(), result))) {
+            rejected.increment();
+            result.completeExceptionally(new RejectedExecutionException(
+                    "File du regroupement IA pleine (" + settings.getMaxQueuedRequests() + " demandes)"));
+        }
+        return result;
+    }
+
+    private void dispatchLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Le jeton est pris avant de remplir le lot : si Flask est saturé, les demandes
+                // s'accumulent pendant l'attente et le lot suivant part plus plein
+                inFlight.acquire();
+                List<Pending> batch = collect(first);
+                batchExecutor.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<Pending> collect(Pending first) throws InterruptedException {
+        int limit = targetBatchSize();
+        List<Pending> batch = new ArrayList<>(limit);
+        batch.add(first);
+        queue.drainTo(batch, limit - batch.size());
+        long deadline = first.enqueuedNanos + lingerNanos();
+        while (batch.size() < limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, limit - batch.size());
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            for (Pending pending : batch) {
+                queueWait.record(start - pending.enqueuedNanos, TimeUnit.NANOSECONDS);
+            }
+            fillRatio.record((double) batch.size() / settings.getMaxBatchSize());
+            batchSize.record(batch.size());
+
+            List<Resource> images = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                images.add(pending.image);
+            }
+            List<Map<String, Object>> results = sender.apply(images);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("Réponse de lot incomplète: " + (results == null ? 0 : results.size())
+                        + " résultat(s) pour " + batch.size() + " image(s)");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la détection IA par lot ({} images): {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+        } finally {
+            recordBatchLatency(System.nanoTime() - start);
+            inFlight.release();
+        }
+    }
+
+    private synchronized void recordArrival() {
+        long now = System.nanoTime();
+        if (lastArrivalNanos != 0) {
+            long interval = now - lastArrivalNanos;
+            arrivalIntervalNanos = Double.isNaN(arrivalIntervalNanos)
+                    ? interval : arrivalIntervalNanos + EWMA_WEIGHT * (interval - arrivalIntervalNanos);
+        }
+        lastArrivalNanos = now;
+    }
+
+    private void recordBatchLatency(long nanos) {
+        double current = batchLatencyNanos;
+        batchLatencyNanos = Double.isNaN(current) ? nanos : current + EWMA_WEIGHT * (nanos - current);
+    }
+
+    // Loi de Little : demandes arrivant pendant un appel de lot, réparties sur les lots simultanés
+    int targetBatchSize() {
+        double interval = arrivalIntervalNanos;
+        double latency = batchLatencyNanos;
+        if (Double.isNaN(interval) || Double.isNaN(latency) || interval <= 0) {
+            return settings.getMaxBatchSize();
+        }
+        double perBatch = latency / (interval * Math.max(1, settings.getMaxInFlightBatches()));
+        return (int) Math.max(1, Math.min(settings.getMaxBatchSize(), Math.ceil(perBatch)));
+    }
+
+    // Attente d'un lot incomplet : nulle si moins d'une demande est attendue pendant maxLinger,
+    // sinon le temps estimé pour remplir le lot visé, plafonné à maxLinger
+    long lingerNanos() {
+        long maxLinger = settings.getMaxLinger().toNanos();
+        double interval = arrivalIntervalNanos;
+        if (Double.isNaN(interval) || interval > maxLinger) {
+            return 0;
+        }
+        return (long) Math.min(maxLinger, (targetBatchSize() - 1) * interval);
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batchExecutor.shutdown();
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Regroupement IA arrêté"));
+        }
+    }
+
+    private record Pending(Resource image, long enqueuedNanos, CompletableFuture<Map<String, Object>> result) {
+    }
+}
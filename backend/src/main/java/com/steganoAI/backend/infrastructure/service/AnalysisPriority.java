@@ -0,0 +1,11 @@
+package com.steganoAI.backend.infrastructure.service;
+
+// Classes de priorité des analyses Flask, de la plus urgente à la moins urgente
+public enum AnalysisPriority {
+    // Vérification d'intégrité : l'utilisateur attend la réponse à l'écran
+    INTERACTIVE,
+    // Upload unitaire ou ajout de stéganographie
+    UPLOAD,
+    // Upload en masse, ré-analyse en arrière-plan
+    BACKGROUND
+}
@@ -0,0 +1,16 @@
+package com.steganoAI.backend.infrastructure.service;
+
+public class AnalysisRejectedException extends RuntimeException {
+    public enum Reason { QUEUE_FULL, DEADLINE_EXCEEDED, SHUTDOWN }
+
+    private final Reason reason;
+
+    public AnalysisRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,337 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.AnalysisSchedulerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Ordonnanceur des analyses Flask : un nombre fixe de workers, priorité stricte entre classes
+// (vérification interactive > upload > arrière-plan) et partage équitable pondéré entre utilisateurs
+// dans chaque classe (étiquettes de temps virtuel). Une analyse non démarrée avant son échéance est abandonnée.
+@Component
+@Slf4j
+public class AnalysisScheduler {
+    private final AnalysisSchedulerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<AnalysisPriority, ClassQueue> queues = new EnumMap<>(AnalysisPriority.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private volatile boolean running = true;
+    private long sequence;
+
+    public AnalysisScheduler(AnalysisSchedulerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (AnalysisPriority priority : AnalysisPriority.values()) {
+            queues.put(priority, new ClassQueue(priority));
+        }
+        Gauge.builder("analysis.workers.busy", busyWorkers, AtomicInteger::get)
+                .description("Analyses Flask en cours")
+                .register(meterRegistry);
+        if (properties.isEnabled()) {
+            for (int i = 0; i < Math.max(1, properties.getWorkers()); i++) {
+                workers.add(Thread.ofPlatform().name("analysis-worker-" + i).daemon().start(this::workLoop));
+            }
+        }
+    }
+
+    public <T> T execute(AnalysisPriority priority, String username, Supplier<T> work) {
+        return await(submit(priority, username, work));
+    }
+
+    // Lève AnalysisRejectedException si la file de l'utilisateur est pleine ; l'abandon sur échéance
+    // est signalé par le CompletableFuture
+    public <T> CompletableFuture<T> submit(AnalysisPriority priority, String username, Supplier<T> work) {
+        if (!properties.isEnabled()) {
+            // Sans ordonnancement, l'analyse s'exécute dans le thread appelant
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        Duration deadline = deadlineOf(priority);
+        Task<T> task;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new AnalysisRejectedException(AnalysisRejectedException.Reason.SHUTDOWN,
+                        "Ordonnanceur d'analyses arrêté");
+            }
+            task = new Task<>(priority, username, work, System.nanoTime() + deadline.toNanos(), sequence++);
+            queues.get(priority).enqueue(task);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS).execute(() -> expire(task));
+        return task.result;
+    }
+
+    public static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (CancellationException e) {
+            throw new AnalysisRejectedException(AnalysisRejectedException.Reason.SHUTDOWN, "Analyse annulée");
+        }
+    }
+
+    public int getQueueDepth(AnalysisPriority priority) {
+        return queues.get(priority).depth;
+    }
+
+    private void workLoop() {
+        while (running) {
+            Task<?> task;
+            try {
+                task = next();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task != null) {
+                run(task);
+            }
+        }
+    }
+
+    private Task<?> next() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                // EnumMap : parcours dans l'ordre des priorités
+                for (ClassQueue queue : queues.values()) {
+                    Task<?> task = queue.poll();
+                    if (task != null) {
+                        return task;
+                    }
+                }
+                workAvailable.await();
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> void run(Task<T> task) {
+        queues.get(task.priority).waitTimer.record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+        busyWorkers.incrementAndGet();
+        try {
+            task.result.complete(task.work.get());
+        } catch (Throwable e) {
+            task.result.completeExceptionally(e);
+        } finally {
+            busyWorkers.decrementAndGet();
+        }
+    }
+
+    private void expire(Task<?> task) {
+        lock.lock();
+        try {
+            if (task.started || task.result.isDone()) {
+                return;
+            }
+            queues.get(task.priority).remove(task);
+        } finally {
+            lock.unlock();
+        }
+        drop(task);
+    }
+
+    private void drop(Task<?> task) {
+        rejected(task.priority, AnalysisRejectedException.Reason.DEADLINE_EXCEEDED).increment();
+        log.warn("Analyse {} de {} abandonnée : échéance dépassée après {} ms d'attente", task.priority, task.username,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedNanos));
+        task.result.completeExceptionally(new AnalysisRejectedException(AnalysisRejectedException.Reason.DEADLINE_EXCEEDED,
+                "Analyse non démarrée avant son échéance, réessayez plus tard"));
+    }
+
+    private Counter rejected(AnalysisPriority priority, AnalysisRejectedException.Reason reason) {
+        return Counter.builder("analysis.rejected")
+                .description("Analyses refusées ou abandonnées avant leur exécution")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("reason", reason.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private Duration deadlineOf(AnalysisPriority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> properties.getInteractiveDeadline();
+            case UPLOAD -> properties.getUploadDeadline();
+            case BACKGROUND -> properties.getBackgroundDeadline();
+        };
+    }
+
+    private double weightOf(String username) {
+        Double weight = properties.getUserWeights().get(username);
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Task<?>> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            running = false;
+            for (ClassQueue queue : queues.values()) {
+                pending.addAll(queue.drain());
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Task<?> task : pending) {
+            task.result.completeExceptionally(new AnalysisRejectedException(AnalysisRejectedException.Reason.SHUTDOWN,
+                    "Ordonnanceur d'analyses arrêté"));
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // File d'une classe : chaque analyse reçoit une étiquette de fin virtuelle
+    // max(temps virtuel, fin de la précédente du même utilisateur) + 1 / poids,
+    // la plus petite étiquette part en premier. Un utilisateur qui envoie 500 images n'avance son
+    // étiquette que pour lui : les autres passent entre ses analyses. Accès sous le verrou de l'ordonnanceur.
+    private final class ClassQueue {
+        private final AnalysisPriority priority;
+        private final PriorityQueue<Task<?>> tasks = new PriorityQueue<>(
+                Comparator.<Task<?>>comparingDouble(task -> task.finishTag).thenComparingLong(task -> task.sequence));
+        private final Map<String, UserShare> users = new HashMap<>();
+        private final Timer waitTimer;
+        private double virtualTime;
+        private volatile int depth;
+
+        private ClassQueue(AnalysisPriority priority) {
+            this.priority = priority;
+            String tag = priority.name().toLowerCase();
+            this.waitTimer = Timer.builder("analysis.queue.wait")
+                    .description("Attente d'une analyse avant son envoi à Flask")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            Gauge.builder("analysis.queue.depth", this, queue -> queue.depth)
+                    .description("Analyses en attente d'un worker")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+
+        private void enqueue(Task<?> task) {
+            UserShare share = users.computeIfAbsent(task.username, username -> new UserShare());
+            if (share.pending >= properties.getPerUserQueueCapacity()) {
+                rejected(priority, AnalysisRejectedException.Reason.QUEUE_FULL).increment();
+                throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL,
+                        "Trop d'analyses en attente pour cet utilisateur, réessayez plus tard");
+            }
+            task.startTag = Math.max(virtualTime, share.lastFinish);
+            task.finishTag = task.startTag + 1.0 / weightOf(task.username);
+            share.lastFinish = task.finishTag;
+            share.pending++;
+            tasks.add(task);
+            depth = tasks.size();
+        }
+
+        private Task<?> poll() {
+            Task<?> task;
+            while ((task = tasks.poll()) != null) {
+                release(task);
+                if (task.result.isDone()) {
+                    // Annulée par l'appelant
+                    continue;
+                }
+                if (System.nanoTime() - task.deadlineNanos > 0) {
+                    drop(task);
+                    continue;
+                }
+                task.started = true;
+                virtualTime = Math.max(virtualTime, task.startTag);
+                // Un utilisateur inactif ne garde pas d'avance ni de retard
+                users.values().removeIf(share -> share.pending == 0 && share.lastFinish <= virtualTime);
+                return task;
+            }
+            return null;
+        }
+
+        private void remove(Task<?> task) {
+            if (tasks.remove(task)) {
+                release(task);
+            }
+        }
+
+        private List<Task<?>> drain() {
+            List<Task<?>> drained = new ArrayList<>(tasks);
+            tasks.clear();
+            users.clear();
+            depth = 0;
+            return drained;
+        }
+
+        private void release(Task<?> task) {
+            UserShare share = users.get(task.username);
+            if (share != null) {
+                share.pending--;
+            }
+            depth = tasks.size();
+        }
+    }
+
+    private static final class UserShare {
+        private int pending;
+        private double lastFinish;
+    }
+
+    private static final class Task<T> {
+        private final AnalysisPriority priority;
+        private final String username;
+        private final Supplier<T> work;
+        private final long enqueuedNanos = System.nanoTime();
+        private final long deadlineNanos;
+        private final long sequence;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private double startTag;
+        private double finishTag;
+        private boolean started;
+
+        private Task(AnalysisPriority priority, String username, Supplier<T> work, long deadlineNanos, long sequence) {
+            this.priority = priority;
+            this.username = username;
+            this.work = work;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tampons directs réutilisables pour les copies d'octets d'images qui passent par un canal (envoi à Flask,
+// blocs des uploads reprenables, images réduites). Côté canal, un tampon direct évite la copie par le tampon
+// temporaire que le JDK garde par thread (taille du plus gros tampon de tas vu, jamais rendue) ; côté flux, un
+// tableau intermédiaire appartenant au même emplacement évite le byte[] que chaque adaptateur allouerait.
+// Les lectures qui finissent dans le tas (condensés) ne prennent pas de tampon direct, qui ne ferait qu'ajouter
+// une copie. Classes de taille fixes : un petit fichier n'immobilise pas un tampon de 1 Mo.
+@Component
+@Slf4j
+public class DirectBufferPool {
+    static final int STAGING_SIZE = 16 * 1024;
+    private static final ThreadLocal<byte[]> DIGEST_BUFFER = ThreadLocal.withInitial(() -> new byte[STAGING_SIZE]);
+
+    private final int[] sizes;
+    private final List<BlockingQueue<Entry>> free = new ArrayList<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong leasedBytes = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter allocatedBytes;
+    // Bail -> trace d'acquisition, uniquement si la détection de fuites est activée
+    private final Map<Lease, Throwable> outstanding;
+
+    public DirectBufferPool(BufferPoolProperties properties, MeterRegistry meterRegistry) {
+        this.sizes = properties.getSizeClasses().stream()
+                .mapToInt(size -> Math.toIntExact(size.toBytes()))
+                .sorted()
+                .toArray();
+        if (sizes.length == 0 || sizes[0] <= 0) {
+            throw new IllegalArgumentException("Classes de taille des tampons invalides: " + properties.getSizeClasses());
+        }
+        for (int ignored : sizes) {
+            free.add(new ArrayBlockingQueue<>(Math.max(1, properties.getMaxRetainedPerClass())));
+        }
+        this.outstanding = properties.isLeakDetection() ? new ConcurrentHashMap<>() : null;
+
+        this.hits = Counter.builder("buffer.pool.acquire")
+                .tag("result", "hit")
+                .description("Tampons repris dans le pool")
+                .register(meterRegistry);
+        this.misses = Counter.builder("buffer.pool.acquire")
+                .tag("result", "miss")
+                .description("Tampons alloués faute de tampon libre")
+                .register(meterRegistry);
+        this.allocatedBytes = Counter.builder("buffer.pool.allocated")
+                .baseUnit("bytes")
+                .description("Mémoire native allouée pour de nouveaux tampons")
+                .register(meterRegistry);
+        Gauge.builder("buffer.pool.leased", leased, AtomicInteger::get)
+                .description("Tampons empruntés et pas encore rendus")
+                .register(meterRegistry);
+        Gauge.builder("buffer.pool.leased.bytes", leasedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("buffer.pool.retained.bytes", retainedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .description("Tampons libres conservés pour réemploi")
+                .register(meterRegistry);
+    }
+
+    // sizeHint : taille attendue des données ; au-delà de la plus grande classe, la copie se fait en plusieurs passes
+    public Lease acquire(long sizeHint) {
+        int sizeClass = sizeClassFor(sizeHint);
+        Entry entry = free.get(sizeClass).poll();
+        if (entry != null) {
+            retainedBytes.addAndGet(-entry.buffer.capacity());
+            entry.buffer.clear();
+            hits.increment();
+        } else {
+            entry = new Entry(ByteBuffer.allocateDirect(sizes[sizeClass]), sizeClass);
+            misses.increment();
+            allocatedBytes.increment(entry.buffer.capacity());
+        }
+        leased.incrementAndGet();
+        leasedBytes.addAndGet(entry.buffer.capacity());
+
+        Lease lease = new Lease(entry);
+        if (outstanding != null) {
+            outstanding.put(lease, new Throwable("Tampon de " + entry.buffer.capacity() + " octets acquis ici"));
+        }
+        return lease;
+    }
+
+    private int sizeClassFor(long sizeHint) {
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizeHint <= sizes[i]) {
+                return i;
+            }
+        }
+        return sizes.length - 1;
+    }
+
+    private void release(Lease lease) {
+        if (outstanding != null) {
+            outstanding.remove(lease);
+        }
+        Entry entry = lease.entry;
+        leased.decrementAndGet();
+        leasedBytes.addAndGet(-entry.buffer.capacity());
+        if (free.get(entry.sizeClass).offer(entry)) {
+            retainedBytes.addAndGet(entry.buffer.capacity());
+        }
+    }
+
+    // Copie complète d'un canal vers un flux (corps de la requête envoyée à Flask)
+    public long transfer(ReadableByteChannel in, OutputStream out, long sizeHint) throws IOException {
+        try (Lease lease = acquire(sizeHint)) {
+            ByteBuffer buffer = lease.buffer();
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer.clear())) >= 0) {
+                buffer.flip();
+                lease.drain(out);
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    // Fichier déjà sur disque (upload par blocs, part multipart de Tomcat) : copie par le noyau, sans tampon.
+    // Une part gardée en mémoire (sous spring.servlet.multipart.file-size-threshold) est écrite d'un seul bloc
+    public void copy(MultipartFile file, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (file instanceof PathMultipartFile pathFile) {
+                try (FileChannel in = FileChannel.open(pathFile.getPath(), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                return;
+            }
+            // Flux d'un fichier (Files.newInputStream) vers un canal de fichier : transferTo du JDK passe par
+            // FileChannel.transferTo
+            try (InputStream in = file.getInputStream()) {
+                in.transferTo(Channels.newOutputStream(out));
+            }
+        }
+    }
+
+    // Le condensé lit un tableau du tas : le flux y copie les octets une seule fois, sans tampon direct
+    public void update(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = DIGEST_BUFFER.get();
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            digest.update(buffer, 0, read);
+        }
+    }
+
+    public int getLeasedCount() {
+        return leased.get();
+    }
+
+    // Tampons empruntés et jamais rendus, avec leur trace d'acquisition (détection de fuites activée)
+    public List<Throwable> getLeaks() {
+        return outstanding != null ? List.copyOf(outstanding.values()) : List.of();
+    }
+
+    @PreDestroy
+    void reportLeaks() {
+        for (Throwable leak : getLeaks()) {
+            log.error("Tampon direct jamais rendu au pool", leak);
+        }
+    }
+
+    // Tampon direct et tableau intermédiaire, réemployés ensemble
+    private static final class Entry {
+        private final ByteBuffer buffer;
+        private final byte[] staging;
+        private final int sizeClass;
+
+        private Entry(ByteBuffer buffer, int sizeClass) {
+            this.buffer = buffer;
+            this.staging = new byte[Math.min(buffer.capacity(), STAGING_SIZE)];
+            this.sizeClass = sizeClass;
+        }
+    }
+
+    // Tampon emprunté : à fermer (try-with-resources) dès la copie terminée, sans garder de référence au tampon
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public ByteBuffer buffer() {
+            if (released.get()) {
+                throw new IllegalStateException("Tampon déjà rendu au pool");
+            }
+            return entry.buffer;
+        }
+
+        // Vide le tampon puis le remplit depuis le flux, au plus max octets : nombre d'octets lus, -1 en fin de flux.
+        // Réservé aux flux sans canal (corps de requête) destinés à un canal de fichier : le passage par le tableau
+        // intermédiaire remplace la copie que le JDK ferait de toute façon vers son propre tampon direct
+        public long fill(InputStream in, long max) throws IOException {
+            ByteBuffer buffer = buffer().clear();
+            byte[] staging = entry.staging;
+            long total = 0;
+            while (buffer.hasRemaining() && total < max) {
+                int read = in.read(staging, 0, (int) Math.min(Math.min(staging.length, buffer.remaining()), max - total));
+                if (read < 0) {
+                    break;
+                }
+                buffer.put(staging, 0, read);
+                total += read;
+            }
+            return total == 0 && max > 0 ? -1 : total;
+        }
+
+        // Écrit dans le flux les octets restants du tampon (entre position et limite)
+        public void drain(OutputStream out) throws IOException {
+            ByteBuffer buffer = buffer();
+            byte[] staging = entry.staging;
+            while (buffer.hasRemaining()) {
+                int length = Math.min(staging.length, buffer.remaining());
+                buffer.get(staging, 0, length);
+                out.write(staging, 0, length);
+            }
+        }
+
+        // Lecture des length premiers octets du tampon, sans déplacer sa position (plusieurs lectures possibles)
+        public InputStream newInputStream(int length) {
+            ByteBuffer content = buffer().slice(0, length);
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return content.hasRemaining() ? content.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!content.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(len, content.remaining());
+                    content.get(b, off, count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return content.remaining();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FlaskEndpoint {
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile double latencyEwmaMs;
+    private volatile boolean healthy = true;
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+    private volatile int ejectionCount;
+
+    public FlaskEndpoint(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public double getLatencyEwmaMs() {
+        return latencyEwmaMs;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public int getEjectionCount() {
+        return ejectionCount;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public boolean isEjected(long nowNanos) {
+        if (ejected && nowNanos - ejectedUntilNanos >= 0) {
+            ejected = false;
+        }
+        return ejected;
+    }
+
+    public boolean isAvailable(long nowNanos) {
+        return healthy && !isEjected(nowNanos);
+    }
+
+    void begin() {
+        outstanding.incrementAndGet();
+        requests.incrementAndGet();
+    }
+
+    void end() {
+        outstanding.decrementAndGet();
+    }
+
+    void recordSuccess(long latencyNanos) {
+        consecutiveFailures.set(0);
+        double latencyMs = latencyNanos / 1_000_000.0;
+        double previous = latencyEwmaMs;
+        latencyEwmaMs = previous == 0 ? latencyMs : previous + EWMA_ALPHA * (latencyMs - previous);
+    }
+
+    int recordFailure() {
+        failures.incrementAndGet();
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void eject(long nowNanos, long durationNanos) {
+        ejectionCount++;
+        ejectedUntilNanos = nowNanos + durationNanos;
+        ejected = true;
+        // La latence repart de zéro : l'instance doit refaire ses preuves à son retour
+        latencyEwmaMs = 0;
+        consecutiveFailures.set(0);
+    }
+
+    void forgiveEjection() {
+        if (ejectionCount > 0) {
+            ejectionCount--;
+        }
+    }
+
+    public Map<String, Object> toStatus(long nowNanos) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("url", baseUrl);
+        status.put("healthy", healthy);
+        status.put("ejected", isEjected(nowNanos));
+        status.put("outstanding", outstanding.get());
+        status.put("latency_ms", Math.round(latencyEwmaMs));
+        status.put("requests", requests.get());
+        status.put("failures", failures.get());
+        return status;
+    }
+}
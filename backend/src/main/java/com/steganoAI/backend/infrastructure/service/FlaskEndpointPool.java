@@ -0,0 +1,329 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class FlaskEndpointPool {
+    private final FlaskProperties properties;
+    private final RestTemplate healthCheckTemplate;
+    private volatile List<FlaskEndpoint> endpoints = List.of();
+
+    public FlaskEndpointPool(FlaskProperties properties) {
+        this.properties = properties;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getHealthCheck().getTimeout());
+        requestFactory.setReadTimeout(properties.getHealthCheck().getTimeout());
+        this.healthCheckTemplate = new RestTemplate(requestFactory);
+        refreshEndpoints();
+    }
+
+    public <T> T execute(String stickyKey, Function<String, T> call) {
+        Set<FlaskEndpoint> tried = new HashSet<>();
+        RuntimeException lastError = null;
+
+        for (int attempt = 0; attempt < Math.max(1, properties.getMaxAttempts()); attempt++) {
+            FlaskEndpoint endpoint = select(stickyKey, tried);
+            if (endpoint == null) {
+                break;
+            }
+            tried.add(endpoint);
+
+            long start = System.nanoTime();
+            endpoint.begin();
+            try {
+                T result = call.apply(endpoint.getBaseUrl());
+                endpoint.recordSuccess(System.nanoTime() - start);
+                return result;
+            } catch (HttpClientErrorException e) {
+                // Erreur 4xx : la requête est en cause, pas l'instance
+                endpoint.recordSuccess(System.nanoTime() - start);
+                throw e;
+            } catch (RuntimeException e) {
+                recordFailure(endpoint);
+                lastError = e;
+                // Seul un échec de connexion garantit que Flask n'a rien traité : on retente ailleurs
+                if (!isConnectFailure(e)) {
+                    throw e;
+                }
+                log.warn("Instance Flask {} injoignable, nouvelle tentative: {}", endpoint.getBaseUrl(), e.getMessage());
+            } finally {
+                endpoint.end();
+            }
+        }
+
+        throw lastError != null ? lastError : new IllegalStateException("Aucune instance Flask disponible");
+    }
+
+    // Variante non bloquante (pile réactive) : un seul essai, un corps envoyé en flux ne peut pas être rejoué
+    public <T> Mono<T> executeAsync(String stickyKey, Function<String, Mono<T>> call) {
+        return Mono.defer(() -> {
+            FlaskEndpoint endpoint = select(stickyKey, Set.of());
+            if (endpoint == null) {
+                return Mono.error(new IllegalStateException("Aucune instance Flask disponible"));
+            }
+            long start = System.nanoTime();
+            endpoint.begin();
+            return call.apply(endpoint.getBaseUrl())
+                    .doOnSuccess(result -> endpoint.recordSuccess(System.nanoTime() - start))
+                    .doOnError(e -> {
+                        // Erreur 4xx : la requête est en cause, pas l'instance
+                        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+                            endpoint.recordSuccess(System.nanoTime() - start);
+                        } else {
+                            recordFailure(endpoint);
+                        }
+                    })
+                    .doFinally(signal -> endpoint.end());
+        });
+    }
+
+    FlaskEndpoint select(String stickyKey, Set<FlaskEndpoint> excluded) {
+        long now = System.nanoTime();
+        List<FlaskEndpoint> candidates = new ArrayList<>();
+        for (FlaskEndpoint endpoint : endpoints) {
+            if (!excluded.contains(endpoint) && endpoint.isAvailable(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Mode panique : mieux vaut solliciter une instance douteuse que refuser la requête
+            for (FlaskEndpoint endpoint : endpoints) {
+                if (!excluded.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        if (stickyKey != null) {
+            FlaskEndpoint preferred = rendezvous(stickyKey, candidates);
+            int minOutstanding = candidates.stream().mapToInt(FlaskEndpoint::getOutstanding).min().orElse(0);
+            if (preferred.getOutstanding() - minOutstanding <= properties.getStickyLoadSlack()) {
+                return preferred;
+            }
+        }
+
+        return properties.getBalancer() == FlaskProperties.Balancer.LEAST_OUTSTANDING
+                ? leastOutstanding(candidates)
+                : powerOfTwoChoices(candidates);
+    }
+
+    public List<FlaskEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public List<Map<String, Object>> getStatuses() {
+        long now = System.nanoTime();
+        return endpoints.stream().map(endpoint -> endpoint.toStatus(now)).toList();
+    }
+
+    @Scheduled(initialDelayString = "${flask.api.discovery.refresh-interval:PT30S}",
+               fixedDelayString = "${flask.api.discovery.refresh-interval:PT30S}")
+    public void refreshEndpoints() {
+        Set<String> urls = new LinkedHashSet<>(properties.getBaseUrls());
+
+        FlaskProperties.Discovery discovery = properties.getDiscovery();
+        if (discovery.getFile() != null && !discovery.getFile().isBlank()) {
+            urls.addAll(readDiscoveryFile(Paths.get(discovery.getFile())));
+        }
+        if (discovery.getDnsName() != null && !discovery.getDnsName().isBlank()) {
+            urls.addAll(resolveDns(discovery));
+        }
+        if (urls.isEmpty()) {
+            urls.add(properties.getBaseUrl());
+        }
+
+        // Conserver les statistiques des instances déjà connues
+        Map<String, FlaskEndpoint> known = new HashMap<>();
+        for (FlaskEndpoint endpoint : endpoints) {
+            known.put(endpoint.getBaseUrl(), endpoint);
+        }
+        List<FlaskEndpoint> refreshed = new ArrayList<>();
+        for (String url : urls) {
+            String normalized = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            refreshed.add(known.getOrDefault(normalized, new FlaskEndpoint(normalized)));
+        }
+        if (!refreshed.stream().map(FlaskEndpoint::getBaseUrl).toList()
+                .equals(endpoints.stream().map(FlaskEndpoint::getBaseUrl).toList())) {
+            log.info("Instances Flask: {}", refreshed.stream().map(FlaskEndpoint::getBaseUrl).toList());
+        }
+        endpoints = List.copyOf(refreshed);
+    }
+
+    @Scheduled(initialDelayString = "${flask.api.health-check.interval:PT10S}",
+               fixedDelayString = "${flask.api.health-check.interval:PT10S}")
+    public void checkHealth() {
+        FlaskProperties.HealthCheck healthCheck = properties.getHealthCheck();
+        if (healthCheck.isEnabled()) {
+            for (FlaskEndpoint endpoint : endpoints) {
+                boolean healthy;
+                try {
+                    healthCheckTemplate.getForEntity(endpoint.getBaseUrl() + healthCheck.getPath(), String.class);
+                    healthy = true;
+                } catch (Exception e) {
+                    healthy = false;
+                }
+                if (healthy != endpoint.isHealthy()) {
+                    log.warn("Instance Flask {} {}", endpoint.getBaseUrl(), healthy ? "rétablie" : "en échec du contrôle de santé");
+                }
+                endpoint.setHealthy(healthy);
+                if (healthy && !endpoint.isEjected(System.nanoTime()) && endpoint.getConsecutiveFailures() == 0) {
+                    endpoint.forgiveEjection();
+                }
+            }
+        }
+        ejectSlowEndpoints();
+    }
+
+    void ejectSlowEndpoints() {
+        FlaskProperties.Outlier outlier = properties.getOutlier();
+        long now = System.nanoTime();
+        double[] latencies = endpoints.stream()
+                .filter(endpoint -> endpoint.isAvailable(now) && endpoint.getLatencyEwmaMs() > 0)
+                .mapToDouble(FlaskEndpoint::getLatencyEwmaMs)
+                .sorted()
+                .toArray();
+        if (latencies.length < 3) {
+            return;
+        }
+        double median = latencies[latencies.length / 2];
+        double threshold = Math.max(median * outlier.getSlowFactor(), outlier.getMinSlowLatency().toMillis());
+        for (FlaskEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now) && endpoint.getLatencyEwmaMs() > threshold) {
+                log.warn("Instance Flask {} trop lente ({} ms, médiane {} ms)",
+                        endpoint.getBaseUrl(), Math.round(endpoint.getLatencyEwmaMs()), Math.round(median));
+                tryEject(endpoint, now);
+            }
+        }
+    }
+
+    private void recordFailure(FlaskEndpoint endpoint) {
+        if (endpoint.recordFailure() >= properties.getOutlier().getConsecutiveFailures()) {
+            log.warn("Instance Flask {} écartée après {} échecs consécutifs",
+                    endpoint.getBaseUrl(), endpoint.getConsecutiveFailures());
+            tryEject(endpoint, System.nanoTime());
+        }
+    }
+
+    private synchronized void tryEject(FlaskEndpoint endpoint, long now) {
+        List<FlaskEndpoint> current = endpoints;
+        long ejectedCount = current.stream().filter(e -> e.isEjected(now)).count();
+        long maxEjected = Math.max(1, current.size() * properties.getOutlier().getMaxEjectionPercent() / 100);
+        if (current.size() > 1 && ejectedCount >= maxEjected) {
+            return;
+        }
+        FlaskProperties.Outlier outlier = properties.getOutlier();
+        long duration = Math.min(outlier.getBaseEjectionTime().toNanos() * (endpoint.getEjectionCount() + 1),
+                outlier.getMaxEjectionTime().toNanos());
+        endpoint.eject(now, duration);
+    }
+
+    private static boolean isConnectFailure(RuntimeException e) {
+        if (!(e instanceof ResourceAccessException)) {
+            return false;
+        }
+        Throwable cause = e.getCause();
+        return cause instanceof ConnectException
+                || cause instanceof NoRouteToHostException
+                || (cause instanceof SocketTimeoutException && cause.getMessage() != null
+                        && cause.getMessage().toLowerCase().contains("connect"));
+    }
+
+    private FlaskEndpoint powerOfTwoChoices(List<FlaskEndpoint> candidates) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        FlaskEndpoint a = candidates.get(first);
+        FlaskEndpoint b = candidates.get(second);
+        return b.getOutstanding() < a.getOutstanding() ? b : a;
+    }
+
+    private FlaskEndpoint leastOutstanding(List<FlaskEndpoint> candidates) {
+        // Départ aléatoire pour ne pas favoriser la première instance en cas d'égalité
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        FlaskEndpoint best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            FlaskEndpoint candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private FlaskEndpoint rendezvous(String key, List<FlaskEndpoint> candidates) {
+        FlaskEndpoint best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (FlaskEndpoint candidate : candidates) {
+            long score = mix(((long) key.hashCode() << 32) ^ candidate.getBaseUrl().hashCode());
+            if (best == null || score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private List<String> readDiscoveryFile(Path file) {
+        try {
+            return Files.readAllLines(file).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Fichier de découverte Flask illisible {}: {}", file, e.getMessage());
+            return endpoints.stream().map(FlaskEndpoint::getBaseUrl).toList();
+        }
+    }
+
+    private List<String> resolveDns(FlaskProperties.Discovery discovery) {
+        try {
+            return Arrays.stream(InetAddress.getAllByName(discovery.getDnsName()))
+                    .map(address -> discovery.getDnsScheme() + "://"
+                            + (address instanceof Inet6Address ? "[" + address.getHostAddress() + "]" : address.getHostAddress())
+                            + ":" + discovery.getDnsPort())
+                    .toList();
+        } catch (UnknownHostException e) {
+            log.warn("Résolution DNS Flask impossible pour {}: {}", discovery.getDnsName(), e.getMessage());
+            return endpoints.stream().map(FlaskEndpoint::getBaseUrl).toList();
+        }
+    }
+}
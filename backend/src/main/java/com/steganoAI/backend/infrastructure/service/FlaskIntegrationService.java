@@ -1,131 +1,294 @@
 package com.steganoAI.backend.infrastructure.service;
 
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @Slf4j
 public class FlaskIntegrationService {
 
-    @Value("${flask.api.base-url:http://localhost:5000}")
-    private String flaskBaseUrl;
-
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
     private final RestTemplate restTemplate;
-
-    public FlaskIntegrationService() {
-        this.restTemplate = new RestTemplate();
+    private final FlaskEndpointPool endpointPool;
+    private final ImagePreprocessor preprocessor;
+    private final DirectBufferPool bufferPool;
+    // La détection IA séparée tourne en parallèle de l'analyse de l'original
+    private final ExecutorService aiDetectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AiDetectionBatcher aiBatcher;
+
+    public FlaskIntegrationService(FlaskEndpointPool endpointPool, FlaskProperties flaskProperties,
+                                   ImagePreprocessor preprocessor, DirectBufferPool bufferPool,
+                                   MeterRegistry meterRegistry) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(flaskProperties.getConnectTimeout());
+        requestFactory.setReadTimeout(flaskProperties.getReadTimeout());
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.endpointPool = endpointPool;
+        this.preprocessor = preprocessor;
+        this.bufferPool = bufferPool;
+        this.aiBatcher = flaskProperties.getBatching().isEnabled()
+                ? new AiDetectionBatcher(flaskProperties.getBatching(), this::postAiBatch, meterRegistry)
+                : null;
     }
 
     public Map<String, Object> uploadAndAnalyzeImage(MultipartFile file) {
+        return uploadAndAnalyzeImage(file, null);
+    }
+
+    // stickyKey : empreinte de l'image, pour viser la même instance Flask et garder ses caches chauds
+    public Map<String, Object> uploadAndAnalyzeImage(MultipartFile file, String stickyKey) {
+        Path tempFile = null;
+        CompletableFuture<Map<String, Object>> aiDetection = null;
         try {
             // Sauvegarder le fichier temporairement
-            Path tempFile = saveTemporaryFile(file);
+            tempFile = saveTemporaryFile(file);
+
+            // Image à réduire ou regroupement actif : l'original ne sert qu'à la stéganographie et aux hashes,
+            // la détection IA part séparément (image réduite, éventuellement dans un lot). Une image déjà à la
+            // taille cible reste dans l'appel unique, sinon l'original partirait deux fois
+            String path = "/api/v2/upload";
+            if (aiBatcher != null || preprocessor.needsReduction(tempFile)) {
+                Path source = tempFile;
+                aiDetection = CompletableFuture.supplyAsync(() -> detectAi(source, stickyKey), aiDetectionExecutor);
+                path += "?skip_ai_detection=true";
+            }
 
             // Préparer la requête multipart
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new FileSystemResource(tempFile.toFile()));
+            body.add("file", new PooledFileResource(tempFile, bufferPool));
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
             // Appeler ton API Flask v2
-            String url = flaskBaseUrl + "/api/v2/upload";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, requestEntity, Map.class);
+            Map<String, Object> result = post(path, requestEntity, stickyKey);
+            if (aiDetection != null) {
+                mergeAiDetection(result, aiDetection.join());
+            }
+            return result;
 
+        } catch (Exception e) {
+            log.error("Erreur lors de l'appel à l'API Flask: {}", e.getMessage());
+            throw new RuntimeException("Erreur lors de l'analyse de l'image", e);
+        } finally {
+            // Le fichier temporaire est encore lu par la détection IA tant qu'elle n'est pas terminée
+            if (aiDetection != null) {
+                aiDetection.handle((result, error) -> null).join();
+            }
             // Nettoyer le fichier temporaire
-            Files.deleteIfExists(tempFile);
+            deleteTemporaryFile(tempFile);
+        }
+    }
 
-            return response.getBody();
+    private Map<String, Object> detectAi(Path source, String stickyKey) {
+        try (ImagePreprocessor.PreprocessedImage reduced =
+                     preprocessor.isEnabled() ? preprocessor.preprocess(source) : null) {
+            Resource image = reduced != null ? reduced.asResource() : new PooledFileResource(source, bufferPool);
+            if (aiBatcher != null) {
+                try {
+                    // Le tampon de l'image réduite reste réservé jusqu'à l'envoi du lot
+                    return aiBatcher.submit(image).join();
+                } catch (CompletionException e) {
+                    if (!(e.getCause() instanceof RejectedExecutionException)) {
+                        throw e;
+                    }
+                    // File du regroupement pleine : appel individuel plutôt qu'une attente sans borne
+                }
+            }
 
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+            body.add("file", image);
+
+            return post("/api/v2/detect_ai", new HttpEntity<>(body, headers), stickyKey);
         } catch (Exception e) {
-            log.error("Erreur lors de l'appel à l'API Flask: {}", e.getMessage());
-            throw new RuntimeException("Erreur lors de l'analyse de l'image", e);
+            log.error("Erreur lors de la détection IA sur l'image réduite: {}", e.getMessage());
+            return Map.of("ai_detection", Map.of("error", String.valueOf(e.getMessage())));
         }
     }
 
-    public Map<String, Object> addSteganography(MultipartFile file, String signature) {
+    // Un appel pour tout le lot ; Flask renvoie les résultats dans l'ordre des fichiers
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> postAiBatch(List<Resource> images) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        for (Resource image : images) {
+            body.add("files", image);
+        }
+
+        Map<String, Object> response = post("/api/v2/detect_ai_batch", new HttpEntity<>(body, headers), null);
+        Object results = response != null ? response.get("results") : null;
+        if (!(results instanceof List)) {
+            throw new IllegalStateException("Réponse de lot sans résultats");
+        }
+        return new ArrayList<>((List<Map<String, Object>>) results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mergeAiDetection(Map<String, Object> result, Map<String, Object> detection) {
+        if (result == null || detection == null || !detection.containsKey("ai_detection")) {
+            return;
+        }
+        Map<String, Object> analysis = result.get("analysis") instanceof Map
+                ? new HashMap<>((Map<String, Object>) result.get("analysis")) : new HashMap<>();
+        analysis.put("ai_detection", detection.get("ai_detection"));
+        result.put("analysis", analysis);
+    }
+
+    public SignedImage addSteganography(MultipartFile file, String signature) {
+        Path tempFile = null;
         try {
-            Path tempFile = saveTemporaryFile(file);
+            tempFile = saveTemporaryFile(file);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new FileSystemResource(tempFile.toFile()));
+            body.add("file", new PooledFileResource(tempFile, bufferPool));
             if (signature != null && !signature.isEmpty()) {
                 body.add("signature", signature);
             }
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
-            String url = flaskBaseUrl + "/api/v2/add_steganography";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, requestEntity, Map.class);
-
-            Files.deleteIfExists(tempFile);
-
-            return response.getBody();
+            // L'image signée n'existe que sur l'instance qui l'a produite : relue sur la même instance
+            return endpointPool.execute(null, baseUrl -> {
+                ResponseEntity<Map> response = restTemplate.postForEntity(
+                        baseUrl + "/api/v2/add_steganography", requestEntity, Map.class);
+                Map<String, Object> result = (Map<String, Object>) response.getBody();
+                return new SignedImage(result, downloadSignedImage(baseUrl, result));
+            });
 
         } catch (Exception e) {
             log.error("Erreur lors de l'ajout de stéganographie: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de l'ajout de stéganographie", e);
+        } finally {
+            deleteTemporaryFile(tempFile);
         }
     }
 
     public Map<String, Object> verifyIntegrity(MultipartFile file) {
+        return verifyIntegrity(file, null);
+    }
+
+    public Map<String, Object> verifyIntegrity(MultipartFile file, String stickyKey) {
+        Path tempFile = null;
         try {
-            Path tempFile = saveTemporaryFile(file);
+            tempFile = saveTemporaryFile(file);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new FileSystemResource(tempFile.toFile()));
+            body.add("file", new PooledFileResource(tempFile, bufferPool));
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
-            String url = flaskBaseUrl + "/api/v2/verify_integrity";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, requestEntity, Map.class);
-
-            Files.deleteIfExists(tempFile);
-
-            return response.getBody();
+            return post("/api/v2/verify_integrity", requestEntity, stickyKey);
 
         } catch (Exception e) {
             log.error("Erreur lors de la vérification d'intégrité: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la vérification d'intégrité", e);
+        } finally {
+            deleteTemporaryFile(tempFile);
         }
     }
 
     public Map<String, Object> testFlaskConnection() {
         try {
-            String url = flaskBaseUrl + "/api/v2/test";
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return response.getBody();
+            return endpointPool.execute(null, baseUrl -> {
+                ResponseEntity<Map> response = restTemplate.getForEntity(baseUrl + "/api/v2/test", Map.class);
+                return (Map<String, Object>) response.getBody();
+            });
         } catch (Exception e) {
             log.error("Erreur de connexion à Flask: {}", e.getMessage());
             throw new RuntimeException("Flask API non disponible", e);
         }
     }
 
+    public List<Map<String, Object>> getEndpointStatuses() {
+        return endpointPool.getStatuses();
+    }
+
+    // Première instance de la liste (flask.api.base-url à défaut d'autre source), exposée comme flask_url
+    public String getPrimaryUrl() {
+        List<FlaskEndpoint> endpoints = endpointPool.getEndpoints();
+        return endpoints.isEmpty() ? "" : endpoints.get(0).getBaseUrl();
+    }
+
+    // Null si l'image signée n'a pu être relue : elle reste enregistrée, sans empreintes
+    private byte[] downloadSignedImage(String baseUrl, Map<String, Object> result) {
+        Object filename = result != null ? result.get("filename") : null;
+        if (filename == null) {
+            return null;
+        }
+        try {
+            return restTemplate.getForObject(baseUrl + "/api/v2/uploads/{filename}", byte[].class, filename);
+        } catch (RestClientException e) {
+            log.warn("Image signée {} illisible sur {}: {}", filename, baseUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> post(String path, HttpEntity<?> requestEntity, String stickyKey) {
+        return endpointPool.execute(stickyKey, baseUrl -> {
+            ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl + path, requestEntity, Map.class);
+            return (Map<String, Object>) response.getBody();
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (aiBatcher != null) {
+            aiBatcher.shutdown();
+        }
+        aiDetectionExecutor.shutdown();
+    }
+
+    // Copie gardée au-delà de la requête (analyse différée) : à libérer par deleteStagedFile
+    public Path stageFile(MultipartFile file) throws IOException {
+        return saveTemporaryFile(file);
+    }
+
+    public void deleteStagedFile(Path file) {
+        deleteTemporaryFile(file);
+    }
+
     private Path saveTemporaryFile(MultipartFile file) throws IOException {
         // Créer le dossier d'upload s'il n'existe pas
         Path uploadPath = Paths.get(uploadDir);
@@ -133,13 +296,25 @@ public class FlaskIntegrationService {
             Files.createDirectories(uploadPath);
         }
 
-        // Générer un nom de fichier unique
-        String filename = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(filename);
+        // Générer un nom de fichier unique (deux requêtes peuvent tomber sur la même milliseconde)
+        String filename = System.currentTimeMillis() + "_" + UUID.randomUUID() + "_" + file.getOriginalFilename();
+        Path filePath = uploadPath.resolve(filename).toAbsolutePath();
 
-        // Sauvegarder le fichier
-        file.transferTo(filePath.toFile());
+        // Sauvegarder le fichier par un tampon direct du pool (chemin absolu : un chemin relatif serait résolu
+        // dans le dossier de travail de Tomcat)
+        bufferPool.copy(file, filePath);
 
         return filePath;
     }
+
+    private void deleteTemporaryFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier temporaire {}: {}", tempFile, e.getMessage());
+        }
+    }
 }
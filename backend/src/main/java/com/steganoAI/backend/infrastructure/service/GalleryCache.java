@@ -0,0 +1,173 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.infrastructure.config.GalleryCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Pages de galerie déjà sérialisées en JSON, par utilisateur : un hit renvoie les octets sans requête ni Jackson.
+// Bornée en octets ; l'éviction retire toutes les pages de l'utilisateur le moins récemment servi.
+// ImageApplicationService invalide les pages d'un utilisateur à chacune de ses écritures. Une page calculée
+// pendant une invalidation n'est pas gardée : chaque invalidation avance un numéro comparé avant l'insertion.
+@Component
+public class GalleryCache {
+    public record CachedPage(byte[] body, String etag) {
+    }
+
+    private record Entry(CachedPage page, long createdAt) {
+    }
+
+    // Clé de la liste complète (/my-images) : les clés de page sont toujours positives
+    private static final long ALL_IMAGES = -1L;
+
+    private static final class UserPages {
+        private final Map<Long, Entry> pages = new HashMap<>();
+        private long bytes;
+    }
+
+    private final GalleryCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    // Ordre d'accès : le premier utilisateur est le moins récemment servi
+    private final LinkedHashMap<String, UserPages> users = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> invalidations = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long clearedAt;
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter servedBytes;
+    private final Counter evictions;
+
+    public GalleryCache(GalleryCacheProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.hits = Counter.builder("gallery.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gallery.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.servedBytes = Counter.builder("gallery.cache.served")
+                .description("Octets de pages de galerie servis depuis le cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("gallery.cache.evictions").register(meterRegistry);
+        Gauge.builder("gallery.cache.size", this, GalleryCache::getBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gallery.cache.hit.ratio", this, GalleryCache::getHitRatio).register(meterRegistry);
+    }
+
+    // loader : appelé hors verrou en cas d'absence ; son résultat est sérialisé une fois puis gardé en octets
+    public CachedPage get(String username, int page, int size, Supplier<?> loader) {
+        return get(username, ((long) page << 32) | size, loader);
+    }
+
+    // Liste complète des images de l'utilisateur, invalidée avec ses pages
+    public CachedPage getAll(String username, Supplier<?> loader) {
+        return get(username, ALL_IMAGES, loader);
+    }
+
+    private CachedPage get(String username, long key, Supplier<?> loader) {
+        if (properties.isEnabled()) {
+            CachedPage cached = lookup(username, key);
+            if (cached != null) {
+                hits.increment();
+                servedBytes.increment(cached.body().length);
+                return cached;
+            }
+        }
+        misses.increment();
+
+        long stamp = stamp(username);
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        CachedPage loaded = new CachedPage(body, DigestUtils.md5DigestAsHex(body));
+        if (properties.isEnabled() && body.length <= properties.getMaxEntryBytes().toBytes()) {
+            store(username, key, loaded, stamp);
+        }
+        return loaded;
+    }
+
+    public void invalidate(String username) {
+        invalidations.put(username, sequence.incrementAndGet());
+        synchronized (this) {
+            UserPages removed = users.remove(username);
+            if (removed != null) {
+                bytes -= removed.bytes;
+            }
+        }
+    }
+
+    // Suppressions qui touchent plusieurs utilisateurs (suppression en masse, rétention, archivage)
+    public void clear() {
+        clearedAt = sequence.incrementAndGet();
+        synchronized (this) {
+            users.clear();
+            bytes = 0;
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private synchronized CachedPage lookup(String username, long key) {
+        UserPages pages = users.get(username);
+        Entry entry = pages != null ? pages.pages.get(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt() > properties.getTtl().toNanos()) {
+            pages.pages.remove(key);
+            pages.bytes -= entry.page().body().length;
+            bytes -= entry.page().body().length;
+            return null;
+        }
+        return entry.page();
+    }
+
+    // Dernière invalidation qui concerne l'utilisateur
+    private long stamp(String username) {
+        return Math.max(invalidations.getOrDefault(username, 0L), clearedAt);
+    }
+
+    private synchronized void store(String username, long key, CachedPage page, long stamp) {
+        if (stamp(username) != stamp) {
+            return;
+        }
+        UserPages pages = users.computeIfAbsent(username, u -> new UserPages());
+        Entry previous = pages.pages.put(key, new Entry(page, System.nanoTime()));
+        long delta = page.body().length - (previous != null ? previous.page().body().length : 0);
+        pages.bytes += delta;
+        bytes += delta;
+
+        long maxBytes = properties.getMaxBytes().toBytes();
+        Iterator<Map.Entry<String, UserPages>> eldest = users.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            UserPages evicted = eldest.next().getValue();
+            eldest.remove();
+            bytes -= evicted.bytes;
+            evictions.increment();
+        }
+    }
+}
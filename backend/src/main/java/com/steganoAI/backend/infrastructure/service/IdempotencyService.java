@@ -0,0 +1,354 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.domain.model.IdempotencyRecord;
+import com.steganoAI.backend.domain.service.IdempotencyDomainService;
+import com.steganoAI.backend.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Requêtes rejouables (en-tête Idempotency-Key) : la première exécute et stocke sa réponse, les doublons
+// concurrents attendent la même réponse, les suivants la reçoivent sans nouvel appel à Flask ni nouvelle image.
+// Mémoire d'abord (une future par clé), base ensuite : la contrainte d'unicité départage les instances et
+// garde la réponse après un redémarrage ou une éviction. Les erreurs serveur et refus de file ne sont pas
+// stockés : la clé est libérée et la tentative suivante s'exécute.
+@Component
+@Slf4j
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyDomainService idempotencyDomainService;
+    private final DirectBufferPool bufferPool;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter executions;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+    private final Counter mismatches;
+    private final Counter conflicts;
+    private final Counter released;
+
+    // location : en-tête Location de la réponse d'origine, null si absent
+    public record StoredResponse(int status, String contentType, String location, byte[] body) {
+    }
+
+    private static final class Entry {
+        private final String requestHash;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        // Échéance en System.nanoTime(), fixée avant que result soit complétée
+        private volatile long expiresAt;
+
+        private Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        private boolean isExpired() {
+            return result.isDone() && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+
+    public IdempotencyService(IdempotencyProperties properties, IdempotencyDomainService idempotencyDomainService,
+                              DirectBufferPool bufferPool, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.idempotencyDomainService = idempotencyDomainService;
+        this.bufferPool = bufferPool;
+        this.objectMapper = objectMapper;
+        this.executions = Counter.builder("idempotency.executions")
+                .description("Requêtes avec Idempotency-Key exécutées")
+                .register(meterRegistry);
+        this.memoryReplays = Counter.builder("idempotency.replays").tag("source", "memory").register(meterRegistry);
+        this.databaseReplays = Counter.builder("idempotency.replays").tag("source", "database").register(meterRegistry);
+        this.mismatches = Counter.builder("idempotency.rejections").tag("reason", "mismatch").register(meterRegistry);
+        this.conflicts = Counter.builder("idempotency.rejections").tag("reason", "conflict").register(meterRegistry);
+        this.released = Counter.builder("idempotency.released")
+                .description("Réponses non rejouables, clé libérée")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.entries", entries, Map::size).register(meterRegistry);
+    }
+
+    // Sans clé (ou désactivé) : action exécutée telle quelle. parameters : paramètres qui changent le résultat
+    public ResponseEntity<?> execute(String username, String endpoint, String key, MultipartFile file,
+                                     Map<String, String> parameters, Supplier<ResponseEntity<?>> action) {
+        if (key == null || !properties.isEnabled()) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("En-tête " + HEADER + " invalide (1 à " + MAX_KEY_LENGTH + " caractères)");
+        }
+        String requestHash = requestHash(file, parameters);
+        if (requestHash == null) {
+            return action.get();
+        }
+
+        String id = username + '\n' + endpoint + '\n' + key;
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(id, entry);
+                continue;
+            }
+            if (entry == null) {
+                Entry mine = new Entry(requestHash);
+                entry = entries.putIfAbsent(id, mine);
+                if (entry == null) {
+                    trim();
+                    return runAsOwner(id, mine, username, endpoint, key, deadline, action);
+                }
+            }
+            if (!entry.requestHash.equals(requestHash)) {
+                mismatches.increment();
+                return mismatch();
+            }
+            StoredResponse stored;
+            try {
+                stored = entry.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                conflicts.increment();
+                return conflict();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return conflict();
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                memoryReplays.increment();
+                return replay(stored);
+            }
+            // Exécution sans réponse rejouable : ce doublon la relance
+        }
+    }
+
+    private ResponseEntity<?> runAsOwner(String id, Entry mine, String username, String endpoint, String key,
+                                         long deadline, Supplier<ResponseEntity<?>> action) {
+        Long recordId = null;
+        try {
+            while (true) {
+                LocalDateTime now = LocalDateTime.now();
+                Optional<IdempotencyRecord> started = idempotencyDomainService.tryStart(username, endpoint, key,
+                        mine.requestHash, now.plus(properties.getInProgressTimeout()));
+                if (started.isPresent()) {
+                    recordId = started.get().getId();
+                    break;
+                }
+                IdempotencyRecord existing = idempotencyDomainService.find(username, endpoint, key).orElse(null);
+                // Ligne libérée ou purgée entre l'insertion refusée et la lecture : nouvelle tentative après une pause
+                if (existing == null) {
+                    if (!pause(deadline)) {
+                        return giveUp(id, mine);
+                    }
+                    continue;
+                }
+                if (existing.getExpiresAt() != null && existing.getExpiresAt().isBefore(now)) {
+                    // Reprise aussitôt si la ligne expirée est supprimée ici, sinon une autre requête l'a reprise
+                    if (!idempotencyDomainService.releaseIfExpired(existing.getId(), now) && !pause(deadline)) {
+                        return giveUp(id, mine);
+                    }
+                    continue;
+                }
+                if (!mine.requestHash.equals(existing.getRequestHash())) {
+                    finish(id, mine, null);
+                    mismatches.increment();
+                    return mismatch();
+                }
+                if (IdempotencyDomainService.COMPLETED.equals(existing.getStatus())) {
+                    StoredResponse stored = new StoredResponse(existing.getResponseStatus(), existing.getContentType(),
+                            existing.getResponseLocation(), existing.getResponseBody().getBytes(StandardCharsets.UTF_8));
+                    mine.expiresAt = System.nanoTime() + Duration.between(now, existing.getExpiresAt()).toNanos();
+                    finish(id, mine, stored);
+                    databaseReplays.increment();
+                    return replay(stored);
+                }
+                // Exécution en cours sur une autre instance
+                if (!pause(deadline)) {
+                    return giveUp(id, mine);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Clés d'idempotence : base indisponible, rejeu en mémoire seulement ({})", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(id, mine, null);
+            return conflict();
+        }
+
+        StoredResponse stored = null;
+        try {
+            ResponseEntity<?> response = action.get();
+            executions.increment();
+            stored = toStored(response);
+            return response;
+        } finally {
+            if (stored != null) {
+                mine.expiresAt = System.nanoTime() + properties.getTtl().toNanos();
+            } else {
+                released.increment();
+            }
+            finish(id, mine, stored);
+            if (recordId != null) {
+                persist(recordId, stored);
+            }
+        }
+    }
+
+    // wait-timeout dépassé : la clé reste à l'exécutant en cours, les doublons locaux en attente réessaient
+    private ResponseEntity<?> giveUp(String id, Entry mine) {
+        finish(id, mine, null);
+        conflicts.increment();
+        return conflict();
+    }
+
+    // Faux une fois wait-timeout dépassé, sinon attend poll-interval avant de relire la base
+    private boolean pause(long deadline) throws InterruptedException {
+        if (System.nanoTime() - deadline >= 0) {
+            return false;
+        }
+        Thread.sleep(properties.getPollInterval().toMillis());
+        return true;
+    }
+
+    // Doublons en attente réveillés ; sans réponse, la clé disparaît de la mémoire
+    private void finish(String id, Entry entry, StoredResponse stored) {
+        if (stored == null) {
+            entries.remove(id, entry);
+        }
+        entry.result.complete(stored);
+    }
+
+    private void persist(Long recordId, StoredResponse stored) {
+        try {
+            if (stored == null) {
+                idempotencyDomainService.release(recordId);
+            } else {
+                idempotencyDomainService.complete(recordId, stored.status(), stored.contentType(), stored.location(),
+                        new String(stored.body(), StandardCharsets.UTF_8), LocalDateTime.now().plus(properties.getTtl()));
+            }
+        } catch (DataAccessException e) {
+            // Marqueur IN_PROGRESS laissé : repris par les autres instances après in-progress-timeout
+            log.warn("Clés d'idempotence : réponse non enregistrée en base ({})", e.getMessage());
+        }
+    }
+
+    // Succès et erreurs client rejouables ; erreurs serveur, 408, 409 et 429 : la tentative suivante réessaie
+    private StoredResponse toStored(ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        if (status >= 500 || status == 408 || status == 409 || status == 429) {
+            return null;
+        }
+        String location = response.getHeaders().getLocation() != null
+                ? response.getHeaders().getLocation().toString() : null;
+        try {
+            Object body = response.getBody();
+            StoredResponse stored = body instanceof String text
+                    ? new StoredResponse(status, "text/plain;charset=UTF-8", location, text.getBytes(StandardCharsets.UTF_8))
+                    : new StoredResponse(status, MediaType.APPLICATION_JSON_VALUE, location,
+                            body == null ? new byte[0] : objectMapper.writeValueAsBytes(body));
+            return stored.body().length <= properties.getMaxBodyBytes() ? stored : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Clés d'idempotence : réponse non sérialisable ({})", e.getMessage());
+            return null;
+        }
+    }
+
+    // Contenu du fichier et paramètres : une même clé avec une autre requête est une erreur du client
+    private String requestHash(MultipartFile file, Map<String, String> parameters) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            bufferPool.update(sha256, in);
+            for (Map.Entry<String, String> parameter : new TreeMap<>(parameters).entrySet()) {
+                sha256.update(('\n' + parameter.getKey() + '=' + parameter.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("Clés d'idempotence : empreinte de {} impossible, requête exécutée sans rejeu: {}",
+                    file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Au-delà de max-entries : expirées d'abord, puis les réponses les plus proches de l'échéance (toujours en base)
+    private void trim() {
+        if (entries.size() <= properties.getMaxEntries()) {
+            return;
+        }
+        entries.values().removeIf(Entry::isExpired);
+        int excess = entries.size() - properties.getMaxEntries() * 9 / 10;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .filter(e -> e.getValue().result.isDone())
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt - System.nanoTime()))
+                    .limit(excess)
+                    .toList()
+                    .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.idempotency.purge-interval:PT10M}",
+               fixedDelayString = "${app.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        entries.values().removeIf(Entry::isExpired);
+        try {
+            int purged = idempotencyDomainService.purgeExpired(LocalDateTime.now());
+            if (purged > 0) {
+                log.info("{} clé(s) d'idempotence expirée(s) supprimée(s)", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge des clés d'idempotence: {}", e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<byte[]> replay(StoredResponse stored) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.parseMediaType(stored.contentType()));
+        if (stored.location() != null) {
+            response.header(HttpHeaders.LOCATION, stored.location());
+        }
+        return response.body(stored.body());
+    }
+
+    private static ResponseEntity<?> mismatch() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body("Clé " + HEADER + " déjà utilisée pour une autre requête");
+    }
+
+    private static ResponseEntity<?> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Requête avec cette clé " + HEADER + " encore en cours, réessayer plus tard");
+    }
+}
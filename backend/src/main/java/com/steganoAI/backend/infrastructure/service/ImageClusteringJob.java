@@ -0,0 +1,253 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.service.NearDuplicateClustering;
+import com.steganoAI.backend.infrastructure.config.ImageClusteringProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+// Regroupement des images quasi identiques sur tout le corpus : hashes perceptuels chargés dans un long[]
+// (curseur JDBC, aucune entité), regroupés par NearDuplicateClustering sur un pool fork/join dédié,
+// puis image_clusters / image_cluster_members remplacées en une transaction.
+@Component
+@Slf4j
+public class ImageClusteringJob {
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    public record Status(State state, String phase, long done, long total, int hashes, int clusters,
+                         long comparedPairs, LocalDateTime startedAt, LocalDateTime finishedAt, String error) {
+    }
+
+    private static final String INSERT_CLUSTER_SQL =
+            "INSERT INTO image_clusters (id, member_count, representative_image_id, max_distance, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO image_cluster_members (image_id, cluster_id, distance) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ImageClusteringProperties properties;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-clustering");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Status status = new Status(State.IDLE, null, 0, 0, 0, 0, 0, null, null, null);
+
+    public ImageClusteringJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              ImageClusteringProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    // Faux si un calcul est déjà en cours
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        status = new Status(State.RUNNING, "chargement", 0, 0, 0, 0, 0, LocalDateTime.now(), null, null);
+        runner.execute(this::run);
+        return true;
+    }
+
+    @Scheduled(cron = "${app.clustering.cron:-}")
+    public void scheduledRun() {
+        if (!start()) {
+            log.info("Regroupement des images déjà en cours, passage planifié ignoré");
+        }
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors());
+        try {
+            Hashes hashes = loadHashes();
+            log.info("Regroupement : {} hashes chargés en {} ms", hashes.size, System.currentTimeMillis() - start);
+
+            long[] values = Arrays.copyOf(hashes.values, hashes.size);
+            NearDuplicateClustering clustering = new NearDuplicateClustering(
+                    properties.getMaxDistance(), properties.getBands(), properties.getMaxBucketSize());
+            NearDuplicateClustering.Result result = clustering.cluster(values, pool, (band, bands, done, total) ->
+                    progress("bande " + (band + 1) + "/" + bands, done, total, hashes.size, 0));
+
+            int clusters = save(hashes.ids, values, result.roots());
+            status = new Status(State.COMPLETED, null, clusters, clusters, hashes.size, clusters,
+                    result.comparedPairs(), status.startedAt(), LocalDateTime.now(), null);
+            log.info("Regroupement terminé : {} groupes sur {} images, {} paires comparées, {} seaux ignorés, {} ms",
+                    clusters, hashes.size, result.comparedPairs(), result.skippedBuckets(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Erreur lors du regroupement des images: {}", e.getMessage(), e);
+            Status current = status;
+            status = new Status(State.FAILED, current.phase(), current.done(), current.total(), current.hashes(),
+                    0, 0, current.startedAt(), LocalDateTime.now(), e.getMessage());
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    private Hashes loadHashes() {
+        Hashes hashes = new Hashes();
+        readOnlyTransaction.executeWithoutResult(tx -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id, perceptual_hash FROM images WHERE perceptual_hash IS NOT NULL ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(properties.getFetchSize());
+            return ps;
+        }, rs -> {
+            Long value = parseHash(rs.getString(2));
+            if (value != null) {
+                hashes.add(rs.getLong(1), value);
+                if (hashes.size % 100_000 == 0) {
+                    progress("chargement", hashes.size, 0, hashes.size, 0);
+                }
+            }
+        }));
+        return hashes;
+    }
+
+    // Les ids étant chargés dans l'ordre, le représentant de l'union-find (plus petit indice) est l'image la plus ancienne
+    private int save(long[] ids, long[] hashes, int[] roots) {
+        int n = hashes.length;
+        int[] memberCount = new int[n];
+        for (int i = 0; i < n; i++) {
+            memberCount[roots[i]]++;
+        }
+        int[] clusterIds = new int[n];
+        int[] maxDistance = new int[n];
+        int clusters = 0;
+        for (int i = 0; i < n; i++) {
+            int root = roots[i];
+            if (memberCount[root] < 2) {
+                continue;
+            }
+            if (root == i) {
+                clusterIds[root] = ++clusters;
+            }
+            maxDistance[root] = Math.max(maxDistance[root], NearDuplicateClustering.distance(hashes[i], hashes[root]));
+        }
+
+        int totalClusters = clusters;
+        long members = Arrays.stream(memberCount).filter(count -> count >= 2).asLongStream().sum();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transaction.executeWithoutResult(tx -> {
+            // DELETE plutôt que TRUNCATE : les lectures concurrentes voient l'ancien résultat jusqu'au commit
+            jdbcTemplate.update("DELETE FROM image_cluster_members");
+            jdbcTemplate.update("DELETE FROM image_clusters");
+
+            BatchInsert clusterRows = new BatchInsert(INSERT_CLUSTER_SQL, written -> { });
+            BatchInsert memberRows = new BatchInsert(INSERT_MEMBER_SQL,
+                    written -> progress("enregistrement", written, members, n, totalClusters));
+            for (int i = 0; i < n; i++) {
+                int root = roots[i];
+                if (memberCount[root] < 2) {
+                    continue;
+                }
+                if (root == i) {
+                    clusterRows.add(clusterIds[i], memberCount[i], ids[i], maxDistance[i], now);
+                }
+                memberRows.add(ids[i], clusterIds[root], NearDuplicateClustering.distance(hashes[i], hashes[root]));
+            }
+            clusterRows.flush();
+            memberRows.flush();
+        });
+        return clusters;
+    }
+
+    private void progress(String phase, long done, long total, int hashes, int clusters) {
+        Status current = status;
+        status = new Status(State.RUNNING, phase, done, total, hashes, clusters, 0, current.startedAt(), null, null);
+    }
+
+    // Hash perceptuel 64 bits en hexadécimal (16 caractères), tel que renvoyé par Flask
+    static Long parseHash(String hex) {
+        if (hex == null || hex.length() != 16) {
+            return null;
+        }
+        try {
+            return Long.parseUnsignedLong(hex, 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    // Insertions JDBC par lots de insert-batch-size lignes, sans garder tout le résultat en mémoire
+    private final class BatchInsert {
+        private final String sql;
+        private final LongConsumer onFlush;
+        private final List<Object[]> batch = new ArrayList<>();
+        private long written;
+
+        private BatchInsert(String sql, LongConsumer onFlush) {
+            this.sql = sql;
+            this.onFlush = onFlush;
+        }
+
+        private void add(Object... row) {
+            batch.add(row);
+            if (batch.size() >= properties.getInsertBatchSize()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+            written += batch.size();
+            batch.clear();
+            onFlush.accept(written);
+        }
+    }
+
+    // Tableaux primitifs extensibles : 16 octets par image, pas d'objet par ligne
+    private static final class Hashes {
+        private long[] ids = new long[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(long id, long value) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            ids[size] = id;
+            values[size] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.steganoAI.backend.application.dto.ImageExportRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Export des analyses en flux : curseur JDBC (fetch size) dans une transaction en lecture seule,
+// chaque ligne est écrite dans la réponse puis oubliée. Aucune entité ni contexte de persistance :
+// la mémoire reste constante quelle que soit la taille de la table.
+@Service
+@Slf4j
+public class ImageExportService {
+    // Colonnes exportables et leur expression SQL : seules ces colonnes peuvent être demandées
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "i.id");
+        COLUMNS.put("filename", "i.filename");
+        COLUMNS.put("username", "u.username");
+        COLUMNS.put("upload_timestamp", "i.upload_timestamp");
+        COLUMNS.put("analysis_status", "i.analysis_status");
+        COLUMNS.put("ai_confidence", "i.ai_confidence");
+        COLUMNS.put("has_steganography", "i.has_steganography");
+        COLUMNS.put("md5_hash", "i.md5_hash");
+        COLUMNS.put("perceptual_hash", "i.perceptual_hash");
+        COLUMNS.put("image_path", "i.image_path");
+        COLUMNS.put("updated_at", "i.updated_at");
+        COLUMNS.put("format", "i.meta_format");
+        COLUMNS.put("width", "i.meta_width");
+        COLUMNS.put("height", "i.meta_height");
+        COLUMNS.put("camera_model", "i.meta_camera_model");
+        COLUMNS.put("captured_at", "i.meta_captured_at");
+        COLUMNS.put("metadata_json", "i.metadata_json");
+        COLUMNS.put("analysis_results", "i.analysis_results");
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Requête validée avant l'envoi des en-têtes : une erreur de paramètre donne encore un 400
+    public record ExportQuery(Format format, List<String> columns, String sql, List<Object> args) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    // Lignes écrites entre deux flush : le client reçoit les données au fil de l'eau
+    @Value("${app.export.flush-every:1000}")
+    private int flushEvery;
+
+    public ImageExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        // Lecture seule : routée vers la réplique si elle est configurée
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ExportQuery prepare(ImageExportRequest request) {
+        Format format = parseFormat(request.getFormat());
+
+        List<String> columns = request.getColumns() == null || request.getColumns().isEmpty()
+                ? new ArrayList<>(COLUMNS.keySet())
+                : request.getColumns().stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        List<String> expressions = new ArrayList<>();
+        for (String column : columns) {
+            String expression = COLUMNS.get(column);
+            if (expression == null) {
+                throw new IllegalArgumentException("Colonne inconnue: " + column + " (disponibles: "
+                        + String.join(", ", COLUMNS.keySet()) + ")");
+            }
+            expressions.add(expression);
+        }
+
+        // Filtres appliqués par la base, jamais en mémoire
+        StringBuilder where = new StringBuilder("TRUE");
+        List<Object> args = new ArrayList<>();
+        if (request.getUploadedFrom() != null) {
+            where.append(" AND i.upload_timestamp >= ?");
+            args.add(Timestamp.valueOf(request.getUploadedFrom()));
+        }
+        if (request.getUploadedTo() != null) {
+            where.append(" AND i.upload_timestamp < ?");
+            args.add(Timestamp.valueOf(request.getUploadedTo()));
+        }
+        if (request.getStatus() != null) {
+            where.append(" AND i.analysis_status = ?");
+            args.add(request.getStatus());
+        }
+        if (request.getUsername() != null) {
+            where.append(" AND u.username = ?");
+            args.add(request.getUsername());
+        }
+        if (request.getMinAiConfidence() != null) {
+            where.append(" AND i.ai_confidence >= ?");
+            args.add(request.getMinAiConfidence());
+        }
+        if (request.getHasSteganography() != null) {
+            where.append(" AND i.has_steganography = ?");
+            args.add(request.getHasSteganography());
+        }
+
+        String sql = "SELECT " + String.join(", ", expressions)
+                + " FROM images i LEFT JOIN users u ON u.id = i.user_id WHERE " + where + " ORDER BY i.id";
+        return new ExportQuery(format, columns, sql, args);
+    }
+
+    public long export(ExportQuery query, OutputStream out) {
+        long start = System.nanoTime();
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (RowWriter writer = query.format() == Format.CSV
+                    ? new CsvRowWriter(out, query.columns())
+                    : new NdjsonRowWriter(out, query.columns())) {
+                long[] count = {0};
+                jdbcTemplate.query(connection -> {
+                    // Curseur côté serveur : PostgreSQL ne l'utilise qu'avec autocommit désactivé (transaction)
+                    PreparedStatement ps = connection.prepareStatement(query.sql(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    for (int i = 0; i < query.args().size(); i++) {
+                        ps.setObject(i + 1, query.args().get(i));
+                    }
+                    return ps;
+                }, rs -> {
+                    writer.write(rs);
+                    if (++count[0] % flushEvery == 0) {
+                        writer.flush();
+                    }
+                });
+                return count[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long total = rows != null ? rows : 0;
+        Counter.builder("image.export.rows")
+                .description("Lignes d'analyse exportées")
+                .tag("format", query.format().getExtension())
+                .register(meterRegistry)
+                .increment(total);
+        log.info("Export {} de {} ligne(s) en {} ms", query.format(), total, (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+
+    private static Format parseFormat(String format) {
+        if (format == null) {
+            return Format.CSV;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            // Parquet demanderait la pile Hadoop : non proposé
+            throw new IllegalArgumentException("Format d'export non supporté: " + format + " (csv, ndjson)");
+        }
+    }
+
+    private static Object valueOf(ResultSet rs, int index) throws SQLException {
+        Object value = rs.getObject(index);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(ResultSet rs) throws SQLException;
+
+        void flush();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final int columnCount;
+
+        private CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.columnCount = columns.size();
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    Object value = valueOf(rs, i);
+                    if (value != null) {
+                        writer.write(escape(value.toString()));
+                    }
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // RFC 4180 : guillemets si la valeur contient un séparateur, un guillemet ou un saut de ligne
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void flush() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // La réponse est fermée par le conteneur, seul le tampon est vidé
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        private NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Une ligne par objet : pas d'espace entre les valeurs racines
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    Object value = valueOf(rs, i + 1);
+                    generator.writeFieldName(columns.get(i));
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof Boolean bool) {
+                        generator.writeBoolean(bool);
+                    } else if (value instanceof Long || value instanceof Integer) {
+                        generator.writeNumber(((Number) value).longValue());
+                    } else if (value instanceof Number number) {
+                        generator.writeNumber(number.doubleValue());
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+            try {
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import java.util.Locale;
+import java.util.Set;
+
+public enum ImageFormat {
+    PNG(Set.of("png")),
+    JPEG(Set.of("jpg", "jpeg", "jpe", "jfif")),
+    GIF(Set.of("gif")),
+    BMP(Set.of("bmp", "dib")),
+    WEBP(Set.of("webp")),
+    TIFF(Set.of("tif", "tiff"));
+
+    private final Set<String> extensions;
+
+    ImageFormat(Set<String> extensions) {
+        this.extensions = extensions;
+    }
+
+    public boolean matchesExtension(String extension) {
+        return extensions.contains(extension.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.steganoAI.backend.infrastructure.service;
+
+// Format et dimensions lus dans l'en-tête, sans décoder les pixels
+public record ImageHeader(ImageFormat format, int width, int height) {
+    public long pixels() {
+        return (long) width * height;
+    }
+}
@@ -0,0 +1,503 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.ImageMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// Métadonnées lues dans les premiers Ko du fichier : en-têtes du conteneur (PNG, JPEG, WebP, GIF) et segments
+// EXIF / XMP / ICC qu'ils contiennent. Aucun pixel n'est décodé : quelques microsecondes par image, contre un
+// décodage complet côté Flask. Un en-tête malformé n'interrompt jamais l'upload : on garde ce qui a pu être lu.
+@Component
+@Slf4j
+public class ImageMetadataExtractor {
+    // Un segment APP1 EXIF fait au plus 64 Ko
+    public static final int PREFIX_SIZE = 64 * 1024;
+    private static final ThreadLocal<byte[]> PREFIX_BUFFER = ThreadLocal.withInitial(() -> new byte[PREFIX_SIZE]);
+    private static final DateTimeFormatter EXIF_DATE = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+    private static final int MAX_IFD_ENTRIES = 512;
+
+    public ImageMetadata extract(MultipartFile file) {
+        byte[] prefix = PREFIX_BUFFER.get();
+        try (InputStream in = file.getInputStream()) {
+            int length = in.readNBytes(prefix, 0, PREFIX_SIZE);
+            return extract(prefix, length, file.getSize());
+        } catch (IOException e) {
+            log.warn("Lecture des métadonnées impossible pour {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    // null si le format n'est pas reconnu ; size < 0 si la taille totale n'est pas connue (upload en flux)
+    public ImageMetadata extract(byte[] b, int length, long size) {
+        ImageFormat format = ImageValidationService.detectFormat(b, length);
+        if (format == null) {
+            return null;
+        }
+        ImageMetadata metadata = new ImageMetadata();
+        metadata.setFormat(format.name());
+        metadata.setFileSize(size >= 0 ? size : null);
+        metadata.setHasExif(false);
+        metadata.setHasXmp(false);
+        try {
+            long dimensions = ImageValidationService.readDimensions(format, b, length);
+            int width = (int) (dimensions >>> 32);
+            int height = (int) dimensions;
+            if (dimensions != -1 && width > 0 && height > 0) {
+                metadata.setWidth(width);
+                metadata.setHeight(height);
+            }
+            switch (format) {
+                case PNG -> png(b, length, metadata);
+                case JPEG -> jpeg(b, length, metadata);
+                case GIF -> gif(b, length, metadata);
+                case WEBP -> webp(b, length, metadata);
+                default -> {
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("En-tête {} partiellement lisible: {}", format, e.toString());
+        }
+        return metadata;
+    }
+
+    // Chunks lus jusqu'au premier IDAT : pHYs, tRNS, acTL (APNG), iCCP, eXIf, iTXt XMP
+    private static void png(byte[] b, int length, ImageMetadata m) {
+        if (length >= 26) {
+            int bitDepth = b[24] & 0xFF;
+            int colorType = b[25] & 0xFF;
+            m.setBitDepth(bitDepth);
+            m.setColorMode(switch (colorType) {
+                case 0 -> bitDepth == 1 ? "1" : "L";
+                case 2 -> "RGB";
+                case 3 -> "P";
+                case 4 -> "LA";
+                case 6 -> "RGBA";
+                default -> null;
+            });
+            m.setHasAlpha(colorType == 4 || colorType == 6);
+        }
+        m.setAnimated(false);
+        long i = 8;
+        while (i + 8 <= length) {
+            int start = (int) i;
+            long chunkLength = int32BE(b, start) & 0xFFFFFFFFL;
+            String type = ascii(b, start + 4, 4);
+            if (type.equals("IDAT") || type.equals("IEND")) {
+                break;
+            }
+            int data = start + 8;
+            int available = (int) Math.min(chunkLength, length - data);
+            switch (type) {
+                case "pHYs" -> {
+                    // Unité 1 = pixels par mètre
+                    if (available >= 9 && b[data + 8] == 1) {
+                        m.setDpiX(dpi((int32BE(b, data) & 0xFFFFFFFFL) * 0.0254));
+                        m.setDpiY(dpi((int32BE(b, data + 4) & 0xFFFFFFFFL) * 0.0254));
+                    }
+                }
+                case "tRNS" -> m.setHasAlpha(true);
+                case "acTL" -> m.setAnimated(true);
+                // Profil compressé : seul son nom est lisible sans inflate
+                case "iCCP" -> m.setIccProfile(text(b, data, available, 128));
+                case "eXIf" -> {
+                    m.setHasExif(true);
+                    exif(b, data, available, m);
+                }
+                case "iTXt" -> {
+                    if ("XML:com.adobe.xmp".equals(text(b, data, available, 32))) {
+                        m.setHasXmp(true);
+                    }
+                }
+                default -> {
+                }
+            }
+            i = data + chunkLength + 4;
+        }
+    }
+
+    // Segments lus jusqu'au SOS : JFIF (densité), APP1 EXIF / XMP, APP2 ICC, SOFn (précision, composantes)
+    private static void jpeg(byte[] b, int length, ImageMetadata m) {
+        m.setHasAlpha(false);
+        m.setAnimated(false);
+        int i = 2;
+        while (i + 4 <= length) {
+            if ((b[i] & 0xFF) != 0xFF) {
+                break;
+            }
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                i++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                i += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                break;
+            }
+            int segmentLength = uint16BE(b, i + 2);
+            int data = i + 4;
+            int available = Math.min(segmentLength - 2, length - data);
+            if (marker == 0xE0 && startsWith(b, data, available, "JFIF\0") && available >= 12) {
+                int units = b[data + 7];
+                if (units == 1 || units == 2) {
+                    double factor = units == 1 ? 1 : 2.54;
+                    m.setDpiX(dpi(uint16BE(b, data + 8) * factor));
+                    m.setDpiY(dpi(uint16BE(b, data + 10) * factor));
+                }
+            } else if (marker == 0xE1 && startsWith(b, data, available, "Exif\0\0")) {
+                m.setHasExif(true);
+                exif(b, data + 6, available - 6, m);
+            } else if (marker == 0xE1 && startsWith(b, data, available, "http://ns.adobe.com/xap/1.0/\0")) {
+                m.setHasXmp(true);
+            } else if (marker == 0xE2 && startsWith(b, data, available, "ICC_PROFILE\0") && available > 14) {
+                // Profil découpé en plusieurs segments : l'en-tête et la table des tags sont dans le premier
+                if (b[data + 12] == 1) {
+                    icc(b, data + 14, available - 14, m);
+                }
+            } else if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC
+                    && available >= 6) {
+                m.setBitDepth(b[data] & 0xFF);
+                m.setColorMode(switch (b[data + 5] & 0xFF) {
+                    case 1 -> "L";
+                    case 3 -> "RGB";
+                    case 4 -> "CMYK";
+                    default -> null;
+                });
+                m.setProgressive(marker == 0xC2 || marker == 0xC6 || marker == 0xCA || marker == 0xCE);
+            }
+            i = data + segmentLength - 2;
+        }
+    }
+
+    // Blocs parcourus tant qu'ils tiennent dans le préfixe : extension NETSCAPE / second cadre = animé
+    private static void gif(byte[] b, int length, ImageMetadata m) {
+        m.setColorMode("P");
+        m.setHasAlpha(false);
+        m.setAnimated(false);
+        if (length < 13) {
+            return;
+        }
+        int packed = b[10] & 0xFF;
+        m.setBitDepth((packed & 0x07) + 1);
+        int i = 13 + ((packed & 0x80) != 0 ? 3 << ((packed & 0x07) + 1) : 0);
+        int frames = 0;
+        while (i < length) {
+            int block = b[i] & 0xFF;
+            if (block == 0x21 && i + 2 < length) {
+                int label = b[i + 1] & 0xFF;
+                if (label == 0xFF && (b[i + 2] & 0xFF) == 11 && i + 14 <= length) {
+                    String application = ascii(b, i + 3, 11);
+                    if (application.equals("NETSCAPE2.0") || application.equals("ANIMEXTS1.0")) {
+                        m.setAnimated(true);
+                    } else if (application.equals("XMP DataXMP")) {
+                        m.setHasXmp(true);
+                    }
+                } else if (label == 0xF9 && i + 3 < length && (b[i + 3] & 0x01) != 0) {
+                    m.setHasAlpha(true);
+                }
+                i = skipSubBlocks(b, length, i + 2);
+            } else if (block == 0x2C && i + 10 <= length) {
+                if (++frames > 1) {
+                    m.setAnimated(true);
+                    return;
+                }
+                int local = b[i + 9] & 0xFF;
+                i += 10 + ((local & 0x80) != 0 ? 3 << ((local & 0x07) + 1) : 0);
+                // Taille minimale du code LZW puis données de l'image
+                i = skipSubBlocks(b, length, i + 1);
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Chunk principal (VP8, VP8L, VP8X) puis chunks ICCP, EXIF, XMP, ALPH
+    private static void webp(byte[] b, int length, ImageMetadata m) {
+        if (length < 21) {
+            return;
+        }
+        m.setBitDepth(8);
+        m.setAnimated(false);
+        String main = ascii(b, 12, 4);
+        boolean alpha = false;
+        if (main.equals("VP8L") && length >= 25) {
+            alpha = ((int32LE(b, 21) >>> 28) & 0x01) != 0;
+        } else if (main.equals("VP8X")) {
+            int flags = b[20] & 0xFF;
+            alpha = (flags & 0x10) != 0;
+            m.setHasExif((flags & 0x08) != 0);
+            m.setHasXmp((flags & 0x04) != 0);
+            m.setAnimated((flags & 0x02) != 0);
+        }
+        long i = 12;
+        while (i + 8 <= length) {
+            int start = (int) i;
+            String type = ascii(b, start, 4);
+            long size = int32LE(b, start + 4) & 0xFFFFFFFFL;
+            int data = start + 8;
+            int available = (int) Math.min(size, length - data);
+            switch (type) {
+                case "ICCP" -> icc(b, data, available, m);
+                case "EXIF" -> {
+                    m.setHasExif(true);
+                    // Certains encodeurs gardent le préfixe JPEG "Exif\0\0"
+                    int offset = startsWith(b, data, available, "Exif\0\0") ? 6 : 0;
+                    exif(b, data + offset, available - offset, m);
+                }
+                case "XMP " -> m.setHasXmp(true);
+                case "ALPH" -> alpha = true;
+                default -> {
+                }
+            }
+            i = data + size + (size & 1);
+        }
+        m.setHasAlpha(alpha);
+        m.setColorMode(alpha ? "RGBA" : "RGB");
+    }
+
+    // En-tête ICC (128 octets) : espace colorimétrique à l'octet 16, puis table des tags pour la description
+    private static void icc(byte[] b, int start, int available, ImageMetadata m) {
+        if (available < 20) {
+            return;
+        }
+        m.setIccColorSpace(ascii(b, start + 16, 4).trim());
+        if (available < 132) {
+            return;
+        }
+        int end = start + available;
+        int tags = Math.min(int32BE(b, start + 128), 128);
+        for (int t = 0; t < tags; t++) {
+            int entry = start + 132 + t * 12;
+            if (entry + 12 > end) {
+                return;
+            }
+            if (!ascii(b, entry, 4).equals("desc")) {
+                continue;
+            }
+            int tag = start + int32BE(b, entry + 4);
+            if (tag < start || tag + 12 > end) {
+                return;
+            }
+            String type = ascii(b, tag, 4);
+            if (type.equals("desc")) {
+                // ICC v2 : longueur puis texte ASCII
+                int count = Math.min(int32BE(b, tag + 8), end - tag - 12);
+                m.setIccProfile(text(b, tag + 12, count, 128));
+            } else if (type.equals("mluc") && tag + 28 <= end && int32BE(b, tag + 8) > 0) {
+                // ICC v4 : premier enregistrement multilingue, en UTF-16BE
+                int count = int32BE(b, tag + 20);
+                int text = tag + int32BE(b, tag + 24);
+                if (text >= tag && count >= 0 && text + count <= end) {
+                    m.setIccProfile(clean(new String(b, text, count, StandardCharsets.UTF_16BE), 128));
+                }
+            }
+            return;
+        }
+    }
+
+    // Structure TIFF de l'EXIF : IFD0 (appareil, orientation, logiciel), sous-IFD EXIF (date de prise), IFD GPS
+    private static void exif(byte[] b, int start, int available, ImageMetadata m) {
+        try {
+            Tiff tiff = new Tiff(b, start, start + Math.max(available, 0));
+            String dateTime = null;
+            int ifd = tiff.u32(4);
+            for (int n = tiff.entries(ifd), e = ifd + 2; n > 0; n--, e += 12) {
+                switch (tiff.u16(e)) {
+                    case 0x010F -> m.setCameraMake(clean(tiff.ascii(e), 64));
+                    case 0x0110 -> m.setCameraModel(clean(tiff.ascii(e), 64));
+                    case 0x0112 -> m.setOrientation(tiff.u16(e + 8));
+                    case 0x0131 -> m.setSoftware(clean(tiff.ascii(e), 128));
+                    case 0x0132 -> dateTime = tiff.ascii(e);
+                    case 0x8769 -> {
+                        int sub = tiff.u32(e + 8);
+                        for (int k = tiff.entries(sub), s = sub + 2; k > 0; k--, s += 12) {
+                            if (tiff.u16(s) == 0x9003) {
+                                m.setCapturedAt(date(tiff.ascii(s)));
+                            }
+                        }
+                    }
+                    case 0x8825 -> gps(tiff, tiff.u32(e + 8), m);
+                    default -> {
+                    }
+                }
+            }
+            if (m.getCapturedAt() == null && dateTime != null) {
+                m.setCapturedAt(date(dateTime));
+            }
+        } catch (RuntimeException e) {
+            // EXIF tronqué ou incohérent : les autres segments restent lus
+            log.debug("EXIF illisible: {}", e.toString());
+        }
+    }
+
+    private static void gps(Tiff tiff, int ifd, ImageMetadata m) {
+        String latitudeRef = null;
+        String longitudeRef = null;
+        Double latitude = null;
+        Double longitude = null;
+        for (int n = tiff.entries(ifd), e = ifd + 2; n > 0; n--, e += 12) {
+            switch (tiff.u16(e)) {
+                case 0x0001 -> latitudeRef = tiff.ascii(e);
+                case 0x0002 -> latitude = tiff.degrees(e);
+                case 0x0003 -> longitudeRef = tiff.ascii(e);
+                case 0x0004 -> longitude = tiff.degrees(e);
+                default -> {
+                }
+            }
+        }
+        if (latitude != null && longitude != null) {
+            m.setGpsLatitude("S".equals(latitudeRef) ? -latitude : latitude);
+            m.setGpsLongitude("W".equals(longitudeRef) ? -longitude : longitude);
+        }
+    }
+
+    // Lecture bornée d'une structure TIFF : tout débordement lève IndexOutOfBoundsException
+    private static final class Tiff {
+        private final byte[] b;
+        private final int base;
+        private final int end;
+        private final boolean littleEndian;
+
+        private Tiff(byte[] b, int base, int end) {
+            this.b = b;
+            this.base = base;
+            this.end = end;
+            check(0, 8);
+            if (b[base] == 'I' && b[base + 1] == 'I') {
+                littleEndian = true;
+            } else if (b[base] == 'M' && b[base + 1] == 'M') {
+                littleEndian = false;
+            } else {
+                throw new IllegalArgumentException("Ordre des octets TIFF inconnu");
+            }
+        }
+
+        private int entries(int ifd) {
+            return Math.min(u16(ifd), MAX_IFD_ENTRIES);
+        }
+
+        private int u16(int offset) {
+            check(offset, 2);
+            int p = base + offset;
+            return littleEndian ? uint16LE(b, p) : uint16BE(b, p);
+        }
+
+        private int u32(int offset) {
+            check(offset, 4);
+            int p = base + offset;
+            return littleEndian ? int32LE(b, p) : int32BE(b, p);
+        }
+
+        // Valeur ASCII d'une entrée : dans l'entrée si elle tient sur 4 octets, sinon à l'offset indiqué
+        private String ascii(int entry) {
+            int count = u32(entry + 4);
+            int offset = count <= 4 ? entry + 8 : u32(entry + 8);
+            check(offset, count);
+            return ImageMetadataExtractor.text(b, base + offset, count, Integer.MAX_VALUE);
+        }
+
+        // Trois rationnels : degrés, minutes, secondes
+        private Double degrees(int entry) {
+            int offset = u32(entry + 8);
+            double degrees = rational(offset) + rational(offset + 8) / 60 + rational(offset + 16) / 3600;
+            return Double.isFinite(degrees) ? degrees : null;
+        }
+
+        private double rational(int offset) {
+            long numerator = u32(offset) & 0xFFFFFFFFL;
+            long denominator = u32(offset + 4) & 0xFFFFFFFFL;
+            return denominator == 0 ? 0 : (double) numerator / denominator;
+        }
+
+        private void check(int offset, int length) {
+            if (offset < 0 || length < 0 || (long) base + offset + length > end) {
+                throw new IndexOutOfBoundsException("Offset TIFF hors limites: " + offset);
+            }
+        }
+    }
+
+    private static int skipSubBlocks(byte[] b, int length, int i) {
+        while (i < length && b[i] != 0) {
+            i += (b[i] & 0xFF) + 1;
+        }
+        return i + 1;
+    }
+
+    private static LocalDateTime date(String value) {
+        if (value == null || value.length() < 19) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.substring(0, 19), EXIF_DATE);
+        } catch (DateTimeParseException e) {
+            // "0000:00:00 00:00:00" et autres dates vides des appareils mal réglés
+            return null;
+        }
+    }
+
+    private static Double dpi(double value) {
+        return value > 0 ? Math.round(value * 10) / 10.0 : null;
+    }
+
+    private static boolean startsWith(byte[] b, int offset, int available, String prefix) {
+        if (available < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (b[offset + i] != (byte) prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Texte terminé par un octet nul (ou par la fin de la zone), tronqué à max caractères
+    private static String text(byte[] b, int offset, int available, int max) {
+        int end = offset;
+        while (end < offset + available && b[end] != 0) {
+            end++;
+        }
+        return clean(new String(b, offset, end - offset, StandardCharsets.ISO_8859_1), max);
+    }
+
+    private static String clean(String value, int max) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.replace("\0", "").trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        return trimmed.length() > max ? trimmed.substring(0, max) : trimmed;
+    }
+
+    private static String ascii(byte[] b, int offset, int length) {
+        return new String(b, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int uint16LE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int uint16BE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static int int32LE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static int int32BE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,343 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.infrastructure.config.ImagePartitioningProperties;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Partitions mensuelles de la table images (PostgreSQL) : création à l'avance, puis archivage des mois froids.
+// Une partition froide est détachée (CONCURRENTLY : les lectures et écritures sur images continuent),
+// exportée en CSV gzip, relue pour vérification, puis supprimée. Une partition détachée mais pas encore
+// archivée (arrêt, erreur d'écriture) est reprise au passage suivant.
+// Base existante non partitionnée : voir db/partitioning/images-partitioned.sql.
+@Component
+@Slf4j
+public class ImagePartitionMaintenance {
+    // detachPending : DETACH CONCURRENTLY interrompu, à terminer par FINALIZE
+    public record Partition(String name, LocalDateTime from, LocalDateTime to, boolean detachPending) {
+    }
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("images_y\\d{4}m\\d{2}");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ImagePartitioningProperties properties;
+    private final GalleryCache galleryCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ImagePurgeService imagePurgeService;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean partitioned;
+
+    public ImagePartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     ImagePartitioningProperties properties, GalleryCache galleryCache,
+                                     EntityManagerFactory entityManagerFactory, ImagePurgeService imagePurgeService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.galleryCache = galleryCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.imagePurgeService = imagePurgeService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Partitionnement des images ignoré : PostgreSQL requis (base {})", database);
+            return;
+        }
+        try {
+            partitioned = isPartitioned() || convertEmptyTable();
+            if (partitioned) {
+                maintain();
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la mise en place du partitionnement des images: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${app.partitioning.cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!partitioned || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now();
+            for (YearMonth month : monthsToCreate(current, properties.getPremakeMonths())) {
+                createPartition(month);
+            }
+            if (properties.getRetainMonths() > 0) {
+                for (Partition partition : attachedPartitions()) {
+                    if (isCold(partition, current, properties.getRetainMonths())) {
+                        jdbcTemplate.execute("ALTER TABLE images DETACH PARTITION " + partition.name()
+                                + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                        log.info("Partition {} détachée ({} - {})", partition.name(), partition.from(), partition.to());
+                        // Images du mois absentes de la table : galeries et cache de second niveau écartés
+                        evictCaches();
+                    }
+                }
+                for (String name : detachedPartitions()) {
+                    archive(name);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la maintenance des partitions d'images: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_partitioned_table p "
+                + "JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = 'images' AND pg_table_is_visible(c.oid)",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    // Schéma tout juste créé par Hibernate (ddl-auto) : table vide recréée partitionnée, index et clés étrangères
+    // recopiés. La clé primaire inclut upload_timestamp, comme l'exige PostgreSQL.
+    private boolean convertEmptyTable() {
+        Boolean hasRows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM images)", Boolean.class);
+        if (Boolean.TRUE.equals(hasRows)) {
+            log.error("Table images non partitionnée et non vide : appliquer db/partitioning/images-partitioned.sql");
+            return false;
+        }
+        transaction.executeWithoutResult(tx -> {
+            List<String> indexes = jdbcTemplate.queryForList("SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                    + "JOIN pg_class c ON c.oid = i.indrelid WHERE c.relname = 'images' AND NOT i.indisprimary "
+                    + "AND pg_table_is_visible(c.oid)", String.class);
+            List<String> foreignKeys = jdbcTemplate.queryForList("SELECT 'ALTER TABLE images ADD CONSTRAINT ' "
+                    + "|| quote_ident(conname) || ' ' || pg_get_constraintdef(oid) FROM pg_constraint "
+                    + "WHERE conrelid = 'images'::regclass AND contype = 'f'", String.class);
+
+            jdbcTemplate.execute("ALTER TABLE images RENAME TO images_unpartitioned");
+            jdbcTemplate.execute("CREATE TABLE images (LIKE images_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY "
+                    + "INCLUDING CONSTRAINTS) PARTITION BY RANGE (upload_timestamp)");
+            jdbcTemplate.execute("DROP TABLE images_unpartitioned");
+            jdbcTemplate.execute("ALTER TABLE images ADD PRIMARY KEY (id, upload_timestamp)");
+            for (String index : indexes) {
+                // Définitions lues avant le renommage : elles visent déjà la nouvelle table
+                jdbcTemplate.execute(index);
+            }
+            for (String foreignKey : foreignKeys) {
+                jdbcTemplate.execute(foreignKey);
+            }
+        });
+        log.info("Table images recréée avec un partitionnement mensuel sur upload_timestamp");
+        return true;
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF images FOR VALUES FROM ('"
+                + month.atDay(1).atStartOfDay().format(BOUND_FORMAT) + "') TO ('"
+                + month.plusMonths(1).atDay(1).atStartOfDay().format(BOUND_FORMAT) + "')");
+    }
+
+    public List<Partition> attachedPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), i.inhdetachpending FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'images'::regclass ORDER BY c.relname", rs -> {
+            Partition partition = parsePartition(rs.getString(1), rs.getString(2), rs.getBoolean(3));
+            if (partition != null) {
+                partitions.add(partition);
+            }
+        });
+        return partitions;
+    }
+
+    // Tables images_yAAAAmMM qui ne sont plus rattachées : en attente d'archivage
+    private List<String> detachedPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_class c WHERE c.relkind = 'r' "
+                + "AND NOT c.relispartition AND c.relname ~ '^images_y[0-9]{4}m[0-9]{2}$' "
+                + "AND pg_table_is_visible(c.oid) ORDER BY c.relname", String.class);
+    }
+
+    // Écrit dans un fichier temporaire renommé une fois complet : une archive présente est toujours entière
+    private void archive(String name) throws IOException {
+        if (!PARTITION_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Nom de partition inattendu: " + name);
+        }
+        Path directory = Paths.get(properties.getArchiveDir()).toAbsolutePath();
+        Files.createDirectories(directory);
+        Path target = directory.resolve(name + ".csv.gz");
+        Path temp = directory.resolve(name + ".csv.gz.tmp");
+
+        long start = System.currentTimeMillis();
+        long exported;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8))) {
+            // Transaction en écriture : lue sur la base principale, jamais sur une réplique en retard
+            exported = transaction.execute(tx -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement("SELECT * FROM " + name,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(properties.getFetchSize());
+                return ps;
+            }, rs -> {
+                try {
+                    return writeCsv(rs, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + name, Long.class);
+        if (rows == null || rows != exported) {
+            Files.deleteIfExists(temp);
+            throw new IllegalStateException("Archive de " + name + " incomplète: " + exported + " lignes sur " + rows);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (properties.isDeleteArchivedFiles()) {
+            deleteArchivedFiles(name);
+        }
+        jdbcTemplate.execute("DROP TABLE " + name);
+        evictCaches();
+        log.info("Partition {} archivée dans {} ({} lignes, {} octets) puis supprimée en {} ms",
+                name, target, exported, Files.size(target), System.currentTimeMillis() - start);
+    }
+
+    // Partition détachée : plus aucune ligne ne renvoie à ces fichiers. Chemins remis par lots de fetchSize
+    // à la file de ImagePurgeService (débordement sur disque) ; sans DROP, le passage suivant les remet en file
+    private void deleteArchivedFiles(String name) {
+        int batchSize = Math.max(1, properties.getFetchSize());
+        List<String> paths = new ArrayList<>(batchSize);
+        transaction.executeWithoutResult(tx -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT image_path FROM " + name + " WHERE image_path IS NOT NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(batchSize);
+            return ps;
+        }, rs -> {
+            paths.add(rs.getString("image_path"));
+            if (paths.size() == batchSize) {
+                imagePurgeService.deleteFilesLater(paths);
+                paths.clear();
+            }
+        }));
+        imagePurgeService.deleteFilesLater(paths);
+    }
+
+    // DETACH et DROP contournent Hibernate : ids des lignes inconnus, toute la région des images est invalidée
+    private void evictCaches() {
+        galleryCache.clear();
+        entityManagerFactory.getCache().evict(Image.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(ImageRepository.QUERY_CACHE_REGION);
+    }
+
+    // CSV au format COPY de PostgreSQL (restauration : \copy images FROM PROGRAM 'gunzip -c ...' CSV HEADER) :
+    // NULL en champ vide, chaîne vide entre guillemets
+    static long writeCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            writer.write(meta.getColumnName(i));
+        }
+        writer.write('\n');
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value instanceof Timestamp timestamp) {
+                    value = timestamp.toLocalDateTime();
+                }
+                if (value != null) {
+                    writer.write(csvValue(value.toString()));
+                }
+            }
+            writer.write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    static String csvValue(String value) {
+        if (!value.isEmpty() && value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0 && !value.equals("\\.")) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("images_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    static List<YearMonth> monthsToCreate(YearMonth current, int premakeMonths) {
+        List<YearMonth> months = new ArrayList<>();
+        for (int i = 0; i <= Math.max(0, premakeMonths); i++) {
+            months.add(current.plusMonths(i));
+        }
+        return months;
+    }
+
+    // Froide : tout le mois est antérieur aux retainMonths mois conservés (mois courant inclus)
+    static boolean isCold(Partition partition, YearMonth current, int retainMonths) {
+        LocalDateTime cutoff = current.minusMonths(retainMonths - 1L).atDay(1).atStartOfDay();
+        return !partition.to().isAfter(cutoff);
+    }
+
+    // Borne telle que rendue par pg_get_expr : FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')
+    static Partition parsePartition(String name, String bound, boolean detachPending) {
+        if (name == null || bound == null || !PARTITION_NAME.matcher(name).matches()) {
+            return null;
+        }
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return new Partition(name, LocalDateTime.parse(matcher.group(1), BOUND_FORMAT),
+                    LocalDateTime.parse(matcher.group(2), BOUND_FORMAT), detachPending);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// Réduit une image avant de l'envoyer au détecteur IA : décodage sous-échantillonné,
+// redimensionnement au plus grand côté cible puis ré-encodage PNG/JPEG dans un tampon de DirectBufferPool.
+@Component
+public class ImagePreprocessor {
+    private final FlaskProperties.Preprocessing settings;
+    private final DirectBufferPool bufferPool;
+    private final Timer preprocessTimer;
+    private final Counter bytesSaved;
+
+    public ImagePreprocessor(FlaskProperties flaskProperties, DirectBufferPool bufferPool, MeterRegistry meterRegistry) {
+        this.settings = flaskProperties.getPreprocessing();
+        this.bufferPool = bufferPool;
+        this.preprocessTimer = Timer.builder("flask.preprocessing")
+                .description("Décodage, réduction et ré-encodage avant envoi au détecteur IA")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("flask.preprocessing.bytes.saved")
+                .baseUnit("bytes")
+                .description("Octets non envoyés au détecteur IA grâce à la réduction")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // En-tête seul : vrai si l'image dépasse la taille cible, faux si elle est illisible ou le prétraitement désactivé
+    public boolean needsReduction(Path source) {
+        if (!settings.isEnabled()) {
+            return false;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return false;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return Math.max(reader.getWidth(0), reader.getHeight(0)) > settings.getTargetSize();
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Null si l'image est déjà à la taille cible ou si aucun lecteur ne la reconnaît : l'original est alors envoyé
+    public PreprocessedImage preprocess(Path source) throws IOException {
+        long start = System.nanoTime();
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            BufferedImage decoded;
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                if (longest <= settings.getTargetSize()) {
+                    return null;
+                }
+                // Sous-échantillonnage au décodage : seule une ligne/colonne sur n est lue
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = longest / settings.getTargetSize();
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+
+            BufferedImage resized = resize(decoded, settings.getTargetSize(), settings.getFormat());
+            long originalSize = Files.size(source);
+            // Taille estimée : l'image non compressée, bornée par l'original
+            DirectBufferPool.Lease lease = bufferPool.acquire(
+                    Math.min(originalSize, (long) resized.getWidth() * resized.getHeight() * 3));
+            EncodedOutput encoded = new EncodedOutput(lease.buffer());
+            try {
+                encode(resized, encoded);
+            } catch (IOException | RuntimeException e) {
+                lease.close();
+                throw e;
+            }
+            bytesSaved.increment(Math.max(0, originalSize - encoded.size()));
+            return new PreprocessedImage(lease, encoded, resized.getWidth(), resized.getHeight(), originalSize);
+        } finally {
+            preprocessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static BufferedImage resize(BufferedImage source, int targetSize, FlaskProperties.Format format) {
+        double scale = (double) targetSize / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        // JPEG ne porte pas d'alpha
+        int type = format == FlaskProperties.Format.PNG && source.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void encode(BufferedImage image, OutputStream buffer) throws IOException {
+        boolean jpeg = settings.getFormat() == FlaskProperties.Format.JPEG;
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : "png").next();
+        // Flux en mémoire : ImageIO ne passe pas par un fichier de cache
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(settings.getJpegQuality());
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Image réduite adossée à un tampon du pool : à fermer une fois la requête envoyée
+    public final class PreprocessedImage implements AutoCloseable {
+        private final DirectBufferPool.Lease lease;
+        private final EncodedOutput encoded;
+        private final int width;
+        private final int height;
+        private final long originalSize;
+        private boolean released;
+
+        private PreprocessedImage(DirectBufferPool.Lease lease, EncodedOutput encoded, int width, int height,
+                                  long originalSize) {
+            this.lease = lease;
+            this.encoded = encoded;
+            this.width = width;
+            this.height = height;
+            this.originalSize = originalSize;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public int getSize() {
+            return encoded.size();
+        }
+
+        public String getFilename() {
+            return settings.getFormat() == FlaskProperties.Format.JPEG ? "preprocessed.jpg" : "preprocessed.png";
+        }
+
+        // Ressource lue directement dans le tampon, sans copie
+        public Resource asResource() {
+            return new AbstractResource() {
+                @Override
+                public String getDescription() {
+                    return "image réduite " + width + "x" + height;
+                }
+
+                @Override
+                public String getFilename() {
+                    return PreprocessedImage.this.getFilename();
+                }
+
+                @Override
+                public long contentLength() {
+                    return encoded.size();
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return encoded.overflow != null
+                            ? new ByteArrayInputStream(encoded.overflow.toByteArray())
+                            : lease.newInputStream(encoded.size());
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                lease.close();
+            }
+        }
+    }
+
+    // Encodage dans le tampon emprunté ; s'il est trop petit (image peu compressible), la suite va dans le tas
+    private static final class EncodedOutput extends OutputStream {
+        private final ByteBuffer buffer;
+        private ByteArrayOutputStream overflow;
+
+        private EncodedOutput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (overflow == null && len <= buffer.remaining()) {
+                buffer.put(b, off, len);
+                return;
+            }
+            if (overflow == null) {
+                overflow = new ByteArrayOutputStream(buffer.position() * 2 + len);
+                byte[] written = new byte[buffer.position()];
+                buffer.get(0, written);
+                overflow.writeBytes(written);
+            }
+            overflow.write(b, off, len);
+        }
+
+        private int size() {
+            return overflow != null ? overflow.size() : buffer.position();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.infrastructure.config.RetentionProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ImagePurgeService {
+    private static final String DELETE_BY_IDS_SQL =
+            "DELETE FROM images WHERE id = ANY(?) RETURNING id, image_path";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final RetentionProperties properties;
+    private final ThreadPoolExecutor fileDeletionExecutor;
+    private final Path pendingDeletions;
+    private final Object pendingDeletionsLock = new Object();
+
+    public ImagePurgeService(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                             RetentionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = properties;
+        this.pendingDeletions = Paths.get(properties.getPendingDeletionsFile()).toAbsolutePath();
+        // Un seul thread pour les fichiers : la suppression reste séquentielle et bornée par le budget d'E/S.
+        // File pleine : rejet (AbortPolicy), les chemins partent sur disque plutôt que sur le thread appelant
+        this.fileDeletionExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, properties.getFileDeletionQueueCapacity())), runnable -> {
+                    Thread thread = new Thread(runnable, "image-file-purger");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Reprise des suppressions laissées en attente par l'exécution précédente
+        fileDeletionExecutor.execute(this::drainPendingDeletions);
+    }
+
+    public int purgeByIds(Collection<Long> ids) {
+        List<Long> remaining = new ArrayList<>(ids);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int total = 0;
+
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            Long[] batch = remaining.subList(from, Math.min(from + batchSize, remaining.size())).toArray(new Long[0]);
+            long start = System.nanoTime();
+            int deleted = deleteBatch(connection -> {
+                PreparedStatement ps = connection.prepareStatement(DELETE_BY_IDS_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", batch));
+                return ps;
+            });
+            total += deleted;
+            if (!throttle(start, deleted)) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public int purge(LocalDateTime uploadedBefore, String status, String username) {
+        StringBuilder where = new StringBuilder("TRUE");
+        List<Object> args = new ArrayList<>();
+        if (uploadedBefore != null) {
+            where.append(" AND upload_timestamp < ?");
+            args.add(Timestamp.valueOf(uploadedBefore));
+        }
+        if (status != null) {
+            where.append(" AND analysis_status = ?");
+            args.add(status);
+        }
+        if (username != null) {
+            where.append(" AND user_id IN (SELECT u.id FROM users u WHERE u.username = ?)");
+            args.add(username);
+        }
+
+        int batchSize = Math.max(1, properties.getBatchSize());
+        args.add(batchSize);
+        // SKIP LOCKED : un purgeur concurrent ne bloque jamais les écritures en cours
+        String sql = "DELETE FROM images WHERE id IN (SELECT id FROM images WHERE " + where
+                + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id, image_path";
+
+        int total = 0;
+        int deleted;
+        do {
+            long start = System.nanoTime();
+            deleted = deleteBatch(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            });
+            total += deleted;
+            if (!throttle(start, deleted)) {
+                break;
+            }
+        } while (deleted == batchSize);
+
+        return total;
+    }
+
+    public int purge(RetentionProperties.Rule rule) {
+        if (!rule.hasCriteria()) {
+            log.warn("Règle de rétention '{}' ignorée : aucun critère défini", rule.getName());
+            return 0;
+        }
+        LocalDateTime uploadedBefore = rule.getMaxAge() != null
+                ? LocalDateTime.now().minus(rule.getMaxAge())
+                : null;
+        return purge(uploadedBefore, rule.getStatus(), rule.getUsername());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fileDeletionExecutor.shutdown();
+    }
+
+    private int deleteBatch(PreparedStatementCreator statement) {
+        List<Long> ids = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        jdbcTemplate.query(statement, rs -> {
+            ids.add(rs.getLong("id"));
+            String path = rs.getString("image_path");
+            if (path != null) {
+                paths.add(path);
+            }
+        });
+        if (!ids.isEmpty()) {
+            evictFromCache(ids);
+        }
+        if (!paths.isEmpty()) {
+            scheduleFileDeletion(paths);
+        }
+        return ids.size();
+    }
+
+    // Fichiers de lignes supprimées hors de ce service (archivage des partitions) : même file, même débordement sur disque
+    public void deleteFilesLater(List<String> paths) {
+        if (!paths.isEmpty()) {
+            scheduleFileDeletion(List.copyOf(paths));
+        }
+    }
+
+    private void scheduleFileDeletion(List<String> paths) {
+        try {
+            fileDeletionExecutor.execute(() -> {
+                deleteFiles(paths);
+                // Dernière tâche en file : reprendre les chemins mis de côté pendant le débordement
+                if (fileDeletionExecutor.getQueue().isEmpty()) {
+                    drainPendingDeletions();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            appendPendingDeletions(paths);
+        }
+    }
+
+    private void appendPendingDeletions(List<String> paths) {
+        synchronized (pendingDeletionsLock) {
+            try {
+                Files.createDirectories(pendingDeletions.getParent());
+                Files.write(pendingDeletions, paths, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.error("Impossible de mettre en attente la suppression de {} fichiers: {}", paths.size(), e.getMessage());
+            }
+        }
+    }
+
+    // Thread de suppression uniquement. Le fichier est renommé avant lecture : les rejets suivants repartent
+    // dans un nouveau fichier ; une reprise interrompue (arrêt) est poursuivie au prochain appel
+    private void drainPendingDeletions() {
+        Path draining = pendingDeletions.resolveSibling(pendingDeletions.getFileName() + ".draining");
+        try {
+            synchronized (pendingDeletionsLock) {
+                if (!Files.exists(draining)) {
+                    if (!Files.exists(pendingDeletions)) {
+                        return;
+                    }
+                    Files.move(pendingDeletions, draining, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            boolean completed;
+            try (Stream<String> lines = Files.lines(draining, StandardCharsets.UTF_8)) {
+                completed = deleteFiles(lines::iterator);
+            }
+            if (completed) {
+                Files.delete(draining);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Reprise des suppressions en attente impossible: {}", e.getMessage());
+        }
+    }
+
+    // Les suppressions JDBC contournent Hibernate : le cache de second niveau doit être invalidé à la main
+    private void evictFromCache(List<Long> ids) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Image.class, id);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(ImageRepository.QUERY_CACHE_REGION);
+    }
+
+    // Faux si interrompu avant la fin
+    private boolean deleteFiles(Iterable<String> paths) {
+        int budget = properties.getMaxFileDeletesPerSecond();
+        long pauseNanos = budget > 0 ? 1_000_000_000L / budget : 0;
+        for (String path : paths) {
+            try {
+                Files.deleteIfExists(resolve(path));
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le fichier {}: {}", path, e.getMessage());
+            }
+            if (pauseNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pauseNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Path resolve(String path) {
+        Path filePath = Paths.get(path);
+        if (filePath.isAbsolute() || properties.getImageRoot().isEmpty()) {
+            return filePath;
+        }
+        return Paths.get(properties.getImageRoot()).resolve(filePath);
+    }
+
+    private boolean throttle(long startNanos, int rows) {
+        int budget = properties.getMaxRowsPerSecond();
+        if (budget <= 0 || rows == 0) {
+            return true;
+        }
+        long remaining = rows * 1_000_000_000L / budget - (System.nanoTime() - startNanos);
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.steganoAI.backend.infrastructure.service;
+
+public class ImageRejectedException extends RuntimeException {
+    public enum Reason { EMPTY, UNKNOWN_FORMAT, FORMAT_NOT_ALLOWED, EXTENSION_MISMATCH, TRUNCATED, TOO_MANY_PIXELS, TOO_LARGE }
+
+    private final Reason reason;
+
+    public ImageRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
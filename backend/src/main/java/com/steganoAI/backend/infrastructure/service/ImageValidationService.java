@@ -0,0 +1,361 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.UploadValidationProperties;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException.Reason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+// Contrôle d'un upload avant tout transfert vers Flask : seuls les premiers Ko sont lus
+// (signature, dimensions dans l'en-tête), les pixels ne sont jamais décodés.
+@Service
+@Slf4j
+public class ImageValidationService {
+    public static final int HEADER_SIZE = 4096;
+    private static final long UNKNOWN = -1;
+    // Tampon d'en-tête réutilisé par thread : le parsing n'alloue rien
+    private static final ThreadLocal<byte[]> HEADER_BUFFER = ThreadLocal.withInitial(() -> new byte[HEADER_SIZE]);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Chunk IEND complet (longueur nulle, type, CRC) qui termine tout PNG
+    private static final byte[] PNG_IEND = {0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82};
+    // Fin de fichier où chercher la fin d'image : des octets ajoutés après (outils, padding) restent acceptés
+    private static final int TRAILER_WINDOW = 1024;
+
+    private final UploadValidationProperties properties;
+    private final Map<Reason, Counter> rejections = new EnumMap<>(Reason.class);
+
+    public ImageValidationService(UploadValidationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Reason reason : Reason.values()) {
+            rejections.put(reason, Counter.builder("image.upload.rejected")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .description("Uploads refusés avant l'envoi à Flask")
+                    .register(meterRegistry));
+        }
+    }
+
+    public ImageHeader validate(MultipartFile file) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        try {
+            return inspect(file);
+        } catch (ImageRejectedException e) {
+            rejected(e, file.getOriginalFilename());
+            throw e;
+        } catch (IOException e) {
+            throw new RuntimeException("Lecture du fichier impossible", e);
+        }
+    }
+
+    // Upload reçu en flux : seuls les premiers octets sont connus, ni la taille totale ni la fin du fichier.
+    // Dimensions hors des HEADER_SIZE premiers octets (JPEG avec gros EXIF) : non contrôlées ici.
+    public ImageHeader validateHeader(String filename, byte[] header, int length) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        try {
+            if (length <= 0) {
+                throw new ImageRejectedException(Reason.EMPTY, "Fichier vide");
+            }
+            ImageFormat format = checkFormat(filename, header, length);
+            long dimensions = readDimensions(format, header, length);
+            if (dimensions == UNKNOWN) {
+                return null;
+            }
+            return checkDimensions(format, dimensions);
+        } catch (ImageRejectedException e) {
+            rejected(e, filename);
+            throw e;
+        }
+    }
+
+    private void rejected(ImageRejectedException e, String filename) {
+        rejections.get(e.getReason()).increment();
+        log.info("Upload refusé ({}): {} - {}", e.getReason(), filename, e.getMessage());
+    }
+
+    private ImageHeader inspect(MultipartFile file) throws IOException {
+        long size = file.getSize();
+        if (size <= 0) {
+            throw new ImageRejectedException(Reason.EMPTY, "Fichier vide");
+        }
+
+        byte[] header = HEADER_BUFFER.get();
+        int length;
+        try (InputStream in = file.getInputStream()) {
+            length = in.readNBytes(header, 0, HEADER_SIZE);
+        }
+
+        ImageFormat format = checkFormat(file.getOriginalFilename(), header, length);
+        if (declaredSizeExceeds(format, header, length, size)) {
+            throw new ImageRejectedException(Reason.TRUNCATED, "Fichier " + format + " tronqué");
+        }
+
+        long dimensions = readDimensions(format, header, length);
+        if (dimensions == UNKNOWN) {
+            dimensions = readDimensionsWithImageReader(file);
+        }
+        ImageHeader imageHeader = checkDimensions(format, dimensions);
+        if (missingTrailer(format, file, size)) {
+            throw new ImageRejectedException(Reason.TRUNCATED, "Fichier " + format + " tronqué");
+        }
+        return imageHeader;
+    }
+
+    private ImageFormat checkFormat(String filename, byte[] header, int length) {
+        ImageFormat format = detectFormat(header, length);
+        if (format == null) {
+            throw new ImageRejectedException(Reason.UNKNOWN_FORMAT, "Le fichier n'est pas une image reconnue");
+        }
+        if (!properties.getAllowedFormats().contains(format)) {
+            throw new ImageRejectedException(Reason.FORMAT_NOT_ALLOWED, "Format " + format + " non autorisé");
+        }
+        checkExtension(filename, format);
+        return format;
+    }
+
+    private ImageHeader checkDimensions(ImageFormat format, long dimensions) {
+        int width = (int) (dimensions >>> 32);
+        int height = (int) dimensions;
+        if (width <= 0 || height <= 0) {
+            throw new ImageRejectedException(Reason.TRUNCATED, "En-tête " + format + " invalide");
+        }
+        if ((long) width * height > properties.getMaxPixels()) {
+            throw new ImageRejectedException(Reason.TOO_MANY_PIXELS,
+                    "Image trop grande: " + width + "x" + height + " pixels (max " + properties.getMaxPixels() + ")");
+        }
+        return new ImageHeader(format, width, height);
+    }
+
+    static ImageFormat detectFormat(byte[] b, int length) {
+        if (startsWith(b, length, PNG_SIGNATURE)) {
+            return ImageFormat.PNG;
+        }
+        if (length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return ImageFormat.JPEG;
+        }
+        if (length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8'
+                && (b[4] == '7' || b[4] == '9') && b[5] == 'a') {
+            return ImageFormat.GIF;
+        }
+        if (length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return ImageFormat.WEBP;
+        }
+        if (length >= 2 && b[0] == 'B' && b[1] == 'M') {
+            return ImageFormat.BMP;
+        }
+        if (length >= 4 && ((b[0] == 'I' && b[1] == 'I' && b[2] == 42 && b[3] == 0)
+                || (b[0] == 'M' && b[1] == 'M' && b[2] == 0 && b[3] == 42))) {
+            return ImageFormat.TIFF;
+        }
+        return null;
+    }
+
+    // Largeur et hauteur empaquetées dans un long (largeur << 32 | hauteur), UNKNOWN si l'en-tête ne suffit pas
+    static long readDimensions(ImageFormat format, byte[] b, int length) {
+        switch (format) {
+            case PNG:
+                if (length < 24 || b[12] != 'I' || b[13] != 'H' || b[14] != 'D' || b[15] != 'R') {
+                    return pack(0, 0);
+                }
+                return pack(int32BE(b, 16), int32BE(b, 20));
+            case GIF:
+                return length < 10 ? pack(0, 0) : pack(uint16LE(b, 6), uint16LE(b, 8));
+            case BMP:
+                if (length < 26) {
+                    return pack(0, 0);
+                }
+                if (int32LE(b, 14) == 12) {
+                    return pack(uint16LE(b, 18), uint16LE(b, 20));
+                }
+                // Hauteur négative = image stockée de haut en bas
+                return pack(int32LE(b, 18), Math.abs(int32LE(b, 22)));
+            case WEBP:
+                return webpDimensions(b, length);
+            case JPEG:
+                return jpegDimensions(b, length);
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private static long webpDimensions(byte[] b, int length) {
+        if (length < 30) {
+            return pack(0, 0);
+        }
+        if (b[12] == 'V' && b[13] == 'P' && b[14] == '8' && b[15] == ' ') {
+            // Lossy : code de démarrage 9D 01 2A puis dimensions sur 14 bits
+            if ((b[23] & 0xFF) != 0x9D || b[24] != 0x01 || b[25] != 0x2A) {
+                return pack(0, 0);
+            }
+            return pack(uint16LE(b, 26) & 0x3FFF, uint16LE(b, 28) & 0x3FFF);
+        }
+        if (b[12] == 'V' && b[13] == 'P' && b[14] == '8' && b[15] == 'L') {
+            if (b[20] != 0x2F) {
+                return pack(0, 0);
+            }
+            int bits = int32LE(b, 21);
+            return pack((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+        }
+        if (b[12] == 'V' && b[13] == 'P' && b[14] == '8' && b[15] == 'X') {
+            return pack(uint24LE(b, 24) + 1, uint24LE(b, 27) + 1);
+        }
+        return pack(0, 0);
+    }
+
+    // Parcourt les segments jusqu'au marqueur SOF ; si les segments APPn dépassent le tampon, ImageReader prend le relais
+    private static long jpegDimensions(byte[] b, int length) {
+        int i = 2;
+        while (i + 9 <= length) {
+            if ((b[i] & 0xFF) != 0xFF) {
+                return UNKNOWN;
+            }
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                i++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                i += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                return UNKNOWN;
+            }
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                return pack(uint16BE(b, i + 7), uint16BE(b, i + 5));
+            }
+            i += 2 + uint16BE(b, i + 2);
+        }
+        return UNKNOWN;
+    }
+
+    private long readDimensionsWithImageReader(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream stream = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new ImageRejectedException(Reason.UNKNOWN_FORMAT, "Aucun lecteur pour ce format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                // ignoreMetadata : seul l'en-tête est lu
+                reader.setInput(stream, true, true);
+                return pack(reader.getWidth(0), reader.getHeight(0));
+            } catch (IIOException | IndexOutOfBoundsException e) {
+                throw new ImageRejectedException(Reason.TRUNCATED, "En-tête d'image illisible");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void checkExtension(String filename, ImageFormat format) {
+        if (!properties.isCheckExtension() || filename == null) {
+            return;
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) {
+            return;
+        }
+        String extension = filename.substring(dot + 1);
+        if (!format.matchesExtension(extension)) {
+            throw new ImageRejectedException(Reason.EXTENSION_MISMATCH,
+                    "L'extension ." + extension + " ne correspond pas au contenu (" + format + ")");
+        }
+    }
+
+    // Tailles annoncées dans l'en-tête BMP / RIFF comparées à la taille reçue
+    private static boolean declaredSizeExceeds(ImageFormat format, byte[] b, int length, long size) {
+        if (format == ImageFormat.BMP && length >= 14) {
+            long declared = int32LE(b, 2) & 0xFFFFFFFFL;
+            long pixelOffset = int32LE(b, 10) & 0xFFFFFFFFL;
+            return declared > size || pixelOffset >= size;
+        }
+        if (format == ImageFormat.WEBP && length >= 8) {
+            return (int32LE(b, 4) & 0xFFFFFFFFL) + 8 > size;
+        }
+        return false;
+    }
+
+    // PNG et GIF ont une fin fixe : chunk IEND ou octet 0x3B cherché dans les TRAILER_WINDOW derniers octets.
+    // Absent de cette fenêtre : fichier tronqué (pour GIF, 0x3B peut aussi apparaître dans les données)
+    private static boolean missingTrailer(ImageFormat format, MultipartFile file, long size) throws IOException {
+        if (format != ImageFormat.PNG && format != ImageFormat.GIF) {
+            return false;
+        }
+        int window = (int) Math.min(size, TRAILER_WINDOW);
+        byte[] tail = HEADER_BUFFER.get();
+        int read;
+        try (InputStream in = file.getInputStream()) {
+            in.skipNBytes(size - window);
+            read = in.readNBytes(tail, 0, window);
+        }
+        if (format == ImageFormat.GIF) {
+            return lastIndexOf(tail, read, new byte[]{0x3B}) < 0;
+        }
+        return lastIndexOf(tail, read, PNG_IEND) < 0;
+    }
+
+    private static int lastIndexOf(byte[] b, int length, byte[] sequence) {
+        for (int i = length - sequence.length; i >= 0; i--) {
+            if (Arrays.equals(b, i, i + sequence.length, sequence, 0, sequence.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] b, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (b[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long pack(int width, int height) {
+        return ((long) width << 32) | (height & 0xFFFFFFFFL);
+    }
+
+    private static int uint16LE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int uint16BE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static int uint24LE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16;
+    }
+
+    private static int int32LE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static int int32BE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,34 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Fichier envoyé à Flask : RestTemplate copie le corps par InputStream.transferTo, redirigé ici vers
+// un tampon direct du pool au lieu d'un byte[] alloué à chaque envoi
+public class PooledFileResource extends FileSystemResource {
+    private final DirectBufferPool bufferPool;
+
+    public PooledFileResource(Path path, DirectBufferPool bufferPool) {
+        super(path);
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        FileChannel channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            @Override
+            public long transferTo(OutputStream out) throws IOException {
+                return bufferPool.transfer(channel, out, channel.size() - channel.position());
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import java.util.Locale;
+
+// Compteurs SQL du thread courant, ouverts et fermés par QueryCountFilter autour de chaque requête HTTP.
+// Les requêtes exécutées par d'autres threads (ordonnanceur, exports en flux) ne sont pas comptées ici.
+public final class QueryStatistics {
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    public record Snapshot(int queries, int selects, int inserts, int updates, int deletes, long rows, long timeMillis) {
+    }
+
+    private QueryStatistics() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new Counts());
+    }
+
+    public static Snapshot current() {
+        Counts counts = CURRENT.get();
+        return counts != null ? counts.snapshot() : new Snapshot(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static Snapshot end() {
+        Snapshot snapshot = current();
+        CURRENT.remove();
+        return snapshot;
+    }
+
+    static void recordQuery(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return;
+        }
+        counts.queries++;
+        switch (statementType(sql)) {
+            case "select", "with" -> counts.selects++;
+            case "insert" -> counts.inserts++;
+            case "update" -> counts.updates++;
+            case "delete" -> counts.deletes++;
+            default -> {
+            }
+        }
+    }
+
+    static void recordTime(long elapsedMillis) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.timeMillis += elapsedMillis;
+        }
+    }
+
+    static void recordRow() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.rows++;
+        }
+    }
+
+    private static String statementType(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return sql.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Counts {
+        private int queries;
+        private int selects;
+        private int inserts;
+        private int updates;
+        private int deletes;
+        private long rows;
+        private long timeMillis;
+
+        private Snapshot snapshot() {
+            return new Snapshot(queries, selects, inserts, updates, deletes, rows, timeMillis);
+        }
+    }
+}
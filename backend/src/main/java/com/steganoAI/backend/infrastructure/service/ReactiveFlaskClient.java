@@ -0,0 +1,55 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Appels Flask de la pile réactive : le fichier part vers Flask au rythme où il arrive du client,
+// sans fichier temporaire ni copie complète en mémoire
+@Service
+@Profile("reactive")
+public class ReactiveFlaskClient {
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient flaskWebClient;
+    private final FlaskEndpointPool endpointPool;
+
+    public ReactiveFlaskClient(WebClient flaskWebClient, FlaskEndpointPool endpointPool) {
+        this.flaskWebClient = flaskWebClient;
+        this.endpointPool = endpointPool;
+    }
+
+    // La détection IA reste faite par Flask sur l'original : le prétraitement JVM demande l'image entière
+    public Mono<Map<String, Object>> uploadAndAnalyzeImage(String filename, MediaType contentType, Flux<DataBuffer> content) {
+        return post("/api/v2/upload", filename, contentType, content);
+    }
+
+    public Mono<Map<String, Object>> verifyIntegrity(String filename, MediaType contentType, Flux<DataBuffer> content) {
+        return post("/api/v2/verify_integrity", filename, contentType, content);
+    }
+
+    private Mono<Map<String, Object>> post(String path, String filename, MediaType contentType, Flux<DataBuffer> content) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.asyncPart("file", content, DataBuffer.class)
+                .filename(filename)
+                .contentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM);
+
+        // Pas de clé d'affinité : l'empreinte n'est connue qu'une fois le fichier entièrement transmis
+        return endpointPool.executeAsync(null, baseUrl -> flaskWebClient.post()
+                .uri(baseUrl + path)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(JSON_MAP));
+    }
+}
@@ -0,0 +1,47 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.RetentionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+public class RetentionPurgeJob {
+    private final ImagePurgeService imagePurgeService;
+    private final RetentionProperties properties;
+    private final GalleryCache galleryCache;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public RetentionPurgeJob(ImagePurgeService imagePurgeService, RetentionProperties properties,
+                             GalleryCache galleryCache) {
+        this.imagePurgeService = imagePurgeService;
+        this.properties = properties;
+        this.galleryCache = galleryCache;
+    }
+
+    @Scheduled(initialDelayString = "${app.retention.initial-delay:PT5M}",
+               fixedDelayString = "${app.retention.interval:PT1H}")
+    public void purgeExpiredImages() {
+        if (!properties.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (RetentionProperties.Rule rule : properties.getRules()) {
+                long start = System.currentTimeMillis();
+                int deleted = imagePurgeService.purge(rule);
+                if (deleted > 0) {
+                    galleryCache.clear();
+                    log.info("Rétention '{}': {} images supprimées en {} ms",
+                            rule.getName(), deleted, System.currentTimeMillis() - start);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge de rétention: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+}
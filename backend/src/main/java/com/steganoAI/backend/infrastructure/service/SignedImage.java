@@ -0,0 +1,7 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import java.util.Map;
+
+// Réponse de Flask à l'ajout de signature et octets de l'image signée (null si le téléchargement a échoué)
+public record SignedImage(Map<String, Object> response, byte[] content) {
+}
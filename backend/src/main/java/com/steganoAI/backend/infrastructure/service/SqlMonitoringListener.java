@@ -0,0 +1,83 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.SqlMonitoringProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Branché sur le proxy JDBC : alimente QueryStatistics et journalise les requêtes lentes.
+// Le texte (requête + paramètres) est formaté sur le thread appelant, l'écriture du journal se fait
+// sur un thread dédié : remplace spring.jpa.show-sql, qui écrit chaque requête de façon synchrone.
+@Slf4j
+public class SqlMonitoringListener implements QueryExecutionListener, MethodExecutionListener {
+    private final long slowQueryThresholdMillis;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+    private final ThreadPoolExecutor slowQueryLogger;
+    private final Counter slowQueries;
+    private final Counter droppedLogEntries;
+
+    public SqlMonitoringListener(SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        this.slowQueryThresholdMillis = properties.getSlowQueryThreshold().toMillis();
+        this.slowQueries = Counter.builder("sql.slow.queries")
+                .description("Requêtes SQL au-delà du seuil de lenteur")
+                .register(meterRegistry);
+        this.droppedLogEntries = Counter.builder("sql.slow.log.dropped")
+                .description("Requêtes lentes non journalisées (file d'écriture pleine)")
+                .register(meterRegistry);
+        this.slowQueryLogger = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getSlowQueryLogQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedLogEntries.increment());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            QueryStatistics.recordQuery(queryInfo.getQuery());
+        }
+        QueryStatistics.recordTime(execInfo.getElapsedTime());
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis) {
+            slowQueries.increment();
+            String entry = logEntryCreator.getLogEntry(execInfo, queryInfoList, true, true, false);
+            slowQueryLogger.execute(() -> log.warn("Requête SQL lente ({} ms) : {}", execInfo.getElapsedTime(), entry));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    // Une ligne lue par appel à ResultSet.next() qui renvoie true
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            QueryStatistics.recordRow();
+        }
+    }
+
+    public void shutdown() {
+        slowQueryLogger.shutdown();
+    }
+}
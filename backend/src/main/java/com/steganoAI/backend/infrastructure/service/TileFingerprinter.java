@@ -0,0 +1,165 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.TileFingerprint;
+import com.steganoAI.backend.infrastructure.config.IntegrityTilesProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Calcule la grille d'empreintes d'une image (voir TileFingerprint) en un seul parcours des pixels,
+// une bande de tuiles par tâche (ForkJoinPool commun). Image décodée sous-échantillonnée.
+@Component
+public class TileFingerprinter {
+    private static final int CELLS_X = 9;
+    private static final int CELLS_Y = 8;
+    private static final int CELLS = CELLS_X * CELLS_Y;
+    // Écart minimal de luminance moyenne (x1000, soit 2 niveaux sur 255) pour un bit à 1 : dans une zone unie,
+    // la signature (±1 sur les bits de poids faible) ne fait pas basculer les bits
+    private static final long TOLERANCE = 2000;
+
+    private final IntegrityTilesProperties properties;
+
+    public TileFingerprinter(IntegrityTilesProperties properties) {
+        this.properties = properties;
+    }
+
+    // Null si aucun lecteur ne reconnaît l'image ou si elle est trop petite pour la grille
+    public TileFingerprint fingerprint(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return fingerprint(in);
+        }
+    }
+
+    public TileFingerprint fingerprint(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(width, height) / properties.getMaxDecodeSize();
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return fingerprint(reader.read(0, param), width, height, properties.getRows(), properties.getCols());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // width / height : dimensions d'origine, l'image peut être sous-échantillonnée
+    static TileFingerprint fingerprint(BufferedImage image, int width, int height, int rows, int cols) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (w < cols * CELLS_X || h < rows * CELLS_Y) {
+            return null;
+        }
+        // Par colonne de pixels : tuile, case de moyenne dans la tuile et case dans l'image entière
+        int[] tileX = new int[w];
+        int[] cellX = new int[w];
+        int[] imageCellX = new int[w];
+        split(w, cols, CELLS_X, tileX, cellX, imageCellX);
+        int[] tileY = new int[h];
+        int[] cellY = new int[h];
+        int[] imageCellY = new int[h];
+        split(h, rows, CELLS_Y, tileY, cellY, imageCellY);
+
+        List<Band> bands = IntStream.range(0, rows).parallel()
+                .mapToObj(row -> band(image, (int) ((long) row * h / rows), (int) ((long) (row + 1) * h / rows),
+                        cols, tileX, cellX, imageCellX, cellY, imageCellY))
+                .toList();
+
+        long[] tiles = new long[rows * cols];
+        long[] imageSums = new long[CELLS];
+        long[] imageCounts = new long[CELLS];
+        for (int row = 0; row < rows; row++) {
+            Band band = bands.get(row);
+            for (int col = 0; col < cols; col++) {
+                tiles[row * cols + col] = dHash(band.sums(), band.counts(), col * CELLS);
+            }
+            for (int cell = 0; cell < CELLS; cell++) {
+                imageSums[cell] += band.imageSums()[cell];
+                imageCounts[cell] += band.imageCounts()[cell];
+            }
+        }
+        return new TileFingerprint(width, height, rows, cols, dHash(imageSums, imageCounts, 0), tiles);
+    }
+
+    // Sommes de luminance (x1000) par case pour une ligne de tuiles
+    private record Band(long[] sums, long[] counts, long[] imageSums, long[] imageCounts) {
+    }
+
+    private static Band band(BufferedImage image, int startY, int endY, int cols, int[] tileX, int[] cellX,
+                             int[] imageCellX, int[] cellY, int[] imageCellY) {
+        int w = image.getWidth();
+        long[] sums = new long[cols * CELLS];
+        long[] counts = new long[cols * CELLS];
+        long[] imageSums = new long[CELLS];
+        long[] imageCounts = new long[CELLS];
+        int[] pixels = new int[w];
+        for (int y = startY; y < endY; y++) {
+            image.getRGB(0, y, w, 1, pixels, 0, w);
+            int rowOffset = cellY[y] * CELLS_X;
+            int imageOffset = imageCellY[y] * CELLS_X;
+            for (int x = 0; x < w; x++) {
+                int rgb = pixels[x];
+                long luminance = 299L * ((rgb >> 16) & 0xff) + 587L * ((rgb >> 8) & 0xff) + 114L * (rgb & 0xff);
+                int cell = tileX[x] * CELLS + rowOffset + cellX[x];
+                sums[cell] += luminance;
+                counts[cell]++;
+                int imageCell = imageOffset + imageCellX[x];
+                imageSums[imageCell] += luminance;
+                imageCounts[imageCell]++;
+            }
+        }
+        return new Band(sums, counts, imageSums, imageCounts);
+    }
+
+    // Bit à 1 quand la case est nettement plus sombre que sa voisine de droite ; moyennes comparées sans division
+    private static long dHash(long[] sums, long[] counts, int offset) {
+        long hash = 0;
+        for (int y = 0; y < CELLS_Y; y++) {
+            for (int x = 0; x < CELLS_X - 1; x++) {
+                int left = offset + y * CELLS_X + x;
+                hash <<= 1;
+                long leftCount = counts[left];
+                long rightCount = counts[left + 1];
+                if ((sums[left] + TOLERANCE * leftCount) * rightCount < sums[left + 1] * leftCount) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    // Découpe [0, length[ en parts tuiles de cells cases chacune, et en cells cases sur toute la longueur
+    private static void split(int length, int parts, int cells, int[] tile, int[] cell, int[] imageCell) {
+        for (int part = 0; part < parts; part++) {
+            int start = (int) ((long) part * length / parts);
+            int end = (int) ((long) (part + 1) * length / parts);
+            for (int i = start; i < end; i++) {
+                tile[i] = part;
+                cell[i] = (int) ((long) (i - start) * cells / (end - start));
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            imageCell[i] = (int) ((long) i * cells / length);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.ChunkedUploadProperties;
+import com.steganoAI.backend.infrastructure.service.UploadSessionException.Reason;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Fichier de l'upload préalloué à sa taille finale : chaque bloc est écrit à sa position par son propre
+// FileChannel, les blocs peuvent donc arriver dans n'importe quel ordre et en parallèle.
+// Copie par un tampon direct du pool : mémoire constante quelle que soit la taille du fichier.
+@Component
+@Slf4j
+public class UploadChunkStorage {
+    private final ChunkedUploadProperties properties;
+    private final DirectBufferPool bufferPool;
+
+    public UploadChunkStorage(ChunkedUploadProperties properties, DirectBufferPool bufferPool) {
+        this.properties = properties;
+        this.bufferPool = bufferPool;
+    }
+
+    public Path path(String uploadId) {
+        return Paths.get(properties.getDir()).resolve(uploadId + ".part").toAbsolutePath();
+    }
+
+    public void allocate(String uploadId, long size) throws IOException {
+        Path path = path(uploadId);
+        Files.createDirectories(path.getParent());
+        // Fichier creux sur la plupart des systèmes de fichiers : aucun octet écrit ici
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    // Exactement length octets attendus ; le bloc est synchronisé sur disque avant d'être déclaré reçu
+    public void write(String uploadId, long offset, long length, InputStream body) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(uploadId), StandardOpenOption.WRITE);
+             DirectBufferPool.Lease lease = bufferPool.acquire(length)) {
+            ByteBuffer buffer = lease.buffer();
+            long written = 0;
+            while (written < length) {
+                if (lease.fill(body, length - written) < 0) {
+                    throw new UploadSessionException(Reason.INVALID_CHUNK,
+                            "Bloc incomplet: " + written + " octets reçus sur " + length);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+            }
+            if (body.read() != -1) {
+                throw new UploadSessionException(Reason.INVALID_CHUNK, "Bloc plus long que les " + length + " octets attendus");
+            }
+            channel.force(false);
+        }
+    }
+
+    public int read(String uploadId, long offset, byte[] target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(uploadId), StandardOpenOption.READ)) {
+            int total = 0;
+            while (total < target.length) {
+                int read = channel.read(ByteBuffer.wrap(target, total, target.length - total), offset + total);
+                if (read <= 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    public void delete(String uploadId) {
+        try {
+            Files.deleteIfExists(path(uploadId));
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier de l'upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+}
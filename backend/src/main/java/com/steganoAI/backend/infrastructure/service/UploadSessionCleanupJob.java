@@ -0,0 +1,50 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.UploadSession;
+import com.steganoAI.backend.domain.service.UploadSessionDomainService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Uploads abandonnés : fichier partiel et lignes supprimés une fois la session expirée
+@Component
+@Slf4j
+public class UploadSessionCleanupJob {
+    private final UploadSessionDomainService uploadSessionDomainService;
+    private final UploadChunkStorage storage;
+
+    public UploadSessionCleanupJob(UploadSessionDomainService uploadSessionDomainService, UploadChunkStorage storage) {
+        this.uploadSessionDomainService = uploadSessionDomainService;
+        this.storage = storage;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resetInterruptedCompletions() {
+        int reset = uploadSessionDomainService.resetInterruptedCompletions();
+        if (reset > 0) {
+            log.info("{} finalisation(s) d'upload interrompue(s) remise(s) en attente", reset);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.upload.chunked.cleanup-initial-delay:PT5M}",
+               fixedDelayString = "${app.upload.chunked.cleanup-interval:PT1H}")
+    public void purgeExpiredUploads() {
+        try {
+            List<UploadSession> expired = uploadSessionDomainService.findExpired(LocalDateTime.now());
+            for (UploadSession session : expired) {
+                uploadSessionDomainService.delete(session.getId());
+                storage.delete(session.getId());
+            }
+            if (!expired.isEmpty()) {
+                log.info("{} upload(s) expiré(s) supprimé(s)", expired.size());
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge des uploads expirés: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.steganoAI.backend.infrastructure.service;
+
+public class UploadSessionException extends RuntimeException {
+    public enum Reason { NOT_FOUND, INVALID_REQUEST, INVALID_CHUNK, TOO_LARGE, INCOMPLETE, CONFLICT, QUOTA_EXCEEDED }
+
+    private final Reason reason;
+
+    public UploadSessionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
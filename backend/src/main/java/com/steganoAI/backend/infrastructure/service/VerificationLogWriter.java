@@ -0,0 +1,207 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.infrastructure.config.VerificationLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Écriture différée du journal des vérifications : append dépose l'entrée dans une file bornée sans verrou
+// et rend la main ; un thread dédié l'écrit en base par lots JDBC (INSERT multi-lignes avec
+// reWriteBatchedInserts sur PostgreSQL), dès qu'un lot est complet ou toutes les flush-interval.
+// Tout ce qui reste est écrit à l'arrêt, avant la fermeture du pool de connexions et de Hibernate
+// (ddl-auto=create-drop supprime la table à la fermeture de l'EntityManagerFactory).
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class VerificationLogWriter {
+    private static final String INSERT_SQL = "INSERT INTO verification_log (username, signed_image_id, filename, "
+            + "md5_hash, mode, tampered, signatures_match, modified_tiles, duration_ms, verified_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VerificationLogProperties properties;
+    private final BoundedRingBuffer<VerificationRecord> buffer;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter appended;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    public VerificationLogWriter(JdbcTemplate jdbcTemplate, VerificationLogProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.buffer = new BoundedRingBuffer<>(properties.getCapacity());
+        // Un lot plus grand que la file ne serait jamais complet
+        this.batchSize = Math.max(1, Math.min(properties.getBatchSize(), buffer.capacity()));
+        this.appended = Counter.builder("verification.log.appended").register(meterRegistry);
+        this.dropped = Counter.builder("verification.log.dropped")
+                .tag("policy", properties.getOverflow().name())
+                .description("Entrées perdues faute de place dans la file")
+                .register(meterRegistry);
+        this.written = Counter.builder("verification.log.written").register(meterRegistry);
+        this.failed = Counter.builder("verification.log.failed")
+                .description("Entrées abandonnées après max-attempts écritures en échec")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("verification.log.flush").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("verification.log.batch.size").register(meterRegistry);
+        Gauge.builder("verification.log.pending", buffer, BoundedRingBuffer::size).register(meterRegistry);
+        this.writer = properties.isEnabled()
+                ? Thread.ofPlatform().name("verification-log-writer").daemon().start(this::writeLoop)
+                : null;
+    }
+
+    // Faux si l'entrée est perdue (file pleine selon la politique, journal désactivé ou arrêté)
+    public boolean append(VerificationRecord record) {
+        if (writer == null || !running) {
+            return false;
+        }
+        boolean accepted = switch (properties.getOverflow()) {
+            case DROP_NEWEST -> buffer.offer(record);
+            case DROP_OLDEST -> offerDroppingOldest(record);
+            case BLOCK -> offerWaiting(record);
+        };
+        if (!accepted) {
+            dropped.increment();
+            return false;
+        }
+        appended.increment();
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    public int getPending() {
+        return buffer.size();
+    }
+
+    private boolean offerDroppingOldest(VerificationRecord record) {
+        while (!buffer.offer(record)) {
+            if (buffer.poll() != null) {
+                dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerWaiting(VerificationRecord record) {
+        long deadline = System.nanoTime() + properties.getOfferTimeout().toNanos();
+        while (!buffer.offer(record)) {
+            LockSupport.unpark(writer);
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    // Réveillé par un lot complet (append), à chaque flush-interval ou par l'arrêt
+    private void writeLoop() {
+        long interval = properties.getFlushInterval().toNanos();
+        long nextFlush = System.nanoTime() + interval;
+        List<VerificationRecord> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (true) {
+            boolean stopping = !running;
+            boolean due = stopping || System.nanoTime() - nextFlush >= 0;
+            if (due) {
+                nextFlush = System.nanoTime() + interval;
+            }
+            // Lots complets écrits aussitôt, lot partiel à l'échéance ; un lot en échec attend l'échéance suivante.
+            // drainTo retire les entrées de la file avant l'écriture : un lot en cours ou en échec n'est plus
+            // compté par append ni par getPending, il reste dans batch jusqu'à son écriture ou son abandon
+            while (attempts == 0 || due) {
+                if (batch.isEmpty() && !due && buffer.size() < batchSize) {
+                    break;
+                }
+                buffer.drainTo(batch, batchSize - batch.size());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                if (write(batch)) {
+                    batch.clear();
+                    attempts = 0;
+                } else if (++attempts >= properties.getMaxAttempts()) {
+                    failed.increment(batch.size());
+                    log.error("Journal des vérifications : {} entrées abandonnées après {} tentatives",
+                            batch.size(), attempts);
+                    batch.clear();
+                    attempts = 0;
+                } else {
+                    break;
+                }
+            }
+            if (stopping && batch.isEmpty() && buffer.isEmpty()) {
+                return;
+            }
+            // Le réveil de l'arrêt a pu être consommé pendant l'écriture : running est relu avant de dormir
+            if (running) {
+                LockSupport.parkNanos(this, Math.max(0, nextFlush - System.nanoTime()));
+            }
+        }
+    }
+
+    private boolean write(List<VerificationRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+                ps.setString(1, record.getUsername());
+                ps.setObject(2, record.getSignedImageId(), Types.BIGINT);
+                ps.setString(3, record.getFilename());
+                ps.setString(4, record.getMd5Hash());
+                ps.setString(5, record.getMode());
+                ps.setObject(6, record.getTampered(), Types.BOOLEAN);
+                ps.setObject(7, record.getSignaturesMatch(), Types.BOOLEAN);
+                ps.setObject(8, record.getModifiedTiles(), Types.INTEGER);
+                ps.setObject(9, record.getDurationMs(), Types.BIGINT);
+                ps.setTimestamp(10, Timestamp.valueOf(record.getVerifiedAt()));
+            });
+            written.increment(batch.size());
+            batchSizes.record(batch.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Écriture du journal des vérifications en échec ({} entrées): {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            if (!writer.join(properties.getShutdownTimeout())) {
+                log.warn("Journal des vérifications : arrêt avant écriture de {} entrées", buffer.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.steganoAI.backend.presentation.controller;
+
+import com.steganoAI.backend.application.dto.ImageClusterDetail;
+import com.steganoAI.backend.application.dto.ImageExportRequest;
+import com.steganoAI.backend.application.service.ImageApplicationService;
+import com.steganoAI.backend.domain.model.ImageCluster;
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.infrastructure.service.ImageClusteringJob;
+import com.steganoAI.backend.infrastructure.service.ImageExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Endpoints réservés aux admins (voir SecurityConfig)
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:3000")
+@Slf4j
+public class AdminController {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ImageApplicationService imageApplicationService;
+
+    // Délai propre à l'export : les autres requêtes asynchrones gardent spring.mvc.async.request-timeout
+    @Value("${app.export.timeout:PT30M}")
+    private Duration exportTimeout;
+
+    public AdminController(ImageApplicationService imageApplicationService) {
+        this.imageApplicationService = imageApplicationService;
+    }
+
+    // Export complet des analyses, écrit en flux : ex. ?format=ndjson&columns=id,username,ai_confidence&status=COMPLETED
+    @GetMapping("/exports/images")
+    public ResponseEntity<StreamingResponseBody> exportImages(@ModelAttribute ImageExportRequest request,
+                                                              HttpServletRequest servletRequest) {
+        try {
+            ImageExportService.ExportQuery query = imageApplicationService.prepareExport(request);
+            String filename = "images-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + query.format().getExtension();
+
+            StreamingResponseBody body = out -> imageApplicationService.exportImages(query, out);
+            // Appliqué au démarrage du traitement asynchrone, après le retour de cette méthode
+            WebAsyncUtils.getAsyncManager(servletRequest).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(query.format().getContentType() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(filename).build().toString())
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(message(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Erreur export images: {}", e.getMessage());
+            return ResponseEntity.internalServerError().contentType(MediaType.TEXT_PLAIN)
+                    .body(message("Erreur lors de l'export: " + e.getMessage()));
+        }
+    }
+
+    // Lance le regroupement des images quasi identiques ; 409 si un calcul est déjà en cours
+    @PostMapping("/clusters/jobs")
+    public ResponseEntity<ImageClusteringJob.Status> startClustering() {
+        boolean started = imageApplicationService.startClustering();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(imageApplicationService.getClusteringStatus());
+    }
+
+    // Avancement du dernier regroupement (phase, seaux traités / total)
+    @GetMapping("/clusters/jobs/current")
+    public ResponseEntity<ImageClusteringJob.Status> getClusteringStatus() {
+        return ResponseEntity.ok(imageApplicationService.getClusteringStatus());
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<?> getClusters(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body("Pagination invalide (size entre 1 et 500)");
+        }
+        try {
+            PagedModel<ImageCluster> clusters = imageApplicationService.getClusters(page, size);
+            return ResponseEntity.ok(clusters);
+        } catch (Exception e) {
+            log.error("Erreur récupération groupes: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de la récupération: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/clusters/{id}")
+    public ResponseEntity<ImageClusterDetail> getCluster(@PathVariable Long id) {
+        return imageApplicationService.getClusterDetail(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Historique des vérifications d'un utilisateur (audit)
+    @GetMapping("/verifications")
+    public ResponseEntity<?> getVerifications(@RequestParam String username,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body("Pagination invalide (size entre 1 et 500)");
+        }
+        try {
+            PagedModel<VerificationRecord> history = imageApplicationService.getVerificationHistory(username, page, size);
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            log.error("Erreur récupération historique des vérifications: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de la récupération: " + e.getMessage());
+        }
+    }
+
+    // Le corps d'une réponse StreamingResponseBody est toujours un flux, y compris pour les erreurs
+    private static StreamingResponseBody message(String text) {
+        return out -> out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,41 +1,90 @@
 package com.steganoAI.backend.presentation.controller;
 
+import com.steganoAI.backend.application.dto.BulkDeleteRequest;
 import com.steganoAI.backend.application.service.ImageApplicationService;
 import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.ImageCollectionVersion;
+import com.steganoAI.backend.domain.model.ImageVersion;
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.infrastructure.service.AnalysisPriority;
+import com.steganoAI.backend.infrastructure.service.AnalysisRejectedException;
+import com.steganoAI.backend.infrastructure.service.GalleryCache;
+import com.steganoAI.backend.infrastructure.service.IdempotencyService;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/images")
 @CrossOrigin(origins = "http://localhost:3000")
 @Slf4j
 public class ImageController {
+    // Images et galerie : toujours revalidées (304 quasi gratuit), listes admin : courte fraîcheur
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final CacheControl ADMIN_LISTING = CacheControl.maxAge(10, TimeUnit.SECONDS).cachePrivate();
+
     private final ImageApplicationService imageApplicationService;
+    private final IdempotencyService idempotencyService;
 
-    public ImageController(ImageApplicationService imageApplicationService) {
+    public ImageController(ImageApplicationService imageApplicationService, IdempotencyService idempotencyService) {
         this.imageApplicationService = imageApplicationService;
+        this.idempotencyService = idempotencyService;
     }
 
+    // Idempotency-Key : une nouvelle tentative avec la même clé reçoit la réponse de la première
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadAndAnalyzeImage(
             @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "bulk", defaultValue = "false") boolean bulk,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        return idempotencyService.execute(authentication.getName(), "upload", idempotencyKey, file,
+                Map.of("bulk", String.valueOf(bulk)), () -> upload(file, bulk, authentication));
+    }
+
+    private ResponseEntity<?> upload(MultipartFile file, boolean bulk, Authentication authentication) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("Aucun fichier fourni");
             }
 
-            Image result = imageApplicationService.uploadAndAnalyzeImage(file, authentication.getName());
+            imageApplicationService.validateUpload(file);
+            // Les uploads en masse passent après les uploads unitaires et les vérifications : 202 avec l'image
+            // PENDING, son état se suit sur /api/images/{id}
+            AnalysisPriority priority = bulk ? AnalysisPriority.BACKGROUND : AnalysisPriority.UPLOAD;
+            Image result = imageApplicationService.uploadAndAnalyzeImage(file, authentication.getName(), priority);
+            if (bulk) {
+                return ResponseEntity.accepted().location(URI.create("/api/images/" + result.getId())).body(result);
+            }
             return ResponseEntity.ok(result);
 
+        } catch (ImageRejectedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return analysisRejected(e);
         } catch (Exception e) {
             log.error("Erreur upload image: {}", e.getMessage());
             return ResponseEntity.internalServerError().body("Erreur lors de l'upload: " + e.getMessage());
@@ -46,15 +95,27 @@ public class ImageController {
     public ResponseEntity<?> addSteganography(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "signature", required = false) String signature,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        return idempotencyService.execute(authentication.getName(), "steganography", idempotencyKey, file,
+                Map.of("signature", Objects.toString(signature, "")),
+                () -> steganography(file, signature, authentication));
+    }
+
+    private ResponseEntity<?> steganography(MultipartFile file, String signature, Authentication authentication) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("Aucun fichier fourni");
             }
 
+            imageApplicationService.validateUpload(file);
             Image result = imageApplicationService.addSteganographyToImage(file, signature, authentication.getName());
             return ResponseEntity.ok(result);
 
+        } catch (ImageRejectedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return analysisRejected(e);
         } catch (Exception e) {
             log.error("Erreur ajout stéganographie: {}", e.getMessage());
             return ResponseEntity.internalServerError().body("Erreur lors de l'ajout de stéganographie: " + e.getMessage());
@@ -62,34 +123,139 @@ public class ImageController {
     }
 
     @PostMapping(value = "/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> verifyIntegrity(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> verifyIntegrity(@RequestParam("file") MultipartFile file, Authentication authentication) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("Aucun fichier fourni");
             }
 
-            Map<String, Object> result = imageApplicationService.verifyImageIntegrity(file);
+            imageApplicationService.validateUpload(file);
+            Map<String, Object> result = imageApplicationService.verifyImageIntegrity(file, authentication.getName());
             return ResponseEntity.ok(result);
 
+        } catch (ImageRejectedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return analysisRejected(e);
         } catch (Exception e) {
             log.error("Erreur vérification intégrité: {}", e.getMessage());
             return ResponseEntity.internalServerError().body("Erreur lors de la vérification: " + e.getMessage());
         }
     }
 
+    // from / to (ISO, facultatifs) : restreint la liste à une période, seules les partitions concernées sont lues
     @GetMapping("/my-images")
-    public ResponseEntity<List<Image>> getUserImages(Authentication authentication) {
+    public ResponseEntity<?> getUserImages(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication, WebRequest request) {
         try {
-            List<Image> images = imageApplicationService.getUserImages(authentication.getName());
-            return ResponseEntity.ok(images);
+            // Sans période (galerie du frontend) : JSON gardé par GalleryCache, servi sans requête.
+            // CBOR et Smile passent par la liste d'entités et la négociation de Spring
+            if (from == null && to == null && prefersJson(request)) {
+                GalleryCache.CachedPage images = imageApplicationService.getUserImagesJson(authentication.getName());
+                if (request.checkNotModified(images.etag())) {
+                    return notModified(images.etag(), REVALIDATE);
+                }
+                return ResponseEntity.ok()
+                        .eTag(images.etag())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .cacheControl(REVALIDATE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(images.body());
+            }
+
+            ImageCollectionVersion version = imageApplicationService.getUserImagesVersion(authentication.getName());
+            if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return notModified(version.etag(), REVALIDATE);
+            }
+
+            List<Image> images = imageApplicationService.getUserImages(authentication.getName(), from, to);
+            return ResponseEntity.ok()
+                    .eTag(version.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(REVALIDATE)
+                    .body(images);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Erreur récupération images utilisateur: {}", e.getMessage());
             return ResponseEntity.internalServerError().body(null);
         }
     }
 
+    // Galerie paginée (résumés) : JSON déjà sérialisé gardé par GalleryCache, servi tel quel
+    @GetMapping(value = "/my-images/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getUserGalleryPage(@RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "50") int size,
+                                                     Authentication authentication, WebRequest request) {
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            GalleryCache.CachedPage gallery = imageApplicationService.getUserGalleryPage(authentication.getName(), page, size);
+            if (request.checkNotModified(gallery.etag())) {
+                return notModified(gallery.etag(), REVALIDATE);
+            }
+            return ResponseEntity.ok()
+                    .eTag(gallery.etag())
+                    .cacheControl(REVALIDATE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(gallery.body());
+        } catch (Exception e) {
+            log.error("Erreur récupération galerie utilisateur: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Historique des vérifications de l'utilisateur, plus récentes d'abord
+    @GetMapping("/my-verifications")
+    public ResponseEntity<PagedModel<VerificationRecord>> getMyVerifications(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(imageApplicationService.getVerificationHistory(authentication.getName(), page, size));
+        } catch (Exception e) {
+            log.error("Erreur récupération historique des vérifications: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Vérifications qui ont reconnu cette image signée ; l'historique d'une image supprimée reste visible des admins
+    @GetMapping("/{id}/verifications")
+    public ResponseEntity<PagedModel<VerificationRecord>> getImageVerifications(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+        if (page < 0 || size < 1 || size > 200) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            boolean isAdmin = authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            if (!isAdmin) {
+                ImageVersion version = imageApplicationService.getImageVersion(id).orElse(null);
+                if (version == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                if (!authentication.getName().equals(version.ownerUsername())) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                }
+            }
+            return ResponseEntity.ok(imageApplicationService.getImageVerificationHistory(id, page, size));
+        } catch (Exception e) {
+            log.error("Erreur récupération historique des vérifications de l'image: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<Image>> getAllImages(Authentication authentication) {
+    public ResponseEntity<List<Image>> getAllImages(Authentication authentication, WebRequest request) {
         try {
             // Seuls les admins peuvent voir toutes les images
             if (!authentication.getAuthorities().stream()
@@ -97,8 +263,17 @@ public class ImageController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
             }
 
+            ImageCollectionVersion version = imageApplicationService.getAllImagesVersion();
+            if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return notModified(version.etag(), ADMIN_LISTING);
+            }
+
             List<Image> images = imageApplicationService.getAllImages();
-            return ResponseEntity.ok(images);
+            return ResponseEntity.ok()
+                    .eTag(version.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(ADMIN_LISTING)
+                    .body(images);
         } catch (Exception e) {
             log.error("Erreur récupération toutes les images: {}", e.getMessage());
             return ResponseEntity.internalServerError().body(null);
@@ -106,17 +281,18 @@ public class ImageController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Image> getImageById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<Image> getImageById(@PathVariable Long id, Authentication authentication, WebRequest request) {
         try {
-            Image image = imageApplicationService.getImageById(id)
+            // Vérification de version et de propriétaire sans charger l'entité complète
+            ImageVersion version = imageApplicationService.getImageVersion(id)
                     .orElse(null);
 
-            if (image == null) {
+            if (version == null) {
                 return ResponseEntity.notFound().build();
             }
 
             // Vérifier les permissions (propriétaire ou admin)
-            boolean isOwner = image.getUser().getUsername().equals(authentication.getName());
+            boolean isOwner = authentication.getName().equals(version.ownerUsername());
             boolean isAdmin = authentication.getAuthorities().stream()
                     .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
@@ -124,7 +300,24 @@ public class ImageController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
             }
 
-            return ResponseEntity.ok(image);
+            if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return notModified(version.etag(), REVALIDATE);
+            }
+
+            Image image = imageApplicationService.getImageById(id)
+                    .orElse(null);
+
+            if (image == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            ImageVersion current = ImageVersion.of(image);
+            return ResponseEntity.ok()
+                    .eTag(current.etag())
+                    .lastModified(current.lastModifiedMillis())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(REVALIDATE)
+                    .body(image);
         } catch (Exception e) {
             log.error("Erreur récupération image par ID: {}", e.getMessage());
             return ResponseEntity.internalServerError().body(null);
@@ -132,7 +325,7 @@ public class ImageController {
     }
 
     @GetMapping("/steganography")
-    public ResponseEntity<List<Image>> getImagesWithSteganography(Authentication authentication) {
+    public ResponseEntity<List<Image>> getImagesWithSteganography(Authentication authentication, WebRequest request) {
         try {
             // Seuls les admins peuvent voir toutes les images avec stéganographie
             if (!authentication.getAuthorities().stream()
@@ -140,8 +333,17 @@ public class ImageController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
             }
 
+            ImageCollectionVersion version = imageApplicationService.getAllImagesVersion();
+            if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return notModified(version.etag(), ADMIN_LISTING);
+            }
+
             List<Image> images = imageApplicationService.getImagesWithSteganography();
-            return ResponseEntity.ok(images);
+            return ResponseEntity.ok()
+                    .eTag(version.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(ADMIN_LISTING)
+                    .body(images);
         } catch (Exception e) {
             log.error("Erreur récupération images avec stéganographie: {}", e.getMessage());
             return ResponseEntity.internalServerError().body(null);
@@ -151,7 +353,8 @@ public class ImageController {
     @GetMapping("/ai-detected")
     public ResponseEntity<List<Image>> getHighAiConfidenceImages(
             @RequestParam(defaultValue = "0.7") Double threshold,
-            Authentication authentication) {
+            Authentication authentication,
+            WebRequest request) {
         try {
             // Seuls les admins peuvent voir les statistiques IA
             if (!authentication.getAuthorities().stream()
@@ -159,8 +362,17 @@ public class ImageController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
             }
 
+            ImageCollectionVersion version = imageApplicationService.getAllImagesVersion();
+            if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return notModified(version.etag(), ADMIN_LISTING);
+            }
+
             List<Image> images = imageApplicationService.getHighAiConfidenceImages(threshold);
-            return ResponseEntity.ok(images);
+            return ResponseEntity.ok()
+                    .eTag(version.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(ADMIN_LISTING)
+                    .body(images);
         } catch (Exception e) {
             log.error("Erreur récupération images IA: {}", e.getMessage());
             return ResponseEntity.internalServerError().body(null);
@@ -178,6 +390,25 @@ public class ImageController {
         }
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> bulkDeleteImages(@RequestBody BulkDeleteRequest request, Authentication authentication) {
+        try {
+            // Seuls les admins peuvent supprimer en masse
+            if (!authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+            }
+
+            int deleted = imageApplicationService.bulkDeleteImages(request);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur suppression en masse: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de la suppression en masse: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/test-flask")
     public ResponseEntity<?> testFlaskConnection() {
         try {
@@ -206,7 +437,8 @@ public class ImageController {
             Map<String, Object> flaskTest = imageApplicationService.testFlaskConnection();
             return ResponseEntity.ok(Map.of(
                 "flask_connected", true,
-                "flask_url", "http://127.0.0.1:5000",
+                "flask_url", imageApplicationService.getFlaskUrl(),
+                "flask_endpoints", imageApplicationService.getFlaskEndpoints(),
                 "flask_status", flaskTest,
                 "services_available", Map.of(
                     "ai_detection", true,
@@ -217,10 +449,56 @@ public class ImageController {
         } catch (Exception e) {
             return ResponseEntity.ok(Map.of(
                 "flask_connected", false,
-                "flask_url", "http://127.0.0.1:5000",
+                "flask_url", imageApplicationService.getFlaskUrl(),
+                "flask_endpoints", imageApplicationService.getFlaskEndpoints(),
                 "error", e.getMessage(),
                 "message", "Assurez-vous que votre serveur Flask est démarré sur le port 5000"
             ));
         }
     }
+
+    // Vrai si JSON est le premier des formats servis (JSON, CBOR, Smile) dans l'ordre de préférence du client ;
+    // un en-tête Accept absent vaut JSON, un en-tête invalide ou sans format servi reste à la négociation de Spring
+    private static boolean prefersJson(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR) || type.includes(SMILE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // File de l'utilisateur pleine : 429, analyse abandonnée faute de worker libre à temps : 503
+    private static ResponseEntity<?> analysisRejected(AnalysisRejectedException e) {
+        HttpStatus status = e.getReason() == AnalysisRejectedException.Reason.QUEUE_FULL
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(e.getMessage());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(cacheControl)
+                .build();
+    }
 }
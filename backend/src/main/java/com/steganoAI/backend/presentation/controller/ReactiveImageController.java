@@ -0,0 +1,87 @@
+package com.steganoAI.backend.presentation.controller;
+
+import com.steganoAI.backend.application.service.ReactiveImageApplicationService;
+import com.steganoAI.backend.infrastructure.service.AnalysisRejectedException;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Upload et vérification sur la pile réactive (profil "reactive"), à la place d'ImageController :
+// le corps multipart est lu comme un flux d'événements, jamais stocké sur disque ni en entier en mémoire
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "http://localhost:3000")
+@Profile("reactive")
+@Slf4j
+public class ReactiveImageController {
+    private final ReactiveImageApplicationService imageApplicationService;
+
+    public ReactiveImageController(ReactiveImageApplicationService imageApplicationService) {
+        this.imageApplicationService = imageApplicationService;
+    }
+
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<Object>> uploadAndAnalyzeImage(@RequestBody Flux<PartEvent> parts,
+                                                              Authentication authentication) {
+        return withFilePart(parts, (filename, contentType, content) ->
+                        imageApplicationService.uploadAndAnalyzeImage(filename, contentType, content, authentication.getName()))
+                .map(image -> ResponseEntity.ok().body((Object) image))
+                .onErrorResume(e -> errorResponse(e, "Erreur upload image", "Erreur lors de l'upload: "));
+    }
+
+    @PostMapping(value = "/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<Object>> verifyIntegrity(@RequestBody Flux<PartEvent> parts,
+                                                       Authentication authentication) {
+        return withFilePart(parts, (filename, contentType, content) ->
+                        imageApplicationService.verifyImageIntegrity(filename, contentType, content, authentication.getName()))
+                .map(result -> ResponseEntity.ok().body((Object) result))
+                .onErrorResume(e -> errorResponse(e, "Erreur vérification intégrité", "Erreur lors de la vérification: "));
+    }
+
+    // Traite la partie "file" au fil de l'eau ; les autres parties sont lues et libérées
+    private static <T> Mono<T> withFilePart(Flux<PartEvent> parts, FilePartHandler<T> handler) {
+        return parts.windowUntil(PartEvent::isLast)
+                .concatMap(part -> part.switchOnFirst((signal, events) -> {
+                    if (signal.get() instanceof FilePartEvent file && "file".equals(file.name())) {
+                        Flux<DataBuffer> content = events.map(PartEvent::content);
+                        return handler.handle(file.filename(), file.headers().getContentType(), content);
+                    }
+                    return events.doOnNext(event -> DataBufferUtils.release(event.content())).then(Mono.<T>empty());
+                }))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Aucun fichier fourni")));
+    }
+
+    private static Mono<ResponseEntity<Object>> errorResponse(Throwable e, String logMessage, String bodyPrefix) {
+        if (e instanceof ImageRejectedException rejected && rejected.getReason() == ImageRejectedException.Reason.TOO_LARGE) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage()));
+        }
+        if (e instanceof ImageRejectedException || e instanceof IllegalArgumentException) {
+            return Mono.just(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+        if (e instanceof AnalysisRejectedException) {
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage()));
+        }
+        log.error("{}: {}", logMessage, e.getMessage());
+        return Mono.just(ResponseEntity.internalServerError().body(bodyPrefix + e.getMessage()));
+    }
+
+    @FunctionalInterface
+    private interface FilePartHandler<T> {
+        Mono<T> handle(String filename, MediaType contentType, Flux<DataBuffer> content);
+    }
+}
@@ -0,0 +1,124 @@
+package com.steganoAI.backend.presentation.controller;
+
+import com.steganoAI.backend.application.dto.UploadSessionRequest;
+import com.steganoAI.backend.application.dto.UploadSessionStatus;
+import com.steganoAI.backend.application.service.UploadSessionApplicationService;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.infrastructure.service.AnalysisPriority;
+import com.steganoAI.backend.infrastructure.service.AnalysisRejectedException;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException;
+import com.steganoAI.backend.infrastructure.service.UploadSessionException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.net.URI;
+
+// Uploads reprenables, hors de la limite multipart :
+//   POST   /api/images/uploads                    {filename, size, chunkSize?} -> session
+//   PUT    /api/images/uploads/{id}/chunks/{i}    corps brut du bloc i (ordre libre, envois parallèles possibles)
+//   GET    /api/images/uploads/{id}               blocs reçus, pour reprendre après une coupure
+//   POST   /api/images/uploads/{id}/complete      analyse du fichier assemblé, renvoie l'image
+//   DELETE /api/images/uploads/{id}               abandon
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/images/uploads")
+@CrossOrigin(origins = "http://localhost:3000")
+@Slf4j
+public class UploadSessionController {
+    private final UploadSessionApplicationService uploadSessionApplicationService;
+
+    public UploadSessionController(UploadSessionApplicationService uploadSessionApplicationService) {
+        this.uploadSessionApplicationService = uploadSessionApplicationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createUpload(@RequestBody UploadSessionRequest request, Authentication authentication) {
+        try {
+            UploadSessionStatus upload = uploadSessionApplicationService.createUpload(request, authentication.getName());
+            return ResponseEntity.created(URI.create("/api/images/uploads/" + upload.getId())).body(upload);
+        } catch (UploadSessionException e) {
+            return uploadRejected(e);
+        } catch (Exception e) {
+            log.error("Erreur création upload: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de la création de l'upload: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getUpload(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(uploadSessionApplicationService.getUpload(id, authentication.getName()));
+        } catch (UploadSessionException e) {
+            return uploadRejected(e);
+        }
+    }
+
+    @PutMapping(value = "/{id}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> writeChunk(@PathVariable String id, @PathVariable int index, InputStream body,
+                                        Authentication authentication) {
+        try {
+            uploadSessionApplicationService.writeChunk(id, authentication.getName(), index, body);
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionException e) {
+            return uploadRejected(e);
+        } catch (ImageRejectedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur écriture bloc {} de l'upload {}: {}", index, id, e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de l'écriture du bloc: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String id,
+                                            @RequestParam(value = "bulk", defaultValue = "false") boolean bulk,
+                                            Authentication authentication) {
+        try {
+            AnalysisPriority priority = bulk ? AnalysisPriority.BACKGROUND : AnalysisPriority.UPLOAD;
+            Image result = uploadSessionApplicationService.completeUpload(id, authentication.getName(), priority);
+            if (bulk) {
+                return ResponseEntity.accepted().location(URI.create("/api/images/" + result.getId())).body(result);
+            }
+            return ResponseEntity.ok(result);
+        } catch (UploadSessionException e) {
+            return uploadRejected(e);
+        } catch (ImageRejectedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            HttpStatus status = e.getReason() == AnalysisRejectedException.Reason.QUEUE_FULL
+                    ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "5").body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur finalisation upload {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().body("Erreur lors de l'upload: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abortUpload(@PathVariable String id, Authentication authentication) {
+        try {
+            uploadSessionApplicationService.abortUpload(id, authentication.getName());
+            return ResponseEntity.noContent().build();
+        } catch (UploadSessionException e) {
+            return uploadRejected(e);
+        }
+    }
+
+    private static ResponseEntity<?> uploadRejected(UploadSessionException e) {
+        HttpStatus status = switch (e.getReason()) {
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case INCOMPLETE, CONFLICT -> HttpStatus.CONFLICT;
+            case INVALID_REQUEST, INVALID_CHUNK -> HttpStatus.BAD_REQUEST;
+            case QUOTA_EXCEEDED -> HttpStatus.TOO_MANY_REQUESTS;
+        };
+        return ResponseEntity.status(status).body(e.getMessage());
+    }
+}
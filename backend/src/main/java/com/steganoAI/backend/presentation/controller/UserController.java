@@ -2,12 +2,14 @@ package com.steganoAI.backend.presentation.controller;
 
 import com.steganoAI.backend.application.service.UserApplicationService;
 import com.steganoAI.backend.domain.model.User;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 public class UserController {
     private final UserApplicationService userApplicationService;
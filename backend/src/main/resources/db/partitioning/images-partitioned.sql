@@ -0,0 +1,50 @@
+-- Passage d'une table images existante à un partitionnement mensuel sur upload_timestamp (PostgreSQL 14+).
+-- À lancer une fois, application arrêtée (spring.jpa.hibernate.ddl-auto=validate ou none) :
+--   psql -d stegano -f images-partitioned.sql
+-- Une base vide créée par Hibernate est convertie au démarrage par ImagePartitionMaintenance
+-- (app.partitioning.enabled=true), ce script n'est alors pas nécessaire.
+-- L'ancienne table est gardée sous le nom images_unpartitioned, à supprimer une fois les données vérifiées.
+--
+-- Restauration d'une partition archivée :
+--   CREATE TABLE images_y2024m01 PARTITION OF images FOR VALUES FROM ('2024-01-01') TO ('2024-02-01');
+--   \copy images FROM PROGRAM 'gunzip -c archive/images/images_y2024m01.csv.gz' WITH (FORMAT csv, HEADER true)
+
+BEGIN;
+
+-- La clé de partitionnement ne peut pas être nulle
+UPDATE images SET upload_timestamp = COALESCE(updated_at, now()) WHERE upload_timestamp IS NULL;
+
+ALTER TABLE images RENAME TO images_unpartitioned;
+ALTER INDEX IF EXISTS images_pkey RENAME TO images_unpartitioned_pkey;
+ALTER INDEX IF EXISTS idx_images_user_upload RENAME TO idx_images_unpartitioned_user_upload;
+
+CREATE TABLE images (LIKE images_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (upload_timestamp);
+ALTER TABLE images ALTER COLUMN upload_timestamp SET NOT NULL;
+-- PostgreSQL exige la clé de partitionnement dans la clé primaire ; les ids restent uniques (identité commune)
+ALTER TABLE images ADD PRIMARY KEY (id, upload_timestamp);
+CREATE INDEX idx_images_user_upload ON images (user_id, upload_timestamp);
+ALTER TABLE images ADD FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- Une partition par mois, du plus ancien upload jusqu'à trois mois après le mois courant
+DO $$
+DECLARE
+    current_month date := date_trunc('month', COALESCE((SELECT min(upload_timestamp) FROM images_unpartitioned), now()));
+    last_month date := date_trunc('month', now()) + interval '3 months';
+BEGIN
+    WHILE current_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF images FOR VALUES FROM (%L) TO (%L)',
+                       'images_y' || to_char(current_month, 'YYYY') || 'm' || to_char(current_month, 'MM'),
+                       current_month::timestamp, (current_month + interval '1 month')::timestamp);
+        current_month := current_month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO images OVERRIDING SYSTEM VALUE SELECT * FROM images_unpartitioned;
+
+-- Identité reprise après le plus grand id copié
+SELECT setval(pg_get_serial_sequence('images', 'id'), COALESCE((SELECT max(id) FROM images), 0) + 1, false);
+
+COMMIT;
+
+ANALYZE images;
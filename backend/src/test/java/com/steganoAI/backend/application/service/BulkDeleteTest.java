@@ -0,0 +1,88 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.infrastructure.service.GalleryCache;
+import com.steganoAI.backend.infrastructure.service.ImagePurgeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Endpoint de suppression en masse : choix du chemin de purge et invalidation des galeries
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BulkDeleteTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ImagePurgeService imagePurgeService;
+
+    @MockitoBean
+    private GalleryCache galleryCache;
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void idsArePurgedByIdAndGalleriesDropped() throws Exception {
+        when(imagePurgeService.purgeByIds(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(post("/api/images/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1, 2, 3], \"status\": \"FAILED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        verify(imagePurgeService, never()).purge(any(), any(), any());
+        verify(galleryCache).clear();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void criteriaArePassedToThePurge() throws Exception {
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(imagePurgeService.purge(before, "FAILED", "user")).thenReturn(0);
+
+        mockMvc.perform(post("/api/images/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"uploadedBefore\": \"2025-01-01T00:00:00\", \"status\": \"FAILED\", \"username\": \"user\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(0));
+
+        verify(imagePurgeService).purge(before, "FAILED", "user");
+        // Rien de supprimé : les galeries en cache restent valides
+        verify(galleryCache, never()).clear();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void requestWithoutCriteriaIsRejected() throws Exception {
+        mockMvc.perform(post("/api/images/bulk-delete").contentType(MediaType.APPLICATION_JSON).content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(imagePurgeService);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void onlyAdminsMayBulkDelete() throws Exception {
+        mockMvc.perform(post("/api/images/bulk-delete").contentType(MediaType.APPLICATION_JSON).content("{\"ids\": [1]}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(imagePurgeService);
+    }
+}
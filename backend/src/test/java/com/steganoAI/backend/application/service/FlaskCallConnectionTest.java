@@ -0,0 +1,239 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.infrastructure.service.FlaskIntegrationService;
+import com.steganoAI.backend.infrastructure.service.SignedImage;
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Vérifie qu'aucune connexion JDBC ni transaction n'est tenue pendant un appel sortant vers Flask
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlaskCallConnectionTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @MockitoBean
+    private FlaskIntegrationService flaskService;
+
+    private final List<String> violations = new ArrayList<>();
+
+    @BeforeEach
+    void recordConnectionsDuringFlaskCalls() {
+        violations.clear();
+        when(flaskService.uploadAndAnalyzeImage(any(), any()))
+                .thenAnswer(invocation -> checkNoConnectionHeld("upload"));
+        when(flaskService.addSteganography(any(), any()))
+                .thenAnswer(invocation -> new SignedImage(checkNoConnectionHeld("steganography"), null));
+        when(flaskService.verifyIntegrity(any(), any()))
+                .thenAnswer(invocation -> checkNoConnectionHeld("verify"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void uploadReleasesConnectionBeforeCallingFlask() throws Exception {
+        mockMvc.perform(multipart("/api/images/upload").file(png()))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(), violations);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void bulkUploadIsAcceptedBeforeTheAnalysisRuns() throws Exception {
+        Path staged = Files.createTempFile("bulk", ".png");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(1);
+        when(flaskService.stageFile(any())).thenReturn(staged);
+        when(flaskService.uploadAndAnalyzeImage(any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            try {
+                return checkNoConnectionHeld("bulk");
+            } finally {
+                checked.countDown();
+            }
+        });
+        try {
+            String location = mockMvc.perform(multipart("/api/images/upload").file(png()).param("bulk", "true"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.analysisStatus").value("PENDING"))
+                    .andReturn().getResponse().getHeader("Location");
+            Long id = Long.valueOf(location.substring("/api/images/".length()));
+            release.countDown();
+            // Le pool est compté pendant l'appel : ne pas le relire depuis ce thread avant la fin du contrôle
+            assertTrue(checked.await(10, TimeUnit.SECONDS));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!"COMPLETED".equals(imageRepository.findById(id).orElseThrow().getAnalysisStatus())) {
+                assertTrue(System.nanoTime() < deadline, "analyse en masse jamais enregistrée");
+                Thread.sleep(20);
+            }
+            verify(flaskService, timeout(5000)).deleteStagedFile(staged);
+            assertEquals(List.of(), violations);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void steganographyReleasesConnectionBeforeCallingFlask() throws Exception {
+        mockMvc.perform(multipart("/api/images/steganography").file(png()).param("signature", "test"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(), violations);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void verifyDoesNotTouchThePool() throws Exception {
+        mockMvc.perform(multipart("/api/images/verify").file(png()))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(), violations);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void signedFileIsVerifiedWithoutFlaskAndTilesLocateRetouches() throws Exception {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.BLUE, 400, 300, Color.ORANGE));
+        graphics.fillRect(0, 0, 400, 300);
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            graphics.setColor(new Color(random.nextInt(0xffffff)));
+            graphics.fillOval(random.nextInt(400), random.nextInt(300), 10 + random.nextInt(30), 10 + random.nextInt(30));
+        }
+        MockMultipartFile original = png(image);
+        // Flask renvoie l'image signée : bits de poids faible modifiés, mêmes tuiles que l'original
+        BufferedImage signed = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 300; y++) {
+            for (int x = 0; x < 400; x++) {
+                signed.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(2));
+            }
+        }
+        when(flaskService.addSteganography(any(), any()))
+                .thenReturn(new SignedImage(Map.of("filename", "signed.png"), png(signed).getBytes()));
+        when(flaskService.verifyIntegrity(any(), any()))
+                .thenReturn(Map.of("steganography_detected", false, "signatures_match", false, "tampered", false))
+                .thenReturn(Map.of("steganography_detected", true, "signatures_match", false, "tampered", true));
+        Graphics2D retouch = signed.createGraphics();
+        try {
+            mockMvc.perform(multipart("/api/images/steganography").file(original).param("signature", "test"))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(multipart("/api/images/verify").file(png(signed)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.verification_mode").value("tiles"))
+                    .andExpect(jsonPath("$.identical").value(true))
+                    .andExpect(jsonPath("$.signatures_match").value(true))
+                    .andExpect(jsonPath("$.tampered").value(false));
+            verify(flaskService, never()).verifyIntegrity(any(), any());
+
+            // L'original non signé a les mêmes tuiles : image reconnue, mais la signature est vérifiée par Flask
+            mockMvc.perform(multipart("/api/images/verify").file(original))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.verification_mode").value("tiles"))
+                    .andExpect(jsonPath("$.modified_tiles").value(0))
+                    .andExpect(jsonPath("$.signatures_match").value(false));
+
+            // Retouche dans la dernière tuile (x 350-400, y 262-300)
+            retouch.setPaint(new GradientPaint(352, 0, Color.BLACK, 398, 0, Color.WHITE));
+            retouch.fillRect(352, 264, 46, 34);
+            mockMvc.perform(multipart("/api/images/verify").file(png(signed)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.tampered").value(true))
+                    .andExpect(jsonPath("$.modified_tiles").value(1))
+                    .andExpect(jsonPath("$.heatmap.length()").value(8))
+                    .andExpect(jsonPath("$.modified_regions[0].x").value(350))
+                    .andExpect(jsonPath("$.modified_regions[0].y").value(262));
+
+            verify(flaskService, times(2)).verifyIntegrity(any(), any());
+
+            // Journal écrit en différé : les trois vérifications apparaissent après le flush suivant
+            List<Boolean> tampered = List.of();
+            for (int i = 0; i < 50 && tampered.size() < 3; i++) {
+                Thread.sleep(100);
+                String history = mockMvc.perform(get("/api/images/my-verifications"))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+                tampered = JsonPath.read(history, "$.content[?(@.mode == 'tiles')].tampered");
+            }
+            assertEquals(List.of(true, false, false), tampered);
+        } finally {
+            graphics.dispose();
+            retouch.dispose();
+            imageRepository.findAll().stream()
+                    .filter(signedImage -> signedImage.getFingerprintHash() != null)
+                    .forEach(imageRepository::delete);
+        }
+    }
+
+    private Map<String, Object> checkNoConnectionHeld(String call) {
+        int active = dataSource.getHikariPoolMXBean().getActiveConnections();
+        if (active != 0) {
+            violations.add(call + ": " + active + " connexion(s) active(s)");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            violations.add(call + ": transaction ouverte");
+        }
+        return Map.of("image_path", "uploads/test.png");
+    }
+
+    private static MockMultipartFile png() throws IOException {
+        return png(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB));
+    }
+
+    private static MockMultipartFile png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("file", "test.png", "image/png", out.toByteArray());
+    }
+}
@@ -0,0 +1,205 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.VerificationRecordRepository;
+import com.steganoAI.backend.infrastructure.service.JwtService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pile réactive : le fichier est relayé en flux vers un Flask bouchon, la base est mise à jour via le pont JPA
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+class ReactiveUploadTest {
+    private static final AtomicLong receivedBytes = new AtomicLong();
+    private static HttpServer flask;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private VerificationRecordRepository verificationRecordRepository;
+
+    @BeforeAll
+    static void startFlask() throws IOException {
+        flask = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        flask.setExecutor(Executors.newFixedThreadPool(4));
+        flask.createContext("/api/v2/upload", exchange -> {
+            receivedBytes.set(exchange.getRequestBody().readAllBytes().length);
+            respond(exchange, "{\"analysis\":{\"ai_detection\":{\"confidence\":0.8}},\"image_path\":\"uploads/bruit.png\"}");
+        });
+        flask.createContext("/api/v2/verify_integrity", exchange -> {
+            receivedBytes.set(exchange.getRequestBody().readAllBytes().length);
+            respond(exchange, "{\"integrity\":\"ok\"}");
+        });
+        flask.start();
+    }
+
+    @AfterAll
+    static void stopFlask() {
+        flask.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("flask.api.base-url", () -> "http://127.0.0.1:" + flask.getAddress().getPort());
+        registry.add("app.reactive.max-file-size", () -> "1MB");
+    }
+
+    @Test
+    void uploadIsStreamedToFlaskAndRecorded() throws IOException {
+        byte[] png = noisePng(512);
+
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(30)).build()
+                .post().uri("/api/images/upload")
+                .headers(headers -> headers.setBearerAuth(jwtService.generateToken("user", "USER")))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipart("bruit.png", png)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.analysisStatus").isEqualTo("COMPLETED")
+                .jsonPath("$.aiConfidence").isEqualTo(0.8)
+                // Empreinte calculée au fil du transfert, identique à celle du fichier complet
+                .jsonPath("$.md5Hash").isEqualTo(DigestUtils.md5DigestAsHex(png));
+
+        assertTrue(receivedBytes.get() > png.length, "octets reçus par Flask : " + receivedBytes.get());
+    }
+
+    @Test
+    void verifyReturnsFlaskResponseAndIsLogged() throws Exception {
+        webTestClient.post().uri("/api/images/verify")
+                .headers(headers -> headers.setBearerAuth(jwtService.generateToken("user", "USER")))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipart("petit.png", noisePng(16))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.integrity").isEqualTo("ok");
+
+        // Journal écrit en différé : la vérification apparaît après le flush suivant
+        List<VerificationRecord> records = List.of();
+        for (int i = 0; i < 50 && records.isEmpty(); i++) {
+            Thread.sleep(100);
+            records = verificationRecordRepository.findByUsername("user", Pageable.unpaged()).stream()
+                    .filter(record -> "petit.png".equals(record.getFilename()))
+                    .toList();
+        }
+        assertEquals(1, records.size());
+        assertEquals("flask", records.get(0).getMode());
+        assertNotNull(records.get(0).getMd5Hash());
+    }
+
+    @Test
+    void nonImageIsRejectedAndLeavesNoPendingRow() {
+        long before = imageRepository.count();
+
+        webTestClient.post().uri("/api/images/upload")
+                .headers(headers -> headers.setBearerAuth(jwtService.generateToken("user", "USER")))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipart("faux.png",
+                        "ceci n'est pas une image".getBytes(StandardCharsets.UTF_8))))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertEquals(before, imageRepository.count());
+    }
+
+    @Test
+    void fileOverTheSizeLimitIsRejectedAndLeavesNoPendingRow() throws IOException {
+        long before = imageRepository.count();
+
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(30)).build()
+                .post().uri("/api/images/upload")
+                .headers(headers -> headers.setBearerAuth(jwtService.generateToken("user", "USER")))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipart("grand.png", noisePng(1024))))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+
+        assertEquals(before, imageRepository.count());
+    }
+
+    @Test
+    void requestWithoutTokenIsUnauthorized() throws IOException {
+        webTestClient.post().uri("/api/images/verify")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipart("petit.png", noisePng(16))))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private static org.springframework.util.MultiValueMap<String, org.springframework.http.HttpEntity<?>> multipart(
+            String filename, byte[] content) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        }).contentType(MediaType.IMAGE_PNG);
+        return body.build();
+    }
+
+    // Bruit aléatoire : PNG peu compressible, transmis en plusieurs morceaux
+    private static byte[] noisePng(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] response = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.steganoAI.backend.application.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.infrastructure.service.AnalysisPriority;
+import com.steganoAI.backend.infrastructure.service.FlaskIntegrationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// Une image lue en PENDING (cache L2 et cache de requêtes chauds) doit être relue COMPLETED après l'analyse
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheInvalidationTest {
+    @Autowired
+    private ImageApplicationService imageApplicationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private FlaskIntegrationService flaskService;
+
+    @Test
+    void completedAnalysisIsVisibleThroughCachedFinders() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        AtomicLong pendingId = new AtomicLong();
+        when(flaskService.uploadAndAnalyzeImage(any(), any())).thenAnswer(invocation -> {
+            // Lectures répétées pendant l'analyse : la seconde est servie par les caches
+            Image pending = onlyPendingImage();
+            pendingId.set(pending.getId());
+            for (int i = 0; i < 2; i++) {
+                assertEquals("PENDING", imageApplicationService.getImageById(pending.getId()).orElseThrow().getAnalysisStatus());
+                assertFalse(ids(imageApplicationService.getImagesWithSteganography()).contains(pending.getId()));
+                assertFalse(ids(imageApplicationService.getHighAiConfidenceImages(0.9)).contains(pending.getId()));
+                assertEquals("PENDING", find(imageApplicationService.getUserImages("user"), pending.getId()).getAnalysisStatus());
+            }
+            return Map.of(
+                    "image_path", "uploads/cached.png",
+                    "analysis", Map.of(
+                            "ai_detection", Map.of("confidence", 0.97),
+                            "steganography", Map.of("signature_detected", true)));
+        });
+        long entityHits = statistics.getSecondLevelCacheHitCount();
+        long queryHits = statistics.getQueryCacheHitCount();
+
+        Image analyzed = imageApplicationService.uploadAndAnalyzeImage(png(), "user", AnalysisPriority.UPLOAD);
+
+        assertEquals(pendingId.get(), analyzed.getId());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > entityHits, "cache L2 jamais utilisé");
+        assertTrue(statistics.getQueryCacheHitCount() > queryHits, "cache de requêtes jamais utilisé");
+
+        Image byId = imageApplicationService.getImageById(analyzed.getId()).orElseThrow();
+        assertEquals("COMPLETED", byId.getAnalysisStatus());
+        assertEquals(0.97, byId.getAiConfidence());
+        assertEquals("uploads/cached.png", byId.getImagePath());
+        assertTrue(ids(imageApplicationService.getImagesWithSteganography()).contains(analyzed.getId()));
+        assertTrue(ids(imageApplicationService.getHighAiConfidenceImages(0.9)).contains(analyzed.getId()));
+        Image listed = find(imageApplicationService.getUserImages("user"), analyzed.getId());
+        assertEquals("COMPLETED", listed.getAnalysisStatus());
+        assertEquals(true, listed.getHasSteganography());
+    }
+
+    private Image onlyPendingImage() {
+        List<Image> pending = imageApplicationService.getUserImages("user").stream()
+                .filter(image -> "cached.png".equals(image.getFilename()) && "PENDING".equals(image.getAnalysisStatus()))
+                .toList();
+        assertEquals(1, pending.size());
+        return pending.get(0);
+    }
+
+    private static Image find(List<Image> images, Long id) {
+        return images.stream().filter(image -> image.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    private static List<Long> ids(List<Image> images) {
+        return images.stream().map(Image::getId).toList();
+    }
+
+    private static MockMultipartFile png() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new MockMultipartFile("file", "cached.png", "image/png", out.toByteArray());
+    }
+}
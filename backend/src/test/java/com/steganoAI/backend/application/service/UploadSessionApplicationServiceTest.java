@@ -0,0 +1,289 @@
+package com.steganoAI.backend.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.domain.model.UploadSession;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UploadSessionRepository;
+import com.steganoAI.backend.domain.service.UploadSessionDomainService;
+import com.steganoAI.backend.infrastructure.config.ChunkedUploadProperties;
+import com.steganoAI.backend.infrastructure.service.DirectBufferPool;
+import com.steganoAI.backend.infrastructure.service.UploadChunkStorage;
+import com.steganoAI.backend.infrastructure.service.UploadSessionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UploadSessionApplicationServiceTest {
+    private static final int CHUNK_SIZE = 4096;
+    // Authentification par requête : les blocs sont aussi envoyés depuis d'autres threads
+    private static final RequestPostProcessor USER = user("user").roles("USER");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UploadChunkStorage storage;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private DirectBufferPool bufferPool;
+
+    @Autowired
+    private ChunkedUploadProperties properties;
+
+    @Autowired
+    private UploadSessionApplicationService uploadSessionApplicationService;
+
+    @Autowired
+    private UploadSessionDomainService uploadSessionDomainService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void clean() {
+        // Blocs, empreinte et fichier temporaire passent par le pool : chaque tampon emprunté doit être rendu
+        assertEquals(List.of(), bufferPool.getLeaks());
+        imageRepository.deleteAll();
+    }
+
+    @Test
+    void assemblesParallelOutOfOrderChunksAndResumes() throws Exception {
+        byte[] png = png();
+        String id = create("grande.png", png.length);
+        int chunkCount = (png.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        assertTrue(chunkCount >= 4, "image de test trop petite: " + png.length);
+
+        // Tous les blocs sauf le deuxième, en parallèle et dans le désordre
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int i = chunkCount - 1; i >= 0; i--) {
+                if (i != 1) {
+                    int index = i;
+                    sent.add(executor.submit(() -> putChunk(id, index, chunk(png, index))));
+                }
+            }
+            for (Future<?> future : sent) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Coupure : le client relit l'état, la finalisation est refusée tant qu'un bloc manque
+        JsonNode state = json(mockMvc.perform(get("/api/images/uploads/" + id).with(USER))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertEquals(chunkCount - 1, state.get("receivedChunks").size());
+        mockMvc.perform(post("/api/images/uploads/" + id + "/complete").with(USER))
+                .andExpect(status().isConflict());
+
+        putChunk(id, 1, chunk(png, 1));
+        // Bloc renvoyé deux fois : sans effet
+        putChunk(id, 0, chunk(png, 0));
+        assertArrayEquals(png, Files.readAllBytes(storage.path(id)));
+
+        String body = mockMvc.perform(post("/api/images/uploads/" + id + "/complete").with(USER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filename").value("grande.png"))
+                .andReturn().getResponse().getContentAsString();
+        long imageId = json(body).get("id").asLong();
+        assertFalse(Files.exists(storage.path(id)));
+
+        // Finalisation rejouée : même image, pas de nouvelle analyse
+        mockMvc.perform(post("/api/images/uploads/" + id + "/complete").with(USER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(imageId));
+        assertEquals(1, imageRepository.count());
+    }
+
+    @Test
+    void rejectsFirstChunkThatIsNotAnImage() throws Exception {
+        byte[] text = new byte[CHUNK_SIZE * 2];
+        Arrays.fill(text, (byte) 'a');
+        String id = create("notes.png", text.length);
+
+        mockMvc.perform(put("/api/images/uploads/" + id + "/chunks/0").with(USER)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(chunk(text, 0)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/images/uploads/" + id).with(USER)).andExpect(status().isNotFound());
+        assertFalse(Files.exists(storage.path(id)));
+    }
+
+    @Test
+    void rejectsInvalidChunksAndForeignSessions() throws Exception {
+        byte[] png = png();
+        String id = create("photo.png", png.length);
+
+        mockMvc.perform(put("/api/images/uploads/" + id + "/chunks/1").with(USER)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOf(png, CHUNK_SIZE - 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/images/uploads/" + id + "/chunks/9999").with(USER)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(chunk(png, 0)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/images/uploads/" + id).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/images/uploads").with(USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"photo.png\",\"size\":1000,\"chunkSize\":10}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/images/uploads/" + id).with(USER)).andExpect(status().isNoContent());
+        assertFalse(Files.exists(storage.path(id)));
+    }
+
+    @Test
+    void openSessionsAndReservedBytesAreLimitedPerUser() throws Exception {
+        RequestPostProcessor quota = user("quota").roles("USER");
+        int maxSessions = properties.getMaxOpenSessionsPerUser();
+        DataSize maxReserved = properties.getMaxReservedPerUser();
+        properties.setMaxOpenSessionsPerUser(2);
+        properties.setMaxReservedPerUser(DataSize.ofBytes(3L * CHUNK_SIZE));
+        try {
+            String first = create(quota, "a.png", CHUNK_SIZE);
+            create(quota, "b.png", CHUNK_SIZE);
+            createRejected(quota, CHUNK_SIZE);
+            // Les autres utilisateurs ne sont pas concernés
+            create(user("quota-2").roles("USER"), "c.png", CHUNK_SIZE);
+
+            mockMvc.perform(delete("/api/images/uploads/" + first).with(quota)).andExpect(status().isNoContent());
+            // Une place libérée, mais 1 bloc réservé + 3 blocs dépasseraient les 3 blocs autorisés
+            createRejected(quota, 3L * CHUNK_SIZE);
+            create(quota, "d.png", CHUNK_SIZE);
+        } finally {
+            properties.setMaxOpenSessionsPerUser(maxSessions);
+            properties.setMaxReservedPerUser(maxReserved);
+        }
+    }
+
+    @Test
+    void chunkForAnAbortedOrExpiredUploadIsNotFound() throws Exception {
+        byte[] png = png();
+        for (int index : new int[]{0, 1}) {
+            String id = create("abandon.png", png.length);
+            // Abandon pendant la réception du bloc : le fichier disparaît sous l'écriture
+            InputStream abortingBody = new ByteArrayInputStream(chunk(png, index)) {
+                private boolean aborted;
+
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    if (!aborted) {
+                        aborted = true;
+                        uploadSessionApplicationService.abortUpload(id, "user");
+                    }
+                    return super.read(b, off, len);
+                }
+            };
+
+            UploadSessionException error = assertThrows(UploadSessionException.class,
+                    () -> uploadSessionApplicationService.writeChunk(id, "user", index, abortingBody));
+            assertEquals(UploadSessionException.Reason.NOT_FOUND, error.getReason());
+            assertEquals(0, uploadSessionDomainService.countReceivedChunks(id));
+            assertFalse(Files.exists(storage.path(id)));
+        }
+
+        String id = create("expire.png", png.length);
+        UploadSession session = uploadSessionRepository.findById(id).orElseThrow();
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        uploadSessionRepository.save(session);
+        mockMvc.perform(put("/api/images/uploads/" + id + "/chunks/1").with(USER)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(chunk(png, 1)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/images/uploads/" + id).with(USER)).andExpect(status().isNoContent());
+    }
+
+    private void createRejected(RequestPostProcessor user, long size) throws Exception {
+        mockMvc.perform(post("/api/images/uploads").with(user)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"refus.png\",\"size\":" + size + ",\"chunkSize\":" + CHUNK_SIZE + "}"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private String create(String filename, long size) throws Exception {
+        return create(USER, filename, size);
+    }
+
+    private String create(RequestPostProcessor user, String filename, long size) throws Exception {
+        String body = mockMvc.perform(post("/api/images/uploads").with(user)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"" + filename + "\",\"size\":" + size + ",\"chunkSize\":" + CHUNK_SIZE + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return json(body).get("id").asText();
+    }
+
+    private Void putChunk(String id, int index, byte[] content) throws Exception {
+        mockMvc.perform(put("/api/images/uploads/" + id + "/chunks/" + index).with(USER)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(content))
+                .andExpect(status().isNoContent());
+        return null;
+    }
+
+    private JsonNode json(String body) throws IOException {
+        return objectMapper.readTree(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] chunk(byte[] file, int index) {
+        int from = index * CHUNK_SIZE;
+        return Arrays.copyOfRange(file, from, Math.min(file.length, from + CHUNK_SIZE));
+    }
+
+    // Bruit aléatoire : le PNG ne se compresse pas et s'étale sur plusieurs blocs
+    private static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
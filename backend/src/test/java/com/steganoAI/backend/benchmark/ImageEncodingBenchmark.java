@@ -0,0 +1,115 @@
+package com.steganoAI.backend.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'encodage/décodage et taille des pages d'images en JSON, CBOR et Smile.
+ * Lancement : ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark="ImageEncodingBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageEncodingBenchmark {
+    private static final TypeReference<List<Image>> IMAGE_LIST = new TypeReference<>() {};
+
+    @Param({"50", "500"})
+    private int pageSize;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private List<Image> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        page = samplePage(pageSize);
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n[%s, %d images] taille de la page : %d octets (%d octets/image)%n",
+                format, pageSize, encoded.length, encoded.length / pageSize);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Image> decode() throws Exception {
+        return mapper.readValue(encoded, IMAGE_LIST);
+    }
+
+    static List<Image> samplePage(int size) {
+        User owner = new User(1L, "user", "$2a$10$abcdefghijklmnopqrstuv", "USER");
+        List<Image> images = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Image image = new Image();
+            image.setId((long) i);
+            image.setFilename("photo_" + i + ".jpg");
+            image.setImagePath("uploads/" + i + "_3f2a9c1e-5b7d-4e8f-9a0b-1c2d3e4f5a6b.jpg");
+            image.setPerceptualHash(String.format("%016x", i * 0x9E3779B97F4A7C15L));
+            image.setMd5Hash(String.format("%032x", (long) i * 31));
+            image.setAiConfidence((i % 100) / 100.0);
+            image.setHasSteganography(i % 3 == 0);
+            image.setMetadataJson("{'format': 'JPEG', 'mode': 'RGB', 'size': (1920, 1080), 'file_size': "
+                    + (250_000 + i) + "}");
+            image.setUploadTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(i));
+            image.setUpdatedAt(image.getUploadTimestamp().plusSeconds(4));
+            image.setVersion(1L);
+            image.setUser(owner);
+            image.setAnalysisStatus("COMPLETED");
+            image.setAnalysisResults(sampleAnalysisResults(i));
+            images.add(image);
+        }
+        return images;
+    }
+
+    private static String sampleAnalysisResults(int i) {
+        StringBuilder similar = new StringBuilder();
+        for (int s = 0; s < 5; s++) {
+            similar.append(s > 0 ? "," : "")
+                    .append("{\"image_id\":").append(i + s)
+                    .append(",\"filename\":\"photo_").append(i + s).append(".jpg\"")
+                    .append(",\"similarity\":0.").append(90 - s)
+                    .append(",\"phash_distance\":").append(s).append('}');
+        }
+        return "{\"image_id\":" + i + ",\"filename\":\"photo_" + i + ".jpg\",\"analysis\":{"
+                + "\"steganography\":{\"signature_detected\":" + (i % 3 == 0) + ",\"signature\":\"CV:a1b2c3d4e5f6\"},"
+                + "\"ai_detection\":{\"confidence\":0." + (i % 100) + ",\"is_ai_generated\":false,\"model\":\"efficientnet_v2\"},"
+                + "\"metadata\":{\"format\":\"JPEG\",\"mode\":\"RGB\",\"width\":1920,\"height\":1080},"
+                + "\"context_signature\":\"CV:a1b2c3d4e5f60718293a4b5c6d7e8f90\"},"
+                + "\"perceptual_hashes\":{\"phash\":\"c3a1f0e2d4b59687\",\"dhash\":\"0f1e2d3c4b5a6978\","
+                + "\"ahash\":\"ffe0c08080c0e0ff\",\"whash\":\"183c7effff7e3c18\"},"
+                + "\"similar_images\":[" + similar + "],\"similar_found\":true}";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImageEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
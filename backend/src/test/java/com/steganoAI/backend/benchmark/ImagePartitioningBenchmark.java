@@ -0,0 +1,158 @@
+package com.steganoAI.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence des lectures courantes sur la table images, non partitionnée contre partitionnée par mois
+ * (mêmes colonnes, même index user_id/upload_timestamp), sur PostgreSQL 14+ réel : H2 ne partitionne pas.
+ * Jeu de données : `rows` images sur 36 mois (10 000 utilisateurs, analysis_results de ~1 Ko),
+ * généré une fois par generate_series puis réutilisé tant que le nombre de lignes correspond.
+ * Lancement : ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark="ImagePartitioningBenchmark
+ *   -p jdbcUrl=jdbc:postgresql://localhost:5432/bench -p user=postgres -p password=..."
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImagePartitioningBenchmark {
+    private static final int USERS = 10_000;
+    private static final int MONTHS = 36;
+
+    @Param({"images_heap", "images_partitioned"})
+    private String table;
+
+    @Param({"10000000"})
+    private long rows;
+
+    @Param({"jdbc:postgresql://localhost:5432/stegano"})
+    private String jdbcUrl;
+
+    @Param({"postgres"})
+    private String user;
+
+    @Param({"1234"})
+    private String password;
+
+    private LocalDateTime end;
+
+    @State(Scope.Thread)
+    public static class Session {
+        private Connection connection;
+        private PreparedStatement latestForUser;
+        private PreparedStatement lastMonthForUser;
+        private PreparedStatement monthStatusCount;
+        private PreparedStatement byId;
+
+        @Setup
+        public void open(ImagePartitioningBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.jdbcUrl, benchmark.user, benchmark.password);
+            String table = benchmark.table;
+            // Liste « mes images » : les plus récentes d'abord (Append ordonné, partitions récentes lues en premier)
+            latestForUser = connection.prepareStatement("SELECT id, filename, upload_timestamp, analysis_status FROM "
+                    + table + " WHERE user_id = ? ORDER BY upload_timestamp DESC LIMIT 50");
+            lastMonthForUser = connection.prepareStatement("SELECT id, filename, upload_timestamp FROM " + table
+                    + " WHERE user_id = ? AND upload_timestamp >= ? AND upload_timestamp < ? ORDER BY upload_timestamp DESC");
+            monthStatusCount = connection.prepareStatement("SELECT count(*) FROM " + table
+                    + " WHERE analysis_status = 'FAILED' AND upload_timestamp >= ? AND upload_timestamp < ?");
+            // Sans la clé de partitionnement : un index par partition à sonder
+            byId = connection.prepareStatement("SELECT analysis_results FROM " + table + " WHERE id = ?");
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        end = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay().plusMonths(1);
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            if (count(statement) == rows) {
+                return;
+            }
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            String columns = "(id bigint NOT NULL, user_id bigint NOT NULL, filename varchar(255), "
+                    + "analysis_status varchar(255), analysis_results text, upload_timestamp timestamp(6) NOT NULL, "
+                    + "PRIMARY KEY (id, upload_timestamp))";
+            if (table.equals("images_partitioned")) {
+                statement.execute("CREATE TABLE " + table + " " + columns + " PARTITION BY RANGE (upload_timestamp)");
+                for (int m = MONTHS; m > 0; m--) {
+                    LocalDateTime from = end.minusMonths(m);
+                    statement.execute(String.format("CREATE TABLE %s_y%04dm%02d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                            table, from.getYear(), from.getMonthValue(), table, Timestamp.valueOf(from),
+                            Timestamp.valueOf(from.plusMonths(1))));
+                }
+            } else {
+                statement.execute("CREATE TABLE " + table + " " + columns);
+            }
+            // Uploads uniformément répartis sur la période, du plus ancien au plus récent
+            statement.execute("INSERT INTO " + table + " SELECT g, 1 + (g * 7919) % " + USERS + ", 'image_' || g || '.png', "
+                    + "CASE WHEN g % 50 = 0 THEN 'FAILED' ELSE 'COMPLETED' END, repeat(md5(g::text), 32), "
+                    + "timestamp '" + Timestamp.valueOf(end.minusMonths(MONTHS)) + "' + (g * (interval '" + MONTHS
+                    + " months' / " + rows + ")) FROM generate_series(0, " + (rows - 1) + ") g");
+            statement.execute("CREATE INDEX ON " + table + " (user_id, upload_timestamp)");
+            statement.execute("VACUUM ANALYZE " + table);
+        }
+    }
+
+    private long count(Statement statement) {
+        try (ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public int latestForUser(Session session) throws SQLException {
+        session.latestForUser.setLong(1, 1 + ThreadLocalRandom.current().nextInt(USERS));
+        return drain(session.latestForUser);
+    }
+
+    @Benchmark
+    public int lastMonthForUser(Session session) throws SQLException {
+        session.lastMonthForUser.setLong(1, 1 + ThreadLocalRandom.current().nextInt(USERS));
+        session.lastMonthForUser.setTimestamp(2, Timestamp.valueOf(end.minusMonths(1)));
+        session.lastMonthForUser.setTimestamp(3, Timestamp.valueOf(end));
+        return drain(session.lastMonthForUser);
+    }
+
+    @Benchmark
+    public int failedLastMonth(Session session) throws SQLException {
+        session.monthStatusCount.setTimestamp(1, Timestamp.valueOf(end.minusMonths(1)));
+        session.monthStatusCount.setTimestamp(2, Timestamp.valueOf(end));
+        return drain(session.monthStatusCount);
+    }
+
+    @Benchmark
+    public int byId(Session session) throws SQLException {
+        session.byId.setLong(1, ThreadLocalRandom.current().nextLong(rows));
+        return drain(session.byId);
+    }
+
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
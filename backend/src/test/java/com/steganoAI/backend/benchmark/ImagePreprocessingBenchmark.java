@@ -0,0 +1,163 @@
+package com.steganoAI.backend.benchmark;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import com.steganoAI.backend.infrastructure.service.DirectBufferPool;
+import com.steganoAI.backend.infrastructure.service.ImagePreprocessor;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envoi de l'original vs envoi d'une copie réduite au détecteur IA, bout en bout :
+ * prétraitement JVM, transfert HTTP local et décodage côté serveur (le serveur bouchon décode comme le ferait Flask).
+ * Mode débit (un seul thread : latence = 1 / score) pour que bytesSent/bytesSaved soient rapportés en octets par seconde.
+ * Lancement : ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark="ImagePreprocessingBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImagePreprocessingBenchmark {
+    @Param({"2048", "4096"})
+    private int sourceWidth;
+
+    @Param({"PNG", "JPEG"})
+    private FlaskProperties.Format format;
+
+    private Path source;
+    private long sourceSize;
+    private HttpServer server;
+    private HttpClient client;
+    private URI detectUri;
+    private ImagePreprocessor preprocessor;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic {
+        public long bytesSent;
+        public long bytesSaved;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesSent = 0;
+            bytesSaved = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        source = Files.createTempFile("preprocessing-benchmark", ".jpg");
+        Files.write(source, photo(sourceWidth, sourceWidth * 3 / 4));
+        sourceSize = Files.size(source);
+
+        FlaskProperties properties = new FlaskProperties();
+        properties.getPreprocessing().setEnabled(true);
+        properties.getPreprocessing().setFormat(format);
+        preprocessor = new ImagePreprocessor(properties,
+                new DirectBufferPool(new BufferPoolProperties(), new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+        // Bouchon du détecteur : lit et décode entièrement l'image reçue
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/api/v2/detect_ai", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                BufferedImage image = ImageIO.read(body);
+                byte[] response = ("{\"width\":" + image.getWidth() + "}").getBytes();
+                exchange.sendResponseHeaders(200, response.length);
+                exchange.getResponseBody().write(response);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        detectUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/v2/detect_ai");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        try (ImagePreprocessor.PreprocessedImage reduced = preprocessor.preprocess(source)) {
+            System.out.printf("%n[%dpx -> %s %dx%d] original : %d octets, réduit : %d octets (%.1f%%)%n",
+                    sourceWidth, format, reduced.getWidth(), reduced.getHeight(), sourceSize, reduced.getSize(),
+                    100.0 * reduced.getSize() / sourceSize);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(source);
+    }
+
+    @Benchmark
+    public String sendOriginal(Traffic traffic) throws Exception {
+        traffic.bytesSent += sourceSize;
+        return send(HttpRequest.BodyPublishers.ofFile(source));
+    }
+
+    @Benchmark
+    public String sendPreprocessed(Traffic traffic) throws Exception {
+        try (ImagePreprocessor.PreprocessedImage reduced = preprocessor.preprocess(source)) {
+            traffic.bytesSent += reduced.getSize();
+            traffic.bytesSaved += sourceSize - reduced.getSize();
+            return send(HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return reduced.asResource().getInputStream();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+    }
+
+    private String send(HttpRequest.BodyPublisher body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(detectUri).POST(body).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    // Photo synthétique : dégradés et bruit, pour une taille JPEG réaliste
+    static byte[] photo(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(24)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(24)) & 0xFF;
+                int b = ((x + y) * 127 / (width + height) + random.nextInt(48)) & 0xFF;
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.92f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
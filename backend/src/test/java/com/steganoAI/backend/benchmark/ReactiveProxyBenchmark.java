@@ -0,0 +1,189 @@
+package com.steganoAI.backend.benchmark;
+
+import com.steganoAI.backend.BackendApplication;
+import com.steganoAI.backend.infrastructure.service.JwtService;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Capacité en connexions simultanées et mémoire par upload en vol : pile servlet (ImageController)
+ * contre pile réactive (profil "reactive"), face à un Flask bouchon qui répond en 100 ms.
+ * Chaque opération envoie `concurrency` vérifications en parallèle et attend toutes les réponses.
+ * Pics de threads et de heap affichés en fin d'essai ; ajouter -prof gc pour l'allocation par opération.
+ * Lancement : ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark="ReactiveProxyBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReactiveProxyBenchmark {
+    private static final String BOUNDARY = "bench-boundary";
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"64", "512"})
+    private int concurrency;
+
+    private HttpServer flask;
+    private ConfigurableApplicationContext application;
+    private HttpClient client;
+    private HttpRequest request;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private ScheduledExecutorService sampler;
+    private long baselineHeap;
+    private final AtomicLong peakHeap = new AtomicLong();
+    private final AtomicLong peakThreads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // Flask lent mais jamais saturé : le goulot mesuré est le backend
+        flask = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        flask.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        flask.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = "{\"integrity\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        flask.start();
+
+        List<String> profiles = new ArrayList<>(List.of("test"));
+        if ("reactive".equals(stack)) {
+            profiles.add("reactive");
+        }
+        application = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles(profiles.toArray(new String[0]))
+                // Arguments de ligne de commande : prioritaires sur application-test.properties
+                .run("--server.port=0",
+                        "--flask.api.base-url=http://127.0.0.1:" + flask.getAddress().getPort(),
+                        // Même chemin des deux côtés : pas d'ordonnanceur ni de prétraitement servlet
+                        "--app.analysis.scheduler.enabled=false",
+                        "--app.reactive.max-in-flight=" + (concurrency * 2),
+                        "--logging.level.root=WARN");
+        int port = Integer.parseInt(application.getEnvironment().getProperty("local.server.port"));
+        String token = application.getBean(JwtService.class).generateToken("user", "USER");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/images/verify"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipartBody(samplePng(128))))
+                .build();
+
+        System.gc();
+        baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, 5, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public int concurrentVerify() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.join().statusCode() == 200) {
+                    ok++;
+                } else {
+                    failures.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            }
+        }
+        return ok;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sampler.shutdownNow();
+        // Client et serveur partagent la JVM : l'écart entre piles reste significatif, pas la valeur absolue
+        System.out.printf("%n[%s, %d en vol] pic de threads : %d, heap par upload en vol : %d Ko, échecs : %d%n",
+                stack, concurrency, peakThreads.get(),
+                Math.max(0, peakHeap.get() - baselineHeap) / concurrency / 1024, failures.get());
+        application.close();
+        flask.stop(0);
+    }
+
+    private static byte[] multipartBody(byte[] png) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"bench.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(png);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static byte[] samplePng(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReactiveProxyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
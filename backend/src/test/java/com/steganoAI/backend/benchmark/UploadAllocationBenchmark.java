@@ -0,0 +1,149 @@
+package com.steganoAI.backend.benchmark;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import com.steganoAI.backend.infrastructure.service.DirectBufferPool;
+import com.steganoAI.backend.infrastructure.service.PooledFileResource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Octets alloués par upload sur le chemin Java d'un fichier reçu : empreinte MD5, copie vers le fichier temporaire
+ * puis écriture du corps envoyé à Flask (vers un flux qui jette les octets).
+ * "heap" reproduit l'ancien code (DigestUtils, MultipartFile.transferTo, FileSystemResource), "pooled" passe par
+ * DirectBufferPool. Comparer gc.alloc.rate.norm (octets par opération), d'où -prof gc.
+ * Lancement : ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark="UploadAllocationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UploadAllocationBenchmark {
+    @Param({"heap", "pooled"})
+    private String path;
+
+    @Param({"200000", "4000000"})
+    private int size;
+
+    private Path part;
+    private Path tempDir;
+    private MultipartFile file;
+    private DirectBufferPool pool;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        part = Files.write(Files.createTempFile("upload-allocation", ".part"), data);
+        tempDir = Files.createTempDirectory("upload-allocation");
+        file = new DiskPart(part);
+        pool = new DirectBufferPool(new BufferPoolProperties(), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Benchmark
+    public String upload() throws IOException, NoSuchAlgorithmException {
+        Path temp = tempDir.resolve("upload.png");
+        try {
+            if ("heap".equals(path)) {
+                String digest;
+                try (InputStream in = file.getInputStream()) {
+                    digest = DigestUtils.md5DigestAsHex(in);
+                }
+                file.transferTo(temp);
+                try (InputStream in = new FileSystemResource(temp.toFile()).getInputStream()) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                return digest;
+            }
+
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            try (InputStream in = file.getInputStream()) {
+                pool.update(md5, in);
+            }
+            pool.copy(file, temp);
+            try (InputStream in = new PooledFileResource(temp, pool).getInputStream()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(md5.digest());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Part multipart stockée sur disque par Tomcat, vue comme StandardMultipartFile (flux + copie par flux)
+    private static final class DiskPart implements MultipartFile {
+        private final Path path;
+
+        private DiskPart(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "upload.png";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return path.toFile().length();
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            transferTo(dest.toPath());
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            FileCopyUtils.copy(getInputStream(), Files.newOutputStream(dest));
+        }
+    }
+}
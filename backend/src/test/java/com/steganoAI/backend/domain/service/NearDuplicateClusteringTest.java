@@ -0,0 +1,121 @@
+package com.steganoAI.backend.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearDuplicateClusteringTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void groupsNearDuplicatesAndKeepsDistinctImagesApart() {
+        Random random = new Random(42);
+        int groups = 50;
+        int copies = 4;
+        long[] hashes = new long[groups * copies + 500];
+        for (int g = 0; g < groups; g++) {
+            long base = random.nextLong();
+            for (int c = 0; c < copies; c++) {
+                hashes[g * copies + c] = flipBits(base, c == 0 ? 0 : 1 + random.nextInt(3), random);
+            }
+        }
+        for (int i = groups * copies; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+        }
+
+        NearDuplicateClustering.Result result = new NearDuplicateClustering(6, 7, 20_000)
+                .cluster(hashes, pool, (band, bands, done, total) -> { });
+
+        int[] roots = result.roots();
+        for (int g = 0; g < groups; g++) {
+            for (int c = 1; c < copies; c++) {
+                assertEquals(roots[g * copies], roots[g * copies + c], "groupe " + g);
+            }
+            // Le représentant est le plus petit indice du groupe
+            assertEquals(g * copies, roots[g * copies]);
+        }
+        for (int i = groups * copies; i < hashes.length; i++) {
+            assertEquals(i, roots[i], "hash aléatoire " + i + " regroupé à tort");
+        }
+    }
+
+    @Test
+    void matchesBruteForceConnectedComponents() {
+        Random random = new Random(7);
+        long[] hashes = new long[3_000];
+        for (int i = 0; i < hashes.length; i++) {
+            // Dérive depuis un hash précédent : chaînes de voisins et distances proches du seuil
+            hashes[i] = i > 0 && random.nextInt(3) > 0
+                    ? flipBits(hashes[random.nextInt(i)], random.nextInt(9), random)
+                    : random.nextLong();
+        }
+
+        int maxDistance = 5;
+        int[] roots = new NearDuplicateClustering(maxDistance, 6, 20_000)
+                .cluster(hashes, pool, (band, bands, done, total) -> { }).roots();
+
+        int[] expected = bruteForce(hashes, maxDistance);
+        for (int i = 0; i < hashes.length; i++) {
+            assertEquals(expected[i], roots[i], "hash " + i);
+        }
+    }
+
+    @Test
+    void skipsOversizedBucketsAndReportsProgress() {
+        long[] hashes = new long[100];
+        int[] lastBand = {-1};
+        NearDuplicateClustering.Result result = new NearDuplicateClustering(6, 7, 50)
+                .cluster(hashes, pool, (band, bands, done, total) -> lastBand[0] = band);
+
+        // Tous les hashes nuls tombent dans le même seau, trop gros pour chaque bande
+        assertEquals(7, result.skippedBuckets());
+        assertEquals(0, result.comparedPairs());
+        assertEquals(6, lastBand[0]);
+        assertThrows(IllegalArgumentException.class, () -> new NearDuplicateClustering(6, 1, 50));
+    }
+
+    private static long flipBits(long hash, int count, Random random) {
+        long result = hash;
+        while (Long.bitCount(result ^ hash) < count) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+
+    private static int[] bruteForce(long[] hashes, int maxDistance) {
+        int[] parent = new int[hashes.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            for (int j = i + 1; j < hashes.length; j++) {
+                if (NearDuplicateClustering.distance(hashes[i], hashes[j]) <= maxDistance) {
+                    int a = find(parent, i);
+                    int b = find(parent, j);
+                    parent[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+        int[] roots = new int[hashes.length];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = find(parent, i);
+        }
+        return roots;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,123 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// If-None-Match : 304 tant que rien n'a changé, nouvel ETag et corps complet après une écriture
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Long imageId;
+
+    @BeforeEach
+    void seed() {
+        user = userRepository.findByUsername("user").orElseThrow();
+        imageId = imageRepository.save(image("conditionnel.png")).getId();
+    }
+
+    @AfterEach
+    void clean() {
+        imageRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void imageIsRevalidatedUntilItChanges() throws Exception {
+        String path = "/api/images/" + imageId;
+        String etag = fetch(path);
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        Image image = imageRepository.findById(imageId).orElseThrow();
+        image.setAnalysisStatus("COMPLETED");
+        imageRepository.save(image);
+
+        String updated = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updated);
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void adminListingChangesWithAnyImageWrite() throws Exception {
+        String etag = fetch("/api/images");
+
+        mockMvc.perform(get("/api/images").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        // Image modifiée : la somme des versions change
+        Image image = imageRepository.findById(imageId).orElseThrow();
+        image.setAnalysisStatus("FAILED");
+        imageRepository.save(image);
+        String modified = mockMvc.perform(get("/api/images").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, modified);
+
+        // Image ajoutée : le nombre et l'id maximal changent
+        imageRepository.save(image("ajoutee.png"));
+        String added = mockMvc.perform(get("/api/images").header(HttpHeaders.IF_NONE_MATCH, modified))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(modified, added);
+        mockMvc.perform(get("/api/images").header(HttpHeaders.IF_NONE_MATCH, added))
+                .andExpect(status().isNotModified());
+    }
+
+    private String fetch(String path) throws Exception {
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+        return etag;
+    }
+
+    private Image image(String filename) {
+        Image image = new Image();
+        image.setFilename(filename);
+        image.setUser(user);
+        image.setUploadTimestamp(LocalDateTime.now());
+        image.setAnalysisStatus("PENDING");
+        return image;
+    }
+}
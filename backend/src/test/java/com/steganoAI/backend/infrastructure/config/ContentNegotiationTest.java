@@ -0,0 +1,108 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UserRepository;
+import com.steganoAI.backend.infrastructure.service.GalleryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// CBOR et Smile demandés par Accept : même contenu que le JSON, encodé dans le format demandé
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentNegotiationTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final CBORMapper cbor = new CBORMapper();
+    private final SmileMapper smile = new SmileMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GalleryCache galleryCache;
+
+    private Long imageId;
+
+    @BeforeEach
+    void seed() {
+        User user = userRepository.findByUsername("user").orElseThrow();
+        Image image = new Image();
+        image.setFilename("negotiated.png");
+        image.setUser(user);
+        image.setUploadTimestamp(LocalDateTime.now());
+        image.setAnalysisStatus("COMPLETED");
+        image.setAiConfidence(0.42);
+        imageId = imageRepository.save(image).getId();
+        galleryCache.clear();
+    }
+
+    @AfterEach
+    void clean() {
+        imageRepository.deleteById(imageId);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void imageIsServedAsCborAndSmile() throws Exception {
+        assertSameContentInEveryFormat("/api/images/" + imageId);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void myImagesIsServedAsCborAndSmile() throws Exception {
+        JsonNode images = assertSameContentInEveryFormat("/api/images/my-images");
+        assertEquals("negotiated.png", images.get(0).get("filename").asText());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void usersAreServedAsCborAndSmile() throws Exception {
+        JsonNode users = assertSameContentInEveryFormat("/api/users");
+        assertTrue(users.size() >= 2);
+    }
+
+    private JsonNode assertSameContentInEveryFormat(String path) throws Exception {
+        JsonNode expected = json.readTree(read(path, MediaType.APPLICATION_JSON));
+        assertEquals(expected, cbor.readTree(read(path, MediaType.APPLICATION_CBOR)));
+        assertEquals(expected, smile.readTree(read(path, SMILE)));
+        return expected;
+    }
+
+    private byte[] read(String path, MediaType type) throws Exception {
+        byte[] body = mockMvc.perform(get(path).accept(type))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertTrue(body.length > 0);
+        return body;
+    }
+}
@@ -0,0 +1,215 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.application.service.ImageApplicationService;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UserRepository;
+import com.steganoAI.backend.infrastructure.service.GalleryCache;
+import com.steganoAI.backend.infrastructure.service.QueryStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryCountFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ImageApplicationService imageApplicationService;
+
+    @Autowired
+    private GalleryCache galleryCache;
+
+    @BeforeEach
+    void seed() {
+        User user = userRepository.findByUsername("user").orElseThrow();
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        for (int i = 0; i < 5; i++) {
+            imageRepository.save(image(user, "user_" + i + ".png"));
+            imageRepository.save(image(admin, "admin_" + i + ".png"));
+        }
+        // Cache de second niveau vidé : chaque chargement d'utilisateur irait en base (N+1 visible)
+        entityManagerFactory.getCache().evictAll();
+        // Images insérées par le repository, sans passer par l'invalidation du service
+        galleryCache.clear();
+    }
+
+    @AfterEach
+    void clean() {
+        imageRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void myImagesStaysWithinBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/images/my-images"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.atMost(2))
+                .andExpect(SqlBudget.noWrites())
+                .andExpect(header().exists(QueryCountFilter.QUERY_COUNT_HEADER))
+                .andReturn();
+
+        QueryStatistics.Snapshot statistics = SqlBudget.statistics(result);
+        assertTrue(statistics.rows() >= 5, "lignes lues : " + statistics.rows());
+        assertEquals(Integer.toString(statistics.queries()),
+                result.getResponse().getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void myImagesIsServedFromCacheUntilTheUserWrites() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/images/my-images"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult cached = mockMvc.perform(get("/api/images/my-images"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.atMost(0))
+                .andReturn();
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), cached.getResponse().getContentAsByteArray());
+        mockMvc.perform(get("/api/images/my-images").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(SqlBudget.atMost(0));
+
+        imageApplicationService.startStreamedUpload("user_5.png", "user");
+        mockMvc.perform(get("/api/images/my-images").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void myImagesHonoursBinaryFormatsInsteadOfTheCachedJson() throws Exception {
+        String jsonEtag = mockMvc.perform(get("/api/images/my-images"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        for (MediaType type : List.of(MediaType.APPLICATION_CBOR, MediaType.parseMediaType("application/x-jackson-smile"))) {
+            MvcResult binary = mockMvc.perform(get("/api/images/my-images").accept(type))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(type))
+                    .andReturn();
+            assertNotEquals(jsonEtag, binary.getResponse().getHeader(HttpHeaders.ETAG));
+            assertNotEquals('[', binary.getResponse().getContentAsByteArray()[0]);
+        }
+        // JSON moins prioritaire que CBOR : CBOR
+        mockMvc.perform(get("/api/images/my-images").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/api/images/my-images").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, */*"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, jsonEtag));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void myImagesFiltersByUploadPeriod() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        mockMvc.perform(get("/api/images/my-images")
+                        .param("from", now.minusHours(1).toString())
+                        .param("to", now.plusHours(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(SqlBudget.atMost(2));
+        mockMvc.perform(get("/api/images/my-images").param("to", now.minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/images/my-images")
+                        .param("from", now.toString())
+                        .param("to", now.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void galleryPageIsServedFromCacheUntilTheUserWrites() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/images/my-images/page").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.page.totalElements").value(5))
+                .andExpect(SqlBudget.atMost(2))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Octets gardés : ni requête ni sérialisation
+        MvcResult cached = mockMvc.perform(get("/api/images/my-images/page").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.atMost(0))
+                .andReturn();
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), cached.getResponse().getContentAsByteArray());
+        mockMvc.perform(get("/api/images/my-images/page").param("size", "3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(SqlBudget.atMost(0));
+
+        imageApplicationService.startStreamedUpload("user_5.png", "user");
+        mockMvc.perform(get("/api/images/my-images/page").param("size", "3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].filename").value("user_5.png"))
+                .andExpect(jsonPath("$.page.totalElements").value(6));
+        mockMvc.perform(get("/api/images/my-images/page").param("size", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void adminListingLoadsOwnersWithoutExtraQueries() throws Exception {
+        mockMvc.perform(get("/api/images"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.atMost(2));
+        mockMvc.perform(get("/api/images/steganography"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.atMost(2));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void exceededBudgetFailsTheTest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/images/my-images")).andReturn();
+
+        assertThrows(AssertionError.class, () -> SqlBudget.atMost(0).match(result));
+    }
+
+    private static Image image(User user, String filename) {
+        Image image = new Image();
+        image.setUser(user);
+        image.setFilename(filename);
+        image.setAnalysisStatus("COMPLETED");
+        image.setHasSteganography(true);
+        image.setUploadTimestamp(LocalDateTime.now());
+        return image;
+    }
+}
@@ -0,0 +1,116 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.application.service.UserApplicationService;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.service.UserDomainService;
+import com.steganoAI.backend.infrastructure.config.ReadWriteRoutingDataSource.Target;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+    private final ReplicaProperties properties = new ReplicaProperties();
+    private final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(mock(DataSource.class), Duration.ofSeconds(10));
+    private ReadYourWritesTracker tracker;
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        properties.setReadYourWritesWindow(Duration.ofMillis(200));
+        tracker = new ReadYourWritesTracker(properties);
+        routing = new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), lagMonitor, tracker);
+        lagMonitor.update(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void writesAndNonTransactionalCallsUsePrimary() {
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+
+        inTransaction(false);
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        inTransaction(true);
+        assertEquals(Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryWithHysteresis() {
+        inTransaction(true);
+
+        lagMonitor.update(12);
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+
+        // Sous le seuil mais au-dessus de sa moitié : on reste sur la primaire
+        lagMonitor.update(8);
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+
+        lagMonitor.update(1);
+        assertEquals(Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryDuringWindow() throws InterruptedException {
+        inTransaction(true);
+        authenticate("alice");
+        tracker.recordWrite("alice");
+
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+
+        authenticate("bob");
+        assertEquals(Target.REPLICA, routing.determineCurrentLookupKey());
+
+        authenticate("alice");
+        Thread.sleep(250);
+        assertEquals(Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void newAccountIsReadFromPrimaryDuringWindow() {
+        UserDomainService userDomainService = mock(UserDomainService.class);
+        when(userDomainService.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        UserApplicationService users = new UserApplicationService(userDomainService, mock(PasswordEncoder.class), tracker);
+        User user = new User();
+        user.setUsername("carol");
+        user.setPassword("secret");
+
+        users.createUser(user);
+
+        // Connexion : authentifié avant la lecture du compte (AuthController.login)
+        inTransaction(true);
+        authenticate("carol");
+        assertEquals(Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
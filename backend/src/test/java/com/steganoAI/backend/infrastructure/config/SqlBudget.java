@@ -0,0 +1,39 @@
+package com.steganoAI.backend.infrastructure.config;
+
+import com.steganoAI.backend.infrastructure.service.QueryStatistics;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Budgets SQL par endpoint pour MockMvc : mockMvc.perform(...).andExpect(SqlBudget.atMost(2)).
+// S'appuie sur le bilan déposé par QueryCountFilter : un N+1 fait échouer le test.
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static ResultMatcher atMost(int queries) {
+        return result -> {
+            QueryStatistics.Snapshot statistics = statistics(result);
+            assertTrue(statistics.queries() <= queries, () -> "Budget SQL dépassé pour "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " : " + statistics.queries() + " requêtes (max " + queries + "), " + statistics);
+        };
+    }
+
+    public static ResultMatcher noWrites() {
+        return result -> {
+            QueryStatistics.Snapshot statistics = statistics(result);
+            assertTrue(statistics.inserts() + statistics.updates() + statistics.deletes() == 0,
+                    () -> "Écritures inattendues pour " + result.getRequest().getRequestURI() + " : " + statistics);
+        };
+    }
+
+    public static QueryStatistics.Snapshot statistics(MvcResult result) {
+        Object statistics = result.getRequest().getAttribute(QueryCountFilter.STATISTICS_ATTRIBUTE);
+        assertNotNull(statistics, "Aucun bilan SQL : QueryCountFilter inactif ?");
+        return (QueryStatistics.Snapshot) statistics;
+    }
+}
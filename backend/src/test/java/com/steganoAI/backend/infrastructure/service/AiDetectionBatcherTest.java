@@ -0,0 +1,316 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiDetectionBatcherTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<AiDetectionBatcher> batchers = new ArrayList<>();
+    private HttpServer server;
+    private final AtomicInteger singleDetections = new AtomicInteger();
+    private long batchDelayMillis = 40;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void stop() {
+        batchers.forEach(AiDetectionBatcher::shutdown);
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void lonelyRequestIsSentWithoutWaiting() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        AiDetectionBatcher batcher = batcher(settings(16, Duration.ofSeconds(5)), echo(batchSizes, 0));
+
+        long start = System.nanoTime();
+        Map<String, Object> result = batcher.submit(image("seule")).join();
+
+        assertEquals("seule", result.get("image"));
+        assertEquals(List.of(1), batchSizes);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+    }
+
+    @Test
+    void concurrentRequestsAreGroupedAndFannedOutInOrder() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        // Un seul lot à la fois et un appel lent : les demandes s'accumulent pendant l'envoi
+        FlaskProperties.Batching settings = settings(8, Duration.ofMillis(50));
+        settings.setMaxInFlightBatches(1);
+        AiDetectionBatcher batcher = batcher(settings, echo(batchSizes, 50));
+
+        List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(batcher.submit(image("image-" + i)));
+            Thread.sleep(2);
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("image-" + i, results.get(i).get(5, TimeUnit.SECONDS).get("image"));
+        }
+        assertEquals(40, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 20, "lots : " + batchSizes);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 8), "lots : " + batchSizes);
+        assertTrue(meterRegistry.get("flask.ai.batch.fill").summary().mean() > 1.0 / 8);
+        assertEquals(40, meterRegistry.get("flask.ai.batch.queue.wait").timer().count());
+    }
+
+    @Test
+    void batchFailureIsPropagatedToEveryWaitingRequest() {
+        AiDetectionBatcher batcher = batcher(settings(4, Duration.ofMillis(20)), images -> {
+            throw new IllegalStateException("Flask indisponible");
+        });
+
+        CompletableFuture<Map<String, Object>> first = batcher.submit(image("a"));
+        CompletableFuture<Map<String, Object>> second = batcher.submit(image("b"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    @Test
+    void incompleteBatchResponseFailsTheBatch() {
+        AiDetectionBatcher batcher = batcher(settings(4, Duration.ofMillis(20)), images -> List.of());
+
+        CompletionException e = assertThrows(CompletionException.class, () -> batcher.submit(image("a")).join());
+        assertTrue(e.getCause().getMessage().contains("incomplète"));
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FlaskProperties.Batching settings = settings(1, Duration.ZERO);
+        settings.setMaxInFlightBatches(1);
+        settings.setMaxQueuedRequests(2);
+        AiDetectionBatcher batcher = batcher(settings, images -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(Map.of("image", content(images.get(0))));
+        });
+
+        // "a" en cours d'envoi, "b" retenue par le dispatcher faute de jeton, "c" et "d" en file
+        List<CompletableFuture<Map<String, Object>>> accepted = new ArrayList<>();
+        accepted.add(batcher.submit(image("a")));
+        sleep(100);
+        accepted.add(batcher.submit(image("b")));
+        sleep(100);
+        accepted.add(batcher.submit(image("c")));
+        accepted.add(batcher.submit(image("d")));
+        CompletableFuture<Map<String, Object>> overflow = batcher.submit(image("e"));
+
+        assertTrue(overflow.isCompletedExceptionally());
+        CompletionException error = assertThrows(CompletionException.class, overflow::join);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(1.0, meterRegistry.get("flask.ai.batch.rejected").counter().count());
+        release.countDown();
+        for (CompletableFuture<Map<String, Object>> result : accepted) {
+            assertNotNull(result.get(10, TimeUnit.SECONDS).get("image"));
+        }
+    }
+
+    @Test
+    void uploadsFallBackToSingleCallsWhenTheQueueIsFull() throws Exception {
+        AtomicInteger uploads = new AtomicInteger();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        batchDelayMillis = 300;
+        String baseUrl = startStub(uploads, batchSizes);
+
+        FlaskProperties properties = new FlaskProperties();
+        properties.setBaseUrls(List.of(baseUrl));
+        properties.getHealthCheck().setEnabled(false);
+        properties.getBatching().setEnabled(true);
+        properties.getBatching().setMaxInFlightBatches(1);
+        properties.getBatching().setMaxQueuedRequests(1);
+        BufferPoolProperties bufferProperties = new BufferPoolProperties();
+        bufferProperties.setLeakDetection(true);
+        DirectBufferPool bufferPool = new DirectBufferPool(bufferProperties, meterRegistry);
+        FlaskIntegrationService service = new FlaskIntegrationService(new FlaskEndpointPool(properties), properties,
+                new ImagePreprocessor(properties, bufferPool, meterRegistry), bufferPool, meterRegistry);
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                MockMultipartFile file = new MockMultipartFile("file", "image-" + i + ".png", "image/png",
+                        ("image-" + i).getBytes(StandardCharsets.UTF_8));
+                results.add(clients.submit(() -> service.uploadAndAnalyzeImage(file)));
+            }
+            for (Future<Map<String, Object>> result : results) {
+                Map<?, ?> analysis = (Map<?, ?>) result.get(10, TimeUnit.SECONDS).get("analysis");
+                Map<?, ?> aiDetection = (Map<?, ?>) analysis.get("ai_detection");
+                assertEquals(0.5, ((Number) aiDetection.get("confidence")).doubleValue());
+            }
+        } finally {
+            clients.shutdownNow();
+            service.shutdown();
+        }
+
+        // Chaque image a sa détection : par lot tant que la file a de la place, sinon individuellement
+        assertTrue(singleDetections.get() > 0, "appels individuels : " + singleDetections.get());
+        assertEquals(8, singleDetections.get() + batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(List.of(), bufferPool.getLeaks());
+    }
+
+    @Test
+    void concurrentUploadsShareBatchCallsToStubEndpoint() throws Exception {
+        AtomicInteger uploads = new AtomicInteger();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        String baseUrl = startStub(uploads, batchSizes);
+
+        FlaskProperties properties = new FlaskProperties();
+        properties.setBaseUrls(List.of(baseUrl));
+        properties.getHealthCheck().setEnabled(false);
+        properties.getBatching().setEnabled(true);
+        properties.getBatching().setMaxInFlightBatches(1);
+        BufferPoolProperties bufferProperties = new BufferPoolProperties();
+        bufferProperties.setLeakDetection(true);
+        DirectBufferPool bufferPool = new DirectBufferPool(bufferProperties, meterRegistry);
+        FlaskIntegrationService service = new FlaskIntegrationService(new FlaskEndpointPool(properties), properties,
+                new ImagePreprocessor(properties, bufferPool, meterRegistry), bufferPool, meterRegistry);
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.toString());
+
+        ExecutorService clients = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 24; i++) {
+                MockMultipartFile file = new MockMultipartFile("file", "image-" + i + ".png", "image/png",
+                        ("image-" + i).getBytes(StandardCharsets.UTF_8));
+                results.add(clients.submit(() -> service.uploadAndAnalyzeImage(file)));
+            }
+            for (Future<Map<String, Object>> result : results) {
+                Map<?, ?> analysis = (Map<?, ?>) result.get(10, TimeUnit.SECONDS).get("analysis");
+                Map<?, ?> aiDetection = (Map<?, ?>) analysis.get("ai_detection");
+                assertEquals(0.5, ((Number) aiDetection.get("confidence")).doubleValue());
+            }
+        } finally {
+            clients.shutdownNow();
+            service.shutdown();
+        }
+
+        assertEquals(24, uploads.get());
+        assertEquals(24, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 24, "lots : " + batchSizes);
+        assertEquals(List.of(), bufferPool.getLeaks());
+    }
+
+    private String startStub(AtomicInteger uploads, List<Integer> batchSizes) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/api/v2/upload", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            // La détection IA part dans les lots, pas avec l'original
+            if ("skip_ai_detection=true".equals(exchange.getRequestURI().getQuery())) {
+                uploads.incrementAndGet();
+            }
+            respond(exchange, "{\"analysis\":{\"ai_detection\":{\"skipped\":true}}}");
+        });
+        server.createContext("/api/v2/detect_ai_batch", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+            Matcher parts = Pattern.compile("name=\"files\"").matcher(body);
+            int count = 0;
+            while (parts.find()) {
+                count++;
+            }
+            batchSizes.add(count);
+            sleep(batchDelayMillis);
+            respond(exchange, "{\"results\":[" + String.join(",",
+                    Collections.nCopies(count, "{\"ai_detection\":{\"confidence\":0.5}}")) + "]}");
+        });
+        server.createContext("/api/v2/detect_ai", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            singleDetections.incrementAndGet();
+            respond(exchange, "{\"ai_detection\":{\"confidence\":0.5}}");
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] response = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private AiDetectionBatcher batcher(FlaskProperties.Batching settings,
+                                       Function<List<Resource>, List<Map<String, Object>>> sender) {
+        AiDetectionBatcher batcher = new AiDetectionBatcher(settings, sender, meterRegistry);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    private static FlaskProperties.Batching settings(int maxBatchSize, Duration maxLinger) {
+        FlaskProperties.Batching settings = new FlaskProperties.Batching();
+        settings.setEnabled(true);
+        settings.setMaxBatchSize(maxBatchSize);
+        settings.setMaxLinger(maxLinger);
+        return settings;
+    }
+
+    // Renvoie pour chaque image son propre nom, pour vérifier la redistribution des résultats
+    private static Function<List<Resource>, List<Map<String, Object>>> echo(List<Integer> batchSizes, long delayMillis) {
+        return images -> {
+            batchSizes.add(images.size());
+            sleep(delayMillis);
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (Resource image : images) {
+                results.add(Map.of("image", content(image)));
+            }
+            return results;
+        };
+    }
+
+    private static String content(Resource image) {
+        try {
+            return new String(image.getContentAsByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Resource image(String name) {
+        return new ByteArrayResource(name.getBytes(StandardCharsets.UTF_8), name);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.AnalysisSchedulerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisSchedulerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private AnalysisScheduler scheduler;
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void interactiveVerifyOvertakesQueuedBulkUploads() throws Exception {
+        scheduler = singleWorker(new AnalysisSchedulerProperties());
+        CountDownLatch blocking = occupyWorker();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(scheduler.submit(AnalysisPriority.BACKGROUND, "bulk", record("bulk-" + i)));
+        }
+        results.add(scheduler.submit(AnalysisPriority.UPLOAD, "alice", record("upload")));
+        results.add(scheduler.submit(AnalysisPriority.INTERACTIVE, "bob", record("verify")));
+        assertEquals(3, scheduler.getQueueDepth(AnalysisPriority.BACKGROUND));
+
+        blocking.await();
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("verify", "upload", "bulk-0", "bulk-1", "bulk-2"), executed);
+        assertEquals(3, meterRegistry.get("analysis.queue.wait").tag("priority", "background").timer().count());
+        assertEquals(0, scheduler.getQueueDepth(AnalysisPriority.BACKGROUND));
+    }
+
+    @Test
+    void usersShareTheirClassFairly() throws Exception {
+        scheduler = singleWorker(new AnalysisSchedulerProperties());
+        CountDownLatch blocking = occupyWorker();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(scheduler.submit(AnalysisPriority.UPLOAD, "flood", record("flood-" + i)));
+        }
+        results.add(scheduler.submit(AnalysisPriority.UPLOAD, "alice", record("alice-0")));
+        results.add(scheduler.submit(AnalysisPriority.UPLOAD, "alice", record("alice-1")));
+
+        blocking.await();
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Les deux analyses d'alice passent entre celles de l'utilisateur qui inonde la file
+        assertTrue(executed.indexOf("alice-0") <= 2, "ordre : " + executed);
+        assertTrue(executed.indexOf("alice-1") <= 4, "ordre : " + executed);
+        assertTrue(executed.indexOf("flood-0") < executed.indexOf("flood-9"));
+    }
+
+    @Test
+    void weightedUserGetsLargerShare() throws Exception {
+        AnalysisSchedulerProperties properties = new AnalysisSchedulerProperties();
+        properties.getUserWeights().put("premium", 3.0);
+        scheduler = singleWorker(properties);
+        CountDownLatch blocking = occupyWorker();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(scheduler.submit(AnalysisPriority.UPLOAD, "standard", record("standard")));
+            results.add(scheduler.submit(AnalysisPriority.UPLOAD, "premium", record("premium")));
+        }
+
+        blocking.await();
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        long premiumFirst = executed.subList(0, 8).stream().filter("premium"::equals).count();
+        assertTrue(premiumFirst >= 5, "ordre : " + executed);
+    }
+
+    @Test
+    void fullUserQueueIsRejectedWithoutAffectingOthers() throws Exception {
+        AnalysisSchedulerProperties properties = new AnalysisSchedulerProperties();
+        properties.setPerUserQueueCapacity(2);
+        scheduler = singleWorker(properties);
+        CountDownLatch blocking = occupyWorker();
+        blocking.await();
+
+        scheduler.submit(AnalysisPriority.UPLOAD, "flood", record("a"));
+        scheduler.submit(AnalysisPriority.UPLOAD, "flood", record("b"));
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                () -> scheduler.submit(AnalysisPriority.UPLOAD, "flood", record("c")));
+
+        assertEquals(AnalysisRejectedException.Reason.QUEUE_FULL, e.getReason());
+        assertNotNull(scheduler.submit(AnalysisPriority.UPLOAD, "alice", record("d")));
+        assertEquals(1.0, meterRegistry.get("analysis.rejected")
+                .tag("priority", "upload").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void analysisNotStartedBeforeDeadlineIsDropped() throws Exception {
+        AnalysisSchedulerProperties properties = new AnalysisSchedulerProperties();
+        properties.setBackgroundDeadline(Duration.ofMillis(50));
+        scheduler = singleWorker(properties);
+        CountDownLatch blocking = occupyWorker();
+        blocking.await();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> late = scheduler.submit(AnalysisPriority.BACKGROUND, "bulk", () -> {
+            ran.set(true);
+            return "trop tard";
+        });
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> late.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals(AnalysisRejectedException.Reason.DEADLINE_EXCEEDED,
+                ((AnalysisRejectedException) e.getCause()).getReason());
+        assertEquals(0, scheduler.getQueueDepth(AnalysisPriority.BACKGROUND));
+
+        release.countDown();
+        scheduler.submit(AnalysisPriority.UPLOAD, "alice", record("suivante")).get(5, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void failuresAreRethrownToTheCaller() {
+        scheduler = singleWorker(new AnalysisSchedulerProperties());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> scheduler.execute(AnalysisPriority.INTERACTIVE, "alice", () -> {
+                    throw new IllegalStateException("Flask indisponible");
+                }));
+        assertEquals("Flask indisponible", e.getMessage());
+    }
+
+    private AnalysisScheduler singleWorker(AnalysisSchedulerProperties properties) {
+        properties.setWorkers(1);
+        return new AnalysisScheduler(properties, meterRegistry);
+    }
+
+    // Bloque l'unique worker jusqu'à release : les demandes suivantes s'accumulent en file
+    private CountDownLatch occupyWorker() {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(AnalysisPriority.INTERACTIVE, "setup", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "setup";
+        });
+        return started;
+    }
+
+    private Supplier<String> record(String name) {
+        return () -> {
+            executed.add(name);
+            return name;
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectBufferPoolTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DirectBufferPool pool = new DirectBufferPool(properties(), meterRegistry);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reusesBuffersPerSizeClass() {
+        ByteBuffer small;
+        try (DirectBufferPool.Lease lease = pool.acquire(100)) {
+            small = lease.buffer();
+            assertTrue(small.isDirect());
+            assertEquals(1024, small.capacity());
+            small.put((byte) 1);
+        }
+        try (DirectBufferPool.Lease lease = pool.acquire(1024)) {
+            assertSame(small, lease.buffer());
+            assertEquals(0, lease.buffer().position());
+        }
+        // Au-delà de la plus grande classe : le plus grand tampon, la copie se fait en plusieurs passes
+        try (DirectBufferPool.Lease lease = pool.acquire(1_000_000)) {
+            assertEquals(8192, lease.buffer().capacity());
+            assertNotSame(small, lease.buffer());
+        }
+
+        assertEquals(1, meterRegistry.get("buffer.pool.acquire").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("buffer.pool.acquire").tag("result", "miss").counter().count());
+        assertEquals(1024 + 8192, meterRegistry.get("buffer.pool.retained.bytes").gauge().value());
+        assertEquals(0, meterRegistry.get("buffer.pool.leased").gauge().value());
+    }
+
+    @Test
+    void reportsLeasesThatWereNeverReleased() {
+        DirectBufferPool.Lease released = pool.acquire(10);
+        DirectBufferPool.Lease leaked = pool.acquire(5000);
+        released.close();
+        // Deuxième close sans effet : le tampon n'est pas rendu deux fois
+        released.close();
+
+        List<Throwable> leaks = pool.getLeaks();
+        assertEquals(1, leaks.size());
+        assertTrue(leaks.get(0).getMessage().contains("8192"));
+        assertEquals("reportsLeasesThatWereNeverReleased", leaks.get(0).getStackTrace()[1].getMethodName());
+        assertEquals(1, pool.getLeasedCount());
+        assertThrows(IllegalStateException.class, released::buffer);
+
+        leaked.close();
+        assertEquals(List.of(), pool.getLeaks());
+    }
+
+    @Test
+    void copiesAndHashesStreamsLargerThanTheBuffer() throws Exception {
+        byte[] data = new byte[50_000];
+        new Random(7).nextBytes(data);
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", data);
+
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        try (InputStream in = file.getInputStream()) {
+            pool.update(md5, in);
+        }
+        assertEquals(DigestUtils.md5DigestAsHex(data), HexFormat.of().formatHex(md5.digest()));
+
+        Path path = tempDir.resolve("image.png");
+        pool.copy(file, path);
+        assertArrayEquals(data, Files.readAllBytes(path));
+        // Fichier déjà sur disque : copie par le noyau
+        Path copy = tempDir.resolve("copie.png");
+        pool.copy(new PathMultipartFile(path, "image.png"), copy);
+        assertArrayEquals(data, Files.readAllBytes(copy));
+        // Condensé et copies vers un fichier : aucun tampon direct emprunté
+        assertEquals(0, meterRegistry.get("buffer.pool.acquire").tag("result", "miss").counter().count());
+
+        // Envoi à Flask : InputStream.transferTo du corps multipart passe par le pool
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = new PooledFileResource(path, pool).getInputStream()) {
+            assertEquals(data.length, in.transferTo(body));
+        }
+        assertArrayEquals(data, body.toByteArray());
+        assertEquals(List.of(), pool.getLeaks());
+    }
+
+    private static BufferPoolProperties properties() {
+        BufferPoolProperties properties = new BufferPoolProperties();
+        properties.setSizeClasses(List.of(DataSize.ofBytes(1024), DataSize.ofBytes(8192)));
+        properties.setMaxRetainedPerClass(2);
+        properties.setLeakDetection(true);
+        return properties;
+    }
+}
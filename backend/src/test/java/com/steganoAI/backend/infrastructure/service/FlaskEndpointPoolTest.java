@@ -0,0 +1,141 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlaskEndpointPoolTest {
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final RestTemplate restTemplate = restTemplate();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void spreadsRequestsAcrossHealthyInstances() throws IOException {
+        Map<String, AtomicInteger> hits = new HashMap<>();
+        FlaskEndpointPool pool = new FlaskEndpointPool(properties(
+                stub(200, hits), stub(200, hits), stub(200, hits)));
+
+        for (int i = 0; i < 300; i++) {
+            pool.execute(null, this::callTest);
+        }
+
+        assertEquals(3, hits.size());
+        hits.values().forEach(count -> assertTrue(count.get() > 30, "répartition trop déséquilibrée: " + hits));
+    }
+
+    @Test
+    void ejectsInstanceAfterConsecutiveFailures() throws IOException {
+        Map<String, AtomicInteger> hits = new HashMap<>();
+        String failing = stub(500, hits);
+        FlaskEndpointPool pool = new FlaskEndpointPool(properties(failing, stub(200, hits), stub(200, hits)));
+
+        int errors = 0;
+        for (int i = 0; i < 100; i++) {
+            try {
+                pool.execute(null, this::callTest);
+            } catch (HttpServerErrorException e) {
+                errors++;
+            }
+        }
+
+        // Trois échecs consécutifs suffisent à écarter l'instance défaillante
+        assertEquals(3, errors);
+        assertEquals(3, hits.get(failing).get());
+        FlaskEndpoint ejected = pool.getEndpoints().stream()
+                .filter(endpoint -> endpoint.getBaseUrl().equals(failing))
+                .findFirst().orElseThrow();
+        assertTrue(ejected.isEjected(System.nanoTime()));
+    }
+
+    @Test
+    void retriesOnAnotherInstanceWhenConnectionIsRefused() throws IOException {
+        Map<String, AtomicInteger> hits = new HashMap<>();
+        // Aucun service n'écoute sur le port 1 : connexion refusée
+        FlaskEndpointPool pool = new FlaskEndpointPool(properties("http://127.0.0.1:1", stub(200, hits)));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("ok", pool.execute(null, this::callTest));
+        }
+    }
+
+    @Test
+    void stickyKeyKeepsImageOnSameInstance() throws IOException {
+        Map<String, AtomicInteger> hits = new HashMap<>();
+        FlaskEndpointPool pool = new FlaskEndpointPool(properties(
+                stub(200, hits), stub(200, hits), stub(200, hits)));
+
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            chosen.add(pool.execute("5d41402abc4b2a76b9719d911017c592", baseUrl -> baseUrl));
+        }
+
+        assertEquals(1, chosen.size());
+    }
+
+    @Test
+    void activeHealthCheckRemovesUnreachableInstance() throws IOException {
+        Map<String, AtomicInteger> hits = new HashMap<>();
+        String healthy = stub(200, hits);
+        FlaskEndpointPool pool = new FlaskEndpointPool(properties(healthy, "http://127.0.0.1:1"));
+
+        pool.checkHealth();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(healthy, pool.execute(null, baseUrl -> baseUrl));
+        }
+    }
+
+    private static RestTemplate restTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(500));
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        return new RestTemplate(requestFactory);
+    }
+
+    private String callTest(String baseUrl) {
+        return restTemplate.getForObject(baseUrl + "/api/v2/test", String.class);
+    }
+
+    private FlaskProperties properties(String... urls) {
+        FlaskProperties properties = new FlaskProperties();
+        properties.setBaseUrls(List.of(urls));
+        properties.getHealthCheck().setTimeout(Duration.ofMillis(500));
+        return properties;
+    }
+
+    private String stub(int status, Map<String, AtomicInteger> hits) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        AtomicInteger counter = new AtomicInteger();
+        hits.put(url, counter);
+        server.createContext("/api/v2/test", exchange -> {
+            counter.incrementAndGet();
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return url;
+    }
+}
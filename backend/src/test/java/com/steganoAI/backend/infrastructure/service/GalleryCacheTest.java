@@ -0,0 +1,93 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.infrastructure.config.GalleryCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GalleryCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GalleryCache cache = new GalleryCache(properties(), new ObjectMapper(), meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesStoredBytesUntilInvalidated() {
+        GalleryCache.CachedPage first = cache.get("alice", 0, 10, () -> page("a"));
+        GalleryCache.CachedPage second = cache.get("alice", 0, 10, () -> page("b"));
+        assertSame(first, second);
+        assertEquals("[\"a\",1]", new String(second.body()));
+        assertEquals(1, loads.get());
+        // Autre taille de page : autre entrée
+        cache.get("alice", 0, 20, () -> page("a"));
+        assertEquals(2, loads.get());
+
+        cache.invalidate("alice");
+        assertEquals(0, cache.getBytes());
+        GalleryCache.CachedPage reloaded = cache.get("alice", 0, 10, () -> page("c"));
+        assertEquals("[\"c\",3]", new String(reloaded.body()));
+        assertNotEquals(first.etag(), reloaded.etag());
+
+        assertEquals(1, meterRegistry.get("gallery.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(3, meterRegistry.get("gallery.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(first.body().length, meterRegistry.get("gallery.cache.served").counter().count());
+        assertEquals(0.25, meterRegistry.get("gallery.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void pageLoadedDuringAnInvalidationIsNotKept() {
+        cache.get("alice", 0, 10, () -> {
+            // Écriture de l'utilisateur pendant la lecture : la page lue peut être périmée
+            cache.invalidate("alice");
+            return page("stale");
+        });
+        cache.get("alice", 0, 10, () -> page("fresh"));
+        assertEquals(2, loads.get());
+        assertEquals("[\"fresh\",2]", new String(cache.get("alice", 0, 10, () -> page("x")).body()));
+    }
+
+    @Test
+    void evictsLeastRecentlyServedUsersBeyondMaxBytes() {
+        // 30 octets par page, 100 au plus : la quatrième page évince l'utilisateur le moins récemment servi
+        cache.get("alice", 0, 10, () -> padded(30));
+        cache.get("bob", 0, 10, () -> padded(30));
+        cache.get("carol", 0, 10, () -> padded(30));
+        cache.get("alice", 0, 10, () -> padded(30));
+        cache.get("dave", 0, 10, () -> padded(30));
+        assertEquals(90, cache.getBytes());
+        assertEquals(1, meterRegistry.get("gallery.cache.evictions").counter().count());
+
+        int before = loads.get();
+        cache.get("alice", 0, 10, () -> padded(30));
+        assertEquals(before, loads.get());
+        cache.get("bob", 0, 10, () -> padded(30));
+        assertEquals(before + 1, loads.get());
+
+        // Au-delà de max-entry-bytes : servie sans être gardée
+        cache.get("erin", 0, 10, () -> padded(80));
+        cache.get("erin", 0, 10, () -> padded(80));
+        assertEquals(before + 3, loads.get());
+    }
+
+    private List<Object> page(String name) {
+        return List.of(name, loads.incrementAndGet());
+    }
+
+    // Chaîne JSON de exactement `bytes` octets
+    private String padded(int bytes) {
+        loads.incrementAndGet();
+        return "x".repeat(bytes - 2);
+    }
+
+    private static GalleryCacheProperties properties() {
+        GalleryCacheProperties properties = new GalleryCacheProperties();
+        properties.setMaxBytes(DataSize.ofBytes(100));
+        properties.setMaxEntryBytes(DataSize.ofBytes(50));
+        return properties;
+    }
+}
@@ -0,0 +1,206 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.domain.model.IdempotencyRecord;
+import com.steganoAI.backend.domain.repository.IdempotencyRecordRepository;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.service.IdempotencyDomainService;
+import com.steganoAI.backend.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+
+    @Autowired
+    private IdempotencyDomainService idempotencyDomainService;
+
+    @Autowired
+    private DirectBufferPool bufferPool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private FlaskIntegrationService flaskService;
+
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        imageRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void retryWithSameKeyReplaysTheFirstResponse() throws Exception {
+        when(flaskService.uploadAndAnalyzeImage(any(), any())).thenReturn(Map.of("image_path", "uploads/a.png"));
+
+        String first = mockMvc.perform(multipart("/api/images/upload").file(png(16)).header("Idempotency-Key", "a1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(multipart("/api/images/upload").file(png(16)).header("Idempotency-Key", "a1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(1, imageRepository.count());
+        verify(flaskService, times(1)).uploadAndAnalyzeImage(any(), any());
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().get(0);
+        assertEquals("COMPLETED", record.getStatus());
+        assertEquals(first, record.getResponseBody());
+
+        // Même clé, autre fichier : erreur du client, rien n'est exécuté
+        mockMvc.perform(multipart("/api/images/upload").file(png(24)).header("Idempotency-Key", "a1"))
+                .andExpect(status().isUnprocessableEntity());
+        // Sans clé : comportement inchangé
+        mockMvc.perform(multipart("/api/images/upload").file(png(16)))
+                .andExpect(status().isOk());
+        verify(flaskService, times(2)).uploadAndAnalyzeImage(any(), any());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        CountDownLatch inFlask = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(flaskService.addSteganography(any(), any())).thenAnswer(invocation -> {
+            inFlask.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return new SignedImage(Map.of("image_path", "uploads/signed.png"), null);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MvcResult> first = executor.submit(() -> steganography("b1"));
+            assertTrue(inFlask.await(10, TimeUnit.SECONDS));
+            Future<MvcResult> duplicate = executor.submit(() -> steganography("b1"));
+            Thread.sleep(200);
+            assertFalse(duplicate.isDone(), "le doublon attend la première exécution");
+            release.countDown();
+
+            MvcResult original = first.get(10, TimeUnit.SECONDS);
+            MvcResult replayed = duplicate.get(10, TimeUnit.SECONDS);
+            assertEquals(200, replayed.getResponse().getStatus());
+            assertEquals("true", replayed.getResponse().getHeader("Idempotent-Replayed"));
+            assertEquals(original.getResponse().getContentAsString(), replayed.getResponse().getContentAsString());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(flaskService, times(1)).addSteganography(any(), any());
+        assertEquals(1, imageRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void serverErrorReleasesTheKeyForTheNextAttempt() throws Exception {
+        when(flaskService.addSteganography(any(), any()))
+                .thenThrow(new RuntimeException("Flask indisponible"))
+                .thenReturn(new SignedImage(Map.of("image_path", "uploads/signed.png"), null));
+
+        mockMvc.perform(multipart("/api/images/steganography").file(png(16)).header("Idempotency-Key", "c1"))
+                .andExpect(status().isInternalServerError());
+        assertEquals(0, idempotencyRecordRepository.count());
+        mockMvc.perform(multipart("/api/images/steganography").file(png(16)).header("Idempotency-Key", "c1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        verify(flaskService, times(2)).addSteganography(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void bulkReplayKeepsTheLocationHeader() throws Exception {
+        Path staged = Files.createTempFile("bulk", ".png");
+        when(flaskService.stageFile(any())).thenReturn(staged);
+        when(flaskService.uploadAndAnalyzeImage(any(), any())).thenReturn(Map.of("image_path", "uploads/bulk.png"));
+        try {
+            String location = mockMvc.perform(multipart("/api/images/upload").file(png(16)).param("bulk", "true")
+                            .header("Idempotency-Key", "d1"))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+            assertNotNull(location);
+
+            mockMvc.perform(multipart("/api/images/upload").file(png(16)).param("bulk", "true")
+                            .header("Idempotency-Key", "d1"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(header().string(HttpHeaders.LOCATION, location));
+            assertEquals(location, idempotencyRecordRepository.findAll().get(0).getResponseLocation());
+
+            // Autre instance, sans la réponse en mémoire : rejeu depuis la base avec le même Location
+            IdempotencyService otherInstance = new IdempotencyService(idempotencyProperties, idempotencyDomainService,
+                    bufferPool, objectMapper, new SimpleMeterRegistry());
+            ResponseEntity<?> replayed = otherInstance.execute("user", "upload", "d1", png(16),
+                    Map.of("bulk", "true"), () -> fail("requête déjà exécutée"));
+            assertEquals(202, replayed.getStatusCode().value());
+            assertEquals(location, replayed.getHeaders().getFirst(HttpHeaders.LOCATION));
+            assertEquals(1, imageRepository.count());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private MvcResult steganography(String key) throws Exception {
+        return mockMvc.perform(multipart("/api/images/steganography").file(png(16))
+                        .param("signature", "test")
+                        .header("Idempotency-Key", key)
+                        .with(user("user")))
+                .andReturn();
+    }
+
+    private static MockMultipartFile png(int size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new MockMultipartFile("file", "test.png", "image/png", out.toByteArray());
+    }
+}
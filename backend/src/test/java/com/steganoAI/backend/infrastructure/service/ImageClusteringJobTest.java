@@ -0,0 +1,110 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.repository.ImageClusterMemberRepository;
+import com.steganoAI.backend.domain.repository.ImageClusterRepository;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageClusteringJobTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageClusteringJob job;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageClusterRepository imageClusterRepository;
+
+    @Autowired
+    private ImageClusterMemberRepository imageClusterMemberRepository;
+
+    @AfterEach
+    void clean() {
+        imageClusterMemberRepository.deleteAll();
+        imageClusterRepository.deleteAll();
+        imageRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void clustersNearDuplicatesAndExposesThem() throws Exception {
+        User user = userRepository.findByUsername("user").orElseThrow();
+        Image original = imageRepository.save(image(user, "original.png", "f0f0f0f0f0f0f0f0"));
+        Image copy = imageRepository.save(image(user, "copie.png", "f0f0f0f0f0f0f0f3"));
+        imageRepository.save(image(user, "autre.png", "0123456789abcdef"));
+        imageRepository.save(image(user, "sans-hash.png", null));
+
+        mockMvc.perform(post("/api/admin/clusters/jobs")).andExpect(status().isAccepted());
+        ImageClusteringJob.Status finished = awaitCompletion();
+        assertEquals(ImageClusteringJob.State.COMPLETED, finished.state(), finished.error());
+        assertEquals(3, finished.hashes());
+        assertEquals(1, finished.clusters());
+
+        Long clusterId = imageClusterRepository.findAll().get(0).getId();
+        mockMvc.perform(get("/api/admin/clusters"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].memberCount").value(2))
+                .andExpect(jsonPath("$.content[0].representativeImageId").value(original.getId()))
+                .andExpect(jsonPath("$.content[0].maxDistance").value(2));
+        mockMvc.perform(get("/api/admin/clusters/" + clusterId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members[0].imageId").value(original.getId()))
+                .andExpect(jsonPath("$.members[1].imageId").value(copy.getId()))
+                .andExpect(jsonPath("$.members[1].distance").value(2))
+                .andExpect(jsonPath("$.members[1].ownerUsername").value("user"));
+        mockMvc.perform(get("/api/admin/clusters/999999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void clusteringIsAdminOnly() throws Exception {
+        mockMvc.perform(post("/api/admin/clusters/jobs")).andExpect(status().isForbidden());
+    }
+
+    private ImageClusteringJob.Status awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (job.getStatus().state() == ImageClusteringJob.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return job.getStatus();
+    }
+
+    private static Image image(User user, String filename, String perceptualHash) {
+        Image image = new Image();
+        image.setUser(user);
+        image.setFilename(filename);
+        image.setPerceptualHash(perceptualHash);
+        image.setAnalysisStatus("COMPLETED");
+        image.setUploadTimestamp(LocalDateTime.now());
+        return image;
+    }
+}
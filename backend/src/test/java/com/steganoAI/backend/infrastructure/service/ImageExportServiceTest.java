@@ -0,0 +1,124 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.model.User;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageExportServiceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void seed() {
+        User user = userRepository.findByUsername("user").orElseThrow();
+        imageRepository.save(image(user, "plage.png", "COMPLETED", 0.9, LocalDateTime.of(2025, 1, 10, 8, 0)));
+        imageRepository.save(image(user, "vacances, \"été\".jpg", "COMPLETED", 0.2, LocalDateTime.of(2025, 2, 10, 8, 0)));
+        imageRepository.save(image(user, "echec.png", "FAILED", null, LocalDateTime.of(2025, 3, 10, 8, 0)));
+    }
+
+    @AfterEach
+    void clean() {
+        imageRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void csvExportContainsSelectedColumnsAndEscapesValues() throws Exception {
+        String csv = export("/api/admin/exports/images?format=csv&columns=filename,username,ai_confidence");
+
+        List<String> lines = csv.lines().toList();
+        assertEquals("filename,username,ai_confidence", lines.get(0));
+        assertEquals(4, lines.size());
+        assertEquals("plage.png,user,0.9", lines.get(1));
+        assertEquals("\"vacances, \"\"été\"\".jpg\",user,0.2", lines.get(2));
+        assertEquals("echec.png,user,", lines.get(3));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void ndjsonExportAppliesFiltersInSql() throws Exception {
+        String ndjson = export("/api/admin/exports/images?format=ndjson&columns=filename,ai_confidence,upload_timestamp"
+                + "&status=COMPLETED&uploadedFrom=2025-02-01T00:00:00");
+
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(1, lines.size());
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertEquals("vacances, \"été\".jpg", row.get("filename").asText());
+        assertEquals(0.2, row.get("ai_confidence").asDouble());
+        assertEquals("2025-02-10T08:00", row.get("upload_timestamp").asText());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void unknownColumnOrFormatIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/admin/exports/images?columns=id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/exports/images?format=parquet"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void exportIsReservedToAdmins() throws Exception {
+        mockMvc.perform(get("/api/admin/exports/images"))
+                .andExpect(status().isForbidden());
+    }
+
+    private String export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), started.getRequest().getAsyncContext().getTimeout());
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andReturn();
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static Image image(User user, String filename, String status, Double aiConfidence, LocalDateTime uploaded) {
+        Image image = new Image();
+        image.setUser(user);
+        image.setFilename(filename);
+        image.setAnalysisStatus(status);
+        image.setAiConfidence(aiConfidence);
+        image.setUploadTimestamp(uploaded);
+        return image;
+    }
+}
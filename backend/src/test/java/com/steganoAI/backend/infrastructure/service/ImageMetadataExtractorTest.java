@@ -0,0 +1,228 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.ImageMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageMetadataExtractorTest {
+    private final ImageMetadataExtractor extractor = new ImageMetadataExtractor();
+
+    @Test
+    void readsJpegExifWithoutDecoding() throws IOException {
+        byte[] jpeg = encode(new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB), "jpg");
+        byte[] tiff = exif();
+        ByteBuffer app1 = ByteBuffer.allocate(4 + 6 + tiff.length);
+        app1.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + tiff.length))
+                .put("Exif\0\0".getBytes(StandardCharsets.US_ASCII)).put(tiff);
+        byte[] withExif = concat(Arrays.copyOf(jpeg, 2), app1.array(), Arrays.copyOfRange(jpeg, 2, jpeg.length));
+
+        ImageMetadata metadata = extractor.extract(new MockMultipartFile("file", "photo.jpg", "image/jpeg", withExif));
+
+        assertEquals("JPEG", metadata.getFormat());
+        assertEquals(120, metadata.getWidth());
+        assertEquals(80, metadata.getHeight());
+        assertEquals(8, metadata.getBitDepth());
+        assertEquals("RGB", metadata.getColorMode());
+        assertFalse(metadata.getProgressive());
+        assertEquals((long) withExif.length, metadata.getFileSize());
+        assertTrue(metadata.getHasExif());
+        assertEquals("Canon", metadata.getCameraMake());
+        assertEquals("EOS 5D", metadata.getCameraModel());
+        assertEquals(6, metadata.getOrientation());
+        assertEquals(LocalDateTime.of(2024, 5, 17, 14, 30), metadata.getCapturedAt());
+        assertEquals(48.8582, metadata.getGpsLatitude(), 1e-4);
+        assertEquals(-2.2945, metadata.getGpsLongitude(), 1e-4);
+    }
+
+    @Test
+    void readsPngHeaderChunks() throws IOException {
+        byte[] png = encode(new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB), "png");
+        // Chunks insérés juste après IHDR (8 octets de signature + 25 octets de chunk)
+        byte[] pHYs = ByteBuffer.allocate(9).putInt(2835).putInt(2835).put((byte) 1).array();
+        byte[] withChunks = concat(Arrays.copyOf(png, 33), pngChunk("pHYs", pHYs), pngChunk("eXIf", exif()),
+                Arrays.copyOfRange(png, 33, png.length));
+
+        ImageMetadata metadata = extractor.extract(withChunks, withChunks.length, withChunks.length);
+
+        assertEquals("PNG", metadata.getFormat());
+        assertEquals(40, metadata.getWidth());
+        assertEquals(30, metadata.getHeight());
+        assertEquals("RGBA", metadata.getColorMode());
+        assertTrue(metadata.getHasAlpha());
+        assertFalse(metadata.getAnimated());
+        assertEquals(72.0, metadata.getDpiX());
+        assertEquals(72.0, metadata.getDpiY());
+        assertTrue(metadata.getHasExif());
+        assertEquals("EOS 5D", metadata.getCameraModel());
+    }
+
+    @Test
+    void readsWebpExtendedChunks() {
+        byte[] vp8x = new byte[10];
+        vp8x[0] = 0x20 | 0x10 | 0x08 | 0x02;
+        put24LE(vp8x, 4, 1919);
+        put24LE(vp8x, 7, 1079);
+        byte[] body = concat("WEBP".getBytes(StandardCharsets.US_ASCII),
+                riffChunk("VP8X", vp8x), riffChunk("ICCP", icc("sRGB IEC61966-2.1")), riffChunk("EXIF", exif()));
+        byte[] webp = concat("RIFF".getBytes(StandardCharsets.US_ASCII), int32LE(body.length), body);
+
+        ImageMetadata metadata = extractor.extract(webp, webp.length, webp.length);
+
+        assertEquals("WEBP", metadata.getFormat());
+        assertEquals(1920, metadata.getWidth());
+        assertEquals(1080, metadata.getHeight());
+        assertEquals("RGBA", metadata.getColorMode());
+        assertTrue(metadata.getAnimated());
+        assertEquals("RGB", metadata.getIccColorSpace());
+        assertEquals("sRGB IEC61966-2.1", metadata.getIccProfile());
+        assertEquals("Canon", metadata.getCameraMake());
+    }
+
+    @Test
+    void detectsAnimatedTransparentGif() {
+        ByteArrayOutputStream gif = new ByteArrayOutputStream();
+        gif.writeBytes("GIF89a".getBytes(StandardCharsets.US_ASCII));
+        gif.writeBytes(new byte[]{16, 0, 8, 0, (byte) 0x80, 0, 0});
+        gif.writeBytes(new byte[6]);
+        gif.writeBytes(new byte[]{0x21, (byte) 0xFF, 11});
+        gif.writeBytes("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+        gif.writeBytes(new byte[]{3, 1, 0, 0, 0});
+        gif.writeBytes(new byte[]{0x21, (byte) 0xF9, 4, 0x01, 10, 0, 0, 0});
+        gif.writeBytes(new byte[]{0x2C, 0, 0, 0, 0, 16, 0, 8, 0, 0, 2, 2, 0x4C, 0x01, 0});
+        gif.write(0x3B);
+        byte[] bytes = gif.toByteArray();
+
+        ImageMetadata metadata = extractor.extract(bytes, bytes.length, bytes.length);
+
+        assertEquals("GIF", metadata.getFormat());
+        assertEquals(16, metadata.getWidth());
+        assertEquals(8, metadata.getHeight());
+        assertEquals("P", metadata.getColorMode());
+        assertTrue(metadata.getAnimated());
+        assertTrue(metadata.getHasAlpha());
+    }
+
+    @Test
+    void keepsWhatWasReadFromCorruptedExif() throws IOException {
+        byte[] jpeg = encode(new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB), "jpg");
+        byte[] tiff = exif();
+        // IFD0 pointé hors du segment
+        ByteBuffer.wrap(tiff).putInt(4, 0x7FFFFFF0);
+        ByteBuffer app1 = ByteBuffer.allocate(4 + 6 + tiff.length);
+        app1.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + tiff.length))
+                .put("Exif\0\0".getBytes(StandardCharsets.US_ASCII)).put(tiff);
+        byte[] corrupted = concat(Arrays.copyOf(jpeg, 2), app1.array(), Arrays.copyOfRange(jpeg, 2, jpeg.length));
+
+        ImageMetadata metadata = extractor.extract(corrupted, corrupted.length, corrupted.length);
+
+        assertTrue(metadata.getHasExif());
+        assertNull(metadata.getCameraMake());
+        assertEquals(64, metadata.getWidth());
+        assertEquals("RGB", metadata.getColorMode());
+        assertNull(extractor.extract("pas une image".getBytes(StandardCharsets.US_ASCII), 13, 13));
+    }
+
+    // TIFF big-endian : IFD0 (marque, modèle, orientation, pointeurs EXIF et GPS), sous-IFD EXIF, IFD GPS
+    private static byte[] exif() {
+        int ifd0 = 8;
+        int exifIfd = ifd0 + 2 + 5 * 12 + 4;
+        int gpsIfd = exifIfd + 2 + 12 + 4;
+        int make = gpsIfd + 2 + 4 * 12 + 4;
+        int model = make + 6;
+        int date = model + 7;
+        int latitude = date + 20;
+        int longitude = latitude + 24;
+
+        ByteBuffer t = ByteBuffer.allocate(longitude + 24);
+        t.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(ifd0);
+        t.putShort((short) 5);
+        entry(t, 0x010F, 2, 6, make);
+        entry(t, 0x0110, 2, 7, model);
+        t.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) 6).putShort((short) 0);
+        entry(t, 0x8769, 4, 1, exifIfd);
+        entry(t, 0x8825, 4, 1, gpsIfd);
+        t.putInt(0);
+        t.putShort((short) 1);
+        entry(t, 0x9003, 2, 20, date);
+        t.putInt(0);
+        t.putShort((short) 4);
+        t.putShort((short) 1).putShort((short) 2).putInt(2).put(new byte[]{'N', 0, 0, 0});
+        entry(t, 2, 5, 3, latitude);
+        t.putShort((short) 3).putShort((short) 2).putInt(2).put(new byte[]{'W', 0, 0, 0});
+        entry(t, 4, 5, 3, longitude);
+        t.putInt(0);
+        t.put("Canon\0".getBytes(StandardCharsets.US_ASCII));
+        t.put("EOS 5D\0".getBytes(StandardCharsets.US_ASCII));
+        t.put("2024:05:17 14:30:00\0".getBytes(StandardCharsets.US_ASCII));
+        t.putInt(48).putInt(1).putInt(51).putInt(1).putInt(2964).putInt(100);
+        t.putInt(2).putInt(1).putInt(17).putInt(1).putInt(4020).putInt(100);
+        return t.array();
+    }
+
+    private static void entry(ByteBuffer t, int tag, int type, int count, int offset) {
+        t.putShort((short) tag).putShort((short) type).putInt(count).putInt(offset);
+    }
+
+    // Profil ICC réduit à l'en-tête et à un tag de description v2
+    private static byte[] icc(String description) {
+        byte[] text = (description + "\0").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer icc = ByteBuffer.allocate(144 + 12 + text.length);
+        icc.putInt(0, icc.capacity());
+        icc.put(16, "RGB ".getBytes(StandardCharsets.US_ASCII));
+        icc.putInt(128, 1);
+        icc.put(132, "desc".getBytes(StandardCharsets.US_ASCII)).putInt(136, 144).putInt(140, 12 + text.length);
+        icc.put(144, "desc".getBytes(StandardCharsets.US_ASCII)).putInt(152, text.length).put(156, text);
+        return icc.array();
+    }
+
+    private static byte[] pngChunk(String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        return ByteBuffer.allocate(12 + data.length)
+                .putInt(data.length).put(typeBytes).put(data).putInt((int) crc.getValue()).array();
+    }
+
+    private static byte[] riffChunk(String type, byte[] data) {
+        byte[] padded = Arrays.copyOf(data, data.length + (data.length & 1));
+        return concat(type.getBytes(StandardCharsets.US_ASCII), int32LE(data.length), padded);
+    }
+
+    private static byte[] int32LE(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    private static void put24LE(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >>> 8);
+        b[offset + 2] = (byte) (value >>> 16);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImagePartitionMaintenanceTest {
+
+    @Test
+    void plansMonthlyPartitionsAndColdMonths() {
+        YearMonth current = YearMonth.of(2025, 11);
+
+        assertEquals(List.of(YearMonth.of(2025, 11), YearMonth.of(2025, 12), YearMonth.of(2026, 1)),
+                ImagePartitionMaintenance.monthsToCreate(current, 2));
+        assertEquals("images_y2026m01", ImagePartitionMaintenance.partitionName(YearMonth.of(2026, 1)));
+
+        // 3 mois gardés : septembre, octobre et novembre restent en ligne
+        assertTrue(ImagePartitionMaintenance.isCold(partition(YearMonth.of(2025, 8)), current, 3));
+        assertFalse(ImagePartitionMaintenance.isCold(partition(YearMonth.of(2025, 9)), current, 3));
+        assertFalse(ImagePartitionMaintenance.isCold(partition(current), current, 1));
+    }
+
+    @Test
+    void parsesPostgresPartitionBounds() {
+        ImagePartitionMaintenance.Partition partition = ImagePartitionMaintenance.parsePartition("images_y2024m01",
+                "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')", true);
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), partition.from());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), partition.to());
+        assertTrue(partition.detachPending());
+        assertNull(ImagePartitionMaintenance.parsePartition("images_y2024m01", "DEFAULT", false));
+        assertNull(ImagePartitionMaintenance.parsePartition("images_default",
+                "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')", false));
+    }
+
+    @Test
+    void writesCsvReadableByPostgresCopy() throws Exception {
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(3);
+        when(meta.getColumnName(1)).thenReturn("id");
+        when(meta.getColumnName(2)).thenReturn("analysis_results");
+        when(meta.getColumnName(3)).thenReturn("upload_timestamp");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn(1L, 2L);
+        when(rs.getObject(2)).thenReturn("{\"a\": 1,\n\"b\": 2}", "");
+        when(rs.getObject(3)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 1, 5, 10, 30)), (Object) null);
+
+        StringWriter out = new StringWriter();
+        assertEquals(2, ImagePartitionMaintenance.writeCsv(rs, out));
+
+        // Chaîne vide entre guillemets, NULL en champ vide (sémantique de COPY ... CSV)
+        assertEquals("id,analysis_results,upload_timestamp\n"
+                + "1,\"{\"\"a\"\": 1,\n\"\"b\"\": 2}\",2024-01-05T10:30\n"
+                + "2,\"\",\n", out.toString());
+    }
+
+    private static ImagePartitionMaintenance.Partition partition(YearMonth month) {
+        return new ImagePartitionMaintenance.Partition(ImagePartitionMaintenance.partitionName(month),
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay(), false);
+    }
+}
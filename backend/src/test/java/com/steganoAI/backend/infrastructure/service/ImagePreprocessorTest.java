@@ -0,0 +1,134 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.BufferPoolProperties;
+import com.steganoAI.backend.infrastructure.config.FlaskProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessorTest {
+    @TempDir
+    Path tempDir;
+
+    private final FlaskProperties properties = new FlaskProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DirectBufferPool bufferPool = new DirectBufferPool(new BufferPoolProperties(), meterRegistry);
+
+    @Test
+    void downscalesLongestSideToTarget() throws IOException {
+        Path source = write("wide.png", 2000, 1000, "png");
+        ImagePreprocessor preprocessor = new ImagePreprocessor(properties, bufferPool, meterRegistry);
+
+        try (ImagePreprocessor.PreprocessedImage reduced = preprocessor.preprocess(source)) {
+            assertEquals(512, reduced.getWidth());
+            assertEquals(256, reduced.getHeight());
+            try (InputStream in = reduced.asResource().getInputStream()) {
+                BufferedImage decoded = ImageIO.read(in);
+                assertEquals(512, decoded.getWidth());
+                assertEquals(256, decoded.getHeight());
+            }
+            assertTrue(reduced.getSize() < reduced.getOriginalSize());
+            assertEquals(1, bufferPool.getLeasedCount());
+        }
+        assertEquals(0, bufferPool.getLeasedCount());
+        assertTrue(meterRegistry.get("flask.preprocessing.bytes.saved").counter().count() > 0);
+    }
+
+    @Test
+    void encodingLargerThanTheLeasedBufferIsKeptWhole() throws IOException {
+        // Bruit incompressible : le PNG réduit dépasse la plus petite classe de tampon
+        properties.getPreprocessing().setTargetSize(300);
+        BufferPoolProperties small = new BufferPoolProperties();
+        small.setSizeClasses(List.of(DataSize.ofKilobytes(64)));
+        Path source = writeNoise("noise.png", 600, 600);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(properties,
+                new DirectBufferPool(small, new SimpleMeterRegistry()), meterRegistry);
+
+        try (ImagePreprocessor.PreprocessedImage reduced = preprocessor.preprocess(source)) {
+            assertTrue(reduced.getSize() > 64 * 1024);
+            try (InputStream in = reduced.asResource().getInputStream()) {
+                assertEquals(reduced.getSize(), in.readAllBytes().length);
+            }
+            try (InputStream in = reduced.asResource().getInputStream()) {
+                assertEquals(300, ImageIO.read(in).getWidth());
+            }
+        }
+    }
+
+    @Test
+    void onlyImagesAboveTheTargetNeedReduction() throws IOException {
+        properties.getPreprocessing().setEnabled(true);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(properties, bufferPool, meterRegistry);
+
+        assertTrue(preprocessor.needsReduction(write("large.png", 1000, 200, "png")));
+        assertFalse(preprocessor.needsReduction(write("small.png", 512, 300, "png")));
+        assertFalse(preprocessor.needsReduction(Files.writeString(tempDir.resolve("notes.txt"), "pas une image")));
+        properties.getPreprocessing().setEnabled(false);
+        assertFalse(preprocessor.needsReduction(tempDir.resolve("large.png")));
+    }
+
+    @Test
+    void encodesJpegWhenConfigured() throws IOException {
+        properties.getPreprocessing().setFormat(FlaskProperties.Format.JPEG);
+        properties.getPreprocessing().setTargetSize(300);
+        Path source = write("tall.jpg", 600, 1200, "jpeg");
+        ImagePreprocessor preprocessor = new ImagePreprocessor(properties, bufferPool, meterRegistry);
+
+        try (ImagePreprocessor.PreprocessedImage reduced = preprocessor.preprocess(source)) {
+            assertEquals("preprocessed.jpg", reduced.asResource().getFilename());
+            assertEquals(150, reduced.getWidth());
+            assertEquals(300, reduced.getHeight());
+        }
+    }
+
+    @Test
+    void leavesSmallImagesUntouched() throws IOException {
+        Path source = write("small.png", 400, 300, "png");
+
+        assertNull(new ImagePreprocessor(properties, bufferPool, meterRegistry).preprocess(source));
+    }
+
+    @Test
+    void ignoresUnreadableFiles() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("notes.txt"), "pas une image");
+
+        assertNull(new ImagePreprocessor(properties, bufferPool, meterRegistry).preprocess(source));
+    }
+
+    private Path writeNoise(String name, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        Path path = tempDir.resolve(name);
+        ImageIO.write(image, "png", path.toFile());
+        return path;
+    }
+
+    private Path write(String name, int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 7) << 16 | (y * 3) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        Path path = tempDir.resolve(name);
+        ImageIO.write(image, format, path.toFile());
+        return path;
+    }
+}
@@ -0,0 +1,257 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.Image;
+import com.steganoAI.backend.domain.repository.ImageRepository;
+import com.steganoAI.backend.infrastructure.config.RetentionProperties;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// H2 ne connaît ni DELETE ... RETURNING ni SKIP LOCKED : JdbcTemplate simulé, requêtes et paramètres relevés
+class ImagePurgeServiceTest {
+    @TempDir
+    Path root;
+
+    private final RetentionProperties properties = new RetentionProperties();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final Cache entityCache = mock(Cache.class);
+    private final org.hibernate.Cache hibernateCache = mock(org.hibernate.Cache.class);
+
+    // Lignes renvoyées par chaque DELETE successif : {id, image_path}
+    private final Deque<List<Object[]>> batches = new ArrayDeque<>();
+    private final List<String> statements = new ArrayList<>();
+    private final List<List<Object>> parameters = new ArrayList<>();
+    private final List<ImagePurgeService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setImageRoot(root.toString());
+        properties.setPendingDeletionsFile(root.resolve("purge/pending.txt").toString());
+        properties.setMaxRowsPerSecond(0);
+        properties.setMaxFileDeletesPerSecond(0);
+
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getCache()).thenReturn(hibernateCache);
+        when(entityManagerFactory.getCache()).thenReturn(entityCache);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+        doAnswer(invocation -> {
+            List<Object> values = new ArrayList<>();
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(set -> values.add(set.getArgument(1))).when(ps).setObject(anyInt(), any());
+            doAnswer(set -> values.add(set.getArgument(1))).when(ps).setArray(anyInt(), any());
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenAnswer(prepare -> {
+                statements.add(prepare.getArgument(0));
+                return ps;
+            });
+            when(connection.createArrayOf(anyString(), any())).thenAnswer(create -> {
+                Array array = mock(Array.class);
+                when(array.getArray()).thenReturn(create.getArgument(1));
+                return array;
+            });
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            parameters.add(values);
+
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : batches.isEmpty() ? List.<Object[]>of() : batches.poll()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) row[0]);
+                when(rs.getString("image_path")).thenReturn((String) row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(ImagePurgeService::shutdown);
+    }
+
+    @Test
+    void purgeByIdsDeletesRowsInBatchesThenFilesAndCacheEntries() throws Exception {
+        properties.setBatchSize(2);
+        Path first = image("a.png");
+        Path third = image("c.png");
+        batches.add(List.of(new Object[]{1L, "a.png"}, new Object[]{2L, null}));
+        batches.add(List.<Object[]>of(new Object[]{3L, "c.png"}));
+
+        assertEquals(3, service().purgeByIds(List.of(1L, 2L, 3L)));
+
+        assertEquals(List.of(
+                "DELETE FROM images WHERE id = ANY(?) RETURNING id, image_path",
+                "DELETE FROM images WHERE id = ANY(?) RETURNING id, image_path"), statements);
+        assertArrayEquals(new Long[]{1L, 2L}, (Long[]) ((Array) parameters.get(0).get(0)).getArray());
+        assertArrayEquals(new Long[]{3L}, (Long[]) ((Array) parameters.get(1).get(0)).getArray());
+        // JDBC hors Hibernate : ids et requêtes en cache évincés
+        verify(entityCache).evict(Image.class, 1L);
+        verify(entityCache).evict(Image.class, 2L);
+        verify(entityCache).evict(Image.class, 3L);
+        verify(hibernateCache, times(2)).evictQueryRegion(ImageRepository.QUERY_CACHE_REGION);
+        await(() -> !Files.exists(first) && !Files.exists(third));
+    }
+
+    @Test
+    void emptyBatchNeitherEvictsNorTouchesFiles() {
+        assertEquals(0, service().purgeByIds(List.of(42L)));
+
+        verify(entityCache, never()).evict(any(), any());
+        verify(hibernateCache, never()).evictQueryRegion(anyString());
+    }
+
+    @Test
+    void criteriaPurgeSkipsLockedRowsAndLoopsUntilAShortBatch() throws Exception {
+        properties.setBatchSize(2);
+        batches.add(List.of(new Object[]{1L, null}, new Object[]{2L, null}));
+        batches.add(List.of(new Object[]{3L, null}, new Object[]{4L, null}));
+        batches.add(List.<Object[]>of(new Object[]{5L, null}));
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        assertEquals(5, service().purge(before, "FAILED", "user"));
+
+        assertEquals(3, statements.size());
+        assertEquals("DELETE FROM images WHERE id IN (SELECT id FROM images WHERE TRUE"
+                + " AND upload_timestamp < ? AND analysis_status = ?"
+                + " AND user_id IN (SELECT u.id FROM users u WHERE u.username = ?)"
+                + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id, image_path", statements.get(0));
+        assertEquals(List.of(Timestamp.valueOf(before), "FAILED", "user", 2), parameters.get(2));
+    }
+
+    @Test
+    void ruleWithoutCriteriaPurgesNothing() {
+        RetentionProperties.Rule rule = new RetentionProperties.Rule();
+        rule.setName("vide");
+
+        assertEquals(0, service().purge(rule));
+        assertEquals(List.of(), statements);
+    }
+
+    @Test
+    void batchesAreSpacedByTheRowBudget() {
+        properties.setBatchSize(2);
+        properties.setMaxRowsPerSecond(20);
+        batches.add(List.of(new Object[]{1L, null}, new Object[]{2L, null}));
+        batches.add(List.of(new Object[]{3L, null}, new Object[]{4L, null}));
+        ImagePurgeService service = service();
+
+        long start = System.nanoTime();
+        assertEquals(4, service.purgeByIds(List.of(1L, 2L, 3L, 4L)));
+
+        // 2 lignes à 20 lignes/s : 100 ms par lot
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 190);
+    }
+
+    @Test
+    void fullQueueSpillsPathsToDiskAndTheyAreDeletedOnceItEmpties() throws Exception {
+        properties.setFileDeletionQueueCapacity(1);
+        properties.setMaxFileDeletesPerSecond(5);
+        Path pending = Path.of(properties.getPendingDeletionsFile());
+        List<Path> files = List.of(image("1.png"), image("2.png"), image("3.png"));
+        ImagePurgeService service = service();
+        // Reprise au démarrage terminée : la file est libre
+        Thread.sleep(100);
+        for (long id = 1; id <= 3; id++) {
+            batches.add(List.<Object[]>of(new Object[]{id, id + ".png"}));
+        }
+
+        // Lot 1 en cours (200 ms par fichier), lot 2 en file, lot 3 rejeté vers le disque
+        service.purgeByIds(List.of(1L));
+        Thread.sleep(50);
+        service.purgeByIds(List.of(2L));
+        service.purgeByIds(List.of(3L));
+
+        assertEquals(List.of("3.png"), Files.readAllLines(pending, StandardCharsets.UTF_8));
+        await(() -> files.stream().noneMatch(Files::exists) && !Files.exists(pending));
+    }
+
+    @Test
+    void filesOfArchivedPartitionsShareTheDeletionQueue() throws Exception {
+        Path first = image("archivee-1.png");
+        Path second = image("archivee-2.png");
+        ImagePurgeService service = service();
+        List<String> paths = new ArrayList<>(List.of("archivee-1.png", "archivee-2.png"));
+
+        service.deleteFilesLater(paths);
+        // Lot copié : l'appelant réutilise sa liste
+        paths.clear();
+
+        await(() -> !Files.exists(first) && !Files.exists(second));
+        assertEquals(List.of(), statements);
+        verify(entityCache, never()).evict(any(), any());
+    }
+
+    @Test
+    void restartDrainsPendingAndInterruptedDeletions() throws Exception {
+        Path pending = Path.of(properties.getPendingDeletionsFile());
+        Path draining = pending.resolveSibling(pending.getFileName() + ".draining");
+        Path left = image("interrompu.png");
+        Path queued = image("en-attente.png");
+        Files.createDirectories(pending.getParent());
+        Files.write(draining, List.of("interrompu.png"), StandardCharsets.UTF_8);
+        Files.write(pending, List.of("en-attente.png", root.resolve("absent.png").toString()), StandardCharsets.UTF_8);
+
+        ImagePurgeService service = service();
+        // Reprise interrompue d'abord, puis le fichier d'attente au lot suivant
+        await(() -> !Files.exists(left) && !Files.exists(draining));
+        Path deleted = image("supprimee.png");
+        batches.add(List.<Object[]>of(new Object[]{7L, "supprimee.png"}));
+        service.purgeByIds(List.of(7L));
+
+        await(() -> !Files.exists(deleted) && !Files.exists(queued) && !Files.exists(pending));
+    }
+
+    private ImagePurgeService service() {
+        ImagePurgeService service = new ImagePurgeService(jdbcTemplate, entityManagerFactory, properties);
+        services.add(service);
+        return service;
+    }
+
+    private Path image(String name) throws Exception {
+        return Files.writeString(root.resolve(name), name);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition jamais remplie");
+            Thread.sleep(20);
+        }
+    }
+}
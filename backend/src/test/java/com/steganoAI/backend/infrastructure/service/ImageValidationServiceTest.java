@@ -0,0 +1,203 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.infrastructure.config.UploadValidationProperties;
+import com.steganoAI.backend.infrastructure.service.ImageRejectedException.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageValidationServiceTest {
+    private final UploadValidationProperties properties = new UploadValidationProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageValidationService service = new ImageValidationService(properties, meterRegistry);
+
+    @Test
+    void readsDimensionsFromHeadersOfSupportedFormats() throws IOException {
+        for (String format : new String[]{"png", "jpg", "gif", "bmp"}) {
+            ImageHeader header = service.validate(file("photo." + format, encode(format, 120, 80)));
+
+            assertEquals(120, header.width(), format);
+            assertEquals(80, header.height(), format);
+        }
+    }
+
+    @Test
+    void readsWebpHeaders() {
+        ImageHeader lossless = service.validate(file("a.webp", webp("VP8L", vp8l(640, 480))));
+        ImageHeader extended = service.validate(file("b.webp", webp("VP8X", vp8x(4000, 3000))));
+
+        assertEquals(new ImageHeader(ImageFormat.WEBP, 640, 480), lossless);
+        assertEquals(new ImageHeader(ImageFormat.WEBP, 4000, 3000), extended);
+    }
+
+    @Test
+    void fallsBackToImageReaderWhenJpegMetadataExceedsHeaderBuffer() throws IOException {
+        byte[] jpeg = encode("jpg", 33, 21);
+        // Segment APP1 de 10 Ko inséré après SOI : le SOF est hors du tampon d'en-tête
+        byte[] app1 = new byte[10_000];
+        app1[0] = (byte) 0xFF;
+        app1[1] = (byte) 0xE1;
+        app1[2] = (byte) ((app1.length - 2) >> 8);
+        app1[3] = (byte) (app1.length - 2);
+        byte[] padded = concat(Arrays.copyOf(jpeg, 2), app1, Arrays.copyOfRange(jpeg, 2, jpeg.length));
+
+        assertTrue(app1.length > ImageValidationService.HEADER_SIZE);
+        assertEquals(new ImageHeader(ImageFormat.JPEG, 33, 21), service.validate(file("big.jpeg", padded)));
+    }
+
+    @Test
+    void rejectsNonImages() {
+        assertRejected(Reason.UNKNOWN_FORMAT, file("notes.png", "hello world".getBytes(StandardCharsets.UTF_8)));
+        assertRejected(Reason.EMPTY, file("empty.png", new byte[0]));
+    }
+
+    @Test
+    void rejectsDisallowedFormatsAndMismatchedExtensions() throws IOException {
+        assertRejected(Reason.FORMAT_NOT_ALLOWED, file("scan.tiff", new byte[]{'I', 'I', 42, 0, 8, 0, 0, 0}));
+        assertRejected(Reason.EXTENSION_MISMATCH, file("photo.jpg", encode("png", 10, 10)));
+        assertRejected(Reason.EXTENSION_MISMATCH, file("payload.exe", encode("gif", 10, 10)));
+    }
+
+    @Test
+    void acceptsFilesWithoutExtension() throws IOException {
+        assertEquals(ImageFormat.PNG, service.validate(file("blob", encode("png", 4, 4))).format());
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] png = encode("png", 64, 64);
+        byte[] bmp = encode("bmp", 64, 64);
+
+        assertRejected(Reason.TRUNCATED, file("cut.png", Arrays.copyOf(png, png.length - 20)));
+        assertRejected(Reason.TRUNCATED, file("cut.bmp", Arrays.copyOf(bmp, bmp.length / 2)));
+        assertRejected(Reason.TRUNCATED, file("tiny.png", Arrays.copyOf(png, 12)));
+    }
+
+    @Test
+    void acceptsDataAppendedAfterTheTrailer() throws IOException {
+        byte[] padding = "fin de fichier ajoutée par un outil\n".getBytes(StandardCharsets.US_ASCII);
+        for (String format : new String[]{"png", "gif"}) {
+            byte[] image = encode(format, 64, 64);
+            byte[] padded = Arrays.copyOf(image, image.length + padding.length);
+            System.arraycopy(padding, 0, padded, image.length, padding.length);
+
+            assertEquals(64, service.validate(file("padded." + format, padded)).width(), format);
+        }
+    }
+
+    @Test
+    void rejectsDecompressionBombsFromHeaderAlone() {
+        // PNG de 100 000 x 100 000 déclaré dans IHDR : rejeté sans décoder
+        assertRejected(Reason.TOO_MANY_PIXELS, file("bomb.png", pngHeader(100_000, 100_000)));
+    }
+
+    @Test
+    void countsRejectionsByReason() {
+        assertRejected(Reason.UNKNOWN_FORMAT, file("a.png", new byte[]{1, 2, 3}));
+        assertRejected(Reason.UNKNOWN_FORMAT, file("b.png", new byte[]{4, 5, 6}));
+
+        assertEquals(2.0, meterRegistry.get("image.upload.rejected").tag("reason", "unknown_format").counter().count());
+        assertEquals(0.0, meterRegistry.get("image.upload.rejected").tag("reason", "truncated").counter().count());
+    }
+
+    @Test
+    void canBeDisabled() {
+        properties.setEnabled(false);
+
+        assertNull(service.validate(file("notes.txt", "hello".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private void assertRejected(Reason reason, MockMultipartFile file) {
+        ImageRejectedException e = assertThrows(ImageRejectedException.class, () -> service.validate(file));
+        assertEquals(reason, e.getReason());
+    }
+
+    private static MockMultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("file", name, "application/octet-stream", content);
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String writerFormat = format.equals("jpg") ? "jpeg" : format;
+        if (writerFormat.equals("gif")) {
+            BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED);
+            indexed.getGraphics().drawImage(image, 0, 0, null);
+            image = indexed;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(writerFormat).next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(new IIOImage(image, null, null));
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(13).putInt(width).putInt(height).put((byte) 8).put((byte) 2)
+                .put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update("IHDR".getBytes(StandardCharsets.US_ASCII));
+        crc.update(ihdr.array());
+        ByteBuffer png = ByteBuffer.allocate(8 + 25 + 12);
+        png.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        png.putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII)).put(ihdr.array()).putInt((int) crc.getValue());
+        png.putInt(0).put("IEND".getBytes(StandardCharsets.US_ASCII)).putInt(0xAE426082);
+        return png.array();
+    }
+
+    private static byte[] webp(String chunk, byte[] payload) {
+        ByteBuffer riff = ByteBuffer.allocate(20 + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+        riff.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(12 + payload.length)
+                .put("WEBP".getBytes(StandardCharsets.US_ASCII))
+                .put(chunk.getBytes(StandardCharsets.US_ASCII)).putInt(payload.length).put(payload);
+        return riff.array();
+    }
+
+    private static byte[] vp8l(int width, int height) {
+        ByteBuffer payload = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        payload.put((byte) 0x2F).putInt((width - 1) | (height - 1) << 14);
+        return payload.array();
+    }
+
+    private static byte[] vp8x(int width, int height) {
+        byte[] payload = new byte[10];
+        payload[4] = (byte) (width - 1);
+        payload[5] = (byte) ((width - 1) >> 8);
+        payload[6] = (byte) ((width - 1) >> 16);
+        payload[7] = (byte) (height - 1);
+        payload[8] = (byte) ((height - 1) >> 8);
+        payload[9] = (byte) ((height - 1) >> 16);
+        return payload;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
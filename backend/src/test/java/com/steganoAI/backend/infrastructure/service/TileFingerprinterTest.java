@@ -0,0 +1,103 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.TileFingerprint;
+import com.steganoAI.backend.infrastructure.config.IntegrityTilesProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileFingerprinterTest {
+    private final TileFingerprinter fingerprinter = new TileFingerprinter(new IntegrityTilesProperties());
+
+    @Test
+    void leastSignificantBitSignatureLeavesTilesUnchanged() throws IOException {
+        BufferedImage original = scene();
+        BufferedImage signed = copy(original);
+        // Signature LSB : bit de poids faible du bleu écrit sur chaque pixel
+        Random random = new Random(3);
+        for (int y = 0; y < signed.getHeight(); y++) {
+            for (int x = 0; x < signed.getWidth(); x++) {
+                signed.setRGB(x, y, (signed.getRGB(x, y) & ~1) | random.nextInt(2));
+            }
+        }
+
+        TileFingerprint before = fingerprinter.fingerprint(png(original));
+        TileFingerprint after = fingerprinter.fingerprint(png(signed));
+
+        assertEquals(400, before.width());
+        assertEquals(64, before.tiles().length);
+        assertTrue(before.isComparableTo(after));
+        assertTrue(Long.bitCount(before.imageHash() ^ after.imageHash()) <= 2);
+        assertEquals(0, before.compare(after, 10).modifiedTiles());
+    }
+
+    @Test
+    void localEditIsReportedOnItsTileOnly() throws IOException {
+        BufferedImage original = scene();
+        BufferedImage edited = copy(original);
+        Graphics2D graphics = edited.createGraphics();
+        // Tuile (ligne 2, colonne 5) : x de 250 à 300, y de 75 à 112
+        graphics.setPaint(new GradientPaint(252, 0, Color.BLACK, 298, 0, Color.WHITE));
+        graphics.fillRect(252, 77, 46, 33);
+        graphics.dispose();
+
+        TileFingerprint before = fingerprinter.fingerprint(png(original));
+        TileFingerprint after = fingerprinter.fingerprint(png(edited));
+        TileFingerprint.Comparison comparison = before.compare(after, 10);
+
+        assertEquals(1, comparison.modifiedTiles());
+        assertTrue(comparison.distances()[2 * 8 + 5] > 10);
+        assertTrue(Long.bitCount(before.imageHash() ^ after.imageHash()) <= 16, "image toujours reconnue");
+    }
+
+    @Test
+    void encodedGridRoundTrips() throws IOException {
+        TileFingerprint fingerprint = fingerprinter.fingerprint(png(scene()));
+
+        TileFingerprint parsed = TileFingerprint.parse(fingerprint.encode());
+
+        assertEquals(fingerprint.imageHash(), parsed.imageHash());
+        assertArrayEquals(fingerprint.tiles(), parsed.tiles());
+        assertEquals(300, parsed.height());
+        assertThrows(IllegalArgumentException.class, () -> TileFingerprint.parse("8x8;abc"));
+        // Trop petite pour 8 x 8 tuiles de 9 x 8 cases
+        assertNull(fingerprinter.fingerprint(png(new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB))));
+    }
+
+    // Dégradés et formes : chaque tuile a du relief
+    private static BufferedImage scene() {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(20, 60, 120), 400, 300, new Color(230, 200, 90)));
+        graphics.fillRect(0, 0, 400, 300);
+        Random random = new Random(11);
+        for (int i = 0; i < 120; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            graphics.fillOval(random.nextInt(400), random.nextInt(300), 8 + random.nextInt(30), 8 + random.nextInt(30));
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage source) {
+        BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), source.getType());
+        copy.setData(source.getData());
+        return copy;
+    }
+
+    private static MockMultipartFile png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("file", "image.png", "image/png", out.toByteArray());
+    }
+}
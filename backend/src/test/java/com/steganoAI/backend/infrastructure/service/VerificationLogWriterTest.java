@@ -0,0 +1,153 @@
+package com.steganoAI.backend.infrastructure.service;
+
+import com.steganoAI.backend.domain.model.VerificationRecord;
+import com.steganoAI.backend.infrastructure.config.VerificationLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationLogWriterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+    @Test
+    void writesFullBatchesAtOnceAndTheRestOnShutdown() throws Exception {
+        VerificationLogWriter writer = new VerificationLogWriter(jdbcTemplate,
+                properties(64, 10, VerificationLogProperties.Overflow.DROP_NEWEST), meterRegistry);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(writer.append(record(i)));
+        }
+        // Intervalle d'une minute : seuls les lots complets partent avant l'arrêt
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jdbcTemplate.written().size() < 20 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(10, 10), jdbcTemplate.batchSizes());
+
+        writer.shutdown();
+
+        assertEquals(List.of(10, 10, 5), jdbcTemplate.batchSizes());
+        assertEquals(25, jdbcTemplate.written().size());
+        assertEquals("user0", jdbcTemplate.written().get(0).getUsername());
+        assertFalse(writer.append(record(99)), "journal arrêté");
+    }
+
+    @Test
+    void dropsOldestEntriesWhenTheDatabaseFallsBehind() throws Exception {
+        VerificationLogWriter writer = new VerificationLogWriter(jdbcTemplate,
+                properties(4, 4, VerificationLogProperties.Overflow.DROP_OLDEST), meterRegistry);
+        jdbcTemplate.block();
+        for (int i = 0; i < 4; i++) {
+            writer.append(record(i));
+        }
+        // Premier lot en cours d'écriture (bloqué), la file se remplit derrière lui
+        assertTrue(jdbcTemplate.awaitWrite());
+        for (int i = 4; i < 10; i++) {
+            assertTrue(writer.append(record(i)));
+        }
+        assertEquals(4, writer.getPending());
+
+        jdbcTemplate.release();
+        writer.shutdown();
+
+        assertEquals(List.of("user0", "user1", "user2", "user3", "user6", "user7", "user8", "user9"),
+                jdbcTemplate.written().stream().map(VerificationRecord::getUsername).toList());
+        assertEquals(2, meterRegistry.get("verification.log.dropped").counter().count());
+    }
+
+    @Test
+    void dropNewestRejectsWhenFull() throws Exception {
+        VerificationLogWriter writer = new VerificationLogWriter(jdbcTemplate,
+                properties(4, 4, VerificationLogProperties.Overflow.DROP_NEWEST), meterRegistry);
+        jdbcTemplate.block();
+        for (int i = 0; i < 4; i++) {
+            writer.append(record(i));
+        }
+        assertTrue(jdbcTemplate.awaitWrite());
+        List<Boolean> accepted = new ArrayList<>();
+        for (int i = 4; i < 10; i++) {
+            accepted.add(writer.append(record(i)));
+        }
+
+        jdbcTemplate.release();
+        writer.shutdown();
+
+        assertEquals(List.of(true, true, true, true, false, false), accepted);
+        assertEquals(8, jdbcTemplate.written().size());
+        assertEquals("user7", jdbcTemplate.written().get(7).getUsername());
+    }
+
+    private static VerificationLogProperties properties(int capacity, int batchSize,
+                                                       VerificationLogProperties.Overflow overflow) {
+        VerificationLogProperties properties = new VerificationLogProperties();
+        properties.setCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setOverflow(overflow);
+        properties.setFlushInterval(Duration.ofMinutes(1));
+        return properties;
+    }
+
+    private static VerificationRecord record(int i) {
+        VerificationRecord record = new VerificationRecord();
+        record.setUsername("user" + i);
+        record.setMode("flask");
+        record.setVerifiedAt(LocalDateTime.now());
+        return record;
+    }
+
+    // Garde les lots au lieu de les écrire ; block() retient l'écriture suivante jusqu'à release()
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<VerificationRecord> written = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        boolean awaitWrite() throws InterruptedException {
+            return writing.await(5, TimeUnit.SECONDS);
+        }
+
+        synchronized List<VerificationRecord> written() {
+            return List.copyOf(written);
+        }
+
+        synchronized List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            writing.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                written.addAll((Collection<VerificationRecord>) batchArgs);
+                batchSizes.add(batchArgs.size());
+            }
+            return new int[0][];
+        }
+    }
+}
@@ -0,0 +1,3 @@
+#!/bin/bash
+# Autorise la réplique locale à se connecter en streaming replication
+echo "host replication all all trust" >> "$PGDATA/pg_hba.conf"
@@ -74,6 +74,8 @@ def upload_and_analyze():
         # Paramètres optionnels
         skip_analysis = request.args.get('skip_analysis') == 'true'
         only_check_similar = request.args.get('only_check_similar') == 'true'
+        # Le backend peut envoyer une version réduite à /detect_ai et ne transmettre l'original que pour la stéganographie
+        skip_ai_detection = request.args.get('skip_ai_detection') == 'true'
 
         # Créer un nom de fichier unique
         filename = str(uuid.uuid4()) + os.path.splitext(file.filename)[1]
@@ -108,12 +110,15 @@ def upload_and_analyze():
             analysis_results['steganography'] = {"error": str(e)}
 
         # 2. Détection IA
-        try:
-            ai_result = ai_service.detect_ai_image(filepath)
-            analysis_results['ai_detection'] = ai_result
-        except Exception as e:
-            logger.error(f"Erreur détection IA: {str(e)}")
-            analysis_results['ai_detection'] = {"error": str(e)}
+        if skip_ai_detection:
+            analysis_results['ai_detection'] = {"skipped": True}
+        else:
+            try:
+                ai_result = ai_service.detect_ai_image(filepath)
+                analysis_results['ai_detection'] = ai_result
+            except Exception as e:
+                logger.error(f"Erreur détection IA: {str(e)}")
+                analysis_results['ai_detection'] = {"error": str(e)}
 
         # 3. Métadonnées
         try:
@@ -169,6 +174,79 @@ def upload_and_analyze():
         logger.error(f"Erreur upload et analyse: {str(e)}")
         return jsonify({"error": f"Erreur lors de l'analyse: {str(e)}"}), 500
 
+@image_bp_v2.route('/detect_ai', methods=['POST'])
+@cross_origin()
+def detect_ai():
+    """
+    Endpoint de détection IA seule, sur une image déjà réduite par le backend.
+    """
+    try:
+        if 'file' not in request.files:
+            return jsonify({"error": "Aucun fichier fourni"}), 400
+
+        file = request.files['file']
+        if file.filename == '':
+            return jsonify({"error": "Aucun fichier sélectionné"}), 400
+
+        try:
+            image_validator.validate_image_file(file)
+        except ValidationError as e:
+            return jsonify({"error": str(e)}), 400
+
+        temp_filename = "temp_" + str(uuid.uuid4()) + os.path.splitext(file.filename)[1]
+        temp_filepath = os.path.join(current_app.config['UPLOAD_FOLDER'], temp_filename)
+        file.save(temp_filepath)
+
+        try:
+            return jsonify({"ai_detection": ai_service.detect_ai_image(temp_filepath)})
+        finally:
+            if os.path.exists(temp_filepath):
+                os.remove(temp_filepath)
+
+    except Exception as e:
+        logger.error(f"Erreur détection IA: {str(e)}")
+        return jsonify({"error": f"Erreur lors de la détection IA: {str(e)}"}), 500
+
+@image_bp_v2.route('/detect_ai_batch', methods=['POST'])
+@cross_origin()
+def detect_ai_batch():
+    """
+    Endpoint de détection IA par lot : les résultats sont renvoyés dans l'ordre des fichiers reçus.
+    """
+    try:
+        files = request.files.getlist('files')
+        if not files:
+            return jsonify({"error": "Aucun fichier fourni"}), 400
+
+        temp_filepaths = []
+        try:
+            for file in files:
+                image_validator.validate_image_file(file)
+                temp_filename = "temp_" + str(uuid.uuid4()) + os.path.splitext(file.filename or '')[1]
+                temp_filepath = os.path.join(current_app.config['UPLOAD_FOLDER'], temp_filename)
+                file.save(temp_filepath)
+                temp_filepaths.append(temp_filepath)
+
+            # Inférence groupée si le service la propose, sinon image par image
+            detect_batch = getattr(ai_service, 'detect_ai_images', None)
+            if detect_batch is not None:
+                ai_results = detect_batch(temp_filepaths)
+            else:
+                ai_results = [ai_service.detect_ai_image(path) for path in temp_filepaths]
+
+            return jsonify({"results": [{"ai_detection": result} for result in ai_results]})
+
+        except ValidationError as e:
+            return jsonify({"error": str(e)}), 400
+        finally:
+            for temp_filepath in temp_filepaths:
+                if os.path.exists(temp_filepath):
+                    os.remove(temp_filepath)
+
+    except Exception as e:
+        logger.error(f"Erreur détection IA par lot: {str(e)}")
+        return jsonify({"error": f"Erreur lors de la détection IA par lot: {str(e)}"}), 500
+
 @image_bp_v2.route('/add_steganography', methods=['POST'])
 @cross_origin()
 def add_steganography():